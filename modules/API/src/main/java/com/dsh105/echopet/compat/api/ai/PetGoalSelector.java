@@ -17,21 +17,38 @@
 
 package com.dsh105.echopet.compat.api.ai;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Map;
+import java.util.*;
 
 /*
  * From EntityAPI :)
  * Also means I coded it <3
  */
 
+/**
+ * Goals are kept in arrays ordered by priority, with the active goals tracked in a bitmask indexed by position.
+ * Updating goals does not allocate; the arrays are only rebuilt when goals are added or removed.
+ */
 public class PetGoalSelector implements IPetGoalSelector {
 
+    private static final PetGoalSelectorItem[] NO_GOALS = new PetGoalSelectorItem[0];
+
+    private static final Comparator<PetGoalSelectorItem> PRIORITY_ORDER = new Comparator<PetGoalSelectorItem>() {
+        @Override
+        public int compare(PetGoalSelectorItem item1, PetGoalSelectorItem item2) {
+            return item1.getPriority() < item2.getPriority() ? -1 : (item1.getPriority() == item2.getPriority() ? 0 : 1);
+        }
+    };
+
     private Map<String, PetGoalSelectorItem> goalMap = new HashMap<String, PetGoalSelectorItem>();
-    private ArrayList<PetGoalSelectorItem> goals = new ArrayList<PetGoalSelectorItem>();
-    private ArrayList<PetGoalSelectorItem> activeGoals = new ArrayList<PetGoalSelectorItem>();
+    // Insertion order, used to keep goals of equal priority in the order they were added
+    private ArrayList<PetGoalSelectorItem> addedGoals = new ArrayList<PetGoalSelectorItem>();
+
+    private PetGoalSelectorItem[] goals = NO_GOALS;
+    private int[] priorities = new int[0];
+    private int[] mutexBits = new int[0];
+    private long[] activeGoals = new long[0];
+
+    private int modifications;
     private int delay = 0;
 
     public PetGoalSelector() {
@@ -44,12 +61,13 @@ public class PetGoalSelector implements IPetGoalSelector {
 
     @Override
     public void addGoal(String key, PetGoal petGoal, int priority) {
-        PetGoalSelectorItem goalItem = new PetGoalSelectorItem(priority, petGoal);
         if (this.goalMap.containsKey(key)) {
             return;
         }
+        PetGoalSelectorItem goalItem = new PetGoalSelectorItem(priority, petGoal);
         this.goalMap.put(key, goalItem);
-        this.goals.add(goalItem);
+        this.addedGoals.add(goalItem);
+        this.rebuild();
     }
 
     @Override
@@ -62,132 +80,125 @@ public class PetGoalSelector implements IPetGoalSelector {
 
     @Override
     public void removeGoal(PetGoal petGoal) {
-        Iterator<PetGoalSelectorItem> iterator = this.goals.iterator();
-
+        boolean removed = false;
+        Iterator<PetGoalSelectorItem> iterator = this.addedGoals.iterator();
         while (iterator.hasNext()) {
             PetGoalSelectorItem goalItem = iterator.next();
-            PetGoal petGoal1 = goalItem.getPetGoal();
-
-            if (petGoal1 == petGoal) {
-                if (this.activeGoals.contains(goalItem)) {
-                    petGoal1.finish();
-                    this.activeGoals.remove(goalItem);
-                }
-
+            if (goalItem.getPetGoal() == petGoal) {
+                this.deactivate(goalItem);
                 iterator.remove();
+                removed = true;
             }
         }
+        if (removed) {
+            Iterator<PetGoalSelectorItem> mapIterator = this.goalMap.values().iterator();
+            while (mapIterator.hasNext()) {
+                if (mapIterator.next().getPetGoal() == petGoal) {
+                    mapIterator.remove();
+                }
+            }
+            this.rebuild();
+        }
     }
 
     @Override
     public void removeGoal(String key) {
-        Iterator<Map.Entry<String, PetGoalSelectorItem>> iterator = this.goalMap.entrySet().iterator();
-
-        while (iterator.hasNext()) {
-            Map.Entry<String, PetGoalSelectorItem> entry = iterator.next();
-            PetGoalSelectorItem goalItem = entry.getValue();
-            PetGoal petGoal1 = goalItem.getPetGoal();
-
-            if (key.equals(entry.getKey())) {
-                if (this.activeGoals.contains(goalItem)) {
-                    petGoal1.finish();
-                    this.activeGoals.remove(goalItem);
-                }
-                if (this.goals.contains(goalItem)) {
-                    this.goals.remove(goalItem);
-                }
-
-                iterator.remove();
-            }
+        PetGoalSelectorItem goalItem = this.goalMap.remove(key);
+        if (goalItem != null) {
+            this.deactivate(goalItem);
+            this.addedGoals.remove(goalItem);
+            this.rebuild();
         }
     }
 
     @Override
     public void clearGoals(String key) {
-        this.goalMap.clear();
-        this.goals.clear();
-
-        Iterator<PetGoalSelectorItem> iterator = this.activeGoals.iterator();
-
-        while (iterator.hasNext()) {
-            iterator.next().getPetGoal().finish();
+        PetGoalSelectorItem[] goals = this.goals;
+        for (int i = 0; i < goals.length; i++) {
+            if (this.isActive(i)) {
+                goals[i].getPetGoal().finish();
+            }
         }
-        this.activeGoals.clear();
+        this.goalMap.clear();
+        this.addedGoals.clear();
+        this.rebuild();
     }
 
     @Override
     public PetGoal getGoal(String key) {
-        Iterator<Map.Entry<String, PetGoalSelectorItem>> iterator = this.goalMap.entrySet().iterator();
-
-        while (iterator.hasNext()) {
-            Map.Entry<String, PetGoalSelectorItem> entry = iterator.next();
-            PetGoalSelectorItem goalItem = entry.getValue();
-            PetGoal petGoal = goalItem.getPetGoal();
-
-            if (key.equals(entry.getKey())) {
-                return petGoal;
-            }
-        }
-        return null;
+        PetGoalSelectorItem goalItem = this.goalMap.get(key);
+        return goalItem == null ? null : goalItem.getPetGoal();
     }
 
     @Override
     public void updateGoals() {
-        Iterator<PetGoalSelectorItem> iterator;
-        if (this.delay++ % 3 == 0) {
-
-            iterator = this.goals.iterator();
+        // Goals may add or remove goals while being updated. The arrays are replaced when that happens, so the
+        // remainder of the current pass is skipped
+        int modifications = this.modifications;
+        PetGoalSelectorItem[] goals = this.goals;
 
-            while (iterator.hasNext()) {
-                PetGoalSelectorItem goalItem = iterator.next();
-                if (this.activeGoals.contains(goalItem)) {
-                    if (this.canUse(goalItem) && goalItem.getPetGoal().shouldContinue()) {
+        if (this.delay++ % 3 == 0) {
+            for (int i = 0; i < goals.length && modifications == this.modifications; i++) {
+                PetGoal petGoal = goals[i].getPetGoal();
+                if (this.isActive(i)) {
+                    if (this.canUse(i) && petGoal.shouldContinue()) {
                         continue;
                     }
-                    goalItem.getPetGoal().finish();
-                    this.activeGoals.remove(goalItem);
+                    petGoal.finish();
+                    this.setActive(i, false);
                 } else {
-                    if (this.canUse(goalItem) && goalItem.getPetGoal().shouldStart()) {
-                        goalItem.getPetGoal().start();
-                        this.activeGoals.add(goalItem);
+                    if (this.canUse(i) && petGoal.shouldStart()) {
+                        petGoal.start();
+                        this.setActive(i, true);
                     }
                 }
-
             }
 
             this.delay = 0;
         } else {
-            iterator = this.activeGoals.iterator();
-
-            while (iterator.hasNext()) {
-                PetGoalSelectorItem goalItem = iterator.next();
-                if (!goalItem.getPetGoal().shouldContinue()) {
-                    goalItem.getPetGoal().finish();
-                    iterator.remove();
+            for (int word = 0; word < this.activeGoals.length && modifications == this.modifications; word++) {
+                long bits = this.activeGoals[word];
+                while (bits != 0 && modifications == this.modifications) {
+                    int i = (word << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    PetGoal petGoal = goals[i].getPetGoal();
+                    if (!petGoal.shouldContinue()) {
+                        petGoal.finish();
+                        this.setActive(i, false);
+                    }
                 }
             }
         }
 
-        iterator = this.activeGoals.iterator();
-
-        while (iterator.hasNext()) {
-            PetGoalSelectorItem goalItem = iterator.next();
-            goalItem.getPetGoal().tick();
+        modifications = this.modifications;
+        goals = this.goals;
+        for (int word = 0; word < this.activeGoals.length && modifications == this.modifications; word++) {
+            long bits = this.activeGoals[word];
+            while (bits != 0 && modifications == this.modifications) {
+                int i = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                goals[i].getPetGoal().tick();
+            }
         }
     }
 
-    private boolean canUse(PetGoalSelectorItem goalItem) {
-        Iterator<PetGoalSelectorItem> iterator = this.goals.iterator();
-
-        while (iterator.hasNext()) {
-            PetGoalSelectorItem goalItem1 = iterator.next();
-            if (goalItem1 != goalItem) {
-                if (goalItem.getPriority() > goalItem1.getPriority()) {
-                    if (!this.areCompatible(goalItem, goalItem1) && this.activeGoals.contains(goalItem1)) {
+    private boolean canUse(int index) {
+        int priority = this.priorities[index];
+        int mutex = this.mutexBits[index];
+        for (int word = 0; word < this.activeGoals.length; word++) {
+            long bits = this.activeGoals[word];
+            while (bits != 0) {
+                int i = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if (i == index) {
+                    continue;
+                }
+                if (priority > this.priorities[i]) {
+                    if ((mutex & this.mutexBits[i]) != 0) {
                         return false;
                     }
                     //goal.i() -> isContinuous
-                } else if (!goalItem1.getPetGoal().isContinuous() && this.activeGoals.contains(goalItem1)) {
+                } else if (!this.goals[i].getPetGoal().isContinuous()) {
                     return false;
                 }
             }
@@ -195,7 +206,60 @@ public class PetGoalSelector implements IPetGoalSelector {
         return true;
     }
 
+    // The selector compares the precomputed mutex masks directly; kept for subclasses
     protected boolean areCompatible(PetGoalSelectorItem goalItem, PetGoalSelectorItem goalItem1) {
         return goalItem.getPetGoal().getType().isCompatibleWith(goalItem1.getPetGoal().getType());
     }
-}
\ No newline at end of file
+
+    private boolean isActive(int index) {
+        return (this.activeGoals[index >> 6] & (1L << index)) != 0;
+    }
+
+    private void setActive(int index, boolean active) {
+        if (active) {
+            this.activeGoals[index >> 6] |= 1L << index;
+        } else {
+            this.activeGoals[index >> 6] &= ~(1L << index);
+        }
+    }
+
+    private void deactivate(PetGoalSelectorItem goalItem) {
+        if (goalItem.index != -1 && this.isActive(goalItem.index)) {
+            goalItem.getPetGoal().finish();
+            this.setActive(goalItem.index, false);
+        }
+    }
+
+    /**
+     * Rebuilds the priority-ordered arrays, carrying over which goals are active
+     */
+    private void rebuild() {
+        PetGoalSelectorItem[] goals = this.addedGoals.toArray(new PetGoalSelectorItem[this.addedGoals.size()]);
+        // Stable, so goals of equal priority stay in the order they were added
+        Arrays.sort(goals, PRIORITY_ORDER);
+
+        int[] priorities = new int[goals.length];
+        int[] mutexBits = new int[goals.length];
+        long[] activeGoals = new long[(goals.length + 63) >> 6];
+        for (int i = 0; i < goals.length; i++) {
+            PetGoalSelectorItem goalItem = goals[i];
+            priorities[i] = goalItem.getPriority();
+            mutexBits[i] = goalItem.getPetGoal().getType().getMutexBits();
+            if (goalItem.index != -1 && this.isActive(goalItem.index)) {
+                activeGoals[i >> 6] |= 1L << i;
+            }
+        }
+        for (PetGoalSelectorItem goalItem : this.goals) {
+            goalItem.index = -1;
+        }
+        for (int i = 0; i < goals.length; i++) {
+            goals[i].index = i;
+        }
+
+        this.goals = goals;
+        this.priorities = priorities;
+        this.mutexBits = mutexBits;
+        this.activeGoals = activeGoals;
+        this.modifications++;
+    }
+}
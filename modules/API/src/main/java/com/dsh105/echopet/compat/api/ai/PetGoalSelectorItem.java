@@ -22,6 +22,9 @@ public class PetGoalSelectorItem {
     private PetGoal petGoal;
     private int priority;
 
+    // Position in the priority-ordered goals of the owning selector
+    int index = -1;
+
     public PetGoalSelectorItem(int priority, PetGoal goal) {
         this.petGoal = goal;
         this.priority = priority;
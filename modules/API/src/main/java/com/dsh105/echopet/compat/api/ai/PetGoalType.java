@@ -35,7 +35,22 @@ public enum PetGoalType {
     // NMS Goals have stored integers to check compatibility -> goal.j()
     // This enum is used to compare these goals easily and more friendly
 
+    private final int mutexBits;
+
+    PetGoalType() {
+        this.mutexBits = this.ordinal();
+    }
+
+    /**
+     * Gets the mutex mask of this type. Goals whose masks overlap cannot run at the same time.
+     *
+     * @return mutex mask of this type
+     */
+    public int getMutexBits() {
+        return this.mutexBits;
+    }
+
     public boolean isCompatibleWith(PetGoalType type) {
-        return (this.ordinal() & type.ordinal()) == 0;
+        return (this.mutexBits & type.mutexBits) == 0;
     }
 }
\ No newline at end of file
@@ -0,0 +1,114 @@
+/*
+ * This file is part of EchoPet.
+ *
+ * EchoPet is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EchoPet is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EchoPet.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.dsh105.echopet.compat.api.ai;
+
+/**
+ * Settings and statistics shared by the per-world path planners used by pets following their owners.
+ * <p/>
+ * Paths are cached per owner and reused while the owner stays close to where the path was planned, and the total
+ * length of the paths planned in a world each tick is limited. The pathfinder does not report how many nodes it
+ * visited, so path length (or the full range, for failed searches) stands in for the cost of a search. Statistics
+ * are only updated from the main server thread.
+ */
+public final class PetPathPlanning {
+
+    /**
+     * Owners may move this far (squared, in blocks) before their cached path is recomputed
+     */
+    public static final double OWNER_MOVE_THRESHOLD_SQUARED = 4.0D;
+
+    /**
+     * Pets must be within this distance (squared, in blocks) of a point of a cached path to reuse it
+     */
+    public static final double PATH_REUSE_DISTANCE_SQUARED = 4.0D;
+
+    /**
+     * Cached paths are recomputed after this many ticks, even if the owner has not moved
+     */
+    public static final int MAX_PATH_AGE = 100;
+
+    /**
+     * Total length (in points) of the paths each world may plan per tick. Further requests are deferred to a later
+     * tick.
+     */
+    public static final int PATH_LENGTH_BUDGET = 256;
+
+    private static long requests;
+    private static long hits;
+    private static long searches;
+    private static long plannedPathLength;
+    private static long deferred;
+
+    private PetPathPlanning() {
+    }
+
+    public static void recordHit() {
+        requests++;
+        hits++;
+    }
+
+    public static void recordSearch(int pathLength) {
+        requests++;
+        searches++;
+        plannedPathLength += pathLength;
+    }
+
+    public static void recordDeferred() {
+        requests++;
+        deferred++;
+    }
+
+    public static long getRequests() {
+        return requests;
+    }
+
+    public static long getHits() {
+        return hits;
+    }
+
+    public static long getSearches() {
+        return searches;
+    }
+
+    /**
+     * @return total length of all planned paths, counting failed searches as the full range
+     */
+    public static long getPlannedPathLength() {
+        return plannedPathLength;
+    }
+
+    public static long getDeferred() {
+        return deferred;
+    }
+
+    /**
+     * @return percentage of path requests answered from the cache
+     */
+    public static double getHitRate() {
+        return requests == 0 ? 0D : hits * 100D / requests;
+    }
+
+    public static void resetStatistics() {
+        requests = 0;
+        hits = 0;
+        searches = 0;
+        plannedPathLength = 0;
+        deferred = 0;
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * This file is part of EchoPet.
+ *
+ * EchoPet is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EchoPet is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EchoPet.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.dsh105.echopet.compat.api.ai;
+
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Limits the time spent on pet AI each server tick.
+ * <p/>
+ * Pets submit their AI work (goal updates, path requests and particle emission) as reusable units of work. Work is
+ * run straight away while the budget of the current tick lasts; anything submitted after that is queued and run at
+ * the start of a later tick, before any new work, so that every pet gets its turn. At least one queued unit is run
+ * every tick, however small the budget.
+ * <p/>
+ * Urgent work, e.g. of pets that a player is riding, wearing or being carried by, is always run straight away and is
+ * never deferred. Its time still counts towards the budget of the tick.
+ * <p/>
+ * Each unit of work runs at most once per tick. Work submitted again in the tick it already ran in, e.g. after it was
+ * taken off the queue at the start of the tick, is ignored.
+ * <p/>
+ * All methods must be called from the main server thread.
+ */
+public class PetTickCoordinator {
+
+    private final Plugin plugin;
+    private long budgetNanos;
+    private BukkitTask task;
+
+    private final LinkedHashSet<Runnable> deferred = new LinkedHashSet<Runnable>();
+    // Tick each unit of work last ran in. Weak, so that work of pets that were never cancelled is not held on to
+    private final Map<Runnable, Long> lastRun = new WeakHashMap<Runnable, Long>();
+    private long currentTick;
+    private long usedNanos;
+    private boolean overrun;
+
+    private long lastTickNanos;
+    private long overrunCount;
+    private long deferredCount;
+    private int maxDeferredDepth;
+
+    /**
+     * @param plugin      plugin to schedule the coordinator with
+     * @param budgetNanos nanoseconds of pet AI work allowed per tick. Zero or less disables the limit
+     */
+    public PetTickCoordinator(Plugin plugin, long budgetNanos) {
+        this.plugin = plugin;
+        this.budgetNanos = budgetNanos;
+    }
+
+    public void start() {
+        if (this.task != null) {
+            this.task.cancel();
+        }
+        // Scheduled tasks run before entities are ticked
+        this.task = new BukkitRunnable() {
+            @Override
+            public void run() {
+                beginTick();
+            }
+        }.runTaskTimer(this.plugin, 1L, 1L);
+    }
+
+    public void shutdown() {
+        if (this.task != null) {
+            this.task.cancel();
+            this.task = null;
+        }
+        this.deferred.clear();
+        this.lastRun.clear();
+    }
+
+    public long getBudgetNanos() {
+        return this.budgetNanos;
+    }
+
+    public void setBudgetNanos(long budgetNanos) {
+        this.budgetNanos = budgetNanos;
+    }
+
+    /**
+     * Runs a unit of pet AI work if the budget of the current tick allows it, otherwise queues it for a later tick.
+     * Work that is already queued is left to wait for its turn.
+     *
+     * @param work work to run. Should be the same instance each time a pet submits the same kind of work
+     * @return true if the work was run straight away
+     */
+    public boolean submit(Runnable work) {
+        return this.submit(work, false);
+    }
+
+    /**
+     * Runs a unit of pet AI work if the budget of the current tick allows it, otherwise queues it for a later tick.
+     * Work that is already queued is left to wait for its turn, unless it is urgent.
+     *
+     * @param work   work to run. Should be the same instance each time a pet submits the same kind of work
+     * @param urgent true to run the work straight away, regardless of the budget and of any queued work
+     * @return true if the work was run straight away, false if it was queued or has already run this tick
+     */
+    public boolean submit(Runnable work, boolean urgent) {
+        if (this.hasRunThisTick(work)) {
+            return false;
+        }
+        if (urgent) {
+            this.deferred.remove(work);
+            this.execute(work);
+            return true;
+        }
+        if (this.deferred.contains(work)) {
+            return false;
+        }
+        if (!this.hasBudget()) {
+            this.deferred.add(work);
+            this.deferredCount++;
+            if (this.deferred.size() > this.maxDeferredDepth) {
+                this.maxDeferredDepth = this.deferred.size();
+            }
+            return false;
+        }
+        this.execute(work);
+        return true;
+    }
+
+    /**
+     * Removes queued work, e.g. of a pet that has been removed
+     *
+     * @param work work to remove
+     */
+    public void cancel(Runnable work) {
+        this.deferred.remove(work);
+        this.lastRun.remove(work);
+    }
+
+    private void beginTick() {
+        this.lastTickNanos = this.usedNanos;
+        this.usedNanos = 0;
+        this.overrun = false;
+        this.currentTick++;
+
+        // Oldest first, so work deferred the longest is never pushed back again
+        boolean first = true;
+        while (!this.deferred.isEmpty() && (first || this.hasBudget())) {
+            Runnable work = this.deferred.iterator().next();
+            this.deferred.remove(work);
+            first = false;
+            this.execute(work);
+        }
+    }
+
+    private boolean hasBudget() {
+        return this.budgetNanos <= 0 || this.usedNanos < this.budgetNanos;
+    }
+
+    private boolean hasRunThisTick(Runnable work) {
+        Long tick = this.lastRun.get(work);
+        return tick != null && tick == this.currentTick;
+    }
+
+    private void execute(Runnable work) {
+        this.lastRun.put(work, this.currentTick);
+        long start = System.nanoTime();
+        try {
+            work.run();
+        } finally {
+            this.usedNanos += System.nanoTime() - start;
+            if (!this.overrun && this.budgetNanos > 0 && this.usedNanos > this.budgetNanos) {
+                this.overrun = true;
+                this.overrunCount++;
+            }
+        }
+    }
+
+    /**
+     * @return nanoseconds spent on pet AI in the last completed tick
+     */
+    public long getLastTickNanos() {
+        return this.lastTickNanos;
+    }
+
+    /**
+     * @return number of ticks in which pet AI took longer than the budget
+     */
+    public long getOverrunCount() {
+        return this.overrunCount;
+    }
+
+    /**
+     * @return total number of units of work deferred to a later tick
+     */
+    public long getDeferredCount() {
+        return this.deferredCount;
+    }
+
+    /**
+     * @return number of units of work currently waiting for a later tick
+     */
+    public int getDeferredDepth() {
+        return this.deferred.size();
+    }
+
+    public int getMaxDeferredDepth() {
+        return this.maxDeferredDepth;
+    }
+}
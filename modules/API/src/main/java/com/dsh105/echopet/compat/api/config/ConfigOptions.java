@@ -21,49 +21,81 @@ import com.dsh105.dshutils.config.YAMLConfig;
 import com.dsh105.dshutils.config.options.Options;
 import com.dsh105.echopet.compat.api.entity.PetData;
 import com.dsh105.echopet.compat.api.entity.PetType;
+import com.dsh105.echopet.compat.api.plugin.uuid.UUIDFetcher;
+import com.dsh105.echopet.compat.api.util.menu.PetMenuTemplate;
 import com.dsh105.echopet.compat.api.util.menu.SelectorIcon;
 import com.dsh105.echopet.compat.api.util.menu.SelectorLayout;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
 
 public class ConfigOptions extends Options {
 
     public static ConfigOptions instance;
 
+    private volatile Map<PetType, PetTypeSettings> petTypeSettings;
+
+    // Set while the defaults are written, which happens before the constructor body runs
+    private boolean checkingDefaults;
+    private boolean missingDefaults;
+
     public ConfigOptions(YAMLConfig config) {
         super(config);
         instance = this;
+        this.reloadPetTypeSettings();
         SelectorLayout.loadLayout();
+        PetMenuTemplate.loadTemplates();
+    }
+
+    /**
+     * Gets the settings of a pet type as of the last (re)load of the configuration
+     *
+     * @param petType type to get the settings of
+     * @return an immutable snapshot of the settings
+     */
+    public PetTypeSettings getSettings(PetType petType) {
+        return this.petTypeSettings.get(petType);
+    }
+
+    /**
+     * Rebuilds the settings of all pet types from the configuration. Must be called after the configuration is
+     * reloaded.
+     */
+    public void reloadPetTypeSettings() {
+        Map<PetType, PetTypeSettings> settings = new EnumMap<PetType, PetTypeSettings>(PetType.class);
+        for (PetType petType : PetType.values()) {
+            settings.put(petType, PetTypeSettings.load(this.config, petType));
+        }
+        this.petTypeSettings = Collections.unmodifiableMap(settings);
+        // Which pets the selector shows depends on the settings
+        SelectorLayout.rebuildVisibleLayout();
+        // Reloaded along with the settings so that the cached item never outlives the configuration
+        SelectorLayout.loadSelectorItem();
     }
 
     public boolean allowPetType(PetType petType) {
-        return this.config.getBoolean("pets."
-                + petType.toString().toLowerCase().replace("_", " ") + ".enable", true);
+        return getSettings(petType).isEnabled();
     }
 
     public boolean allowRidersFor(PetType petType) {
-        if (petType == PetType.ENDERDRAGON) {
-            return false;
-        }
-        return this.config.getBoolean("pets."
-                + petType.toString().toLowerCase().replace("_", " ") + ".allow.riders", true);
+        return getSettings(petType).allowRiders();
     }
 
     public boolean allowData(PetType type, PetData data) {
-        return this.config.getBoolean("pets." + type.toString().toLowerCase().replace("_", " ")
-                + ".allow." + data.getConfigOptionString(), true);
+        return getSettings(type).isDataAllowed(data);
     }
 
     public boolean forceData(PetType type, PetData data) {
-        return this.config.getBoolean("pets." + type.toString().toLowerCase().replace("_", " ")
-                + ".force." + data.getConfigOptionString(), false);
+        return getSettings(type).isDataForced(data);
     }
 
     public boolean canFly(PetType petType) {
-        return this.config.getBoolean("pets." + petType.toString().toLowerCase().replace("_", " ")
-                + ".canFly", false);
+        return getSettings(petType).canFly();
     }
 
     public String getCommandString() {
@@ -71,17 +103,49 @@ public class ConfigOptions extends Options {
     }
 
     public float getRideSpeed(PetType petType) {
-        return (float) this.config.getDouble("pets." + petType.toString().toLowerCase().replace("_", " ") + ".rideSpeed", 0.25D);
+        return getSettings(petType).getRideSpeed();
     }
 
     public double getRideJumpHeight(PetType petType) {
-        return this.config.getDouble("pets." + petType.toString().toLowerCase().replace("_", " ") + ".rideJump", 0.6D);
+        return getSettings(petType).getRideJumpHeight();
+    }
+
+    public long getDataFlushInterval() {
+        return this.config.getInt("dataFile.flushInterval", 100);
+    }
+
+    public long getAiTickBudgetNanos() {
+        return this.config.getInt("petAI.tickBudgetNanos", 5000000);
+    }
+
+    public boolean isHumanSkinFixingEnabled() {
+        return this.config.getBoolean("enableHumanSkinFixing", true);
+    }
+
+    public String getProfileUrl() {
+        return this.config.getString("humanSkinLookup.profileUrl", UUIDFetcher.PROFILE_URL);
+    }
+
+    public int getProfileCacheSize() {
+        return this.config.getInt("humanSkinLookup.cacheSize", 1000);
+    }
+
+    public long getMissingProfileExpiryMillis() {
+        return this.config.getInt("humanSkinLookup.missingProfileExpiry", 600) * 1000L;
     }
 
     public boolean useSql() {
         return this.config.getBoolean("sql.use", false);
     }
 
+    public int getSqlThreads() {
+        return this.config.getInt("sql.async.threads", 2);
+    }
+
+    public int getSqlQueueSize() {
+        return this.config.getInt("sql.async.queueSize", 1000);
+    }
+
     public boolean sqlOverride() {
         if (useSql()) {
             return this.config.getBoolean("sql.overrideFile");
@@ -91,61 +155,95 @@ public class ConfigOptions extends Options {
 
     @Override
     public void setDefaults() {
-        set("commandString", "pet");
+        // Most starts find every key in place. Only write (and save) the file when something is missing, in which case
+        // every default is written again so that the comments of existing keys are kept.
+        this.checkingDefaults = true;
+        this.missingDefaults = false;
+        this.writeDefaults();
+        this.checkingDefaults = false;
+        if (!this.missingDefaults) {
+            return;
+        }
+        this.writeDefaults();
+        config.saveConfig();
+    }
 
-        set("autoUpdate", false, "If set to true, EchoPet will automatically download and install", "new updates.");
-        set("checkForUpdates", true, "If -autoUpdate- is set to false, EchoPet will notify certain", "players of new updates if they are available (if set to true).");
+    private void setDefault(String path, Object defObject, String... comments) {
+        if (this.checkingDefaults) {
+            if (!this.missingDefaults && this.config.get(path) == null) {
+                this.missingDefaults = true;
+            }
+            return;
+        }
+        set(path, defObject, comments);
+    }
+
+    private void writeDefaults() {
+        setDefault("commandString", "pet");
+
+        setDefault("autoUpdate", false, "If set to true, EchoPet will automatically download and install", "new updates.");
+        setDefault("checkForUpdates", true, "If -autoUpdate- is set to false, EchoPet will notify certain", "players of new updates if they are available (if set to true).");
 
-        set("sql.overrideFile", true, "If true, Pets saved to a MySQL Database will override", "those saved to a file (Default and AutoSave Pets)");
-        set("sql.use", false);
-        set("sql.host", "localhost");
-        set("sql.port", 3306);
-        set("sql.database", "EchoPet");
-        set("sql.username", "none");
-        set("sql.password", "none");
+        setDefault("sql.overrideFile", true, "If true, Pets saved to a MySQL Database will override", "those saved to a file (Default and AutoSave Pets)");
+        setDefault("sql.use", false);
+        setDefault("sql.host", "localhost");
+        setDefault("sql.port", 3306);
+        setDefault("sql.database", "EchoPet");
+        setDefault("sql.username", "none");
+        setDefault("sql.password", "none");
+        setDefault("sql.async.threads", 2, "Number of threads used to save and load pets in the background.");
+        setDefault("sql.async.queueSize", 1000, "Maximum number of queued database operations before pets are no longer loaded.", "Loads are refused (and logged) while the queue is full. Saves are always queued,", "and queued saves of the same player are merged.");
 
-        set("petNames.My Pet", "allow");
-        set("stripDiacriticsFromNames", true);
+        setDefault("dataFile.flushInterval", 100, "Ticks between writes of changed pet data to pets.yml and of resolved profiles to profiles.yml.", "Changes are held in memory and written together in the background.");
 
-        set("enableHumanSkinFixing", true, "Connects to Mojang session servers to attempt fto fix human skins");
-        set("loadSavedPets", true, "Auto-load pets from last session");
-        set("multiworldLoadOverride", true, "When true, if -loadSavedPets-", "is set to false, Pets will", "still be loaded when", "players switch worlds");
+        setDefault("petAI.tickBudgetNanos", 5000000, "Maximum time (in nanoseconds) spent on pet AI each tick.", "Work that does not fit is continued on the next tick. 0 removes the limit.");
 
-        set("sendLoadMessage", true, "Send message that pet was loaded if -loadSavedPets- is true");
-        set("sendForceMessage", true, "For all data values forced, EchoPet will notify the player", "(if set to true).");
+        setDefault("petNames.My Pet", "allow");
+        setDefault("stripDiacriticsFromNames", true);
 
-        set("worlds." + Bukkit.getWorlds().get(0).getName(), true);
-        set("worlds.enableByDefault", true);
+        setDefault("enableHumanSkinFixing", true, "Connects to Mojang session servers to attempt fto fix human skins");
+        setDefault("humanSkinLookup.profileUrl", UUIDFetcher.PROFILE_URL, "Endpoint used to look up the profiles of human pets.");
+        setDefault("humanSkinLookup.cacheSize", 1000, "Maximum number of looked up names kept in memory.");
+        setDefault("humanSkinLookup.missingProfileExpiry", 600, "Seconds before names without a profile are looked up again.");
+        setDefault("loadSavedPets", true, "Auto-load pets from last session");
+        setDefault("multiworldLoadOverride", true, "When true, if -loadSavedPets-", "is set to false, Pets will", "still be loaded when", "players switch worlds");
+
+        setDefault("sendLoadMessage", true, "Send message that pet was loaded if -loadSavedPets- is true");
+        setDefault("sendForceMessage", true, "For all data values forced, EchoPet will notify the player", "(if set to true).");
+
+        setDefault("worlds." + Bukkit.getWorlds().get(0).getName(), true);
+        setDefault("worlds.enableByDefault", true);
 
         if (config.getConfigurationSection("worldguard.regions") == null) {
-            set("worldguard.regions.echopet", true);
+            setDefault("worldguard.regions.echopet", true);
         }
-        set("worldguard.regions.allowByDefault", true);
-        set("worldguard.regionEnterCheck", true);
-
-        set("petSelector.allowDrop", true);
-        set("petSelector.showDisabledPets", true);
-        set("petSelector.giveOnJoin.enable", false);
-        set("petSelector.giveOnJoin.usePerm", false);
-        set("petSelector.giveOnJoin.perm", "echopet.selector.join");
-        set("petSelector.giveOnJoin.slot", 9);
-        set("petSelector.clearInvOnJoin", false);
-        set("petSelector.item.name", "&aPets");
-        set("petSelector.item.lore", "&7Right click to open");
-        set("petSelector.item.materialId", Material.BONE.getId());
-        set("petSelector.item.materialData", 0);
+        setDefault("worldguard.regions.allowByDefault", true);
+        setDefault("worldguard.regionEnterCheck", true);
+        setDefault("worldguard.regionCacheTtl", 30, "Seconds region decisions are remembered for each block.", "0 disables the cache.");
+
+        setDefault("petSelector.allowDrop", true);
+        setDefault("petSelector.showDisabledPets", true);
+        setDefault("petSelector.giveOnJoin.enable", false);
+        setDefault("petSelector.giveOnJoin.usePerm", false);
+        setDefault("petSelector.giveOnJoin.perm", "echopet.selector.join");
+        setDefault("petSelector.giveOnJoin.slot", 9);
+        setDefault("petSelector.clearInvOnJoin", false);
+        setDefault("petSelector.item.name", "&aPets");
+        setDefault("petSelector.item.lore", "&7Right click to open");
+        setDefault("petSelector.item.materialId", Material.BONE.getId());
+        setDefault("petSelector.item.materialData", 0);
 
         boolean loadDefault = this.config.get("petSelector.menu.slots") == null;
-        set("petSelector.menu.slots", 45);
-        set("petSelector.menu.title", "Pets");
+        setDefault("petSelector.menu.slots", 45);
+        setDefault("petSelector.menu.title", "Pets");
         if (loadDefault) {
             for (SelectorIcon icon : SelectorLayout.getDefaultLayout()) {
                 int friendlySlot = icon.getSlot() + 1;
-                set("petSelector.menu.slot-" + friendlySlot + ".command", icon.getCommand());
-                set("petSelector.menu.slot-" + friendlySlot + ".petType", icon.getPetType() == null ? "" : icon.getPetType().toString());
-                set("petSelector.menu.slot-" + friendlySlot + ".materialId", icon.getMaterialId());
-                set("petSelector.menu.slot-" + friendlySlot + ".materialData", icon.getMaterialData());
-                set("petSelector.menu.slot-" + friendlySlot + ".name", (icon.getName() == null ? "" : icon.getName()).replace(ChatColor.COLOR_CHAR, '&'));
+                setDefault("petSelector.menu.slot-" + friendlySlot + ".command", icon.getCommand());
+                setDefault("petSelector.menu.slot-" + friendlySlot + ".petType", icon.getPetType() == null ? "" : icon.getPetType().toString());
+                setDefault("petSelector.menu.slot-" + friendlySlot + ".materialId", icon.getMaterialId());
+                setDefault("petSelector.menu.slot-" + friendlySlot + ".materialData", icon.getMaterialData());
+                setDefault("petSelector.menu.slot-" + friendlySlot + ".name", (icon.getName() == null ? "" : icon.getName()).replace(ChatColor.COLOR_CHAR, '&'));
                 String l = null;
                 for (String s : icon.getLore()) {
                     if (l == null) {
@@ -154,43 +252,41 @@ public class ConfigOptions extends Options {
                         l += ";" + s.replace(ChatColor.COLOR_CHAR, '&');
                     }
                 }
-                set("petSelector.menu.slot-" + friendlySlot + ".lore", l == null ? "" : l);
+                setDefault("petSelector.menu.slot-" + friendlySlot + ".lore", l == null ? "" : l);
             }
         }
 
         for (PetType petType : PetType.values()) {
-            set("pets." + petType.toString().toLowerCase().replace("_", " ") + ".enable", true);
-            set("pets." + petType.toString().toLowerCase().replace("_", " ") + ".tagVisible", true);
-            set("pets." + petType.toString().toLowerCase().replace("_", " ") + ".defaultName", petType.getDefaultName());
-            set("pets." + petType.toString().toLowerCase().replace("_", " ") + ".interactMenu", true);
-            set("pets." + petType.toString().toLowerCase().replace("_", " ") + ".startFollowDistance", 12);
-            set("pets." + petType.toString().toLowerCase().replace("_", " ") + ".stopFollowDistance", 4);
-            set("pets." + petType.toString().toLowerCase().replace("_", " ") + ".teleportDistance", 30);
-
-            /*set("pets." + petType.toString().toLowerCase().replace("_", " ") + ".attack.canDamagePlayers", false);
-            set("pets." + petType.toString().toLowerCase().replace("_", " ") + ".attack.lockRange", 10);
-            set("pets." + petType.toString().toLowerCase().replace("_", " ") + ".attack.ticksBetweenAttacks", 20);
-            set("pets." + petType.toString().toLowerCase().replace("_", " ") + ".attack.damage", petType.getAttackDamage());
-            set("pets." + petType.toString().toLowerCase().replace("_", " ") + ".attack.loseHealth", false);
-            set("pets." + petType.toString().toLowerCase().replace("_", " ") + ".attack.health", petType.getMaxHealth());*/
-
-            set("pets." + petType.toString().toLowerCase().replace("_", " ") + ".rideSpeed", 0.25D);
-            set("pets." + petType.toString().toLowerCase().replace("_", " ") + ".jumpHeight", 0.6D);
+            setDefault("pets." + petType.toString().toLowerCase().replace("_", " ") + ".enable", true);
+            setDefault("pets." + petType.toString().toLowerCase().replace("_", " ") + ".tagVisible", true);
+            setDefault("pets." + petType.toString().toLowerCase().replace("_", " ") + ".defaultName", petType.getDefaultName());
+            setDefault("pets." + petType.toString().toLowerCase().replace("_", " ") + ".interactMenu", true);
+            setDefault("pets." + petType.toString().toLowerCase().replace("_", " ") + ".startFollowDistance", 12);
+            setDefault("pets." + petType.toString().toLowerCase().replace("_", " ") + ".stopFollowDistance", 4);
+            setDefault("pets." + petType.toString().toLowerCase().replace("_", " ") + ".teleportDistance", 30);
+
+            /*setDefault("pets." + petType.toString().toLowerCase().replace("_", " ") + ".attack.canDamagePlayers", false);
+            setDefault("pets." + petType.toString().toLowerCase().replace("_", " ") + ".attack.lockRange", 10);
+            setDefault("pets." + petType.toString().toLowerCase().replace("_", " ") + ".attack.ticksBetweenAttacks", 20);
+            setDefault("pets." + petType.toString().toLowerCase().replace("_", " ") + ".attack.damage", petType.getAttackDamage());
+            setDefault("pets." + petType.toString().toLowerCase().replace("_", " ") + ".attack.loseHealth", false);
+            setDefault("pets." + petType.toString().toLowerCase().replace("_", " ") + ".attack.health", petType.getMaxHealth());*/
+
+            setDefault("pets." + petType.toString().toLowerCase().replace("_", " ") + ".rideSpeed", 0.25D);
+            setDefault("pets." + petType.toString().toLowerCase().replace("_", " ") + ".jumpHeight", 0.6D);
 
             if (petType != PetType.ENDERDRAGON) {
                 boolean canFly = (petType == PetType.BAT || petType == PetType.BLAZE || petType == PetType.GHAST || petType == PetType.SQUID || petType == PetType.WITHER);
-                set("pets." + petType.toString().toLowerCase().replace("_", " ") + ".canFly", canFly);
-                set("pets." + petType.toString().toLowerCase().replace("_", " ") + ".allow.riders", true);
+                setDefault("pets." + petType.toString().toLowerCase().replace("_", " ") + ".canFly", canFly);
+                setDefault("pets." + petType.toString().toLowerCase().replace("_", " ") + ".allow.riders", true);
             }
 
             for (PetData pd : PetData.values()) {
                 if (petType.isDataAllowed(pd)) {
-                    set("pets." + petType.toString().toLowerCase().replace("_", " ") + ".allow." + pd.getConfigOptionString(), true);
-                    set("pets." + petType.toString().toLowerCase().replace("_", " ") + ".force." + pd.getConfigOptionString(), false);
+                    setDefault("pets." + petType.toString().toLowerCase().replace("_", " ") + ".allow." + pd.getConfigOptionString(), true);
+                    setDefault("pets." + petType.toString().toLowerCase().replace("_", " ") + ".force." + pd.getConfigOptionString(), false);
                 }
             }
         }
-
-        config.saveConfig();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,182 @@
+/*
+ * This file is part of EchoPet.
+ *
+ * EchoPet is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EchoPet is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EchoPet.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.dsh105.echopet.compat.api.config;
+
+import com.dsh105.dshutils.config.YAMLConfig;
+import com.dsh105.echopet.compat.api.entity.PetData;
+import com.dsh105.echopet.compat.api.entity.PetType;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of the configuration of a single {@link PetType}.
+ * <p/>
+ * Snapshots are built by {@link ConfigOptions} when the configuration is loaded and replaced as a whole when it
+ * is reloaded, so that per-tick code never has to look up configuration paths.
+ */
+public final class PetTypeSettings {
+
+    private final PetType petType;
+    private final boolean enabled;
+    private final boolean allowRiders;
+    private final boolean canFly;
+    private final boolean tagVisible;
+    private final boolean interactMenu;
+    private final float rideSpeed;
+    private final double rideJumpHeight;
+    private final double attackDamage;
+    private final String defaultName;
+    private final int startFollowDistance;
+    private final int stopFollowDistance;
+    private final int teleportDistance;
+    private final Set<PetData> allowedData;
+    private final Set<PetData> forcedData;
+
+    private PetTypeSettings(YAMLConfig config, PetType petType) {
+        String path = getPath(petType);
+        this.petType = petType;
+        this.enabled = config.getBoolean(path + ".enable", true);
+        this.allowRiders = petType != PetType.ENDERDRAGON && config.getBoolean(path + ".allow.riders", true);
+        this.canFly = config.getBoolean(path + ".canFly", false);
+        this.tagVisible = config.getBoolean(path + ".tagVisible", true);
+        this.interactMenu = config.getBoolean(path + ".interactMenu", true);
+        this.rideSpeed = (float) config.getDouble(path + ".rideSpeed", 0.25D);
+        this.rideJumpHeight = config.getDouble(path + ".rideJump", 0.6D);
+        this.attackDamage = config.getDouble(path + ".attackDamage", petType.getDefaultAttackDamage());
+        this.defaultName = config.getString(path + ".defaultName", petType.getDefaultName());
+        this.startFollowDistance = config.getInt(path + ".startFollowDistance", 12);
+        this.stopFollowDistance = config.getInt(path + ".stopFollowDistance", 4);
+        this.teleportDistance = config.getInt(path + ".teleportDistance", 30);
+
+        EnumSet<PetData> allowed = EnumSet.noneOf(PetData.class);
+        EnumSet<PetData> forced = EnumSet.noneOf(PetData.class);
+        for (PetData pd : PetData.values()) {
+            if (config.getBoolean(path + ".allow." + pd.getConfigOptionString(), true)) {
+                allowed.add(pd);
+            }
+            if (config.getBoolean(path + ".force." + pd.getConfigOptionString(), false)) {
+                forced.add(pd);
+            }
+        }
+        this.allowedData = Collections.unmodifiableSet(allowed);
+        this.forcedData = Collections.unmodifiableSet(forced);
+    }
+
+    /**
+     * Reads the current settings of a pet type from the configuration
+     *
+     * @param config  main configuration
+     * @param petType type to read
+     * @return a snapshot of the settings
+     */
+    public static PetTypeSettings load(YAMLConfig config, PetType petType) {
+        return new PetTypeSettings(config, petType);
+    }
+
+    /**
+     * Gets the configuration path of a pet type, e.g. "pets.cavespider"
+     *
+     * @param petType type to get the path of
+     * @return path of the configuration section of the pet type
+     */
+    public static String getPath(PetType petType) {
+        return "pets." + petType.toString().toLowerCase().replace("_", " ");
+    }
+
+    public PetType getPetType() {
+        return this.petType;
+    }
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    public boolean allowRiders() {
+        return this.allowRiders;
+    }
+
+    public boolean canFly() {
+        return this.canFly;
+    }
+
+    public boolean isTagVisible() {
+        return this.tagVisible;
+    }
+
+    public boolean hasInteractMenu() {
+        return this.interactMenu;
+    }
+
+    public float getRideSpeed() {
+        return this.rideSpeed;
+    }
+
+    public double getRideJumpHeight() {
+        return this.rideJumpHeight;
+    }
+
+    public double getAttackDamage() {
+        return this.attackDamage;
+    }
+
+    /**
+     * Gets the configured default name, before "(user)" and "(userApos)" are replaced
+     *
+     * @return the default name of the pet type
+     */
+    public String getDefaultName() {
+        return this.defaultName;
+    }
+
+    public int getStartFollowDistance() {
+        return this.startFollowDistance;
+    }
+
+    public int getStopFollowDistance() {
+        return this.stopFollowDistance;
+    }
+
+    public int getTeleportDistance() {
+        return this.teleportDistance;
+    }
+
+    public boolean isDataAllowed(PetData data) {
+        return this.allowedData.contains(data);
+    }
+
+    public boolean isDataForced(PetData data) {
+        return this.forcedData.contains(data);
+    }
+
+    /**
+     * @return an unmodifiable set of data enabled in the configuration
+     */
+    public Set<PetData> getAllowedData() {
+        return this.allowedData;
+    }
+
+    /**
+     * @return an unmodifiable set of data forced onto every new pet of this type
+     */
+    public Set<PetData> getForcedData() {
+        return this.forcedData;
+    }
+}
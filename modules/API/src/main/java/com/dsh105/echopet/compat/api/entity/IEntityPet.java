@@ -42,6 +42,12 @@ public interface IEntityPet {
 
     public void setInvisible(boolean flag);
 
+    public void setSneaking(boolean flag);
+
+    public void setSprinting(boolean flag);
+
+    public PetTickLod getTickLod();
+
     public void setTarget(LivingEntity livingEntity);
 
     public LivingEntity getTarget();
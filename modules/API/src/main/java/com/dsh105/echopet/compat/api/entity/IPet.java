@@ -22,6 +22,7 @@ import org.bukkit.entity.Creature;
 import org.bukkit.entity.Player;
 
 import java.util.ArrayList;
+import java.util.Set;
 import java.util.UUID;
 
 public interface IPet {
@@ -56,8 +57,34 @@ public interface IPet {
 
     public boolean setPetName(String name, boolean sendFailMessage);
 
+    /**
+     * Gets a mutable list of the data of this pet
+     *
+     * @return the data of this pet
+     * @deprecated use {@link #getActiveData()}, {@link #hasData(PetData)} and {@link #applyData(PetData, boolean)}
+     */
+    @Deprecated
     public ArrayList<PetData> getPetData();
 
+    /**
+     * Gets an unmodifiable, live view of the data currently active on this pet
+     *
+     * @return the active data of this pet
+     */
+    public Set<PetData> getActiveData();
+
+    public boolean hasData(PetData data);
+
+    /**
+     * Activates or deactivates data in the stored state of this pet. Any data conflicting with it (see
+     * {@link PetData#getConflicts()}) is deactivated. The entity itself is not updated; use
+     * {@link com.dsh105.echopet.compat.api.plugin.IPetManager#setData(IPet, PetData, boolean)} for that.
+     *
+     * @param data data to change
+     * @param flag whether the data should be active
+     */
+    public void applyData(PetData data, boolean flag);
+
     public void removeRider();
 
     public void removePet(boolean makeSound);
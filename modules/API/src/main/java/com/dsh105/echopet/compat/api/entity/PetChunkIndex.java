@@ -0,0 +1,134 @@
+/*
+ * This file is part of EchoPet.
+ *
+ * EchoPet is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EchoPet is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EchoPet.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.dsh105.echopet.compat.api.entity;
+
+import com.dsh105.echopet.compat.api.util.PlayerChunkIndex;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+
+import java.util.*;
+
+/**
+ * Chunks that currently contain a pet, so that chunk unloads can be checked for pets without scanning the entities
+ * of every chunk.
+ * <p/>
+ * Pet entities report their position whenever they enter a new chunk and are removed when they die. Riders are
+ * not indexed separately; they are always in the same chunk as the pet they ride. All access is expected to happen
+ * on the main server thread.
+ */
+public final class PetChunkIndex {
+
+    private static final Map<UUID, Map<Long, Set<IPet>>> CHUNKS = new HashMap<UUID, Map<Long, Set<IPet>>>();
+    private static final Map<IPet, Position> POSITIONS = new IdentityHashMap<IPet, Position>();
+
+    private PetChunkIndex() {
+    }
+
+    /**
+     * Records the chunk a pet is in
+     *
+     * @param pet    the pet that moved
+     * @param world  world the pet is in
+     * @param chunkX x coordinate of the chunk the pet is in
+     * @param chunkZ z coordinate of the chunk the pet is in
+     */
+    public static void update(IPet pet, World world, int chunkX, int chunkZ) {
+        UUID worldId = world.getUID();
+        long key = PlayerChunkIndex.chunkKey(chunkX, chunkZ);
+        Position position = POSITIONS.get(pet);
+        if (position != null) {
+            if (position.key == key && position.worldId.equals(worldId)) {
+                return;
+            }
+            unindex(pet, position);
+        }
+        POSITIONS.put(pet, new Position(worldId, key));
+
+        Map<Long, Set<IPet>> chunks = CHUNKS.get(worldId);
+        if (chunks == null) {
+            chunks = new HashMap<Long, Set<IPet>>();
+            CHUNKS.put(worldId, chunks);
+        }
+        Set<IPet> pets = chunks.get(key);
+        if (pets == null) {
+            pets = new LinkedHashSet<IPet>(2);
+            chunks.put(key, pets);
+        }
+        pets.add(pet);
+    }
+
+    public static void remove(IPet pet) {
+        Position position = POSITIONS.remove(pet);
+        if (position != null) {
+            unindex(pet, position);
+        }
+    }
+
+    /**
+     * Gets the pets in a chunk
+     *
+     * @param chunk chunk to check
+     * @return a copy of the pets in the chunk
+     */
+    public static Collection<IPet> getPets(Chunk chunk) {
+        Map<Long, Set<IPet>> chunks = CHUNKS.get(chunk.getWorld().getUID());
+        if (chunks == null) {
+            return Collections.emptyList();
+        }
+        Set<IPet> pets = chunks.get(PlayerChunkIndex.chunkKey(chunk.getX(), chunk.getZ()));
+        return pets == null ? Collections.<IPet>emptyList() : new ArrayList<IPet>(pets);
+    }
+
+    public static int size() {
+        return POSITIONS.size();
+    }
+
+    public static void clear() {
+        CHUNKS.clear();
+        POSITIONS.clear();
+    }
+
+    private static void unindex(IPet pet, Position position) {
+        Map<Long, Set<IPet>> chunks = CHUNKS.get(position.worldId);
+        if (chunks == null) {
+            return;
+        }
+        Set<IPet> pets = chunks.get(position.key);
+        if (pets != null) {
+            pets.remove(pet);
+            if (pets.isEmpty()) {
+                chunks.remove(position.key);
+                if (chunks.isEmpty()) {
+                    CHUNKS.remove(position.worldId);
+                }
+            }
+        }
+    }
+
+    private static class Position {
+
+        private final UUID worldId;
+        private final long key;
+
+        Position(UUID worldId, long key) {
+            this.worldId = worldId;
+            this.key = key;
+        }
+    }
+}
@@ -19,85 +19,148 @@ package com.dsh105.echopet.compat.api.entity;
 
 import com.google.common.collect.ImmutableList;
 
-import java.util.List;
+import java.util.*;
 
 public enum PetData {
 
-    ANGRY("angry", Type.BOOLEAN),
-    BABY("baby", Type.BOOLEAN),
-    BLACK("black", Type.COLOUR, Type.CAT, Type.HORSE_VARIANT),
-    BLACKSMITH("blacksmith", Type.PROF),
-    BLACKSPOT("blackSpot", Type.HORSE_MARKING),
-    BLUE("blue", Type.COLOUR),
-    BROWN("brown", Type.COLOUR, Type.HORSE_VARIANT),
-    BUTCHER("butcher", Type.PROF),
-    CHESTED("chested", Type.BOOLEAN),
-    CHESTNUT("chestnut", Type.HORSE_VARIANT),
-    CREAMY("creamy", Type.HORSE_VARIANT),
-    CYAN("cyan", Type.COLOUR),
-    DARKBROWN("darkbrown", Type.HORSE_VARIANT),
-    DIAMOND("diamond", Type.HORSE_ARMOUR),
-    DONKEY("donkey", Type.HORSE_TYPE),
-    FARMER("farmer", Type.PROF),
-    FIRE("fire", Type.BOOLEAN),
-    GRAY("gray", Type.COLOUR, Type.HORSE_VARIANT),
-    GREEN("green", Type.COLOUR),
-    GOLD("gold", Type.HORSE_ARMOUR),
-    IRON("iron", Type.HORSE_ARMOUR),
-    LARGE("large", Type.SIZE),
-    LIBRARIAN("librarian", Type.PROF),
-    LIGHTBLUE("lightBlue", Type.COLOUR),
-    LIME("lime", Type.COLOUR),
-    MAGENTA("magenta", Type.COLOUR),
-    MEDIUM("medium", Type.SIZE),
-    MULE("mule", Type.HORSE_TYPE),
-    NOARMOUR("noarmour", Type.HORSE_ARMOUR),
-    NONE("noMarking", Type.HORSE_MARKING),
-    NORMAL("normal", Type.HORSE_TYPE),
-    ORANGE("orange", Type.COLOUR),
-    PINK("pink", Type.COLOUR),
-    POWER("powered", Type.BOOLEAN),
-    PRIEST("priest", Type.PROF),
-    PURPLE("purple", Type.COLOUR),
-    RED("red", Type.CAT, Type.COLOUR),
-    SADDLE("saddle", Type.BOOLEAN),
-    SCREAMING("screaming", Type.BOOLEAN),
-    SHEARED("sheared", Type.BOOLEAN),
-    SHIELD("shield", Type.BOOLEAN),
-    SIAMESE("siamese", Type.CAT),
-    SILVER("silver", Type.COLOUR),
-    SKELETON("skeleton", Type.HORSE_TYPE),
-    SMALL("small", Type.SIZE),
-    SOCKS("whiteSocks", Type.HORSE_MARKING),
-    TAMED("tamed", Type.BOOLEAN),
-    VILLAGER("villager", Type.BOOLEAN),
-    WHITEPATCH("whitePatch", Type.HORSE_MARKING),
-    WHITESPOT("whiteSpot", Type.HORSE_MARKING),
-    WHITE("white", Type.COLOUR, Type.HORSE_VARIANT),
-    WILD("wild", Type.CAT),
-    WITHER("wither", Type.BOOLEAN),
-    YELLOW("yellow", Type.COLOUR),
-    ZOMBIE("zombie", Type.HORSE_TYPE);
+    ANGRY("angry", 0, Type.BOOLEAN),
+    BABY("baby", 1, Type.BOOLEAN),
+    BLACK("black", 2, Type.COLOUR, Type.CAT, Type.HORSE_VARIANT),
+    BLACKSMITH("blacksmith", 3, Type.PROF),
+    BLACKSPOT("blackSpot", 4, Type.HORSE_MARKING),
+    BLUE("blue", 5, Type.COLOUR),
+    BROWN("brown", 6, Type.COLOUR, Type.HORSE_VARIANT),
+    BUTCHER("butcher", 7, Type.PROF),
+    CHESTED("chested", 8, Type.BOOLEAN),
+    CHESTNUT("chestnut", 9, Type.HORSE_VARIANT),
+    CREAMY("creamy", 10, Type.HORSE_VARIANT),
+    CYAN("cyan", 11, Type.COLOUR),
+    DARKBROWN("darkbrown", 12, Type.HORSE_VARIANT),
+    DIAMOND("diamond", 13, Type.HORSE_ARMOUR),
+    DONKEY("donkey", 14, Type.HORSE_TYPE),
+    FARMER("farmer", 15, Type.PROF),
+    FIRE("fire", 16, Type.BOOLEAN),
+    GRAY("gray", 17, Type.COLOUR, Type.HORSE_VARIANT),
+    GREEN("green", 18, Type.COLOUR),
+    GOLD("gold", 19, Type.HORSE_ARMOUR),
+    IRON("iron", 20, Type.HORSE_ARMOUR),
+    LARGE("large", 21, Type.SIZE),
+    LIBRARIAN("librarian", 22, Type.PROF),
+    LIGHTBLUE("lightBlue", 23, Type.COLOUR),
+    LIME("lime", 24, Type.COLOUR),
+    MAGENTA("magenta", 25, Type.COLOUR),
+    MEDIUM("medium", 26, Type.SIZE),
+    MULE("mule", 27, Type.HORSE_TYPE),
+    NOARMOUR("noarmour", 28, Type.HORSE_ARMOUR),
+    NONE("noMarking", 29, Type.HORSE_MARKING),
+    NORMAL("normal", 30, Type.HORSE_TYPE),
+    ORANGE("orange", 31, Type.COLOUR),
+    PINK("pink", 32, Type.COLOUR),
+    POWER("powered", 33, Type.BOOLEAN),
+    PRIEST("priest", 34, Type.PROF),
+    PURPLE("purple", 35, Type.COLOUR),
+    RED("red", 36, Type.CAT, Type.COLOUR),
+    SADDLE("saddle", 37, Type.BOOLEAN),
+    SCREAMING("screaming", 38, Type.BOOLEAN),
+    SHEARED("sheared", 39, Type.BOOLEAN),
+    SHIELD("shield", 40, Type.BOOLEAN),
+    SIAMESE("siamese", 41, Type.CAT),
+    SILVER("silver", 42, Type.COLOUR),
+    SKELETON("skeleton", 43, Type.HORSE_TYPE),
+    SMALL("small", 44, Type.SIZE),
+    SOCKS("whiteSocks", 45, Type.HORSE_MARKING),
+    TAMED("tamed", 46, Type.BOOLEAN),
+    VILLAGER("villager", 47, Type.BOOLEAN),
+    WHITEPATCH("whitePatch", 48, Type.HORSE_MARKING),
+    WHITESPOT("whiteSpot", 49, Type.HORSE_MARKING),
+    WHITE("white", 50, Type.COLOUR, Type.HORSE_VARIANT),
+    WILD("wild", 51, Type.CAT),
+    WITHER("wither", 52, Type.BOOLEAN),
+    YELLOW("yellow", 53, Type.COLOUR),
+    ZOMBIE("zombie", 54, Type.HORSE_TYPE);
 
 
+    private static final Map<Type, Set<PetData>> BY_TYPE = new EnumMap<Type, Set<PetData>>(Type.class);
+
+    static {
+        for (Type type : Type.values()) {
+            BY_TYPE.put(type, EnumSet.noneOf(PetData.class));
+        }
+        for (PetData pd : values()) {
+            for (Type type : pd.t) {
+                BY_TYPE.get(type).add(pd);
+            }
+        }
+        for (Type type : Type.values()) {
+            BY_TYPE.put(type, Collections.unmodifiableSet(BY_TYPE.get(type)));
+        }
+        // Data sharing any non-boolean type with another cannot be active at the same time
+        for (PetData pd : values()) {
+            EnumSet<PetData> conflicts = EnumSet.noneOf(PetData.class);
+            for (Type type : pd.t) {
+                if (type != Type.BOOLEAN) {
+                    conflicts.addAll(BY_TYPE.get(type));
+                }
+            }
+            conflicts.remove(pd);
+            pd.conflicts = Collections.unmodifiableSet(conflicts);
+        }
+    }
+
     private String configOptionString;
+    private int id;
     private List<Type> t;
+    private EnumSet<Type> typeSet;
+    private Set<PetData> conflicts;
 
-    PetData(String configOptionString, Type... t) {
+    /**
+     * @param configOptionString name used in the configuration
+     * @param id                 stable identifier used when storing data. Must be unique, between 0 and
+     *                           {@link com.dsh105.echopet.compat.api.util.PetDataCodec#MAX_ID} and never reused
+     * @param t                  types of the data
+     */
+    PetData(String configOptionString, int id, Type... t) {
         this.configOptionString = configOptionString;
+        this.id = id;
         this.t = ImmutableList.copyOf(t);
+        this.typeSet = EnumSet.noneOf(Type.class);
+        Collections.addAll(this.typeSet, t);
     }
 
     public String getConfigOptionString() {
         return this.configOptionString;
     }
 
+    public int getId() {
+        return this.id;
+    }
+
     public List<Type> getTypes() {
         return this.t;
     }
 
     public boolean isType(Type t) {
-        return this.t.contains(t);
+        return this.typeSet.contains(t);
+    }
+
+    /**
+     * Gets the data that is mutually exclusive with this data, i.e. all other data sharing one of its non-boolean
+     * types. Activating this data deactivates all of these.
+     *
+     * @return an unmodifiable set of conflicting data
+     */
+    public Set<PetData> getConflicts() {
+        return this.conflicts;
+    }
+
+    /**
+     * Gets all data of a certain type
+     *
+     * @param type type to look up
+     * @return an unmodifiable set of data of the given type
+     */
+    public static Set<PetData> getByType(Type type) {
+        return BY_TYPE.get(type);
     }
 
     public enum Type {
@@ -0,0 +1,155 @@
+/*
+ * This file is part of EchoPet.
+ *
+ * EchoPet is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EchoPet is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EchoPet.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.dsh105.echopet.compat.api.entity;
+
+import java.util.*;
+
+/**
+ * {@link java.util.ArrayList} view of the data of a pet, kept for compatibility with code written against
+ * {@link IPet#getPetData()}.
+ * <p/>
+ * Modifications made through this list are written through to the backing set. Modifications made to the backing
+ * set are only picked up when the list is {@link #refresh() refreshed}. Unlike the backing set, this list does not
+ * resolve conflicts between data.
+ */
+public class PetDataList extends ArrayList<PetData> {
+
+    private final Set<PetData> backing;
+
+    public PetDataList(Set<PetData> backing) {
+        super(backing.size());
+        this.backing = backing;
+        this.refresh();
+    }
+
+    /**
+     * Updates the contents of this list to match the backing set
+     */
+    public void refresh() {
+        super.clear();
+        super.addAll(this.backing);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return this.backing.contains(o);
+    }
+
+    @Override
+    public boolean add(PetData data) {
+        if (data == null || !this.backing.add(data)) {
+            return false;
+        }
+        return super.add(data);
+    }
+
+    @Override
+    public void add(int index, PetData data) {
+        if (data != null && this.backing.add(data)) {
+            super.add(index, data);
+        }
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends PetData> c) {
+        boolean changed = false;
+        for (PetData data : c) {
+            changed |= this.add(data);
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends PetData> c) {
+        boolean changed = false;
+        for (PetData data : c) {
+            if (data != null && this.backing.add(data)) {
+                super.add(index++, data);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public PetData set(int index, PetData data) {
+        PetData old = super.get(index);
+        if (data == null || data == old) {
+            return old;
+        }
+        this.backing.remove(old);
+        if (this.backing.add(data)) {
+            super.set(index, data);
+        } else {
+            // Already present elsewhere in the list
+            super.remove(index);
+        }
+        return old;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!this.backing.remove(o)) {
+            return false;
+        }
+        return super.remove(o);
+    }
+
+    @Override
+    public PetData remove(int index) {
+        PetData old = super.remove(index);
+        this.backing.remove(old);
+        return old;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        return this.removeMatching(c, true);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        return this.removeMatching(c, false);
+    }
+
+    @Override
+    public void clear() {
+        this.backing.clear();
+        super.clear();
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        for (int i = fromIndex; i < toIndex; i++) {
+            this.remove(fromIndex);
+        }
+    }
+
+    private boolean removeMatching(Collection<?> c, boolean contained) {
+        boolean changed = false;
+        Iterator<PetData> i = this.iterator();
+        while (i.hasNext()) {
+            if (c.contains(i.next()) == contained) {
+                i.remove();
+                changed = true;
+            }
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * This file is part of EchoPet.
+ *
+ * EchoPet is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EchoPet is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EchoPet.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.dsh105.echopet.compat.api.entity;
+
+import com.dsh105.echopet.compat.api.util.ReflectionUtil;
+import org.bukkit.entity.Entity;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ids of all pet entities currently alive, for identifying pets in event listeners without resolving the handle of
+ * every entity involved in an event.
+ * <p/>
+ * Ids are added when a pet entity is created (before it is added to its world, so that its spawn event can be
+ * recognised) and removed when it dies.
+ */
+public final class PetEntityIds {
+
+    private static final Set<Integer> IDS = Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+
+    private PetEntityIds() {
+    }
+
+    public static void add(int entityId) {
+        IDS.add(entityId);
+    }
+
+    public static void remove(int entityId) {
+        IDS.remove(entityId);
+    }
+
+    public static int size() {
+        return IDS.size();
+    }
+
+    public static boolean isPet(Entity entity) {
+        return entity != null && IDS.contains(entity.getEntityId());
+    }
+
+    /**
+     * Gets the pet entity behind a Bukkit entity. The handle is only resolved for entities known to be pets.
+     *
+     * @param entity entity to check
+     * @return the pet entity, or null if the entity is not a pet
+     */
+    public static IEntityPet getEntityPet(Entity entity) {
+        if (!isPet(entity)) {
+            return null;
+        }
+        Object handle = ReflectionUtil.getEntityHandle(entity);
+        return handle instanceof IEntityPet ? (IEntityPet) handle : null;
+    }
+}
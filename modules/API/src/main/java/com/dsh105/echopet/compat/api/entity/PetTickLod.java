@@ -0,0 +1,123 @@
+/*
+ * This file is part of EchoPet.
+ *
+ * EchoPet is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EchoPet is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EchoPet.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.dsh105.echopet.compat.api.entity;
+
+/**
+ * Level of detail scheduling for the ticks of a pet entity.
+ * <p/>
+ * Pets that no player is tracking, or that are far from every player tracking them, run their AI and per-tick
+ * updates at a reduced rate. The level is re-evaluated periodically, and is set back to full immediately whenever a
+ * pet needs it, e.g. while it is ridden, worn as a hat or after it has been attacked.
+ */
+public class PetTickLod {
+
+    /**
+     * Pets within this distance (squared, in blocks) of a player tracking them are updated every tick
+     */
+    public static final double FULL_DISTANCE_SQUARED = 32.0D * 32.0D;
+
+    /**
+     * Ticks between re-evaluations of the level
+     */
+    public static final int EVALUATE_INTERVAL = 20;
+
+    /**
+     * Ticks a pet is kept at full rate after being attacked
+     */
+    public static final int DAMAGE_FULL_TICKS = 100;
+
+    public enum Level {
+
+        FULL(1),
+        REDUCED(4),
+        IDLE(20);
+
+        private final int interval;
+
+        Level(int interval) {
+            this.interval = interval;
+        }
+
+        /**
+         * @return ticks between full updates at this level
+         */
+        public int getInterval() {
+            return this.interval;
+        }
+    }
+
+    private Level level = Level.FULL;
+    private int ticks;
+    private int nextEvaluation;
+    private int fullTicksRemaining;
+
+    public Level getLevel() {
+        return this.level;
+    }
+
+    public boolean isEvaluationDue() {
+        return this.fullTicksRemaining <= 0 && this.ticks >= this.nextEvaluation;
+    }
+
+    /**
+     * Re-evaluates the level of the pet
+     *
+     * @param nearestViewerDistanceSquared squared distance to the closest player tracking the pet, or a negative value
+     *                                     if no player is tracking it
+     */
+    public void evaluate(double nearestViewerDistanceSquared) {
+        this.nextEvaluation = this.ticks + EVALUATE_INTERVAL;
+        if (this.fullTicksRemaining > 0) {
+            return;
+        }
+        if (nearestViewerDistanceSquared < 0) {
+            this.level = Level.IDLE;
+        } else if (nearestViewerDistanceSquared > FULL_DISTANCE_SQUARED) {
+            this.level = Level.REDUCED;
+        } else {
+            this.level = Level.FULL;
+        }
+    }
+
+    /**
+     * Updates the pet at full rate, starting with the current tick
+     *
+     * @param ticks number of ticks to stay at full rate before the level is re-evaluated
+     */
+    public void forceFull(int ticks) {
+        this.level = Level.FULL;
+        if (ticks > this.fullTicksRemaining) {
+            this.fullTicksRemaining = ticks;
+        }
+    }
+
+    /**
+     * Advances the schedule by a single tick
+     *
+     * @return true if the pet should run its full update this tick
+     */
+    public boolean tick() {
+        int tick = this.ticks++;
+        if (this.fullTicksRemaining > 0) {
+            this.fullTicksRemaining--;
+            return true;
+        }
+        return tick % this.level.getInterval() == 0;
+    }
+}
@@ -80,8 +80,12 @@ public enum PetType {
 
     HUMAN("Human", 54, "Human Pet", 20D, 6D, EntityType.UNKNOWN);
 
+    private String classIdentifier;
+    private volatile boolean resolved;
     private Class<? extends IEntityPet> entityClass;
     private Class<? extends IPet> petClass;
+    private volatile SafeConstructor<IEntityPet> entityConstructor;
+    private volatile SafeConstructor<IPet> petConstructor;
     private String defaultName;
     private double maxHealth;
     private double attackDamage;
@@ -90,8 +94,7 @@ public enum PetType {
     private int id;
 
     PetType(String classIdentifier, int registrationId, String defaultName, double maxHealth, double attackDamage, EntityType entityType, PetData... allowedData) {
-        this.entityClass = ReflectionUtil.getPetNMSClass(classIdentifier);
-        this.petClass = ReflectionUtil.getClass("com.dsh105.echopet.api.pet.type." + classIdentifier + "Pet");
+        this.classIdentifier = classIdentifier;
         this.id = registrationId;
         this.allowedData = ImmutableList.copyOf(allowedData);
         this.maxHealth = maxHealth;
@@ -100,6 +103,30 @@ public enum PetType {
         this.defaultName = defaultName;
     }
 
+    /**
+     * Loads the versioned entity and pet classes of every type in a single pass. Classes are loaded but not
+     * initialised, so this may be called from any thread. Types that have not been resolved are resolved the first
+     * time their classes are needed.
+     */
+    public static void resolveClasses() {
+        for (PetType petType : values()) {
+            petType.resolve();
+        }
+    }
+
+    private void resolve() {
+        if (this.resolved) {
+            return;
+        }
+        synchronized (this) {
+            if (!this.resolved) {
+                this.entityClass = ReflectionUtil.loadClass(ReflectionUtil.COMPAT_NMS_PATH + ".entity.type.Entity" + this.classIdentifier + "Pet");
+                this.petClass = ReflectionUtil.loadClass("com.dsh105.echopet.api.pet.type." + this.classIdentifier + "Pet");
+                this.resolved = true;
+            }
+        }
+    }
+
     public int getRegistrationId() {
         return this.id;
     }
@@ -109,7 +136,7 @@ public enum PetType {
     }
 
     public String getDefaultName(String name) {
-        return EchoPet.getConfig().getString("pets." + this.toString().toLowerCase().replace("_", " ") + ".defaultName", this.defaultName).replace("(user)", name).replace("(userApos)", name + "'s");
+        return EchoPet.getOptions().getSettings(this).getDefaultName().replace("(user)", name).replace("(userApos)", name + "'s");
     }
 
     public String getDefaultName() {
@@ -117,7 +144,11 @@ public enum PetType {
     }
 
     public double getAttackDamage() {
-        return EchoPet.getConfig().getDouble("pets." + this.toString().toLowerCase().replace("_", " ") + ".attackDamage", this.attackDamage);
+        return EchoPet.getOptions().getSettings(this).getAttackDamage();
+    }
+
+    public double getDefaultAttackDamage() {
+        return this.attackDamage;
     }
 
     public EntityType getEntityType() {
@@ -133,21 +164,33 @@ public enum PetType {
     }
 
     public IEntityPet getNewEntityPetInstance(Object world, IPet pet) {
-        return new SafeConstructor<IEntityPet>(this.entityClass, ReflectionUtil.getNMSClass("World"), IPet.class).newInstance(world, pet);
+        SafeConstructor<IEntityPet> constructor = this.entityConstructor;
+        if (constructor == null) {
+            constructor = new SafeConstructor<IEntityPet>(this.getEntityClass(), ReflectionUtil.getNMSClass("World"), IPet.class);
+            this.entityConstructor = constructor;
+        }
+        return constructor.newInstance(world, pet);
     }
 
     public IPet getNewPetInstance(Player owner) {
         if (owner != null) {
-            return new SafeConstructor<IPet>(this.petClass, Player.class).newInstance(owner);
+            SafeConstructor<IPet> constructor = this.petConstructor;
+            if (constructor == null) {
+                constructor = new SafeConstructor<IPet>(this.getPetClass(), Player.class);
+                this.petConstructor = constructor;
+            }
+            return constructor.newInstance(owner);
         }
         return null;
     }
 
     public Class<? extends IEntityPet> getEntityClass() {
+        this.resolve();
         return this.entityClass;
     }
 
     public Class<? extends IPet> getPetClass() {
+        this.resolve();
         return this.petClass;
     }
 }
\ No newline at end of file
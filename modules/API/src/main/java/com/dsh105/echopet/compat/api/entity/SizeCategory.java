@@ -34,14 +34,14 @@ public enum SizeCategory {
     }
 
     public float getStartWalk(PetType petType) {
-        return (EchoPet.getConfig().getInt("pets." + petType.toString().toLowerCase().replace("_", " ") + ".startFollowDistance", 12) * this.modifier) / 2;
+        return (EchoPet.getOptions().getSettings(petType).getStartFollowDistance() * this.modifier) / 2;
     }
 
     public float getStopWalk(PetType petType) {
-        return (EchoPet.getConfig().getInt("pets." + petType.toString().toLowerCase().replace("_", " ") + ".stopFollowDistance", 4) * this.modifier) / 2;
+        return (EchoPet.getOptions().getSettings(petType).getStopFollowDistance() * this.modifier) / 2;
     }
 
     public float getTeleport(PetType petType) {
-        return (EchoPet.getConfig().getInt("pets." + petType.toString().toLowerCase().replace("_", " ") + ".teleportDistance", 30) * this.modifier) / 2;
+        return (EchoPet.getOptions().getSettings(petType).getTeleportDistance() * this.modifier) / 2;
     }
 }
\ No newline at end of file
@@ -18,7 +18,9 @@
 package com.dsh105.echopet.compat.api.plugin;
 
 import com.dsh105.dshutils.config.YAMLConfig;
+import com.dsh105.echopet.compat.api.ai.PetTickCoordinator;
 import com.dsh105.echopet.compat.api.config.ConfigOptions;
+import com.dsh105.echopet.compat.api.plugin.uuid.ProfileResolver;
 
 public final class EchoPet {
 
@@ -47,6 +49,18 @@ public final class EchoPet {
         return PLUGIN.getSqlPetManager();
     }
 
+    public static IAsyncSqlPetManager getAsyncSqlManager() {
+        return PLUGIN.getAsyncSqlPetManager();
+    }
+
+    public static PetTickCoordinator getTickCoordinator() {
+        return PLUGIN.getTickCoordinator();
+    }
+
+    public static ProfileResolver getProfileResolver() {
+        return PLUGIN.getProfileResolver();
+    }
+
     public static ConfigOptions getOptions() {
         return PLUGIN.getOptions();
     }
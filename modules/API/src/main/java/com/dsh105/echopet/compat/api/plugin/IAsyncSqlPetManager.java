@@ -0,0 +1,81 @@
+/*
+ * This file is part of EchoPet.
+ *
+ * EchoPet is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EchoPet is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EchoPet.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.dsh105.echopet.compat.api.plugin;
+
+import com.dsh105.echopet.compat.api.entity.IPet;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.bukkit.entity.Player;
+
+import java.util.Collection;
+
+/**
+ * Non-blocking variant of {@link com.dsh105.echopet.compat.api.plugin.ISqlPetManager}.
+ * <p/>
+ * All database work is performed on a dedicated, bounded I/O executor. Operations for the same owner are executed
+ * in the order they were submitted, except that a save which has not started yet is merged with later saves of the
+ * same owner. Submitting never blocks. Saves and clears are always queued, so that they are never lost; loads are
+ * rejected while the queue is full, in which case their future fails with a
+ * {@link java.util.concurrent.RejectedExecutionException}.
+ * <p/>
+ * Methods must be called from the main server thread, as pet state is captured at the time of the call.
+ */
+public interface IAsyncSqlPetManager {
+
+    /**
+     * Saves a pet (and its rider) to the database. Saving a rider only updates the rider of its owner's pet.
+     *
+     * @param pet pet to save
+     * @return future completed once the pet has been written
+     */
+    public ListenableFuture<Void> saveToDatabase(IPet pet);
+
+    /**
+     * Saves several pets (and their riders) using batched statements
+     *
+     * @param pets pets to save
+     * @return future completed once all pets have been written
+     */
+    public ListenableFuture<Void> saveAll(Collection<IPet> pets);
+
+    /**
+     * Reads the saved pet of a player and spawns it on the main thread
+     *
+     * @param player owner of the pet
+     * @return future, always completed on the main thread, with the spawned pet or null if none could be spawned
+     */
+    public ListenableFuture<IPet> createPetFromDatabase(Player player);
+
+    public ListenableFuture<Void> clearFromDatabase(Player player);
+
+    public ListenableFuture<Void> clearFromDatabase(String playerIdent);
+
+    public ListenableFuture<Void> clearRiderFromDatabase(Player player);
+
+    public ListenableFuture<Void> clearRiderFromDatabase(String playerIdent);
+
+    /**
+     * @return number of operations waiting to be executed
+     */
+    public int getQueuedTaskCount();
+
+    /**
+     * Stops accepting new operations and waits for queued operations to complete
+     */
+    public void shutdown();
+}
@@ -18,9 +18,11 @@
 package com.dsh105.echopet.compat.api.plugin;
 
 import com.dsh105.dshutils.config.YAMLConfig;
+import com.dsh105.echopet.compat.api.ai.PetTickCoordinator;
 import com.dsh105.echopet.compat.api.config.ConfigOptions;
 import com.dsh105.echopet.compat.api.plugin.hook.IVanishProvider;
 import com.dsh105.echopet.compat.api.plugin.hook.IWorldGuardProvider;
+import com.dsh105.echopet.compat.api.plugin.uuid.ProfileResolver;
 import com.dsh105.echopet.compat.api.util.ISpawnUtil;
 import com.jolbox.bonecp.BoneCP;
 import org.bukkit.plugin.Plugin;
@@ -39,6 +41,12 @@ public interface IEchoPetPlugin extends Plugin {
 
     public ISqlPetManager getSqlPetManager();
 
+    public IAsyncSqlPetManager getAsyncSqlPetManager();
+
+    public PetTickCoordinator getTickCoordinator();
+
+    public ProfileResolver getProfileResolver();
+
     public BoneCP getDbPool();
 
     public IVanishProvider getVanishProvider();
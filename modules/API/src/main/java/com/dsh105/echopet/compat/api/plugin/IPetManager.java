@@ -20,17 +20,50 @@ package com.dsh105.echopet.compat.api.plugin;
 import com.dsh105.echopet.compat.api.entity.IPet;
 import com.dsh105.echopet.compat.api.entity.PetData;
 import com.dsh105.echopet.compat.api.entity.PetType;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.bukkit.World;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 
 import java.util.ArrayList;
+import java.util.Collection;
 
 public interface IPetManager {
 
+    /**
+     * Gets a copy of all active pets
+     *
+     * @return all active pets
+     * @deprecated copies every active pet on each call. Use {@link #getActivePets()} instead
+     */
+    @Deprecated
     public ArrayList<IPet> getPets();
 
+    /**
+     * Gets a read-only view of all active pets
+     *
+     * @return all active pets
+     */
+    public Collection<IPet> getActivePets();
+
+    public Collection<IPet> getPetsInWorld(World world);
+
+    /**
+     * Loads the saved pet of a player. Pets stored in the database are loaded asynchronously, in which case null is
+     * returned and the pet is spawned later; use {@link #loadPetsAsync(Player, boolean, boolean, boolean)} to be
+     * told when it is.
+     *
+     * @return the loaded pet, or null if none was loaded (yet)
+     */
     public IPet loadPets(Player p, boolean findDefault, boolean sendMessage, boolean checkWorldOverride);
 
+    /**
+     * Loads the saved pet of a player without blocking the main thread on database access
+     *
+     * @return future completed on the main thread with the loaded pet, or null if none was loaded
+     */
+    public ListenableFuture<IPet> loadPetsAsync(Player p, boolean findDefault, boolean sendMessage, boolean checkWorldOverride);
+
     public void removeAllPets();
 
     public IPet createPet(Player owner, PetType petType, boolean sendMessageOnFail);
@@ -22,6 +22,7 @@ import com.dsh105.echopet.compat.api.entity.PetData;
 import com.dsh105.echopet.compat.api.entity.PetType;
 import org.bukkit.entity.Player;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ISqlPetManager {
@@ -30,6 +31,13 @@ public interface ISqlPetManager {
 
     void saveToDatabase(String playerIdent, PetType petType, String petName, List<PetData> petData, boolean isRider);
 
+    /**
+     * Saves several pets (and their riders) in a single transaction using batched statements
+     *
+     * @param pets pets to save
+     */
+    public void saveAll(Collection<IPet> pets);
+
     public IPet createPetFromDatabase(Player player);
 
     IPet createPetFromDatabase(String playerIdent);
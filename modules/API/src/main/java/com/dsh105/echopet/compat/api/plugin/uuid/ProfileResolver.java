@@ -0,0 +1,415 @@
+/*
+ * This file is part of EchoPet.
+ *
+ * EchoPet is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EchoPet is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EchoPet.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.dsh105.echopet.compat.api.plugin.uuid;
+
+import com.dsh105.dshutils.logger.Logger;
+import com.google.common.base.Charsets;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves player names to their Mojang UUIDs in the background, so that human pets can show the correct skin
+ * without blocking the server thread.
+ * <p/>
+ * Results are held in a bounded LRU cache that is persisted to disk periodically and on shutdown. Names that do not belong
+ * to a premium account are remembered for a shorter period so that they are not looked up again on every spawn.
+ * Concurrent lookups for the same name share a single request, and names queued at the same time are sent to
+ * the profile endpoint together.
+ * <p/>
+ * All methods are thread safe. Futures complete on the lookup thread.
+ */
+public class ProfileResolver {
+
+    private static final int NAMES_PER_REQUEST = 100;
+    private static final long RESOLVED_EXPIRY_MILLIS = TimeUnit.DAYS.toMillis(7);
+    private static final long FAILURE_RETRY_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private final File file;
+    private final File tempFile;
+    private final String profileUrl;
+    private final long negativeExpiryMillis;
+
+    private final Map<String, Entry> cache;
+    private final Map<String, SettableFuture<UUID>> pending = new HashMap<String, SettableFuture<UUID>>();
+    private final Map<String, String> queued = new LinkedHashMap<String, String>();
+    private boolean drainScheduled;
+    private boolean dirty;
+
+    private final ExecutorService lookup;
+    // Held while the cache file is written, so that a periodic save and the save on shutdown do not overlap
+    private final Object saveLock = new Object();
+    private BukkitTask saveTask;
+
+    private volatile long hitCount;
+    private volatile long missCount;
+    private volatile long requestCount;
+    private volatile long failureCount;
+
+    /**
+     * @param file                 file the cache is persisted to
+     * @param profileUrl           endpoint used to resolve names, see {@link UUIDFetcher#PROFILE_URL}
+     * @param maxEntries           maximum number of names kept in memory
+     * @param negativeExpiryMillis how long names without a profile are remembered for
+     */
+    public ProfileResolver(File file, String profileUrl, final int maxEntries, long negativeExpiryMillis) {
+        this.file = file;
+        this.tempFile = new File(file.getParentFile(), file.getName() + ".tmp");
+        this.profileUrl = profileUrl;
+        this.negativeExpiryMillis = negativeExpiryMillis;
+        this.cache = new LinkedHashMap<String, Entry>(16, 0.75F, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > Math.max(1, maxEntries);
+            }
+        };
+        this.lookup = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "EchoPet Profile Lookup");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Starts saving newly resolved names to disk periodically, off the main thread
+     *
+     * @param plugin        plugin to schedule the save task with
+     * @param intervalTicks ticks between saves
+     */
+    public void start(Plugin plugin, long intervalTicks) {
+        if (this.saveTask != null) {
+            this.saveTask.cancel();
+        }
+        long interval = Math.max(1L, intervalTicks);
+        this.saveTask = new BukkitRunnable() {
+            @Override
+            public void run() {
+                save();
+            }
+        }.runTaskTimerAsynchronously(plugin, interval, interval);
+    }
+
+    /**
+     * Gets the UUID used for a name until (or if) its real profile is known. Matches the UUID given to offline
+     * mode players of the same name.
+     *
+     * @param name name to create a placeholder for
+     * @return placeholder UUID for the name
+     */
+    public static UUID getPlaceholderId(String name) {
+        return UUID.nameUUIDFromBytes(("OfflinePlayer:" + name).getBytes(Charsets.UTF_8));
+    }
+
+    /**
+     * Gets a resolved UUID without triggering a lookup
+     *
+     * @param name name to look up
+     * @return the cached UUID, or null if it is not known (yet)
+     */
+    public UUID getCached(String name) {
+        if (name == null) {
+            return null;
+        }
+        String key = name.toLowerCase();
+        synchronized (this) {
+            Entry entry = this.cache.get(key);
+            if (entry != null && entry.isValid(System.currentTimeMillis())) {
+                this.hitCount++;
+                return entry.uuid;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Resolves the UUID of a name, using the cache where possible
+     *
+     * @param name name to look up
+     * @return a future completed with the UUID of the name, or null if the name does not belong to an account or
+     * could not be looked up
+     */
+    public ListenableFuture<UUID> resolve(String name) {
+        SettableFuture<UUID> future = SettableFuture.create();
+        if (name == null || name.isEmpty()) {
+            future.set(null);
+            return future;
+        }
+        String key = name.toLowerCase();
+        synchronized (this) {
+            Entry entry = this.cache.get(key);
+            if (entry != null && entry.isValid(System.currentTimeMillis())) {
+                this.hitCount++;
+                future.set(entry.uuid);
+                return future;
+            }
+            SettableFuture<UUID> existing = this.pending.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            this.missCount++;
+            this.pending.put(key, future);
+            this.queued.put(key, name);
+            if (!this.drainScheduled) {
+                try {
+                    this.lookup.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            drain();
+                        }
+                    });
+                    this.drainScheduled = true;
+                } catch (RejectedExecutionException e) {
+                    // Shut down - nothing will be resolved anymore
+                    this.pending.remove(key);
+                    this.queued.remove(key);
+                    future.set(null);
+                }
+            }
+        }
+        return future;
+    }
+
+    public synchronized int size() {
+        return this.cache.size();
+    }
+
+    public synchronized int getPendingCount() {
+        return this.pending.size();
+    }
+
+    public long getHitCount() {
+        return this.hitCount;
+    }
+
+    public long getMissCount() {
+        return this.missCount;
+    }
+
+    /**
+     * @return number of requests made to the profile endpoint
+     */
+    public long getRequestCount() {
+        return this.requestCount;
+    }
+
+    public long getFailureCount() {
+        return this.failureCount;
+    }
+
+    /**
+     * Runs on the lookup thread. Sends every queued name to the profile endpoint, in batches.
+     */
+    private void drain() {
+        while (true) {
+            List<String> batch;
+            List<String> names;
+            synchronized (this) {
+                if (this.queued.isEmpty()) {
+                    this.drainScheduled = false;
+                    return;
+                }
+                batch = new ArrayList<String>(Math.min(NAMES_PER_REQUEST, this.queued.size()));
+                names = new ArrayList<String>(batch.size());
+                Iterator<Map.Entry<String, String>> i = this.queued.entrySet().iterator();
+                while (i.hasNext() && batch.size() < NAMES_PER_REQUEST) {
+                    Map.Entry<String, String> next = i.next();
+                    batch.add(next.getKey());
+                    names.add(next.getValue());
+                    i.remove();
+                }
+            }
+
+            Map<String, UUID> found = new HashMap<String, UUID>();
+            boolean failed = false;
+            try {
+                this.requestCount++;
+                for (Map.Entry<String, UUID> result : new UUIDFetcher(names, false, this.profileUrl).call().entrySet()) {
+                    found.put(result.getKey().toLowerCase(), result.getValue());
+                }
+            } catch (Exception e) {
+                failed = true;
+                this.failureCount++;
+                Logger.log(Logger.LogLevel.WARNING, "Failed to look up the profiles of " + batch.size() + " human pet(s): " + e.getMessage(), true);
+            }
+
+            long now = System.currentTimeMillis();
+            List<SettableFuture<UUID>> completed = new ArrayList<SettableFuture<UUID>>(batch.size());
+            List<UUID> results = new ArrayList<UUID>(batch.size());
+            synchronized (this) {
+                for (String key : batch) {
+                    UUID uuid = found.get(key);
+                    long expiry = uuid != null ? RESOLVED_EXPIRY_MILLIS : (failed ? FAILURE_RETRY_MILLIS : this.negativeExpiryMillis);
+                    this.cache.put(key, new Entry(uuid, now + expiry));
+                    if (uuid != null) {
+                        this.dirty = true;
+                    }
+                    SettableFuture<UUID> future = this.pending.remove(key);
+                    if (future != null) {
+                        completed.add(future);
+                        results.add(uuid);
+                    }
+                }
+            }
+            // Listeners run here, so complete futures outside of the lock
+            for (int i = 0; i < completed.size(); i++) {
+                completed.get(i).set(results.get(i));
+            }
+        }
+    }
+
+    /**
+     * Loads previously resolved names from disk. Entries that have expired are skipped.
+     */
+    public void load() {
+        if (!this.file.exists()) {
+            return;
+        }
+        YamlConfiguration config = YamlConfiguration.loadConfiguration(this.file);
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            for (String key : config.getKeys(false)) {
+                ConfigurationSection section = config.getConfigurationSection(key);
+                if (section == null) {
+                    continue;
+                }
+                long expires = section.getLong("expires");
+                String id = section.getString("id");
+                if (id == null || expires <= now) {
+                    continue;
+                }
+                try {
+                    this.cache.put(key.toLowerCase(), new Entry(UUID.fromString(id), expires));
+                } catch (IllegalArgumentException ignored) {
+                    // Corrupt entry - it will be looked up again
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes resolved names to disk if any have been added since the last save
+     */
+    public void save() {
+        synchronized (this.saveLock) {
+            this.write();
+        }
+    }
+
+    private void write() {
+        YamlConfiguration config = new YamlConfiguration();
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            if (!this.dirty) {
+                return;
+            }
+            for (Map.Entry<String, Entry> entry : this.cache.entrySet()) {
+                Entry value = entry.getValue();
+                // Names without a profile are cheap to look up again and are not worth persisting
+                if (value.uuid != null && value.isValid(now)) {
+                    config.set(entry.getKey() + ".id", value.uuid.toString());
+                    config.set(entry.getKey() + ".expires", value.expires);
+                }
+            }
+            this.dirty = false;
+        }
+
+        Writer out = null;
+        try {
+            out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(this.tempFile), "UTF-8"));
+            out.write(config.saveToString());
+            out.close();
+            out = null;
+            if (!this.tempFile.renameTo(this.file)) {
+                if (!this.file.delete() || !this.tempFile.renameTo(this.file)) {
+                    throw new IOException("Failed to replace " + this.file.getName() + " with " + this.tempFile.getName());
+                }
+            }
+        } catch (IOException e) {
+            synchronized (this) {
+                // Try again on the next save
+                this.dirty = true;
+            }
+            Logger.log(Logger.LogLevel.WARNING, "Failed to save profile cache [" + this.file.getName() + "].", e, true);
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops the lookup thread and the periodic save, and saves the cache. Lookups still in progress are completed
+     * with null.
+     */
+    public void shutdown() {
+        if (this.saveTask != null) {
+            this.saveTask.cancel();
+            this.saveTask = null;
+        }
+        this.lookup.shutdownNow();
+        try {
+            this.lookup.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<SettableFuture<UUID>> abandoned;
+        synchronized (this) {
+            abandoned = new ArrayList<SettableFuture<UUID>>(this.pending.values());
+            this.pending.clear();
+            this.queued.clear();
+        }
+        for (SettableFuture<UUID> future : abandoned) {
+            future.set(null);
+        }
+        this.save();
+    }
+
+    private static class Entry {
+
+        private final UUID uuid;
+        private final long expires;
+
+        Entry(UUID uuid, long expires) {
+            this.uuid = uuid;
+            this.expires = expires;
+        }
+
+        boolean isValid(long now) {
+            return now < this.expires;
+        }
+    }
+}
@@ -23,6 +23,7 @@ import com.dsh105.echopet.compat.api.util.ReflectionUtil;
 import org.bukkit.Bukkit;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Player;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.scheduler.BukkitRunnable;
 
 import java.util.ArrayList;
@@ -57,6 +58,14 @@ public class UUIDMigration {
         }
     }
 
+    public static String getIdentificationForAsString(AsyncPlayerPreLoginEvent event) {
+        if (ReflectionUtil.MC_VERSION_NUMERIC >= 172 && canReturnUUID()) {
+            return event.getUniqueId().toString();
+        } else {
+            return event.getName();
+        }
+    }
+
     public static Player getPlayerOf(Object identification) {
         if (ReflectionUtil.MC_VERSION_NUMERIC >= 172 && canReturnUUID()) {
             if (identification instanceof UUID) {
@@ -70,7 +79,16 @@ public class UUIDMigration {
         return null;
     }
 
-    public static void migrateConfig(final YAMLConfig config) {
+    /**
+     * Moves all name-based entries in the data file to the UUIDs of their owners. UUIDs are looked up
+     * asynchronously and the migrated entries are set in the configuration on the main thread.
+     * <p/>
+     * The configuration is not saved here, as the file may be written by someone else at the same time.
+     *
+     * @param config     data file to migrate
+     * @param onMigrated called on the main thread once the migrated entries have been set, so that they can be saved
+     */
+    public static void migrateConfig(final YAMLConfig config, final Runnable onMigrated) {
         ConfigurationSection cs = config.getConfigurationSection("autosave");
         if (cs != null) {
             final LinkedHashMap<String, LinkedHashMap<String, Object>> keyToValueMap = new LinkedHashMap<String, LinkedHashMap<String, Object>>();
@@ -110,7 +128,7 @@ public class UUIDMigration {
                                         config.set("autosave." + entry.getValue() + "." + valueEntries.getKey(), valueEntries.getValue());
                                     }
                                 }
-                                config.saveConfig();
+                                onMigrated.run();
                             }
                         }.runTask(EchoPet.getPlugin());
 
@@ -0,0 +1,73 @@
+/*
+ * This file is part of EchoPet.
+ *
+ * EchoPet is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EchoPet is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EchoPet.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.echopet.compat.api.reflection;
+
+import com.dsh105.echopet.compat.api.plugin.EchoPet;
+
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Accessors for declared fields of classes only known at runtime (e.g. packet fields), each looked up once per
+ * class and name.
+ * <p/>
+ * Unlike {@link ReflectionHandles}, this class resolves nothing when it is loaded, so it can be used before (or
+ * without) the server classes being available.
+ */
+public final class FieldCache {
+
+    private static final Map<Class<?>, Map<String, FieldAccessor<Object>>> FIELDS = new ConcurrentHashMap<Class<?>, Map<String, FieldAccessor<Object>>>();
+    private static final Set<String> MISSING = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    private FieldCache() {
+    }
+
+    /**
+     * Gets a declared field of a class
+     *
+     * @param clazz     class declaring the field
+     * @param fieldName name of the field
+     * @return an accessor for the field, or null if it does not exist
+     */
+    public static FieldAccessor<Object> get(Class<?> clazz, String fieldName) {
+        Map<String, FieldAccessor<Object>> fields = FIELDS.get(clazz);
+        if (fields == null) {
+            fields = new ConcurrentHashMap<String, FieldAccessor<Object>>();
+            FIELDS.put(clazz, fields);
+        }
+        FieldAccessor<Object> accessor = fields.get(fieldName);
+        if (accessor == null) {
+            Field field;
+            try {
+                field = clazz.getDeclaredField(fieldName);
+            } catch (NoSuchFieldException e) {
+                // Only reported once, as packets are built over and over again
+                if (MISSING.add(clazz.getName() + "#" + fieldName)) {
+                    EchoPet.getPlugin().getReflectionLogger().warning("No such field: " + clazz.getSimpleName() + "#" + fieldName + "!");
+                }
+                return null;
+            }
+            accessor = new SafeField<Object>(field);
+            fields.put(fieldName, accessor);
+        }
+        return accessor;
+    }
+}
@@ -50,7 +50,7 @@ public enum ReflectionConstants {
     PACKET_ENTITYMETADATA_FUNC_PREPARE(new String[] {"c"}, "func_75685_c", "func_75685_c"),
 
     DATAWATCHER_FUNC_INITIATE(new String[] {"a"}, "func_75682_a", "func_75682_a"),
-    DATAWATCHER_FUNC_WATCH(new String[] {"a"}, "func_75692_b", "func_75692_b"),
+    DATAWATCHER_FUNC_WATCH(new String[] {"watch"}, "func_75692_b", "func_75692_b"),
 
     PLAYER_FIELD_CONNECTION(new String[] {"playerConnection"}, "field_71135_a", "field_71135_a"),
     PLAYER_FUNC_SENDPACKET(new String[] {"sendPacket"}, "func_72567_b", "func_147359_a"),
@@ -0,0 +1,161 @@
+/*
+ * This file is part of EchoPet.
+ *
+ * EchoPet is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EchoPet is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EchoPet.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.dsh105.echopet.compat.api.reflection;
+
+import com.dsh105.echopet.compat.api.ai.APetGoalFloat;
+import com.dsh105.echopet.compat.api.ai.APetGoalFollowOwner;
+import com.dsh105.echopet.compat.api.ai.APetGoalLookAtPlayer;
+import com.dsh105.echopet.compat.api.ai.APetGoalMeleeAttack;
+import com.dsh105.echopet.compat.api.plugin.EchoPet;
+import com.dsh105.echopet.compat.api.reflection.utility.CommonReflection;
+import com.dsh105.echopet.compat.api.util.ReflectionUtil;
+import org.bukkit.Achievement;
+import org.bukkit.Material;
+import org.bukkit.Statistic;
+import org.bukkit.entity.EntityType;
+import org.bukkit.inventory.ItemStack;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reflective members used by the plugin, each resolved once when this class is first loaded. Members that only
+ * exist on some server versions are null on the others.
+ * <p/>
+ * {@link #verify()} should be called when the plugin is enabled so that a server version with missing or renamed
+ * members is detected immediately, rather than when the member is first used.
+ */
+public final class ReflectionHandles {
+
+    private static final List<String> MISSING = new ArrayList<String>();
+
+    public static final MethodAccessor<Object> CRAFTENTITY_FUNC_GETHANDLE = method(ReflectionUtil.getCBCClass("entity.CraftEntity"), "getHandle");
+    public static final FieldAccessor<Object> PLAYER_FIELD_CONNECTION = field(ReflectionUtil.getNMSClass("EntityPlayer"), ReflectionConstants.PLAYER_FIELD_CONNECTION.getName());
+    public static final MethodAccessor<Void> PLAYER_FUNC_SENDPACKET = method(ReflectionUtil.getNMSClass("PlayerConnection"), ReflectionConstants.PLAYER_FUNC_SENDPACKET.getName(), ReflectionUtil.getNMSClass("Packet"));
+
+    public static final MethodAccessor<Void> DATAWATCHER_FUNC_INITIATE = method(ReflectionUtil.getNMSClass("DataWatcher"), ReflectionConstants.DATAWATCHER_FUNC_INITIATE.getName(), int.class, Object.class);
+    public static final MethodAccessor<Void> DATAWATCHER_FUNC_WATCH = method(ReflectionUtil.getNMSClass("DataWatcher"), ReflectionConstants.DATAWATCHER_FUNC_WATCH.getName(), int.class, Object.class);
+    public static final MethodAccessor<Object> DATAWATCHER_FUNC_PREPARE = method(ReflectionUtil.getNMSClass("DataWatcher"), ReflectionConstants.PACKET_ENTITYMETADATA_FUNC_PREPARE.getName());
+
+    public static final MethodAccessor<Void> ENTITY_FUNC_MOUNT = method(ReflectionUtil.getNMSClass("Entity"), ReflectionConstants.ENTITY_FUNC_MOUNT.getName(), ReflectionUtil.getNMSClass("Entity"));
+
+    public static final FieldAccessor<Map> ENTITYTYPES_FIELD_NAMETOCLASSMAP = field(ReflectionUtil.getNMSClass("EntityTypes"), ReflectionConstants.ENTITYTYPES_FIELD_NAMETOCLASSMAP.getName());
+    public static final FieldAccessor<Map> ENTITYTYPES_FIELD_CLASSTONAMEMAP = field(ReflectionUtil.getNMSClass("EntityTypes"), ReflectionConstants.ENTITYTYPES_FIELD_CLASSTONAMEMAP.getName());
+    public static final FieldAccessor<Map> ENTITYTYPES_FIELD_CLASSTOIDMAP = field(ReflectionUtil.getNMSClass("EntityTypes"), ReflectionConstants.ENTITYTYPES_FIELD_CLASSTOIDMAP.getName());
+    public static final FieldAccessor<Map> ENTITYTYPES_FIELD_NAMETOIDMAP = field(ReflectionUtil.getNMSClass("EntityTypes"), ReflectionConstants.ENTITYTYPES_FIELD_NAMETOIDMAP.getName());
+
+    // Only servers without netty look packets up by their legacy id
+    public static final FieldAccessor<Map> PACKET_FIELD_PACKETMAP = CommonReflection.isUsingNetty() ? null : ReflectionHandles.<Map>field(ReflectionUtil.getNMSClass("Packet"), ReflectionConstants.PROTOCOL_FIELD_PACKETMAP.getName());
+
+    public static final MethodAccessor<Object> CRAFTITEMSTACK_FUNC_ASNMSCOPY = method(ReflectionUtil.getCBCClass("inventory.CraftItemStack"), "asNMSCopy", ItemStack.class);
+    public static final MethodAccessor<Object> ITEMSTACK_FUNC_SAVE = method(ReflectionUtil.getNMSClass("ItemStack"), ReflectionConstants.ITEMSTACK_FUNC_SAVE.getName(), ReflectionUtil.getNMSClass("NBTTagCompound"));
+    public static final SafeConstructor<Object> NBTTAGCOMPOUND_CONSTRUCTOR = constructor(ReflectionUtil.getNMSClass("NBTTagCompound"));
+
+    public static final SafeConstructor<APetGoalMeleeAttack> GOAL_MELEEATTACK_CONSTRUCTOR = constructor(ReflectionUtil.getVersionedClass("ai.PetGoalMeleeAttack"), ReflectionUtil.getVersionedClass("entity.EntityPet"), double.class, int.class);
+    public static final SafeConstructor<APetGoalFloat> GOAL_FLOAT_CONSTRUCTOR = constructor(ReflectionUtil.getVersionedClass("ai.PetGoalFloat"), ReflectionUtil.getVersionedClass("entity.EntityPet"));
+    public static final SafeConstructor<APetGoalFollowOwner> GOAL_FOLLOWOWNER_CONSTRUCTOR = constructor(ReflectionUtil.getVersionedClass("ai.PetGoalFollowOwner"), ReflectionUtil.getVersionedClass("entity.EntityPet"), double.class, double.class, double.class);
+    public static final SafeConstructor<APetGoalLookAtPlayer> GOAL_LOOKATPLAYER_CONSTRUCTOR = constructor(ReflectionUtil.getVersionedClass("ai.PetGoalLookAtPlayer"), ReflectionUtil.getVersionedClass("entity.EntityPet"), Class.class, float.class);
+
+    // Statistics are only exposed by CraftBukkit from 1.7.2
+    private static final boolean HAS_STATISTICS = ReflectionUtil.MC_VERSION_NUMERIC >= 172;
+    public static final MethodAccessor<Object> CRAFTSTATISTIC_FUNC_GETNMSACHIEVEMENT = HAS_STATISTICS ? ReflectionHandles.<Object>method(ReflectionUtil.getCBCClass("CraftStatistic"), "getNMSAchievement", Achievement.class) : null;
+    public static final MethodAccessor<Object> CRAFTSTATISTIC_FUNC_GETNMSSTATISTIC = HAS_STATISTICS ? ReflectionHandles.<Object>method(ReflectionUtil.getCBCClass("CraftStatistic"), "getNMSStatistic", Statistic.class) : null;
+    public static final MethodAccessor<Object> CRAFTSTATISTIC_FUNC_GETMATERIALSTATISTIC = HAS_STATISTICS ? ReflectionHandles.<Object>method(ReflectionUtil.getCBCClass("CraftStatistic"), "getMaterialStatistic", Statistic.class, Material.class) : null;
+    public static final MethodAccessor<Object> CRAFTSTATISTIC_FUNC_GETENTITYSTATISTIC = HAS_STATISTICS ? ReflectionHandles.<Object>method(ReflectionUtil.getCBCClass("CraftStatistic"), "getEntityStatistic", Statistic.class, EntityType.class) : null;
+    // Declared by Statistic, which achievements extend
+    public static final FieldAccessor<String> STATISTIC_FIELD_NAME = HAS_STATISTICS ? ReflectionHandles.<String>field(ReflectionUtil.getNMSClass("Statistic"), ReflectionConstants.ACHIEVEMENT_FIELD_NAME.getName()) : null;
+
+    private ReflectionHandles() {
+    }
+
+    /**
+     * Checks that every member in this class was resolved
+     *
+     * @throws IllegalStateException if any member could not be found
+     */
+    public static void verify() {
+        if (!MISSING.isEmpty()) {
+            throw new IllegalStateException("Missing members: " + MISSING);
+        }
+    }
+
+    /**
+     * Gets the members that could not be resolved
+     *
+     * @return an unmodifiable list of descriptions of missing members
+     */
+    public static List<String> getMissing() {
+        return Collections.unmodifiableList(MISSING);
+    }
+
+    /**
+     * Gets a declared field of a class, looking it up only once per class and name. Used for members of classes
+     * only known at runtime, e.g. packet fields.
+     *
+     * @see FieldCache#get(Class, String)
+     *
+     * @param clazz     class declaring the field
+     * @param fieldName name of the field
+     * @return an accessor for the field, or null if it does not exist
+     */
+    public static FieldAccessor<Object> getField(Class<?> clazz, String fieldName) {
+        return FieldCache.get(clazz, fieldName);
+    }
+
+    private static <T> MethodAccessor<T> method(Class<?> clazz, String methodName, Class<?>... params) {
+        if (clazz != null) {
+            try {
+                return new SafeMethod<T>(clazz.getDeclaredMethod(methodName, params));
+            } catch (NoSuchMethodException ignored) {
+            }
+        }
+        missing((clazz == null ? "?" : clazz.getSimpleName()) + "#" + methodName + "()");
+        return null;
+    }
+
+    private static <T> SafeConstructor<T> constructor(Class<?> clazz, Class<?>... params) {
+        if (clazz != null) {
+            try {
+                return new SafeConstructor<T>(clazz.getConstructor(params));
+            } catch (NoSuchMethodException ignored) {
+            }
+        }
+        missing((clazz == null ? "?" : clazz.getSimpleName()) + "#<init>()");
+        return null;
+    }
+
+    private static <T> FieldAccessor<T> field(Class<?> clazz, String fieldName) {
+        if (clazz != null) {
+            try {
+                return new SafeField<T>(clazz.getDeclaredField(fieldName));
+            } catch (NoSuchFieldException ignored) {
+            }
+        }
+        missing((clazz == null ? "?" : clazz.getSimpleName()) + "#" + fieldName);
+        return null;
+    }
+
+    private static void missing(String member) {
+        MISSING.add(member);
+        EchoPet.getPlugin().getReflectionLogger().warning("Failed to find " + member);
+    }
+}
@@ -17,12 +17,16 @@
 
 package com.dsh105.echopet.compat.api.util;
 
+import com.dsh105.dshutils.config.YAMLConfig;
 import com.dsh105.echopet.compat.api.event.EchoPetSendMessageEvent;
 import com.dsh105.echopet.compat.api.plugin.EchoPet;
 import org.bukkit.ChatColor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public enum Lang {
 
     PREFIX("prefix", "&4[&cEchoPet&4]&r "),
@@ -115,6 +119,9 @@ public enum Lang {
     ADMIN_CLOSE_SELECTOR("admin_close_selector", "&eThe &6Pet Selector &eMenu has been closed for &6%player%."),
     ADMIN_RELOAD_CONFIG("admin_reload_config", "&eConfiguration File reloaded.");
 
+    // Compiled messages, indexed by ordinal. Replaced as a whole whenever the language file is reloaded.
+    private static volatile Template[] TEMPLATES;
+
     private String path;
     private String def;
     private String[] desc;
@@ -133,39 +140,128 @@ public enum Lang {
         return this.path;
     }
 
+    /**
+     * Compiles every message from the language file. Must be called whenever the language file is (re)loaded.
+     */
+    public static void loadTemplates() {
+        YAMLConfig config = EchoPet.getPlugin().getLangConfig();
+        Lang[] values = values();
+        Template[] templates = new Template[values.length];
+        for (Lang lang : values) {
+            String message = config == null ? lang.def : config.getString(lang.path, lang.def);
+            templates[lang.ordinal()] = new Template(message == null ? "" : ChatColor.translateAlternateColorCodes('&', message));
+        }
+        TEMPLATES = templates;
+    }
+
+    private Template getTemplate() {
+        Template[] templates = TEMPLATES;
+        if (templates == null) {
+            // Not loaded yet
+            loadTemplates();
+            templates = TEMPLATES;
+        }
+        return templates[this.ordinal()];
+    }
+
     public static void sendTo(CommandSender sender, String message) {
-        EchoPetSendMessageEvent event = new EchoPetSendMessageEvent(message, sender);
-        EchoPet.getPlugin().getServer().getPluginManager().callEvent(event);
-        if (!event.isCancelled()) {
-            String msg = event.getMessageToSend();
-            if (msg != null && !msg.equalsIgnoreCase("") && !msg.equalsIgnoreCase(" ") && !msg.equalsIgnoreCase("none")) {
-                event.getRecipient().sendMessage(EchoPet.getPrefix() + msg);
+        if (EchoPetSendMessageEvent.getHandlerList().getRegisteredListeners().length > 0) {
+            EchoPetSendMessageEvent event = new EchoPetSendMessageEvent(message, sender);
+            EchoPet.getPlugin().getServer().getPluginManager().callEvent(event);
+            if (event.isCancelled()) {
+                return;
             }
+            message = event.getMessageToSend();
+            sender = event.getRecipient();
+        }
+        if (message != null && !message.equalsIgnoreCase("") && !message.equalsIgnoreCase(" ") && !message.equalsIgnoreCase("none")) {
+            sender.sendMessage(EchoPet.getPrefix() + message);
         }
     }
 
     public static void sendTo(Player p, String message) {
-        EchoPetSendMessageEvent event = new EchoPetSendMessageEvent(message, p);
-        EchoPet.getPlugin().getServer().getPluginManager().callEvent(event);
-        if (!event.isCancelled()) {
-            String msg = event.getMessageToSend();
-            if (msg != null && !msg.equalsIgnoreCase("") && !msg.equalsIgnoreCase(" ") && !(msg.equalsIgnoreCase("none"))) {
-                event.getRecipient().sendMessage(EchoPet.getPrefix() + msg);
-            }
-        }
+        sendTo((CommandSender) p, message);
     }
 
     @Override
     public String toString() {
-        String result = EchoPet.getPlugin().getLangConfig().getString(this.path, this.def);
-        if (result != null && result != "" && result != "none") {
-            return ChatColor.translateAlternateColorCodes('&', EchoPet.getPlugin().getLangConfig().getString(this.path, this.def));
-        } else {
-            return "";
-        }
+        return this.getTemplate().text;
+    }
+
+    /**
+     * Gets this message with its placeholders filled in
+     *
+     * @param replacements pairs of placeholders (including the surrounding '%') and their values, e.g.
+     *                     {@code "%petname%", name}
+     * @return the formatted message
+     */
+    public String replace(String... replacements) {
+        return this.getTemplate().render(replacements);
     }
 
     public String toString_() {
         return EchoPet.getPlugin().getLangConfig().getString(this.path, this.def);
     }
+
+    /**
+     * A coloured message, split around its placeholders
+     */
+    private static class Template {
+
+        private final String text;
+        // Literal text before each placeholder, followed by the text after the last one
+        private final String[] literals;
+        private final String[] placeholders;
+
+        Template(String text) {
+            this.text = text;
+            List<String> literals = new ArrayList<String>();
+            List<String> placeholders = new ArrayList<String>();
+            int from = 0;
+            int start = text.indexOf('%');
+            while (start >= 0) {
+                int end = start + 1;
+                while (end < text.length() && isPlaceholderChar(text.charAt(end))) {
+                    end++;
+                }
+                if (end < text.length() && end > start + 1 && text.charAt(end) == '%') {
+                    literals.add(text.substring(from, start));
+                    placeholders.add(text.substring(start, end + 1));
+                    from = end + 1;
+                    start = text.indexOf('%', from);
+                } else {
+                    // Not a placeholder, but may be the start of one
+                    start = text.indexOf('%', start + 1);
+                }
+            }
+            literals.add(text.substring(from));
+            this.literals = literals.toArray(new String[literals.size()]);
+            this.placeholders = placeholders.toArray(new String[placeholders.size()]);
+        }
+
+        private static boolean isPlaceholderChar(char c) {
+            return Character.isLetterOrDigit(c) || c == '_';
+        }
+
+        String render(String... replacements) {
+            if (this.placeholders.length == 0) {
+                return this.text;
+            }
+            StringBuilder builder = new StringBuilder(this.text.length() + 16 * this.placeholders.length);
+            for (int i = 0; i < this.placeholders.length; i++) {
+                builder.append(this.literals[i]);
+                String placeholder = this.placeholders[i];
+                String value = placeholder;
+                for (int j = 0; j + 1 < replacements.length; j += 2) {
+                    if (placeholder.equals(replacements[j])) {
+                        value = replacements[j + 1];
+                        break;
+                    }
+                }
+                builder.append(value);
+            }
+            builder.append(this.literals[this.placeholders.length]);
+            return builder.toString();
+        }
+    }
 }
@@ -21,11 +21,33 @@ import com.dsh105.echopet.compat.api.entity.PetType;
 import com.dsh105.echopet.compat.api.util.menu.MenuItem;
 import com.dsh105.echopet.compat.api.util.menu.MenuOption;
 
-import java.util.ArrayList;
+import java.util.*;
 
 public class MenuUtil {
 
+    private static final Map<PetType, List<MenuOption>> OPTIONS = new EnumMap<PetType, List<MenuOption>>(PetType.class);
+
+    static {
+        for (PetType pt : PetType.values()) {
+            OPTIONS.put(pt, Collections.unmodifiableList(buildOptionList(pt)));
+        }
+    }
+
+    /**
+     * Gets the options shown in the menu of a pet type
+     *
+     * @param pt type to get the options of
+     * @return an unmodifiable list of options, shared between all pets of the type
+     */
+    public static List<MenuOption> getOptions(PetType pt) {
+        return OPTIONS.get(pt);
+    }
+
     public static ArrayList<MenuOption> createOptionList(PetType pt) {
+        return new ArrayList<MenuOption>(OPTIONS.get(pt));
+    }
+
+    private static ArrayList<MenuOption> buildOptionList(PetType pt) {
         ArrayList<MenuOption> options = new ArrayList<MenuOption>();
         int i = 0;
         options.add(new MenuOption(i++, MenuItem.HAT));
@@ -0,0 +1,165 @@
+/*
+ * This file is part of EchoPet.
+ *
+ * EchoPet is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EchoPet is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EchoPet.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.dsh105.echopet.compat.api.util;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+
+import java.util.*;
+
+/**
+ * Chooses the recipients of particle effects.
+ * <p/>
+ * Recipients are looked up in a {@link PlayerChunkIndex}, rebuilt at most once per tick. Each player can receive a
+ * limited number of particle packets per second, so that effects triggered in quick succession (e.g. by
+ * spam-clicking a menu) cannot flood their connection.
+ * <p/>
+ * Must only be used from the main server thread.
+ */
+public class ParticleDispatcher {
+
+    public static final double DEFAULT_RANGE = 50.0D;
+    public static final int DEFAULT_MAX_PER_SECOND = 60;
+
+    private static final long INDEX_MAX_AGE_NANOS = 50000000L;
+    private static final long NANOS_PER_SECOND = 1000000000L;
+
+    private final double range;
+    private final int maxPerSecond;
+
+    private final PlayerChunkIndex index = new PlayerChunkIndex();
+    private boolean indexed;
+    private long indexedAt;
+
+    private final Map<UUID, RateLimit> rateLimits = new HashMap<UUID, RateLimit>();
+    private final List<Player> recipients = new ArrayList<Player>();
+
+    private long sentCount;
+    private long limitedCount;
+
+    public ParticleDispatcher() {
+        this(DEFAULT_RANGE, DEFAULT_MAX_PER_SECOND);
+    }
+
+    /**
+     * @param range        distance (in blocks) players receive particles from
+     * @param maxPerSecond particle packets each player may receive per second
+     */
+    public ParticleDispatcher(double range, int maxPerSecond) {
+        this.range = range;
+        this.maxPerSecond = maxPerSecond;
+    }
+
+    /**
+     * Gets the players in range of a location
+     *
+     * @param location location of the effect
+     * @return players in range. The list is reused by the next call
+     */
+    public List<Player> getRecipients(Location location) {
+        this.refreshIndex(System.nanoTime());
+        this.recipients.clear();
+        this.index.getNearby(location, this.range, this.recipients);
+        return this.recipients;
+    }
+
+    /**
+     * Takes a packet from the allowance of a player
+     *
+     * @param player player about to receive a particle packet
+     * @return true if the player may receive the packet
+     */
+    public boolean tryAcquire(Player player) {
+        return this.tryAcquire(player, System.nanoTime());
+    }
+
+    public boolean tryAcquire(Player player, long nanoTime) {
+        UUID id = player.getUniqueId();
+        RateLimit rateLimit = this.rateLimits.get(id);
+        if (rateLimit == null) {
+            rateLimit = new RateLimit(this.maxPerSecond, nanoTime);
+            this.rateLimits.put(id, rateLimit);
+        }
+        if (rateLimit.tryAcquire(this.maxPerSecond, nanoTime)) {
+            this.sentCount++;
+            return true;
+        }
+        this.limitedCount++;
+        return false;
+    }
+
+    public long getSentCount() {
+        return this.sentCount;
+    }
+
+    /**
+     * @return number of particle packets dropped by the per-player rate cap
+     */
+    public long getLimitedCount() {
+        return this.limitedCount;
+    }
+
+    protected Collection<? extends Player> getOnlinePlayers() {
+        return Arrays.asList(Bukkit.getOnlinePlayers());
+    }
+
+    private void refreshIndex(long nanoTime) {
+        if (this.indexed && nanoTime - this.indexedAt < INDEX_MAX_AGE_NANOS) {
+            return;
+        }
+        Collection<? extends Player> players = this.getOnlinePlayers();
+        this.index.rebuild(players);
+        this.indexed = true;
+        this.indexedAt = nanoTime;
+
+        // Forget the allowance of players that have left
+        if (this.rateLimits.size() > players.size()) {
+            Set<UUID> online = new HashSet<UUID>();
+            for (Player player : players) {
+                online.add(player.getUniqueId());
+            }
+            this.rateLimits.keySet().retainAll(online);
+        }
+    }
+
+    private static class RateLimit {
+
+        private double tokens;
+        private long updatedAt;
+
+        RateLimit(int maxPerSecond, long nanoTime) {
+            this.tokens = maxPerSecond;
+            this.updatedAt = nanoTime;
+        }
+
+        boolean tryAcquire(int maxPerSecond, long nanoTime) {
+            long elapsed = nanoTime - this.updatedAt;
+            if (elapsed > 0) {
+                this.tokens = Math.min(maxPerSecond, this.tokens + (double) elapsed * maxPerSecond / NANOS_PER_SECOND);
+                this.updatedAt = nanoTime;
+            }
+            if (this.tokens >= 1.0D) {
+                this.tokens -= 1.0D;
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -17,17 +17,18 @@
 
 package com.dsh105.echopet.compat.api.util;
 
-import com.dsh105.dshutils.util.GeometryUtil;
 import com.dsh105.echopet.compat.api.util.protocol.wrapper.WrapperPacketWorldParticles;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.bukkit.util.Vector;
 
+import java.util.List;
 import java.util.Random;
 
 public class ParticleUtil {
 
     private static Random RANDOM = new Random();
+    private static final ParticleDispatcher DISPATCHER = new ParticleDispatcher();
 
     private static WrapperPacketWorldParticles createPacket(WrapperPacketWorldParticles.ParticleType type, Location location) {
         return createPacket(type, location, r());
@@ -64,43 +65,64 @@ public class ParticleUtil {
         return new Vector(RANDOM.nextFloat(), RANDOM.nextFloat(), RANDOM.nextFloat());
     }
 
+    public static ParticleDispatcher getDispatcher() {
+        return DISPATCHER;
+    }
+
+    // Packets are built once per effect, and only if anyone is in range, then sent to every recipient
+    private static void sendAll(WrapperPacketWorldParticles particles, List<Player> recipients) {
+        for (int i = 0; i < recipients.size(); i++) {
+            sendTo(particles, recipients.get(i));
+        }
+    }
+
+    private static void sendTo(WrapperPacketWorldParticles particles, Player p) {
+        if (p.isOnline() && DISPATCHER.tryAcquire(p)) {
+            particles.send(p);
+        }
+    }
+
     public static void show(WrapperPacketWorldParticles.ParticleType type, Location l) {
-        for (Player p : GeometryUtil.getNearbyPlayers(l, 50)) {
-            createPacket(type, l).send(p);
+        List<Player> recipients = DISPATCHER.getRecipients(l);
+        if (!recipients.isEmpty()) {
+            sendAll(createPacket(type, l), recipients);
         }
     }
 
     public static void show(WrapperPacketWorldParticles.ParticleType type, Location l, Vector v, float speed, int amount) {
-        for (Player p : GeometryUtil.getNearbyPlayers(l, 50)) {
-            createPacket(type, l, v, speed, amount).send(p);
+        List<Player> recipients = DISPATCHER.getRecipients(l);
+        if (!recipients.isEmpty()) {
+            sendAll(createPacket(type, l, v, speed, amount), recipients);
         }
     }
 
     public static void showPlayer(WrapperPacketWorldParticles.ParticleType type, Player p, Location l) {
-        createPacket(type, l).send(p);
+        sendTo(createPacket(type, l), p);
     }
 
     public static void showPlayer(WrapperPacketWorldParticles.ParticleType type, Player p, Location l, Vector v, float speed, int amount) {
-        createPacket(type, l, v, speed, amount).send(p);
+        sendTo(createPacket(type, l, v, speed, amount), p);
     }
 
     public static void showWithData(WrapperPacketWorldParticles.ParticleType type, Location l, int blockId, int blockMeta) {
-        for (Player p : GeometryUtil.getNearbyPlayers(l, 50)) {
-            createPacket(type.getName() + "_" + blockId + "_" + blockMeta, l, r(), type.getDefaultSpeed(), type.getDefaultAmount()).send(p);
+        List<Player> recipients = DISPATCHER.getRecipients(l);
+        if (!recipients.isEmpty()) {
+            sendAll(createPacket(type.getName() + "_" + blockId + "_" + blockMeta, l, r(), type.getDefaultSpeed(), type.getDefaultAmount()), recipients);
         }
     }
 
     public static void showWithData(WrapperPacketWorldParticles.ParticleType type, Location l, Vector v, float speed, int amount, int blockId, int blockMeta) {
-        for (Player p : GeometryUtil.getNearbyPlayers(l, 50)) {
-            createPacket(type.getName() + "_" + blockId + blockMeta, l, v, speed, amount).send(p);
+        List<Player> recipients = DISPATCHER.getRecipients(l);
+        if (!recipients.isEmpty()) {
+            sendAll(createPacket(type.getName() + "_" + blockId + blockMeta, l, v, speed, amount), recipients);
         }
     }
 
     public static void showWithDataToPlayer(WrapperPacketWorldParticles.ParticleType type, Location l, Player p, int blockId, int blockMeta) {
-        createPacket(type.getName() + "_" + blockId + blockMeta, l, r(), type.getDefaultSpeed(), type.getDefaultAmount()).send(p);
+        sendTo(createPacket(type.getName() + "_" + blockId + blockMeta, l, r(), type.getDefaultSpeed(), type.getDefaultAmount()), p);
     }
 
     public static void showWithDataToPlayer(WrapperPacketWorldParticles.ParticleType type, Location l, Player p, Vector v, float speed, int amount, int blockId, int blockMeta) {
-        createPacket(type.getName() + "_" + blockId + blockMeta, l, v, speed, amount).send(p);
+        sendTo(createPacket(type.getName() + "_" + blockId + blockMeta, l, v, speed, amount), p);
     }
 }
\ No newline at end of file
@@ -116,7 +116,7 @@ public enum Perm {
             return true;
         }
         if (sendMessage) {
-            Lang.sendTo(player, Lang.NO_PERMISSION.toString().replace("%perm%", this.perm));
+            Lang.sendTo(player, Lang.NO_PERMISSION.replace("%perm%", this.perm));
         }
         //ConsoleLogger.log(Logger.LogLevel.NORMAL, player.getName() + " was denied access to command. " + perm + " permission needed.");
         return false;
@@ -127,7 +127,7 @@ public enum Perm {
             return true;
         }
         if (sendMessage) {
-            Lang.sendTo(player, Lang.NO_PERMISSION.toString().replace("%perm%", perm));
+            Lang.sendTo(player, Lang.NO_PERMISSION.replace("%perm%", perm));
         }
         //ConsoleLogger.log(Logger.LogLevel.NORMAL, player.getName() + " was denied access to command. " + perm + " permission needed.");
         return false;
@@ -139,7 +139,7 @@ public enum Perm {
             return true;
         }
         if (sendMessage) {
-            Lang.sendTo(player, Lang.NO_PERMISSION.toString().replace("%perm%", perm));
+            Lang.sendTo(player, Lang.NO_PERMISSION.replace("%perm%", perm));
         }
         //ConsoleLogger.log(Logger.LogLevel.NORMAL, player.getName() + " was denied access to command. " + perm + " permission needed.");
         return false;
@@ -156,7 +156,7 @@ public enum Perm {
         }
 
         if (sendMessage) {
-            Lang.sendTo(player, Lang.NO_PERMISSION.toString().replace("%perm%", dataPerm));
+            Lang.sendTo(player, Lang.NO_PERMISSION.replace("%perm%", dataPerm));
         }
         //ConsoleLogger.log(Logger.LogLevel.NORMAL, player.getName() + " was denied access to command. " + dataPerm + " permission needed.");
         return false;
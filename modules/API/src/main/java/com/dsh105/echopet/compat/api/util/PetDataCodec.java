@@ -0,0 +1,163 @@
+/*
+ * This file is part of EchoPet.
+ *
+ * EchoPet is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EchoPet is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EchoPet.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.dsh105.echopet.compat.api.util;
+
+import com.dsh105.echopet.compat.api.entity.PetData;
+import com.dsh105.echopet.compat.api.entity.PetType;
+
+import java.util.*;
+
+/**
+ * Encodes sets of {@link com.dsh105.echopet.compat.api.entity.PetData} into a single long for storage.
+ * <p/>
+ * The low 56 bits hold one bit per {@link com.dsh105.echopet.compat.api.entity.PetData#getId()}, so stored values
+ * do not depend on the declaration order of the enum. The high 8 bits hold the format version.
+ * <p/>
+ * Values written before versioning was introduced (version 0) used <code>1 << ordinal</code> as an int shift,
+ * which wraps for ordinals of 32 and above. Those values are decoded on a best-effort basis, using the
+ * data allowed for the pet type to tell colliding constants apart.
+ */
+public final class PetDataCodec {
+
+    public static final int VERSION = 1;
+    public static final int LEGACY_VERSION = 0;
+
+    public static final int MAX_ID = 55;
+
+    private static final int VERSION_SHIFT = 56;
+    private static final long DATA_MASK = (1L << VERSION_SHIFT) - 1;
+
+    private static final PetData[] VALUES = PetData.values();
+    private static final PetData[] BY_ID = new PetData[MAX_ID + 1];
+    private static final Map<String, PetData> BY_NAME = new HashMap<String, PetData>();
+
+    static {
+        for (PetData data : VALUES) {
+            int id = data.getId();
+            if (id < 0 || id > MAX_ID) {
+                throw new IllegalStateException("PetData id out of range: " + data + " (" + id + ")");
+            }
+            if (BY_ID[id] != null) {
+                throw new IllegalStateException("Duplicate PetData id " + id + ": " + BY_ID[id] + " and " + data);
+            }
+            BY_ID[id] = data;
+            BY_NAME.put(data.toString().toLowerCase(), data);
+        }
+    }
+
+    private PetDataCodec() {
+    }
+
+    /**
+     * Gets the format version of a stored value
+     *
+     * @param value stored value
+     * @return the format version
+     */
+    public static int getVersion(long value) {
+        int version = (int) (value >>> VERSION_SHIFT);
+        // Legacy values with bit 31 set were sign-extended into the version byte
+        return version == VERSION ? VERSION : LEGACY_VERSION;
+    }
+
+    public static boolean isCurrent(long value) {
+        return getVersion(value) == VERSION;
+    }
+
+    public static long encode(Set<PetData> data) {
+        long value = 0L;
+        for (int i = 0; i < VALUES.length; i++) {
+            if (data.contains(VALUES[i])) {
+                value |= 1L << VALUES[i].getId();
+            }
+        }
+        return value | ((long) VERSION << VERSION_SHIFT);
+    }
+
+    public static long encode(Collection<PetData> data) {
+        long value = 0L;
+        for (PetData petData : data) {
+            value |= 1L << petData.getId();
+        }
+        return value | ((long) VERSION << VERSION_SHIFT);
+    }
+
+    /**
+     * Decodes a stored value into an existing set, replacing its contents
+     *
+     * @param value  stored value
+     * @param type   type of the pet the data belongs to. Only used for legacy values. May be null
+     * @param target set to decode into
+     */
+    public static void decodeInto(long value, PetType type, EnumSet<PetData> target) {
+        target.clear();
+        if (getVersion(value) == LEGACY_VERSION) {
+            decodeLegacyInto(value, type, target);
+            return;
+        }
+        long bits = value & DATA_MASK;
+        while (bits != 0) {
+            int id = Long.numberOfTrailingZeros(bits);
+            bits &= bits - 1;
+            if (BY_ID[id] != null) {
+                target.add(BY_ID[id]);
+            }
+        }
+    }
+
+    public static EnumSet<PetData> decode(long value, PetType type) {
+        EnumSet<PetData> result = EnumSet.noneOf(PetData.class);
+        decodeInto(value, type, result);
+        return result;
+    }
+
+    /**
+     * Re-encodes a value in the current format
+     *
+     * @param value stored value, in any format
+     * @param type  type of the pet the data belongs to. May be null
+     * @return the value in the current format
+     */
+    public static long migrate(long value, PetType type) {
+        if (isCurrent(value)) {
+            return value;
+        }
+        return encode(decode(value, type));
+    }
+
+    /**
+     * Looks up a PetData constant by its (case-insensitive) name
+     *
+     * @param name name of the constant
+     * @return the matching PetData, or null if none exists
+     */
+    public static PetData fromName(String name) {
+        return name == null ? null : BY_NAME.get(name.toLowerCase());
+    }
+
+    private static void decodeLegacyInto(long value, PetType type, EnumSet<PetData> target) {
+        for (int i = 0; i < VALUES.length; i++) {
+            PetData data = VALUES[i];
+            // Ids match the ordinals used by the legacy format. Replicates its int shift, including the wrap-around
+            if ((value & (1 << data.getId())) != 0 && (type == null || type.isDataAllowed(data))) {
+                target.add(data);
+            }
+        }
+    }
+}
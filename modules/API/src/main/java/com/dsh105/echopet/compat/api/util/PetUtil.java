@@ -45,13 +45,13 @@ public class PetUtil {
         if (s.contains(";")) {
             String[] split = s.split(";");
             if (split.length <= 1) {
-                Lang.sendTo(sender, Lang.STRING_ERROR.toString().replace("%string%", s));
+                Lang.sendTo(sender, Lang.STRING_ERROR.replace("%string%", s));
                 return null;
             }
             if (split[0].contains(":")) {
                 String[] splitt = split[0].split(":");
                 if (splitt.length <= 1) {
-                    Lang.sendTo(sender, Lang.STRING_ERROR.toString().replace("%string%", split[0]));
+                    Lang.sendTo(sender, Lang.STRING_ERROR.replace("%string%", split[0]));
                     return null;
                 }
                 petString = splitt[0].toLowerCase();
@@ -64,20 +64,18 @@ public class PetUtil {
                             singlePetData = PetData.valueOf(dataString.toUpperCase() + "_");
                         }
                         if (singlePetData == null) {
-                            Lang.sendTo(sender, Lang.INVALID_PET_DATA_TYPE.toString()
-                                    .replace("%data%", StringUtil.capitalise(dataString)));
+                            Lang.sendTo(sender, Lang.INVALID_PET_DATA_TYPE.replace("%data%", StringUtil.capitalise(dataString)));
                             return null;
                         }
                     } else {
-                        Lang.sendTo(sender, Lang.INVALID_PET_DATA_TYPE.toString()
-                                .replace("%data%", StringUtil.capitalise(dataString)));
+                        Lang.sendTo(sender, Lang.INVALID_PET_DATA_TYPE.replace("%data%", StringUtil.capitalise(dataString)));
                         return null;
                     }
                 }
             } else if (split[1].contains(":")) {
                 String[] splitt = split[1].split(":");
                 if (splitt.length <= 1) {
-                    Lang.sendTo(sender, Lang.STRING_ERROR.toString().replace("%string%", split[1]));
+                    Lang.sendTo(sender, Lang.STRING_ERROR.replace("%string%", split[1]));
                     return null;
                 }
                 petString = split[0].toLowerCase();
@@ -90,13 +88,11 @@ public class PetUtil {
                             singlePetData = PetData.valueOf(dataString.toUpperCase() + "_");
                         }
                         if (singlePetData == null) {
-                            Lang.sendTo(sender, Lang.INVALID_PET_DATA_TYPE.toString()
-                                    .replace("%data%", StringUtil.capitalise(dataString)));
+                            Lang.sendTo(sender, Lang.INVALID_PET_DATA_TYPE.replace("%data%", StringUtil.capitalise(dataString)));
                             return null;
                         }
                     } else {
-                        Lang.sendTo(sender, Lang.INVALID_PET_DATA_TYPE.toString()
-                                .replace("%data%", StringUtil.capitalise(dataString)));
+                        Lang.sendTo(sender, Lang.INVALID_PET_DATA_TYPE.replace("%data%", StringUtil.capitalise(dataString)));
                         return null;
                     }
                 }
@@ -107,7 +103,7 @@ public class PetUtil {
         } else if (s.contains(":")) {
             String[] split = s.split(":");
             if (split.length <= 1) {
-                Lang.sendTo(sender, Lang.STRING_ERROR.toString().replace("%string%", s));
+                Lang.sendTo(sender, Lang.STRING_ERROR.replace("%string%", s));
                 return null;
             }
             petString = split[0].toLowerCase();
@@ -119,13 +115,11 @@ public class PetUtil {
                         singlePetData = PetData.valueOf(dataString.toUpperCase() + "_");
                     }
                     if (singlePetData == null) {
-                        Lang.sendTo(sender, Lang.INVALID_PET_DATA_TYPE.toString()
-                                .replace("%data%", StringUtil.capitalise(dataString)));
+                        Lang.sendTo(sender, Lang.INVALID_PET_DATA_TYPE.replace("%data%", StringUtil.capitalise(dataString)));
                         return null;
                     }
                 } else {
-                    Lang.sendTo(sender, Lang.INVALID_PET_DATA_TYPE.toString()
-                            .replace("%data%", StringUtil.capitalise(dataString)));
+                    Lang.sendTo(sender, Lang.INVALID_PET_DATA_TYPE.replace("%data%", StringUtil.capitalise(dataString)));
                     return null;
                 }
             }
@@ -137,8 +131,7 @@ public class PetUtil {
             petType = PetType.valueOf(petString.toUpperCase());
         }
         if (petType == null) {
-            Lang.sendTo(sender, Lang.INVALID_PET_TYPE.toString()
-                    .replace("%type%", StringUtil.capitalise(petString)));
+            Lang.sendTo(sender, Lang.INVALID_PET_TYPE.replace("%type%", StringUtil.capitalise(petString)));
             return null;
         }
 
@@ -149,12 +142,10 @@ public class PetUtil {
                     if (dataTemp != null) {
                         petDataList.add(dataTemp);
                     } else {
-                        Lang.sendTo(sender, Lang.INVALID_PET_DATA_TYPE.toString()
-                                .replace("%data%", StringUtil.capitalise(dataTypeString)));
+                        Lang.sendTo(sender, Lang.INVALID_PET_DATA_TYPE.replace("%data%", StringUtil.capitalise(dataTypeString)));
                     }
                 } else {
-                    Lang.sendTo(sender, Lang.INVALID_PET_DATA_TYPE.toString()
-                            .replace("%data%", StringUtil.capitalise(dataTypeString)));
+                    Lang.sendTo(sender, Lang.INVALID_PET_DATA_TYPE.replace("%data%", StringUtil.capitalise(dataTypeString)));
                     return null;
                 }
             }
@@ -168,14 +159,11 @@ public class PetUtil {
             for (PetData dataTemp : petDataList) {
                 if (dataTemp != null) {
                     if (!petType.isDataAllowed(dataTemp)) {
-                        Lang.sendTo(sender, Lang.INVALID_PET_DATA_TYPE_FOR_PET.toString()
-                                .replace("%data%", StringUtil.capitalise(dataTemp.toString().replace("_", "")))
-                                .replace("%type%", StringUtil.capitalise(petType.toString().replace("_", " "))));
+                        Lang.sendTo(sender, Lang.INVALID_PET_DATA_TYPE_FOR_PET.replace("%data%", StringUtil.capitalise(dataTemp.toString().replace("_", "")), "%type%", StringUtil.capitalise(petType.toString().replace("_", " "))));
                         return null;
                     }
                     if (!EchoPet.getOptions().allowData(petType, dataTemp)) {
-                        Lang.sendTo(sender, Lang.DATA_TYPE_DISABLED.toString()
-                                .replace("%data%", StringUtil.capitalise(dataTemp.toString().replace("_", ""))));
+                        Lang.sendTo(sender, Lang.DATA_TYPE_DISABLED.replace("%data%", StringUtil.capitalise(dataTemp.toString().replace("_", ""))));
                         return null;
                     }
                 }
@@ -183,8 +171,7 @@ public class PetUtil {
         }
 
         if (!EchoPet.getOptions().allowPetType(petType)) {
-            Lang.sendTo(sender, Lang.PET_TYPE_DISABLED.toString()
-                    .replace("%type%", StringUtil.capitalise(petType.toString().replace("_", ""))));
+            Lang.sendTo(sender, Lang.PET_TYPE_DISABLED.replace("%type%", StringUtil.capitalise(petType.toString().replace("_", ""))));
             return null;
         }
 
@@ -0,0 +1,161 @@
+/*
+ * This file is part of EchoPet.
+ *
+ * EchoPet is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EchoPet is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EchoPet.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.dsh105.echopet.compat.api.util;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.*;
+
+/**
+ * Positions of players, bucketed by world and chunk, for finding the players near a location without scanning every
+ * entity of a world.
+ * <p/>
+ * The index is a snapshot; players moving afterwards are not reflected until it is rebuilt.
+ */
+public class PlayerChunkIndex {
+
+    private final Map<UUID, Map<Long, List<Entry>>> worlds = new HashMap<UUID, Map<Long, List<Entry>>>();
+    private int size;
+
+    public int size() {
+        return this.size;
+    }
+
+    public void clear() {
+        this.worlds.clear();
+        this.size = 0;
+    }
+
+    /**
+     * Replaces the contents of the index
+     *
+     * @param players players to index
+     */
+    public void rebuild(Collection<? extends Player> players) {
+        this.clear();
+        for (Player player : players) {
+            this.add(player, player.getLocation());
+        }
+    }
+
+    public void add(Player player, Location location) {
+        World world = location.getWorld();
+        if (world == null) {
+            return;
+        }
+        Map<Long, List<Entry>> chunks = this.worlds.get(world.getUID());
+        if (chunks == null) {
+            chunks = new HashMap<Long, List<Entry>>();
+            this.worlds.put(world.getUID(), chunks);
+        }
+        Long key = chunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4);
+        List<Entry> entries = chunks.get(key);
+        if (entries == null) {
+            entries = new ArrayList<Entry>(2);
+            chunks.put(key, entries);
+        }
+        entries.add(new Entry(player, location.getX(), location.getY(), location.getZ()));
+        this.size++;
+    }
+
+    /**
+     * Finds the indexed players within a radius of a location
+     *
+     * @param center location to search around
+     * @param radius search radius, in blocks
+     * @param result list to add the players found to
+     */
+    public void getNearby(Location center, double radius, List<Player> result) {
+        World world = center.getWorld();
+        if (world == null) {
+            return;
+        }
+        Map<Long, List<Entry>> chunks = this.worlds.get(world.getUID());
+        if (chunks == null) {
+            return;
+        }
+        double x = center.getX();
+        double y = center.getY();
+        double z = center.getZ();
+        double radiusSquared = radius * radius;
+        int minChunkX = floor(x - radius) >> 4;
+        int maxChunkX = floor(x + radius) >> 4;
+        int minChunkZ = floor(z - radius) >> 4;
+        int maxChunkZ = floor(z + radius) >> 4;
+
+        if ((long) (maxChunkX - minChunkX + 1) * (maxChunkZ - minChunkZ + 1) > chunks.size()) {
+            // Fewer occupied chunks than chunks in range - cheaper to walk the occupied ones
+            for (Map.Entry<Long, List<Entry>> chunk : chunks.entrySet()) {
+                long key = chunk.getKey();
+                int chunkX = (int) (key >> 32);
+                int chunkZ = (int) key;
+                if (chunkX >= minChunkX && chunkX <= maxChunkX && chunkZ >= minChunkZ && chunkZ <= maxChunkZ) {
+                    collect(chunk.getValue(), x, y, z, radiusSquared, result);
+                }
+            }
+        } else {
+            for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+                for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                    List<Entry> entries = chunks.get(chunkKey(chunkX, chunkZ));
+                    if (entries != null) {
+                        collect(entries, x, y, z, radiusSquared, result);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void collect(List<Entry> entries, double x, double y, double z, double radiusSquared, List<Player> result) {
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            double dx = entry.x - x;
+            double dy = entry.y - y;
+            double dz = entry.z - z;
+            if (dx * dx + dy * dy + dz * dz <= radiusSquared) {
+                result.add(entry.player);
+            }
+        }
+    }
+
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    private static int floor(double value) {
+        int i = (int) value;
+        return value < i ? i - 1 : i;
+    }
+
+    private static class Entry {
+
+        private final Player player;
+        private final double x;
+        private final double y;
+        private final double z;
+
+        Entry(Player player, double x, double y, double z) {
+            this.player = player;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+    }
+}
@@ -17,48 +17,20 @@
 
 package com.dsh105.echopet.compat.api.util;
 
-import com.dsh105.echopet.compat.api.plugin.EchoPet;
-import com.dsh105.echopet.compat.api.reflection.ReflectionConstants;
-import com.dsh105.echopet.compat.api.reflection.utility.CommonReflection;
+import com.dsh105.echopet.compat.api.reflection.ReflectionHandles;
 import org.bukkit.entity.Player;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-
 public class PlayerUtil {
 
-    private static final Method sendPacket = ReflectionUtil.getMethod(ReflectionUtil.getNMSClass("PlayerConnection"), ReflectionConstants.PLAYER_FUNC_SENDPACKET.getName(), ReflectionUtil.getNMSClass("Packet"));
-
     public static void sendPacket(Player player, Object packet) {
-        Object playerConnection = getPlayerConnection(player);
-        try {
-            sendPacket.invoke(playerConnection, packet);
-        } catch (IllegalAccessException e) {
-            EchoPet.getPlugin().getReflectionLogger().warning("Failed to retrieve the PlayerConnection of: " + player.getName());
-        } catch (IllegalArgumentException e) {
-            EchoPet.getPlugin().getReflectionLogger().warning("Failed to retrieve the PlayerConnection of: " + player.getName());
-        } catch (InvocationTargetException e) {
-            EchoPet.getPlugin().getReflectionLogger().warning("Failed to retrieve the PlayerConnection of: " + player.getName());
-        }
+        ReflectionHandles.PLAYER_FUNC_SENDPACKET.invoke(getPlayerConnection(player), packet);
     }
 
     public static Object playerToEntityPlayer(Player player) {
-        Method getHandle = ReflectionUtil.getMethod(player.getClass(), "getHandle");
-        try {
-            return getHandle.invoke(player);
-        } catch (IllegalAccessException e) {
-            EchoPet.getPlugin().getReflectionLogger().warning("Failed retrieve the NMS Player-Object of:" + player.getName());
-            return null;
-        } catch (IllegalArgumentException e) {
-            EchoPet.getPlugin().getReflectionLogger().warning("Failed retrieve the NMS Player-Object of:" + player.getName());
-            return null;
-        } catch (InvocationTargetException e) {
-            EchoPet.getPlugin().getReflectionLogger().warning("Failed retrieve the NMS Player-Object of:" + player.getName());
-            return null;
-        }
+        return ReflectionHandles.CRAFTENTITY_FUNC_GETHANDLE.invoke(player);
     }
 
     public static Object getPlayerConnection(Player player) {
-        return ReflectionUtil.getField(ReflectionUtil.getNMSClass("EntityPlayer"), ReflectionConstants.PLAYER_FIELD_CONNECTION.getName(), playerToEntityPlayer(player));
+        return ReflectionHandles.PLAYER_FIELD_CONNECTION.get(playerToEntityPlayer(player));
     }
 }
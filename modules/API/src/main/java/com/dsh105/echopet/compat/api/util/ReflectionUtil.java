@@ -18,6 +18,7 @@
 package com.dsh105.echopet.compat.api.util;
 
 import com.dsh105.echopet.compat.api.plugin.EchoPet;
+import com.dsh105.echopet.compat.api.reflection.ReflectionHandles;
 import com.dsh105.echopet.compat.api.reflection.utility.CommonReflection;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Entity;
@@ -36,7 +37,7 @@ public class ReflectionUtil {
     public static int BUKKIT_VERSION_NUMERIC = Integer.valueOf(getBukkitVersion().replaceAll("[^0-9]", ""));
 
     public static Object getEntityHandle(Entity entity) {
-        return invokeMethod(getMethod(getCBCClass("entity.CraftEntity"), "getHandle"), entity);
+        return ReflectionHandles.CRAFTENTITY_FUNC_GETHANDLE.invoke(entity);
     }
 
     public static String getServerVersion() {
@@ -81,6 +82,22 @@ public class ReflectionUtil {
         }
     }
 
+    /**
+     * Loads a class without initialising it. May be called from any thread.
+     *
+     * @param name fully qualified name of the class
+     * @return the loaded class, or null if it could not be found
+     */
+    public static Class loadClass(String name) {
+        try {
+            return Class.forName(name, false, ReflectionUtil.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            EchoPet.getPlugin().getReflectionLogger().warning("Could not find class: " + name + "!");
+            e.printStackTrace();
+            return null;
+        }
+    }
+
     public static Class getVersionedClass(String classPath) {
         return getClass(COMPAT_NMS_PATH + "." + classPath);
     }
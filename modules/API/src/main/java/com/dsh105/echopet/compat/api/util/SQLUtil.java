@@ -22,23 +22,17 @@ import com.dsh105.echopet.compat.api.entity.PetData;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * @deprecated use {@link com.dsh105.echopet.compat.api.util.PetDataCodec}
+ */
+@Deprecated
 public class SQLUtil {
 
     public static long serializePetData(List<PetData> data) {
-        long bitmask = 0;
-        for (PetData petData : data) {
-            bitmask |= (1 << petData.ordinal());
-        }
-        return bitmask;
+        return PetDataCodec.encode(data);
     }
 
     public static List<PetData> deserializePetData(long bitmask) {
-        List<PetData> result = new ArrayList<PetData>();
-        for (PetData petData : PetData.values()) {
-            if ((bitmask & (1 << petData.ordinal())) != 0) {
-                result.add(petData);
-            }
-        }
-        return result;
+        return new ArrayList<PetData>(PetDataCodec.decode(bitmask, null));
     }
-}
\ No newline at end of file
+}
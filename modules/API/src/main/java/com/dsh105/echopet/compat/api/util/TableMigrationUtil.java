@@ -2,6 +2,7 @@ package com.dsh105.echopet.compat.api.util;
 
 import com.dsh105.dshutils.logger.Logger;
 import com.dsh105.echopet.compat.api.entity.PetData;
+import com.dsh105.echopet.compat.api.entity.PetType;
 import com.dsh105.echopet.compat.api.plugin.EchoPet;
 import com.dsh105.echopet.compat.api.plugin.uuid.UUIDFetcher;
 import com.dsh105.echopet.compat.api.plugin.uuid.UUIDMigration;
@@ -9,235 +10,475 @@ import com.dsh105.echopet.compat.api.plugin.uuid.UUIDMigration;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.UUID;
+import java.sql.Types;
+import java.util.*;
 
 /**
  * Coordinates migration between table schemas.
  *
- * Table migration strategies are intended to be incremental: if a user has a table two-versions-old,
- * the table will be migrated twice (once for each version).
+ * The legacy tables (Pets and EchoPet) share a layout with a column per PetData. Their rows are copied to the latest
+ * table by a background job, in chunks ordered by owner. After each chunk is committed, its last owner is written to
+ * a checkpoint table. A migration that is interrupted resumes from there the next time the plugin is enabled. Until a
+ * legacy table has been fully migrated, pets missing from the latest table are read from it instead (see
+ * {@link #getPendingTables()}).
+ *
+ * Pets cleared while the migration is running are recorded with {@link #recordCleared(String...)}, so that a chunk
+ * that read their legacy rows before they were deleted does not copy them back.
  */
 public class TableMigrationUtil {
     public static final String LATEST_TABLE = "EchoPet_version3";
-    private static final List<MigrationStrategy> tableMigrationStrategies = new ArrayList<MigrationStrategy>();
+    public static final String CHECKPOINT_TABLE = "EchoPet_migration";
 
-    // TODO: Perhaps migration strategies should be moved to their own classes.
-    static {
-        // Pets -> EchoPet
-        // Migrates UUIDs as necessary
-        tableMigrationStrategies.add(new MigrationStrategy("Pets") {
-            @Override
-            public String getMigratedTableSchema() {
-                return "EchoPet ("
-                     + "    OwnerName varchar(255),"
-                     + "    PetType varchar(255),"
-                     + "    PetName varchar(255),"
-                     +      serialise(PetData.values(), false) + ", "
-                     + "    RiderPetType varchar(255), RiderPetName varchar(255), "
-                     +      serialise(PetData.values(), true) + ", "
-                     + "    PRIMARY KEY (OwnerName)"
-                     + ");";
+    // Newest first, so that an owner present in both tables keeps their most recent pet
+    private static final String[] LEGACY_TABLES = {"EchoPet", "Pets"};
+
+    // Matches the number of names sent in a single profile request
+    private static final int CHUNK_SIZE = 100;
+    private static final long PROFILE_REQUEST_INTERVAL_MILLIS = 1000L;
+    private static final long PROFILE_RETRY_DELAY_MILLIS = 10000L;
+    private static final int PROFILE_LOOKUP_ATTEMPTS = 3;
+
+    private static final String INSERT_STATEMENT = "INSERT IGNORE INTO " + LATEST_TABLE
+            + " (OwnerName, PetType, PetName, PetData, RiderPetType, RiderPetName, RiderPetData) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    // Held while a chunk is written, so that owners cleared during the write are deleted after it is committed
+    private static final Object CHUNK_LOCK = new Object();
+    private static final Set<String> clearedOwners = new HashSet<String>();
+
+    private static volatile List<String> pendingTables = Collections.emptyList();
+    private static volatile boolean running;
+    private static volatile long migratedRows;
+    private static Thread migrationThread;
+    private static long lastProfileRequest;
+
+    /**
+     * Starts migrating old tables in the background using EchoPet's SQL connection pool. Must be called from the main
+     * thread after the latest table has been created.
+     *
+     * In the process of migration, old tables will be dropped
+     */
+    public static void startMigration() {
+        if (migrationThread != null && migrationThread.isAlive()) {
+            return;
+        }
+        Connection conn = null;
+        List<String> pending = new ArrayList<String>();
+        try {
+            conn = EchoPet.getPlugin().getDbPool().getConnection();
+            for (String table : LEGACY_TABLES) {
+                if (conn.getMetaData().getTables(null, null, table, null).next()) {
+                    pending.add(table);
+                }
             }
+        } catch (SQLException e) {
+            Logger.log(Logger.LogLevel.SEVERE, "Failed to migrate old SQL table(s)", e, true);
+            return;
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.close();
+                } catch (SQLException ignored) {}
+            }
+        }
+        pendingTables = Collections.unmodifiableList(pending);
 
+        running = true;
+        migrationThread = new Thread(new Runnable() {
             @Override
-            public void migrate(Connection conn) throws SQLException {
-                // Copy all of our data over to the new table
-                PreparedStatement copyStatement = conn.prepareStatement("INSERT INTO EchoPet SELECT * FROM Pets");
-                copyStatement.executeUpdate();
+            public void run() {
+                migrateTables();
+            }
+        }, "EchoPet Table Migration");
+        migrationThread.setDaemon(true);
+        migrationThread.start();
+    }
 
-                // Migrate to UUIDs in the new table if necessary
-                if (ReflectionUtil.MC_VERSION_NUMERIC >= 172 && UUIDMigration.canReturnUUID()) {
-                    PreparedStatement getOwnerStatement = conn.prepareStatement("SELECT OwnerName FROM EchoPet");
+    /**
+     * Stops the background migration after its current chunk. Unmigrated rows are picked up again the next time the
+     * migration is started.
+     */
+    public static void stopMigration() {
+        running = false;
+        Thread thread = migrationThread;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(10000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            migrationThread = null;
+        }
+    }
 
-                    PreparedStatement updateNameStatement = conn.prepareStatement("UPDATE EchoPet SET OwnerName = ? WHERE OwnerName = ?");
-                    ResultSet resultSet = getOwnerStatement.executeQuery();
-                    while (resultSet.next()) {
-                        String ownerName = resultSet.getString("OwnerName");
+    /**
+     * @return true if any legacy table still holds rows that have not been migrated
+     */
+    public static boolean isMigrating() {
+        return !pendingTables.isEmpty();
+    }
 
-                        try {
-                            UUID.fromString(ownerName);
-                            continue; // This name is already a UUID.
-                        } catch (IllegalArgumentException ignored) {}
+    /**
+     * Gets the legacy tables that still hold rows that have not been migrated, newest first
+     *
+     * @return an unmodifiable list of table names
+     */
+    public static List<String> getPendingTables() {
+        return pendingTables;
+    }
 
-                        UUID playerUUID;
-                        try {
-                            playerUUID = UUIDFetcher.getUUIDOf(ownerName);
-                        } catch (Exception e) {
-                            continue;
-                        }
+    /**
+     * @return number of legacy rows copied to the latest table since the plugin was enabled
+     */
+    public static long getMigratedRowCount() {
+        return migratedRows;
+    }
 
-                        if (playerUUID == null) {
-                            continue;
-                        }
+    /**
+     * Records that the pets of an owner are being cleared, so that rows of a chunk read before the legacy rows were
+     * deleted are not copied to the latest table. Must be called before the pets are deleted from any table.
+     *
+     * @param owners identifications (name or UUID) of the owner
+     */
+    public static void recordCleared(String... owners) {
+        synchronized (CHUNK_LOCK) {
+            if (pendingTables.isEmpty()) {
+                return;
+            }
+            for (String owner : owners) {
+                if (owner != null) {
+                    clearedOwners.add(owner.toLowerCase());
+                }
+            }
+        }
+    }
 
-                        updateNameStatement.setString(1, playerUUID.toString());
-                        updateNameStatement.setString(2, ownerName);
-                        updateNameStatement.addBatch();
-                    }
+    /**
+     * Reads the data of a pet (or its rider) from the current row of a legacy table
+     *
+     * @param resultSet row of a legacy table
+     * @param rider     true to read the data of the rider
+     * @return the data enabled in the row
+     * @throws SQLException
+     */
+    public static List<PetData> readLegacyData(ResultSet resultSet, boolean rider) throws SQLException {
+        return readLegacyData(resultSet, getColumns(resultSet), rider);
+    }
 
-                    updateNameStatement.executeBatch();
-                }
+    private static List<PetData> readLegacyData(ResultSet resultSet, Set<String> columns, boolean rider) throws SQLException {
+        List<PetData> dataList = new ArrayList<PetData>();
+        for (PetData data : PetData.values()) {
+            String column = (rider ? "Rider" : "") + data.toString();
+            // Tables created by older versions lack the columns of newer data types
+            if (!columns.contains(column.toLowerCase())) {
+                continue;
             }
+            String dataValue = resultSet.getString(column);
+            if (dataValue != null && Boolean.valueOf(dataValue)) {
+                dataList.add(data);
+            }
+        }
+        return dataList;
+    }
+
+    private static Set<String> getColumns(ResultSet resultSet) throws SQLException {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        Set<String> columns = new HashSet<String>();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            columns.add(metaData.getColumnLabel(i).toLowerCase());
+        }
+        return columns;
+    }
 
-            // Implementation-compatible with old SQLUtil::serialise
-            private String serialise(PetData[] data, boolean isRider) {
-                String serialized = (isRider ? "Rider" : "") + data[0].toString() + " varchar(255)";
+    private static void migrateTables() {
+        Connection conn = null;
+        try {
+            conn = EchoPet.getPlugin().getDbPool().getConnection();
+            conn.setAutoCommit(false);
+            PreparedStatement createCheckpoint = conn.prepareStatement("CREATE TABLE IF NOT EXISTS " + CHECKPOINT_TABLE + " ("
+                    + "    TableName varchar(64),"
+                    + "    LastOwner varchar(255),"
+                    + "    PRIMARY KEY (TableName)"
+                    + ");");
+            try {
+                createCheckpoint.executeUpdate();
+            } finally {
+                createCheckpoint.close();
+            }
+            conn.commit();
 
-                for (int i = 1; i < data.length; i++) {
-                    serialized += ", " + (isRider ? "Rider" : "") + data[i].toString() + " varchar(255)";
+            for (String table : pendingTables) {
+                if (!running) {
+                    return;
                 }
-
-                return serialized;
+                migrateTable(conn, table);
             }
-        });
 
-        // EchoPet -> EchoPet_version3
-        // Reduction in columns -- no longer has a column (varchar 255) per PetData
-        tableMigrationStrategies.add(new MigrationStrategy("EchoPet") {
-            @Override
-            public String getMigratedTableSchema() {
-                return "EchoPet_version3 ("
-                     + "    OwnerName varchar(36),"
-                     + "    PetType varchar(255),"
-                     + "    PetName varchar(255),"
-                     + "    PetData BIGINT,"
-                     + "    RiderPetType varchar(255),"
-                     + "    RiderPetName varchar(255), "
-                     + "    RiderPetData BIGINT,"
-                     + "    PRIMARY KEY (OwnerName)"
-                     + ");";
+            if (running) {
+                migrateDataEncoding(conn);
+            }
+        } catch (Exception e) {
+            if (running) {
+                Logger.log(Logger.LogLevel.SEVERE, "Failed to migrate old SQL table(s). Migration will continue the next time EchoPet is enabled.", e, true);
             }
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ignored) {}
+            }
+        } finally {
+            running = false;
+            // No chunk is in flight any more, and the rows of these owners have been deleted
+            synchronized (CHUNK_LOCK) {
+                clearedOwners.clear();
+            }
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException ignored) {}
+            }
+        }
+    }
 
-            @Override
-            public void migrate(Connection conn) throws SQLException {
-                PreparedStatement selectAll = conn.prepareStatement("SELECT * FROM EchoPet");
-                ResultSet resultSet = selectAll.executeQuery();
+    /**
+     * Copies every row of a legacy table to the latest table, starting after its checkpoint, and drops it
+     *
+     * @param conn  The connection that will be used to migrate the table
+     * @param table name of the legacy table
+     * @throws Exception
+     */
+    private static void migrateTable(Connection conn, String table) throws Exception {
+        String lastOwner = "";
+        PreparedStatement checkpoint = conn.prepareStatement("SELECT LastOwner FROM " + CHECKPOINT_TABLE + " WHERE TableName = ?");
+        try {
+            checkpoint.setString(1, table);
+            ResultSet resultSet = checkpoint.executeQuery();
+            if (resultSet.next() && resultSet.getString("LastOwner") != null) {
+                lastOwner = resultSet.getString("LastOwner");
+            }
+        } finally {
+            checkpoint.close();
+        }
 
-                PreparedStatement statement = conn.prepareStatement("INSERT INTO EchoPet_version3 (OwnerName, PetType, PetName, PetData, RiderPetType, RiderPetName, RiderPetData) VALUES (?, ?, ?, ?, ?, ?, ?)");
-                while (resultSet.next()) {
+        Logger.log(Logger.LogLevel.NORMAL, "Migrating SQL table " + table + " in the background" + (lastOwner.isEmpty() ? "." : ", continuing after " + lastOwner + "."), true);
 
-                    statement.setString(1, resultSet.getString("OwnerName"));
-                    statement.setString(2, resultSet.getString("PetType"));
-                    statement.setString(3, resultSet.getString("PetName"));
+        boolean useUuids = ReflectionUtil.MC_VERSION_NUMERIC >= 172 && UUIDMigration.canReturnUUID();
+        PreparedStatement select = conn.prepareStatement("SELECT * FROM " + table + " WHERE OwnerName > ? ORDER BY OwnerName LIMIT " + CHUNK_SIZE);
+        PreparedStatement insert = conn.prepareStatement(INSERT_STATEMENT);
+        PreparedStatement updateCheckpoint = conn.prepareStatement("INSERT INTO " + CHECKPOINT_TABLE + " (TableName, LastOwner) VALUES (?, ?)"
+                + " ON DUPLICATE KEY UPDATE LastOwner = VALUES(LastOwner)");
+        try {
+            select.setFetchSize(CHUNK_SIZE);
+            while (running) {
+                select.setString(1, lastOwner);
+                List<LegacyRow> rows = new ArrayList<LegacyRow>(CHUNK_SIZE);
+                ResultSet resultSet = select.executeQuery();
+                try {
+                    Set<String> columns = getColumns(resultSet);
+                    while (resultSet.next()) {
+                        rows.add(new LegacyRow(resultSet, columns));
+                    }
+                } finally {
+                    resultSet.close();
+                }
 
-                    List<PetData> dataList = new ArrayList<PetData>();
-                    for (PetData data : PetData.values()) {
-                        String dataValue = resultSet.getString(data.toString());
+                if (rows.isEmpty()) {
+                    break;
+                }
 
-                        if (dataValue != null && Boolean.valueOf(dataValue)) {
-                            dataList.add(data);
+                Map<String, UUID> uuids = useUuids ? lookupProfiles(rows) : Collections.<String, UUID>emptyMap();
+                lastOwner = rows.get(rows.size() - 1).ownerName;
+                synchronized (CHUNK_LOCK) {
+                    for (LegacyRow row : rows) {
+                        UUID uuid = uuids.get(row.ownerName.toLowerCase());
+                        String owner = uuid == null ? row.ownerName : uuid.toString();
+                        // Cleared after this chunk was read
+                        if (clearedOwners.contains(row.ownerName.toLowerCase()) || clearedOwners.contains(owner.toLowerCase())) {
+                            continue;
                         }
+                        insert.setString(1, owner);
+                        insert.setString(2, row.petType);
+                        insert.setString(3, row.petName);
+                        insert.setLong(4, row.petData);
+                        insert.setString(5, row.riderPetType);
+                        insert.setString(6, row.riderPetName);
+                        insert.setLong(7, row.riderPetData);
+                        insert.addBatch();
                     }
+                    insert.executeBatch();
 
-                    statement.setLong(4, SQLUtil.serializePetData(dataList));
+                    updateCheckpoint.setString(1, table);
+                    updateCheckpoint.setString(2, lastOwner);
+                    updateCheckpoint.executeUpdate();
+                    conn.commit();
+                }
+                migratedRows += rows.size();
+            }
+        } finally {
+            select.close();
+            insert.close();
+            updateCheckpoint.close();
+        }
 
-                    statement.setString(5, resultSet.getString("RiderPetType"));
-                    statement.setString(6, resultSet.getString("RiderPetName"));
+        if (!running) {
+            return;
+        }
 
-                    List<PetData> riderDataList = new ArrayList<PetData>();
-                    for (PetData data : PetData.values()) {
-                        String dataValue = resultSet.getString("Rider" + data.toString());
+        // Stop reading pets from the table before it is dropped
+        List<String> pending = new ArrayList<String>(pendingTables);
+        pending.remove(table);
+        pendingTables = Collections.unmodifiableList(pending);
 
-                        if (dataValue != null && Boolean.valueOf(dataValue)) {
-                            riderDataList.add(data);
-                        }
-                    }
+        PreparedStatement drop = conn.prepareStatement("DROP TABLE " + table);
+        try {
+            drop.executeUpdate();
+        } finally {
+            drop.close();
+        }
+        PreparedStatement clearCheckpoint = conn.prepareStatement("DELETE FROM " + CHECKPOINT_TABLE + " WHERE TableName = ?");
+        try {
+            clearCheckpoint.setString(1, table);
+            clearCheckpoint.executeUpdate();
+        } finally {
+            clearCheckpoint.close();
+        }
+        conn.commit();
+        Logger.log(Logger.LogLevel.NORMAL, "Finished migrating SQL table " + table + ".", true);
+    }
+
+    /**
+     * Looks up the UUIDs of the owners of a chunk of rows in a single profile request
+     *
+     * @param rows rows to look up the owners of
+     * @return UUIDs by lowercase owner name. Owners without a profile are left out.
+     * @throws Exception if the lookup failed repeatedly
+     */
+    private static Map<String, UUID> lookupProfiles(List<LegacyRow> rows) throws Exception {
+        List<String> names = new ArrayList<String>();
+        for (LegacyRow row : rows) {
+            try {
+                UUID.fromString(row.ownerName);
+                // This name is already a UUID
+            } catch (IllegalArgumentException e) {
+                names.add(row.ownerName);
+            }
+        }
+        if (names.isEmpty()) {
+            return Collections.emptyMap();
+        }
 
-                    statement.setLong(7, SQLUtil.serializePetData(riderDataList));
-                    statement.addBatch();
+        Exception failure = null;
+        for (int attempt = 0; attempt < PROFILE_LOOKUP_ATTEMPTS; attempt++) {
+            // Keep well below the rate limit of the profile API
+            long delay = attempt == 0 ? PROFILE_REQUEST_INTERVAL_MILLIS : PROFILE_RETRY_DELAY_MILLIS * attempt;
+            long wait = lastProfileRequest + delay - System.currentTimeMillis();
+            if (wait > 0) {
+                Thread.sleep(wait);
+            }
+            lastProfileRequest = System.currentTimeMillis();
+            try {
+                Map<String, UUID> uuids = new HashMap<String, UUID>();
+                for (Map.Entry<String, UUID> entry : new UUIDFetcher(names, true, EchoPet.getOptions().getProfileUrl()).call().entrySet()) {
+                    uuids.put(entry.getKey().toLowerCase(), entry.getValue());
                 }
-                statement.executeBatch();
+                return uuids;
+            } catch (Exception e) {
+                failure = e;
             }
-        });
+        }
+        throw failure;
     }
 
     /**
-     * Migrate old tables using EchoPet's SQL connection pool
+     * Re-encodes PetData and RiderPetData values that were written before {@link PetDataCodec} was introduced
      *
-     * In the process of migration, old tables will be dropped
+     * @param conn The connection that will be used to migrate the data
+     * @throws SQLException
      */
-    public static void migrateTables() {
-        Connection conn = null;
-
+    private static void migrateDataEncoding(Connection conn) throws SQLException {
+        PreparedStatement select = conn.prepareStatement("SELECT OwnerName, PetType, PetData, RiderPetType, RiderPetData FROM " + LATEST_TABLE
+                + " WHERE OwnerName > ? AND ((PetData >> 56) <> " + PetDataCodec.VERSION
+                + " OR (RiderPetData IS NOT NULL AND (RiderPetData >> 56) <> " + PetDataCodec.VERSION + "))"
+                + " ORDER BY OwnerName LIMIT " + CHUNK_SIZE);
+        // Rows saved since they were read are left alone
+        PreparedStatement update = conn.prepareStatement("UPDATE " + LATEST_TABLE + " SET PetData = ?, RiderPetData = ?"
+                + " WHERE OwnerName = ? AND PetData = ? AND RiderPetData <=> ?");
         try {
-            conn = EchoPet.getPlugin().getDbPool().getConnection();
-            for (MigrationStrategy strategy : tableMigrationStrategies) {
-                if (conn.getMetaData().getTables(null, null, strategy.getTableName(), null).next()) {
-                    strategy.createTargetTable(conn);
-                    strategy.migrate(conn);
-                    strategy.dropOldTable(conn);
+            select.setFetchSize(CHUNK_SIZE);
+            String lastOwner = "";
+            int migrated = 0;
+            while (running) {
+                select.setString(1, lastOwner);
+                ResultSet resultSet = select.executeQuery();
+                int rows = 0;
+                try {
+                    while (resultSet.next()) {
+                        long petData = resultSet.getLong("PetData");
+                        update.setLong(1, PetDataCodec.migrate(petData, findPetType(resultSet.getString("PetType"))));
+                        long riderData = resultSet.getLong("RiderPetData");
+                        if (resultSet.wasNull()) {
+                            update.setNull(2, Types.BIGINT);
+                            update.setNull(5, Types.BIGINT);
+                        } else {
+                            update.setLong(2, PetDataCodec.migrate(riderData, findPetType(resultSet.getString("RiderPetType"))));
+                            update.setLong(5, riderData);
+                        }
+                        lastOwner = resultSet.getString("OwnerName");
+                        update.setString(3, lastOwner);
+                        update.setLong(4, petData);
+                        update.addBatch();
+                        rows++;
+                    }
+                } finally {
+                    resultSet.close();
+                }
+                if (rows == 0) {
+                    break;
                 }
+                update.executeBatch();
+                conn.commit();
+                migrated += rows;
             }
-
-        } catch (SQLException e) {
-            Logger.log(Logger.LogLevel.SEVERE, "Failed to migrate old SQL table(s)", e, true);
-        } finally {
-            if (conn != null) {
-                try {
-                    conn.close();
-                } catch (SQLException ignored) {}
+            if (migrated > 0) {
+                Logger.log(Logger.LogLevel.NORMAL, "Migrated stored pet data of " + migrated + " players to the current format.", true);
             }
+        } finally {
+            select.close();
+            update.close();
+        }
+    }
+
+    private static PetType findPetType(String s) {
+        try {
+            return s == null ? null : PetType.valueOf(s.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
         }
     }
 
     /**
-     * Represents a table schema transition
+     * A row of a legacy table, converted to the layout of the latest table
      */
-    abstract static class MigrationStrategy {
-        private final String tableName;
-
-        /**
-         * @param tableName The name of the table that, if present, will be migrated.
-         */
-        public MigrationStrategy(String tableName) {
-            this.tableName = tableName;
-        }
-
-        /**
-         * @return The name of the table that, if present, will be migrated.
-         */
-        public String getTableName() {
-            return tableName;
-        }
-
-        /**
-         * Returns the SQL syntax of the migration target table as could be used
-         * in a "CREATE TABLE" statement
-         *
-         * @return The SQL syntax of the migration target table
-         */
-        public abstract String getMigratedTableSchema();
-
-        /**
-         * Performs the table migration
-         *
-         * @param conn The connection that will be used when migrating the table
-         * @throws SQLException
-         */
-        public abstract void migrate(Connection conn) throws SQLException;
-
-        /**
-         * Drops the table containing the unmigrated data.
-         * This should be preceded by {@link #migrate(java.sql.Connection)}
-         *
-         * @param conn The connection that will be used to drop the table
-         * @throws SQLException
-         */
-        public void dropOldTable(Connection conn) throws SQLException {
-            conn.prepareStatement("DROP TABLE " + tableName).executeUpdate();
-        }
-
-        /**
-         * Creates the table required for the migration to occur
-         *
-         * @param conn The connection that will be used to create the table
-         * @throws SQLException
-         */
-        public void createTargetTable(Connection conn) throws SQLException {
-            conn.prepareStatement("CREATE TABLE IF NOT EXISTS " + getMigratedTableSchema()).executeUpdate();
+    private static class LegacyRow {
+        private final String ownerName;
+        private final String petType;
+        private final String petName;
+        private final long petData;
+        private final String riderPetType;
+        private final String riderPetName;
+        private final long riderPetData;
+
+        LegacyRow(ResultSet resultSet, Set<String> columns) throws SQLException {
+            this.ownerName = resultSet.getString("OwnerName");
+            this.petType = resultSet.getString("PetType");
+            this.petName = resultSet.getString("PetName");
+            this.petData = PetDataCodec.encode(readLegacyData(resultSet, columns, false));
+            this.riderPetType = resultSet.getString("RiderPetType");
+            this.riderPetName = resultSet.getString("RiderPetName");
+            this.riderPetData = PetDataCodec.encode(readLegacyData(resultSet, columns, true));
         }
     }
 }
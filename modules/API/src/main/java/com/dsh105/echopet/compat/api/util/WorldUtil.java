@@ -25,8 +25,22 @@ import com.sk89q.worldguard.protection.regions.ProtectedRegion;
 import org.bukkit.Location;
 import org.bukkit.configuration.ConfigurationSection;
 
+import java.util.*;
+
 public class WorldUtil {
 
+    private static final int REGION_CACHE_SIZE = 8192;
+
+    // Region decisions by world and block, evicting the oldest entries first
+    private static final Map<BlockKey, CachedDecision> REGION_CACHE = new LinkedHashMap<BlockKey, CachedDecision>(256, 0.75F, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<BlockKey, CachedDecision> eldest) {
+            return size() > REGION_CACHE_SIZE;
+        }
+    };
+
+    private static volatile RegionSettings REGION_SETTINGS;
+
     public static boolean allowPets(Location location) {
         boolean allowWorld = EchoPet.getPlugin().getMainConfig().getBoolean("worlds." + location.getWorld().getName(), EchoPet.getPlugin().getMainConfig().getBoolean("worlds.enableByDefault", true));
         return allowWorld && allowRegion(location);
@@ -38,38 +52,136 @@ public class WorldUtil {
             if (wg == null) {
                 return true;
             }
-            RegionManager regionManager = wg.getRegionManager(location.getWorld());
 
-            if (regionManager == null) {
-                return true;
+            RegionSettings settings = getRegionSettings();
+            if (settings.cacheTtlMillis <= 0) {
+                return checkRegion(wg, settings, location);
             }
 
-            ApplicableRegionSet set = regionManager.getApplicableRegions(location);
+            BlockKey key = new BlockKey(location);
+            long now = System.currentTimeMillis();
+            synchronized (REGION_CACHE) {
+                CachedDecision decision = REGION_CACHE.get(key);
+                if (decision != null && decision.expiresAt > now) {
+                    return decision.allow;
+                }
+            }
+            boolean allow = checkRegion(wg, settings, location);
+            synchronized (REGION_CACHE) {
+                REGION_CACHE.put(key, new CachedDecision(allow, now + settings.cacheTtlMillis));
+            }
+            return allow;
+        }
+        return true;
+    }
 
-            if (set.size() <= 0) {
-                return true;
+    /**
+     * Discards cached region decisions and region settings. Called when the configuration is reloaded.
+     */
+    public static void invalidateRegionCache() {
+        REGION_SETTINGS = null;
+        synchronized (REGION_CACHE) {
+            REGION_CACHE.clear();
+        }
+    }
+
+    private static boolean checkRegion(WorldGuardPlugin wg, RegionSettings settings, Location location) {
+        RegionManager regionManager = wg.getRegionManager(location.getWorld());
+
+        if (regionManager == null) {
+            return true;
+        }
+
+        ApplicableRegionSet set = regionManager.getApplicableRegions(location);
+
+        if (set.size() <= 0) {
+            return true;
+        }
+
+        // The first region with a configured value decides
+        for (ProtectedRegion region : set) {
+            Boolean allow = settings.regions.get(region.getId());
+            if (allow != null) {
+                return allow;
             }
+        }
+        return settings.allowByDefault;
+    }
+
+    private static RegionSettings getRegionSettings() {
+        RegionSettings settings = REGION_SETTINGS;
+        if (settings == null) {
+            settings = new RegionSettings();
+            REGION_SETTINGS = settings;
+        }
+        return settings;
+    }
+
+    private static class RegionSettings {
+
+        private final boolean allowByDefault;
+        private final long cacheTtlMillis;
+        private final Map<String, Boolean> regions = new HashMap<String, Boolean>();
 
-            boolean result = true;
-            boolean hasSet = false;
-            boolean def = EchoPet.getPlugin().getMainConfig().getBoolean("worldguard.regions.allowByDefault", true);
+        RegionSettings() {
+            this.allowByDefault = EchoPet.getPlugin().getMainConfig().getBoolean("worldguard.regions.allowByDefault", true);
+            this.cacheTtlMillis = EchoPet.getPlugin().getMainConfig().getInt("worldguard.regionCacheTtl", 30) * 1000L;
 
             ConfigurationSection cs = EchoPet.getPlugin().getMainConfig().getConfigurationSection("worldguard.regions");
-            for (ProtectedRegion region : set) {
+            if (cs != null) {
                 for (String key : cs.getKeys(false)) {
                     if (!key.equalsIgnoreCase("allowByDefault") && !key.equalsIgnoreCase("regionEnterCheck")) {
-                        if (region.getId().equals(key)) {
-                            if (!hasSet) {
-                                result = EchoPet.getPlugin().getMainConfig().getBoolean("worldguard.regions." + key, true);
-                                hasSet = true;
-                            }
-                        }
+                        this.regions.put(key, EchoPet.getPlugin().getMainConfig().getBoolean("worldguard.regions." + key, true));
                     }
                 }
             }
+        }
+    }
+
+    private static class BlockKey {
 
-            return hasSet ? result : def;
+        private final UUID worldId;
+        private final int x;
+        private final int y;
+        private final int z;
+
+        BlockKey(Location location) {
+            this.worldId = location.getWorld().getUID();
+            this.x = location.getBlockX();
+            this.y = location.getBlockY();
+            this.z = location.getBlockZ();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof BlockKey)) {
+                return false;
+            }
+            BlockKey other = (BlockKey) o;
+            return this.x == other.x && this.y == other.y && this.z == other.z && this.worldId.equals(other.worldId);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = this.worldId.hashCode();
+            result = 31 * result + this.x;
+            result = 31 * result + this.y;
+            result = 31 * result + this.z;
+            return result;
+        }
+    }
+
+    private static class CachedDecision {
+
+        private final boolean allow;
+        private final long expiresAt;
+
+        CachedDecision(boolean allow, long expiresAt) {
+            this.allow = allow;
+            this.expiresAt = expiresAt;
         }
-        return true;
     }
-}
\ No newline at end of file
+}
@@ -17,13 +17,9 @@
 
 package com.dsh105.echopet.compat.api.util.fanciful;
 
-import com.dsh105.echopet.compat.api.reflection.ReflectionConstants;
+import com.dsh105.echopet.compat.api.reflection.ReflectionHandles;
 import com.dsh105.echopet.compat.api.reflection.utility.CommonReflection;
-import com.dsh105.echopet.compat.api.util.ReflectionUtil;
 import com.dsh105.echopet.compat.api.util.protocol.wrapper.WrapperPacketPlayOutChat;
-import com.dsh105.echopet.compat.api.reflection.SafeConstructor;
-import com.dsh105.echopet.compat.api.reflection.SafeField;
-import com.dsh105.echopet.compat.api.reflection.SafeMethod;
 import org.bukkit.Achievement;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
@@ -97,8 +93,8 @@ public class FancyMessage {
     }
 
     public FancyMessage achievementTooltip(final Achievement which) {
-        Object achievement = new SafeMethod(ReflectionUtil.getCBCClass("CraftStatistic"), "getNMSAchievement", Achievement.class).invoke(null, which);
-        return achievementTooltip(new SafeField<String>(achievement.getClass(), ReflectionConstants.ACHIEVEMENT_FIELD_NAME.getName()).get(achievement));
+        Object achievement = ReflectionHandles.CRAFTSTATISTIC_FUNC_GETNMSACHIEVEMENT.invoke(null, which);
+        return achievementTooltip(ReflectionHandles.STATISTIC_FIELD_NAME.get(achievement));
     }
 
     public FancyMessage statisticTooltip(final Statistic which) {
@@ -107,8 +103,8 @@ public class FancyMessage {
             throw new IllegalArgumentException("That statistic requires an additional " + type + " parameter!");
         }
 
-        Object achievement = new SafeMethod(ReflectionUtil.getCBCClass("CraftStatistic"), "getNMSStatistic", Statistic.class).invoke(null, which);
-        return achievementTooltip(new SafeField<String>(achievement.getClass(), ReflectionConstants.ACHIEVEMENT_FIELD_NAME.getName()).get(achievement));
+        Object achievement = ReflectionHandles.CRAFTSTATISTIC_FUNC_GETNMSSTATISTIC.invoke(null, which);
+        return achievementTooltip(ReflectionHandles.STATISTIC_FIELD_NAME.get(achievement));
     }
 
     public FancyMessage statisticTooltip(final Statistic which, Material item) {
@@ -120,8 +116,8 @@ public class FancyMessage {
             throw new IllegalArgumentException("Wrong parameter type for that statistic - needs " + type + "!");
         }
 
-        Object achievement = new SafeMethod(ReflectionUtil.getCBCClass("CraftStatistic"), "getMaterialStatistic", Statistic.class, Material.class).invoke(null, which, item);
-        return achievementTooltip(new SafeField<String>(achievement.getClass(), ReflectionConstants.ACHIEVEMENT_FIELD_NAME.getName()).get(achievement));
+        Object achievement = ReflectionHandles.CRAFTSTATISTIC_FUNC_GETMATERIALSTATISTIC.invoke(null, which, item);
+        return achievementTooltip(ReflectionHandles.STATISTIC_FIELD_NAME.get(achievement));
     }
 
     public FancyMessage statisticTooltip(final Statistic which, EntityType entity) {
@@ -133,8 +129,8 @@ public class FancyMessage {
             throw new IllegalArgumentException("Wrong parameter type for that statistic - needs " + type + "!");
         }
 
-        Object achievement = new SafeMethod(ReflectionUtil.getCBCClass("CraftStatistic"), "getEntityStatistic", Statistic.class, EntityType.class).invoke(null, which, entity);
-        return achievementTooltip(new SafeField<String>(achievement.getClass(), ReflectionConstants.ACHIEVEMENT_FIELD_NAME.getName()).get(achievement));
+        Object achievement = ReflectionHandles.CRAFTSTATISTIC_FUNC_GETENTITYSTATISTIC.invoke(null, which, entity);
+        return achievementTooltip(ReflectionHandles.STATISTIC_FIELD_NAME.get(achievement));
     }
 
     public FancyMessage itemTooltip(final String itemJSON) {
@@ -143,9 +139,8 @@ public class FancyMessage {
     }
 
     public FancyMessage itemTooltip(final ItemStack itemStack) {
-        Object nmsCopy;
-        nmsCopy = new SafeMethod(ReflectionUtil.getCBCClass("inventory.CraftItemStack"), "asNMSCopy", ItemStack.class).invoke(null, itemStack);
-        Object nbtData = new SafeMethod(nmsCopy.getClass(), ReflectionConstants.ITEMSTACK_FUNC_SAVE.getName(), ReflectionUtil.getNMSClass("NBTTagCompound")).invoke(nmsCopy, new SafeConstructor(ReflectionUtil.getNMSClass("NBTTagCompound")).newInstance());
+        Object nmsCopy = ReflectionHandles.CRAFTITEMSTACK_FUNC_ASNMSCOPY.invoke(null, itemStack);
+        Object nbtData = ReflectionHandles.ITEMSTACK_FUNC_SAVE.invoke(nmsCopy, ReflectionHandles.NBTTAGCOMPOUND_CONSTRUCTOR.newInstance());
         return itemTooltip(nbtData.toString());
     }
 
@@ -24,18 +24,32 @@ import com.dsh105.echopet.compat.api.plugin.EchoPet;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.EnumMap;
+import java.util.Map;
 
 
 public class DataMenu {
 
+    // Accessed from the main thread only
+    private static final Map<MenuItem, Layout> LAYOUTS = new EnumMap<MenuItem, Layout>(MenuItem.class);
+
     Inventory inv;
     private IPet pet;
+    private PetMenuHolder holder;
 
     public DataMenu(MenuItem mi, IPet pet) {
         this.pet = pet;
-        int size = mi == MenuItem.COLOR ? 18 : 9;
-        this.inv = Bukkit.createInventory(pet.getOwner(), size, "EchoPet DataMenu - " + StringUtil.capitalise(mi.toString().replace("_", " ")));
-        this.setItems(mi.getMenuType(), size);
+        Layout layout = LAYOUTS.get(mi);
+        if (layout == null) {
+            layout = new Layout(mi.getMenuType(), mi == MenuItem.COLOR ? 18 : 9);
+            LAYOUTS.put(mi, layout);
+        }
+        this.holder = new PetMenuHolder(PetMenuOpenEvent.MenuType.DATA, pet, new MenuItem[0], layout.actions);
+        this.inv = Bukkit.createInventory(this.holder, layout.contents.length, "EchoPet DataMenu - " + StringUtil.capitalise(mi.toString().replace("_", " ")));
+        this.holder.setInventory(this.inv);
+        this.inv.setContents(layout.contents);
     }
 
     public void open(boolean sendMessage) {
@@ -51,14 +65,33 @@ public class DataMenu {
     }
 
     public void setItems(DataMenuType type, int size) {
-        int i = 0;
-        for (DataMenuItem mi : DataMenuItem.values()) {
-            if (mi.getType() == type) {
-                this.inv.setItem(i, mi.getItem());
-                i++;
+        Layout layout = new Layout(type, size);
+        this.inv.setContents(layout.contents);
+        this.holder.setActions(new MenuItem[0], layout.actions);
+    }
+
+    /**
+     * The items of a data menu and the option behind each slot, built once per menu option
+     */
+    private static class Layout {
+
+        private final ItemStack[] contents;
+        private final DataMenuItem[] actions;
+
+        Layout(DataMenuType type, int size) {
+            this.contents = new ItemStack[size];
+            this.actions = new DataMenuItem[size];
+            int i = 0;
+            for (DataMenuItem mi : DataMenuItem.values()) {
+                if (mi.getType() == type) {
+                    this.contents[i] = mi.getItem();
+                    this.actions[i] = mi;
+                    i++;
+                }
             }
+            this.contents[size - 1] = DataMenuItem.BACK.getItem();
+            this.actions[size - 1] = DataMenuItem.BACK;
         }
-        this.inv.setItem((size - 1), DataMenuItem.BACK.getItem());
     }
 
     public enum DataMenuType {
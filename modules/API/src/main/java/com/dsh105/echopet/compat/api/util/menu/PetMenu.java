@@ -17,14 +17,11 @@
 
 package com.dsh105.echopet.compat.api.util.menu;
 
-import com.dsh105.dshutils.util.EnumUtil;
 import com.dsh105.dshutils.util.StringUtil;
 import com.dsh105.echopet.compat.api.entity.IPet;
-import com.dsh105.echopet.compat.api.entity.PetData;
 import com.dsh105.echopet.compat.api.event.PetMenuOpenEvent;
 import com.dsh105.echopet.compat.api.plugin.EchoPet;
 import com.dsh105.echopet.compat.api.util.Lang;
-import org.bukkit.Bukkit;
 import org.bukkit.inventory.Inventory;
 
 import java.util.ArrayList;
@@ -34,45 +31,19 @@ public class PetMenu {
     Inventory inv;
     private int size;
     private IPet pet;
-    private ArrayList<MenuOption> options = new ArrayList<MenuOption>();
+
+    public PetMenu(IPet pet) {
+        this(pet, PetMenuTemplate.getTemplate(pet.getPetType()));
+    }
 
     public PetMenu(IPet pet, ArrayList<MenuOption> options, int size) {
+        this(pet, PetMenuTemplate.of(options, size));
+    }
+
+    private PetMenu(IPet pet, PetMenuTemplate template) {
         this.pet = pet;
-        this.size = size;
-        this.inv = Bukkit.createInventory(pet.getOwner(), size, "EchoPet DataMenu");
-        this.options = options;
-        for (MenuOption o : this.options) {
-            if (o.item.getMenuType() == DataMenu.DataMenuType.BOOLEAN) {
-                MenuItem mi = o.item;
-                if (EnumUtil.isEnumType(PetData.class, mi.toString())) {
-                    PetData pd = PetData.valueOf(mi.toString());
-                    if (pet.getPetData().contains(pd)) {
-                        this.inv.setItem(o.position, o.item.getBoolean(false));
-                    } else {
-                        this.inv.setItem(o.position, o.item.getBoolean(true));
-                    }
-                } else {
-                    if (mi.toString().equals("HAT")) {
-                        if (pet.isHat()) {
-                            this.inv.setItem(o.position, o.item.getBoolean(false));
-                        } else {
-                            this.inv.setItem(o.position, o.item.getBoolean(true));
-                        }
-                    }
-                    if (mi.toString().equals("RIDE")) {
-                        if (pet.isOwnerRiding()) {
-                            this.inv.setItem(o.position, o.item.getBoolean(false));
-                        } else {
-                            this.inv.setItem(o.position, o.item.getBoolean(true));
-                        }
-                    }
-                }
-            } else {
-                this.inv.setItem(o.position, o.item.getItem());
-            }
-        }
-        int book = size - 1;
-        this.inv.setItem(book, DataMenuItem.CLOSE.getItem());
+        this.size = template.getSize();
+        this.inv = template.createInventory(pet);
     }
 
     public void open(boolean sendMessage) {
@@ -83,7 +54,7 @@ public class PetMenu {
         }
         this.pet.getOwner().openInventory(this.inv);
         if (sendMessage) {
-            Lang.sendTo(this.pet.getOwner(), Lang.OPEN_MENU.toString().replace("%type%", StringUtil.capitalise(this.pet.getPetType().toString().replace("_", " "))));
+            Lang.sendTo(this.pet.getOwner(), Lang.OPEN_MENU.replace("%type%", StringUtil.capitalise(this.pet.getPetType().toString().replace("_", " "))));
         }
     }
 }
@@ -0,0 +1,93 @@
+/*
+ * This file is part of EchoPet.
+ *
+ * EchoPet is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EchoPet is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EchoPet.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.dsh105.echopet.compat.api.util.menu;
+
+import com.dsh105.echopet.compat.api.entity.IPet;
+import com.dsh105.echopet.compat.api.event.PetMenuOpenEvent;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+
+/**
+ * Holder of the inventories of pet and data menus.
+ * <p/>
+ * Marks an inventory as one of ours and carries the action of each slot, so that clicks can be handled without
+ * looking at the title or the clicked item. The action tables are shared between menus and must not be modified.
+ */
+public class PetMenuHolder implements InventoryHolder {
+
+    private final PetMenuOpenEvent.MenuType type;
+    private final IPet pet;
+    private MenuItem[] menuActions;
+    private DataMenuItem[] dataActions;
+    private Inventory inventory;
+
+    PetMenuHolder(PetMenuOpenEvent.MenuType type, IPet pet, MenuItem[] menuActions, DataMenuItem[] dataActions) {
+        this.type = type;
+        this.pet = pet;
+        this.menuActions = menuActions;
+        this.dataActions = dataActions;
+    }
+
+    public PetMenuOpenEvent.MenuType getType() {
+        return this.type;
+    }
+
+    /**
+     * Gets the pet this menu was opened for
+     *
+     * @return the pet of the menu
+     */
+    public IPet getPet() {
+        return this.pet;
+    }
+
+    /**
+     * Gets the menu option shown in a slot of a main menu
+     *
+     * @param slot raw slot of the inventory
+     * @return the option in the slot, or null if the slot has none
+     */
+    public MenuItem getMenuItem(int slot) {
+        return slot >= 0 && slot < this.menuActions.length ? this.menuActions[slot] : null;
+    }
+
+    /**
+     * Gets the data option, or the back and close buttons, shown in a slot
+     *
+     * @param slot raw slot of the inventory
+     * @return the item in the slot, or null if the slot has none
+     */
+    public DataMenuItem getDataMenuItem(int slot) {
+        return slot >= 0 && slot < this.dataActions.length ? this.dataActions[slot] : null;
+    }
+
+    @Override
+    public Inventory getInventory() {
+        return this.inventory;
+    }
+
+    void setInventory(Inventory inventory) {
+        this.inventory = inventory;
+    }
+
+    void setActions(MenuItem[] menuActions, DataMenuItem[] dataActions) {
+        this.menuActions = menuActions;
+        this.dataActions = dataActions;
+    }
+}
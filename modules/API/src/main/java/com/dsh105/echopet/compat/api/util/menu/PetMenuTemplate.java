@@ -0,0 +1,166 @@
+/*
+ * This file is part of EchoPet.
+ *
+ * EchoPet is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EchoPet is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EchoPet.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.dsh105.echopet.compat.api.util.menu;
+
+import com.dsh105.dshutils.util.EnumUtil;
+import com.dsh105.echopet.compat.api.entity.IPet;
+import com.dsh105.echopet.compat.api.entity.PetData;
+import com.dsh105.echopet.compat.api.entity.PetType;
+import com.dsh105.echopet.compat.api.event.PetMenuOpenEvent;
+import com.dsh105.echopet.compat.api.util.MenuUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.*;
+
+/**
+ * The contents of a pet menu, built once per pet type.
+ * <p/>
+ * Every item is created up front, including both states of each toggle. Opening a menu copies the template and only
+ * picks the toggle states that match the pet. Inventories copy the items given to them, so the items of a template
+ * are never handed out directly. The option behind each slot is recorded alongside, and handed to the
+ * {@link PetMenuHolder} of every menu created from the template.
+ */
+public final class PetMenuTemplate {
+
+    public static final String TITLE = "EchoPet DataMenu";
+
+    private static volatile Map<PetType, PetMenuTemplate> TEMPLATES = Collections.emptyMap();
+
+    private final int size;
+    private final ItemStack[] contents;
+    private final Toggle[] toggles;
+    private final MenuItem[] menuActions;
+    private final DataMenuItem[] dataActions;
+
+    private PetMenuTemplate(List<MenuOption> options, int size) {
+        this.size = size;
+        this.contents = new ItemStack[size];
+        this.menuActions = new MenuItem[size];
+        this.dataActions = new DataMenuItem[size];
+        List<Toggle> toggles = new ArrayList<Toggle>();
+        for (MenuOption o : options) {
+            MenuItem mi = o.item;
+            if (mi.getMenuType() == DataMenu.DataMenuType.BOOLEAN) {
+                PetData pd = EnumUtil.isEnumType(PetData.class, mi.toString()) ? PetData.valueOf(mi.toString()) : null;
+                // Toggles other than data, hats and riding have no state to show
+                if (pd != null || mi == MenuItem.HAT || mi == MenuItem.RIDE) {
+                    toggles.add(new Toggle(o.position, mi, pd));
+                    this.menuActions[o.position] = mi;
+                }
+            } else {
+                this.contents[o.position] = mi.getItem();
+                this.menuActions[o.position] = mi;
+            }
+        }
+        this.contents[size - 1] = DataMenuItem.CLOSE.getItem();
+        this.menuActions[size - 1] = null;
+        this.dataActions[size - 1] = DataMenuItem.CLOSE;
+        this.toggles = toggles.toArray(new Toggle[toggles.size()]);
+    }
+
+    /**
+     * Builds the templates of all pet types. Called when the configuration is loaded.
+     */
+    public static void loadTemplates() {
+        Map<PetType, PetMenuTemplate> templates = new EnumMap<PetType, PetMenuTemplate>(PetType.class);
+        for (PetType petType : PetType.values()) {
+            templates.put(petType, new PetMenuTemplate(MenuUtil.getOptions(petType), getDefaultSize(petType)));
+        }
+        TEMPLATES = Collections.unmodifiableMap(templates);
+    }
+
+    /**
+     * Gets the template of a pet type
+     *
+     * @param petType type to get the template of
+     * @return the shared template of the type
+     */
+    public static PetMenuTemplate getTemplate(PetType petType) {
+        PetMenuTemplate template = TEMPLATES.get(petType);
+        if (template == null) {
+            // Not loaded yet
+            template = new PetMenuTemplate(MenuUtil.getOptions(petType), getDefaultSize(petType));
+        }
+        return template;
+    }
+
+    /**
+     * Builds a one-off template from a custom set of options
+     *
+     * @param options options to show
+     * @param size    size of the menu
+     * @return a new template
+     */
+    public static PetMenuTemplate of(List<MenuOption> options, int size) {
+        return new PetMenuTemplate(options, size);
+    }
+
+    public static int getDefaultSize(PetType petType) {
+        return petType == PetType.HORSE ? 18 : 9;
+    }
+
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Creates the menu of a pet, with its toggles matching the current state of the pet
+     *
+     * @param pet pet to create the menu for
+     * @return a new inventory held by a {@link PetMenuHolder}
+     */
+    public Inventory createInventory(IPet pet) {
+        ItemStack[] items = this.contents.clone();
+        for (Toggle toggle : this.toggles) {
+            // Items show the action a click performs, so an active toggle offers to turn it off
+            items[toggle.slot] = toggle.isActive(pet) ? toggle.disable : toggle.enable;
+        }
+        PetMenuHolder holder = new PetMenuHolder(PetMenuOpenEvent.MenuType.MAIN, pet, this.menuActions, this.dataActions);
+        Inventory inv = Bukkit.createInventory(holder, this.size, TITLE);
+        inv.setContents(items);
+        holder.setInventory(inv);
+        return inv;
+    }
+
+    private static class Toggle {
+
+        private final int slot;
+        private final MenuItem item;
+        private final PetData data;
+        private final ItemStack enable;
+        private final ItemStack disable;
+
+        Toggle(int slot, MenuItem item, PetData data) {
+            this.slot = slot;
+            this.item = item;
+            this.data = data;
+            this.enable = item.getBoolean(true);
+            this.disable = item.getBoolean(false);
+        }
+
+        boolean isActive(IPet pet) {
+            if (this.data != null) {
+                return pet.hasData(this.data);
+            }
+            return this.item == MenuItem.HAT ? pet.isHat() : pet.isOwnerRiding();
+        }
+    }
+}
@@ -31,11 +31,17 @@ public class SelectorIcon extends MenuIcon {
 
     private String command;
     private PetType petType;
+    private String permission;
+
+    // The icon as shown to viewers with and without permission for the pet type, built the first time each is shown
+    private ItemStack allowedIcon;
+    private ItemStack deniedIcon;
 
     public SelectorIcon(int slot, String command, PetType petType, int materialId, int materialData, String name, String... lore) {
         super(slot, materialId, materialData, name, lore);
         this.command = command;
         this.petType = petType;
+        this.permission = petType == null ? null : "echopet.pet.type." + petType.toString().toLowerCase().replace("_", "");
     }
 
     public String getCommand() {
@@ -48,11 +54,21 @@ public class SelectorIcon extends MenuIcon {
 
     @Override
     public ItemStack getIcon(Player viewer) {
-        ItemStack i = super.getIcon(viewer);
-        ItemMeta meta = i.getItemMeta();
-        ChatColor c = this.petType == null ? ChatColor.YELLOW : (viewer.hasPermission("echopet.pet.type." + this.getPetType().toString().toLowerCase().replace("_", ""))) ? ChatColor.GREEN : ChatColor.RED;
-        meta.setDisplayName(ChatColor.translateAlternateColorCodes('&', c + this.getName()));
-        i.setItemMeta(meta);
+        boolean allowed = this.permission == null || viewer.hasPermission(this.permission);
+        ItemStack template = allowed ? this.allowedIcon : this.deniedIcon;
+        if (template == null) {
+            template = super.getIcon(viewer);
+            ItemMeta meta = template.getItemMeta();
+            ChatColor c = this.petType == null ? ChatColor.YELLOW : allowed ? ChatColor.GREEN : ChatColor.RED;
+            meta.setDisplayName(ChatColor.translateAlternateColorCodes('&', c + this.getName()));
+            template.setItemMeta(meta);
+            if (allowed) {
+                this.allowedIcon = template;
+            } else {
+                this.deniedIcon = template;
+            }
+        }
+        ItemStack i = template.clone();
 
         if (this.petType == PetType.HUMAN && i.getItemMeta() instanceof SkullMeta) {
             SkullMeta sm = (SkullMeta) i.getItemMeta();
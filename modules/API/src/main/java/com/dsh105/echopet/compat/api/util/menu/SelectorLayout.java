@@ -28,13 +28,57 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
 
 public class SelectorLayout {
 
     private static ArrayList<SelectorIcon> selectorLayout = new ArrayList<SelectorIcon>();
+    private static volatile Map<Integer, SelectorIcon> visibleLayout = Collections.emptyMap();
+    private static volatile SelectorItemKey selectorItem;
 
+    /**
+     * Gets a copy of the item that opens the selector, as of the last (re)load of the configuration
+     *
+     * @return a new copy of the selector item
+     */
     public static ItemStack getSelectorItem() {
+        return getSelectorItemKey().item.clone();
+    }
+
+    /**
+     * Checks whether an item is the selector item. Items of a different type are rejected without looking at their
+     * meta.
+     *
+     * @param item item to check
+     * @return true if the item is similar to the selector item
+     */
+    public static boolean isSelectorItem(ItemStack item) {
+        if (item == null) {
+            return false;
+        }
+        return getSelectorItemKey().matches(item);
+    }
+
+    /**
+     * Rebuilds the selector item from the configuration. Must be called whenever the configuration is reloaded.
+     */
+    public static void loadSelectorItem() {
+        selectorItem = new SelectorItemKey(buildSelectorItem());
+    }
+
+    private static SelectorItemKey getSelectorItemKey() {
+        SelectorItemKey key = selectorItem;
+        if (key == null) {
+            // Not loaded yet
+            key = new SelectorItemKey(buildSelectorItem());
+            selectorItem = key;
+        }
+        return key;
+    }
+
+    private static ItemStack buildSelectorItem() {
         YAMLConfig config = ConfigOptions.instance.getConfig();
         String name = config.getString("petSelector.item.name", "&aPets");
         int materialId = config.getInt("petSelector.item.materialId", Material.BONE.getId());
@@ -101,19 +145,36 @@ public class SelectorLayout {
                 selectorLayout.add(new SelectorIcon(i - 1, cmd, pt, id, data, name, lore));
             }
         }
+        rebuildVisibleLayout();
     }
 
     public static HashMap<Integer, SelectorIcon> getLoadedLayout() {
-        HashMap<Integer, SelectorIcon> layout = new HashMap<Integer, SelectorIcon>();
+        return new HashMap<Integer, SelectorIcon>(visibleLayout);
+    }
+
+    /**
+     * Gets the icons shown in the selector, as of the last (re)load of the configuration
+     *
+     * @return an unmodifiable map of slot to icon
+     */
+    public static Map<Integer, SelectorIcon> getVisibleLayout() {
+        return visibleLayout;
+    }
+
+    /**
+     * Works out which of the loaded icons are shown in the selector. Must be called whenever the settings of pet
+     * types are reloaded.
+     */
+    public static void rebuildVisibleLayout() {
+        boolean showDisabled = ConfigOptions.instance.getConfig().getBoolean("petSelector.showDisabledPets", true);
+        Map<Integer, SelectorIcon> layout = new HashMap<Integer, SelectorIcon>();
         for (SelectorIcon icon : selectorLayout) {
-            if (!ConfigOptions.instance.getConfig().getBoolean("petSelector.showDisabledPets", true) && icon.getPetType() != null) {
-                if (!ConfigOptions.instance.allowPetType(icon.getPetType())) {
-                    continue;
-                }
+            if (!showDisabled && icon.getPetType() != null && !ConfigOptions.instance.allowPetType(icon.getPetType())) {
+                continue;
             }
             layout.put(icon.getSlot(), icon);
         }
-        return layout;
+        visibleLayout = Collections.unmodifiableMap(layout);
     }
 
     public static ArrayList<SelectorIcon> getDefaultLayout() {
@@ -134,4 +195,34 @@ public class SelectorLayout {
         }
         return layout;
     }
-}
\ No newline at end of file
+
+    /**
+     * The selector item, along with the parts of it that are cheap to compare
+     */
+    private static final class SelectorItemKey {
+
+        private final ItemStack item;
+        private final int typeId;
+        private final short durability;
+        private final String displayName;
+
+        private SelectorItemKey(ItemStack item) {
+            this.item = item;
+            this.typeId = item.getTypeId();
+            this.durability = item.getDurability();
+            this.displayName = item.hasItemMeta() ? item.getItemMeta().getDisplayName() : null;
+        }
+
+        boolean matches(ItemStack other) {
+            if (other.getTypeId() != this.typeId || other.getDurability() != this.durability) {
+                return false;
+            }
+            if (this.displayName != null) {
+                if (!other.hasItemMeta() || !this.displayName.equals(other.getItemMeta().getDisplayName())) {
+                    return false;
+                }
+            }
+            return other.isSimilar(this.item);
+        }
+    }
+}
@@ -29,7 +29,7 @@ public class SelectorMenu extends InventoryMenu {
 
     public SelectorMenu() {
         super(ConfigOptions.instance.getConfig().getString("petSelector.menu.title", "Pets"), ConfigOptions.instance.getConfig().getInt("petSelector.menu.slots", 45));
-        for (Map.Entry<Integer, SelectorIcon> entry : SelectorLayout.getLoadedLayout().entrySet()) {
+        for (Map.Entry<Integer, SelectorIcon> entry : SelectorLayout.getVisibleLayout().entrySet()) {
             this.setSlot(entry.getKey(), entry.getValue());
         }
     }
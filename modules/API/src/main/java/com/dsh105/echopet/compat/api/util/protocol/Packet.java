@@ -18,21 +18,23 @@
 package com.dsh105.echopet.compat.api.util.protocol;
 
 import com.dsh105.echopet.compat.api.plugin.EchoPet;
-import com.dsh105.echopet.compat.api.reflection.ReflectionConstants;
+import com.dsh105.echopet.compat.api.reflection.FieldAccessor;
+import com.dsh105.echopet.compat.api.reflection.FieldCache;
+import com.dsh105.echopet.compat.api.reflection.ReflectionHandles;
 import com.dsh105.echopet.compat.api.reflection.utility.CommonReflection;
 import com.dsh105.echopet.compat.api.util.MiscUtil;
 import com.dsh105.echopet.compat.api.util.PlayerUtil;
-import com.dsh105.echopet.compat.api.util.ReflectionUtil;
-import com.dsh105.echopet.compat.api.reflection.FieldAccessor;
-import com.dsh105.echopet.compat.api.reflection.SafeField;
 import org.bukkit.entity.Player;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class Packet {
 
+    private static final Map<Integer, Class> PACKET_CLASSES = new ConcurrentHashMap<Integer, Class>();
+
     private Class packetClass;
     private Object packetHandle;
     private Protocol protocol;
@@ -43,36 +45,54 @@ public class Packet {
     }
 
     public Packet(Protocol protocol, Sender sender, int id, int legacyId) {
+        this(getPacketClass(protocol, sender, id, legacyId));
+    }
 
-        if (EchoPet.isUsingNetty()) {
-            this.packetClass = PacketUtil.getPacket(protocol, sender, id);
-            try {
-                this.packetHandle = this.packetClass.newInstance();
-            } catch (InstantiationException e) {
-                e.printStackTrace();
-            } catch (IllegalAccessException e) {
-                e.printStackTrace();
+    /**
+     * Wraps a new instance of a packet class that has already been looked up
+     *
+     * @param packetClass class of the packet
+     */
+    protected Packet(Class packetClass) {
+        this.packetClass = packetClass;
+        try {
+            this.packetHandle = this.packetClass.newInstance();
+        } catch (InstantiationException e) {
+            e.printStackTrace();
+        } catch (IllegalAccessException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static Class getPacketClass(Protocol protocol, Sender sender, int id, int legacyId) {
+        // Looked up once per packet type rather than for each packet created
+        Integer key = EchoPet.isUsingNetty() ? (protocol.ordinal() << 20) | (sender.ordinal() << 16) | id : -1 - legacyId;
+        Class packetClass = PACKET_CLASSES.get(key);
+        if (packetClass == null) {
+            if (EchoPet.isUsingNetty()) {
+                packetClass = PacketUtil.getPacket(protocol, sender, id);
+            } else {
+                Map map = ReflectionHandles.PACKET_FIELD_PACKETMAP.get(null);
+                packetClass = (Class) MiscUtil.getKeyAtValue(map, legacyId);
             }
-        } else {
-            FieldAccessor<Map> mapField = new SafeField<Map>(ReflectionUtil.getNMSClass("Packet"), ReflectionConstants.PROTOCOL_FIELD_PACKETMAP.getName());
-            Map map = mapField.get(null);
-            this.packetClass = (Class) MiscUtil.getKeyAtValue(map, legacyId);
-            try {
-                this.packetHandle = this.packetClass.newInstance();
-            } catch (InstantiationException e) {
-                e.printStackTrace();
-            } catch (IllegalAccessException e) {
-                e.printStackTrace();
+            if (packetClass != null) {
+                PACKET_CLASSES.put(key, packetClass);
             }
         }
+        return packetClass;
     }
 
     public Object read(String fieldName) {
-        return ReflectionUtil.getField(getPacketClass(), fieldName, this.getPacketHandle());
+        FieldAccessor<Object> field = FieldCache.get(getPacketClass(), fieldName);
+        // Missing fields have already been reported
+        return field == null ? null : field.get(this.getPacketHandle());
     }
 
     public void write(String fieldName, Object value) {
-        ReflectionUtil.setField(getPacketClass(), fieldName, getPacketHandle(), value);
+        FieldAccessor<Object> field = FieldCache.get(getPacketClass(), fieldName);
+        if (field != null) {
+            field.set(getPacketHandle(), value);
+        }
     }
 
     public void send(Player receiver) {
@@ -18,7 +18,7 @@
 package com.dsh105.echopet.compat.api.util.protocol.wrapper;
 
 import com.dsh105.echopet.compat.api.plugin.EchoPet;
-import com.dsh105.echopet.compat.api.reflection.ReflectionConstants;
+import com.dsh105.echopet.compat.api.reflection.ReflectionHandles;
 import com.dsh105.echopet.compat.api.util.ReflectionUtil;
 
 import java.lang.reflect.InvocationTargetException;
@@ -62,10 +62,10 @@ public class WrappedDataWatcher extends AbstractWrapper {
     }
 
     public void initiate(int index, Object value) {
-        ReflectionUtil.invokeMethod(ReflectionUtil.getMethod(getHandle().getClass(), ReflectionConstants.DATAWATCHER_FUNC_INITIATE.getName(), int.class, Object.class), getHandle(), index, value);
+        ReflectionHandles.DATAWATCHER_FUNC_INITIATE.invoke(getHandle(), index, value);
     }
 
     public void watch(int index, Object value) {
-        ReflectionUtil.invokeMethod(ReflectionUtil.getMethod(getHandle().getClass(), ReflectionConstants.DATAWATCHER_FUNC_WATCH.getName(), int.class, Object.class), getHandle(), index, value);
+        ReflectionHandles.DATAWATCHER_FUNC_WATCH.invoke(getHandle(), index, value);
     }
 }
@@ -17,15 +17,17 @@
 
 package com.dsh105.echopet.compat.api.util.protocol.wrapper;
 
-import com.dsh105.echopet.compat.api.plugin.EchoPet;
+import com.dsh105.echopet.compat.api.reflection.MethodAccessor;
 import com.dsh105.echopet.compat.api.reflection.ReflectionConstants;
-import com.dsh105.echopet.compat.api.util.ReflectionUtil;
+import com.dsh105.echopet.compat.api.reflection.SafeMethod;
 
 import java.lang.reflect.InvocationTargetException;
 import java.util.UUID;
 
 public class WrappedGameProfile extends AbstractWrapper {
 
+    private static MethodAccessor<Object> GET_ID;
+
     private WrappedGameProfile(Object ident, String name) {
         if (ident instanceof UUID) {
             try {
@@ -79,6 +81,9 @@ public class WrappedGameProfile extends AbstractWrapper {
     }
 
     private <T> T getId() {
-        return ReflectionUtil.invokeMethod(ReflectionUtil.getMethod(getHandle().getClass(), ReflectionConstants.GAMEPROFILE_FUNC_ID.getName()), getHandle());
+        if (GET_ID == null) {
+            GET_ID = new SafeMethod<Object>(getHandle().getClass(), ReflectionConstants.GAMEPROFILE_FUNC_ID.getName());
+        }
+        return (T) GET_ID.invoke(getHandle());
     }
 }
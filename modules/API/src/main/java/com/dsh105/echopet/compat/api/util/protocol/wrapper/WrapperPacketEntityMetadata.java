@@ -18,10 +18,9 @@
 package com.dsh105.echopet.compat.api.util.protocol.wrapper;
 
 import com.dsh105.echopet.compat.api.reflection.ReflectionConstants;
-import com.dsh105.echopet.compat.api.util.ReflectionUtil;
+import com.dsh105.echopet.compat.api.reflection.ReflectionHandles;
 import com.dsh105.echopet.compat.api.util.protocol.Packet;
 import com.dsh105.echopet.compat.api.util.protocol.PacketFactory;
-import com.dsh105.echopet.compat.api.reflection.SafeMethod;
 
 public class WrapperPacketEntityMetadata extends Packet {
 
@@ -38,8 +37,7 @@ public class WrapperPacketEntityMetadata extends Packet {
     }
 
     public void setMetadata(WrappedDataWatcher metadata) {
-        Object handle = metadata.getHandle();
-        this.write(ReflectionConstants.PACKET_ENTITYMETADATA_FIELD_META.getName(), new SafeMethod<Void>(handle.getClass(), ReflectionConstants.PACKET_ENTITYMETADATA_FUNC_PREPARE.getName()).invoke(handle));
+        this.write(ReflectionConstants.PACKET_ENTITYMETADATA_FIELD_META.getName(), ReflectionHandles.DATAWATCHER_FUNC_PREPARE.invoke(metadata.getHandle()));
     }
 
     public Object getMetadata() {
@@ -18,6 +18,7 @@
 package com.dsh105.echopet.compat.api.util.protocol.wrapper;
 
 import com.dsh105.echopet.compat.api.plugin.EchoPet;
+import com.dsh105.echopet.compat.api.reflection.MethodAccessor;
 import com.dsh105.echopet.compat.api.reflection.ReflectionConstants;
 import com.dsh105.echopet.compat.api.util.ReflectionUtil;
 import com.dsh105.echopet.compat.api.util.protocol.Packet;
@@ -26,13 +27,16 @@ import com.dsh105.echopet.compat.api.reflection.SafeMethod;
 
 public class WrapperPacketPlayOutChat extends Packet {
 
+    private static MethodAccessor<Object> SET_COMPONENT;
+    private static MethodAccessor<Object> GET_MESSAGE;
+
     public WrapperPacketPlayOutChat() {
         super(PacketFactory.PacketType.CHAT);
     }
 
     public void setMessage(String chatComponent) {
         if (EchoPet.isUsingNetty()) {
-            this.write(ReflectionConstants.PACKET_CHAT_FIELD_MESSAGE.getName(), new SafeMethod(ReflectionUtil.getNMSClass("ChatSerializer"), ReflectionConstants.PACKET_CHAT_FUNC_SETCOMPONENT.getName(), String.class).invoke(null, chatComponent));
+            this.write(ReflectionConstants.PACKET_CHAT_FIELD_MESSAGE.getName(), getSetComponent().invoke(null, chatComponent));
         } else {
             this.write(ReflectionConstants.PACKET_CHAT_FIELD_MESSAGE.getName(), chatComponent);
         }
@@ -43,6 +47,22 @@ public class WrapperPacketPlayOutChat extends Packet {
         if (value instanceof String) {
             return (String) value;
         }
-        return (String) new SafeMethod(ReflectionUtil.getNMSClass("ChatSerializer"), ReflectionConstants.PACKET_CHAT_FUNC_GETMESSAGE.getName(), ReflectionUtil.getNMSClass("IChatBaseComponent")).invoke(null, value);
+        return (String) getGetMessage().invoke(null, value);
+    }
+
+    // ChatSerializer only exists on Netty servers, so these can't be resolved up front
+
+    private static MethodAccessor<Object> getSetComponent() {
+        if (SET_COMPONENT == null) {
+            SET_COMPONENT = new SafeMethod<Object>(ReflectionUtil.getNMSClass("ChatSerializer"), ReflectionConstants.PACKET_CHAT_FUNC_SETCOMPONENT.getName(), String.class);
+        }
+        return SET_COMPONENT;
+    }
+
+    private static MethodAccessor<Object> getGetMessage() {
+        if (GET_MESSAGE == null) {
+            GET_MESSAGE = new SafeMethod<Object>(ReflectionUtil.getNMSClass("ChatSerializer"), ReflectionConstants.PACKET_CHAT_FUNC_GETMESSAGE.getName(), ReflectionUtil.getNMSClass("IChatBaseComponent"));
+        }
+        return GET_MESSAGE;
     }
 }
\ No newline at end of file
@@ -23,22 +23,29 @@ import com.dsh105.dshutils.command.VersionIncompatibleCommand;
 import com.dsh105.dshutils.config.YAMLConfig;
 import com.dsh105.dshutils.logger.ConsoleLogger;
 import com.dsh105.dshutils.logger.Logger;
+import com.dsh105.echopet.api.AsyncSqlPetManager;
+import com.dsh105.echopet.api.PetDataStore;
 import com.dsh105.echopet.api.PetManager;
+import com.dsh105.echopet.api.PetPreloader;
 import com.dsh105.echopet.api.SqlPetManager;
+import com.dsh105.echopet.api.StartupTimings;
 import com.dsh105.echopet.commands.CommandComplete;
 import com.dsh105.echopet.commands.PetAdminCommand;
 import com.dsh105.echopet.commands.PetCommand;
 import com.dsh105.echopet.commands.util.CommandManager;
 import com.dsh105.echopet.commands.util.DynamicPluginCommand;
+import com.dsh105.echopet.compat.api.ai.PetPathPlanning;
+import com.dsh105.echopet.compat.api.ai.PetTickCoordinator;
 import com.dsh105.echopet.compat.api.config.ConfigOptions;
 import com.dsh105.echopet.compat.api.entity.IEntityPet;
+import com.dsh105.echopet.compat.api.entity.PetChunkIndex;
 import com.dsh105.echopet.compat.api.entity.PetType;
 import com.dsh105.echopet.compat.api.plugin.*;
 import com.dsh105.echopet.compat.api.plugin.data.Updater;
+import com.dsh105.echopet.compat.api.plugin.uuid.ProfileResolver;
 import com.dsh105.echopet.compat.api.plugin.uuid.UUIDMigration;
-import com.dsh105.echopet.compat.api.reflection.ReflectionConstants;
+import com.dsh105.echopet.compat.api.reflection.ReflectionHandles;
 import com.dsh105.echopet.compat.api.reflection.SafeConstructor;
-import com.dsh105.echopet.compat.api.reflection.SafeField;
 import com.dsh105.echopet.compat.api.reflection.utility.CommonReflection;
 import com.dsh105.echopet.compat.api.util.ISpawnUtil;
 import com.dsh105.echopet.compat.api.util.Lang;
@@ -63,8 +70,14 @@ import java.io.IOException;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 public class EchoPetPlugin extends DSHPlugin implements IEchoPetPlugin {
 
@@ -72,7 +85,12 @@ public class EchoPetPlugin extends DSHPlugin implements IEchoPetPlugin {
 
     private static ISpawnUtil SPAWN_UTIL;
     private static PetManager MANAGER;
+    private static PetDataStore DATA_STORE;
+    private static PetTickCoordinator TICK_COORDINATOR;
+    private static ProfileResolver PROFILE_RESOLVER;
+    private static PetPreloader PRELOADER;
     private static SqlPetManager SQL_MANAGER;
+    private static AsyncSqlPetManager ASYNC_SQL_MANAGER;
     private static ConfigOptions OPTIONS;
 
     public static final ModuleLogger LOGGER = new ModuleLogger("EchoPet");
@@ -84,6 +102,8 @@ public class EchoPetPlugin extends DSHPlugin implements IEchoPetPlugin {
     private YAMLConfig langConfig;
     private BoneCP dbPool;
 
+    private StartupTimings timings;
+
     private VanishProvider vanishProvider;
     private WorldGuardProvider worldGuardProvider;
 
@@ -100,6 +120,7 @@ public class EchoPetPlugin extends DSHPlugin implements IEchoPetPlugin {
 
     @Override
     public void onEnable() {
+        this.timings = new StartupTimings();
         super.onEnable();
         EchoPet.setPlugin(this);
         Logger.initiate(this, "EchoPet", "[EchoPet]");
@@ -111,37 +132,73 @@ public class EchoPetPlugin extends DSHPlugin implements IEchoPetPlugin {
         try {
             Class.forName(ReflectionUtil.COMPAT_NMS_PATH + ".SpawnUtil");
         } catch (ClassNotFoundException e) {
-            ConsoleLogger.log(ChatColor.RED + "EchoPet " + ChatColor.GOLD
-                    + this.getDescription().getVersion() + ChatColor.RED
-                    + " is not compatible with this version of CraftBukkit");
-            ConsoleLogger.log(ChatColor.RED + "Initialisation failed. Please update the plugin.");
-
-            DynamicPluginCommand cmd = new DynamicPluginCommand(this.cmdString, new String[0], "", "",
-                    new VersionIncompatibleCommand(this.cmdString, prefix, ChatColor.YELLOW +
-                            "EchoPet " + ChatColor.GOLD + this.getDescription().getVersion() + ChatColor.YELLOW + " is not compatible with this version of CraftBukkit. Please update the plugin.",
-                            "echopet.pet", ChatColor.YELLOW + "You are not allowed to do that."),
-                    null, this);
-            COMMAND_MANAGER.register(cmd);
+            this.disableIncompatible();
+            return;
+        }
+
+        // Fail now rather than the first time a pet is spawned
+        try {
+            ReflectionHandles.verify();
+        } catch (IllegalStateException e) {
+            LOGGER_REFLECTION.severe(e.getMessage());
+            this.disableIncompatible();
             return;
         }
 
         SPAWN_UTIL = new SafeConstructor<ISpawnUtil>(ReflectionUtil.getVersionedClass("SpawnUtil")).newInstance();
+        this.timings.mark("Compatibility");
+
+        // Load the pet classes while the configuration, data files and database are prepared
+        FutureTask<Long> classResolution = new FutureTask<Long>(new Callable<Long>() {
+            @Override
+            public Long call() throws Exception {
+                long start = System.nanoTime();
+                PetType.resolveClasses();
+                return System.nanoTime() - start;
+            }
+        });
+        Thread resolver = new Thread(classResolution, "EchoPet Startup");
+        resolver.setDaemon(true);
+        resolver.start();
 
         this.loadConfiguration();
+        this.timings.mark("Configuration");
 
         PluginManager manager = getServer().getPluginManager();
 
+        DATA_STORE = new PetDataStore(this, petConfig, "pets.yml");
+        DATA_STORE.start(OPTIONS.getDataFlushInterval());
+
+        TICK_COORDINATOR = new PetTickCoordinator(this, OPTIONS.getAiTickBudgetNanos());
+        TICK_COORDINATOR.start();
+
+        PROFILE_RESOLVER = new ProfileResolver(new File(this.getDataFolder(), "profiles.yml"), OPTIONS.getProfileUrl(), OPTIONS.getProfileCacheSize(), OPTIONS.getMissingProfileExpiryMillis());
+        PROFILE_RESOLVER.load();
+        PROFILE_RESOLVER.start(this, OPTIONS.getDataFlushInterval());
+
         MANAGER = new PetManager();
         SQL_MANAGER = new SqlPetManager();
+        ASYNC_SQL_MANAGER = new AsyncSqlPetManager(this, SQL_MANAGER, OPTIONS.getSqlThreads(), OPTIONS.getSqlQueueSize());
+        PRELOADER = new PetPreloader(this, ASYNC_SQL_MANAGER);
+        this.timings.mark("Data stores");
 
         if (OPTIONS.useSql()) {
             this.prepareSqlDatabase();
+            this.timings.mark("Database");
         }
 
-        // Register custom entities
-        for (PetType pt : PetType.values()) {
-            this.registerEntity(pt.getEntityClass(), pt.getDefaultName().replace(" ", ""), pt.getRegistrationId());
+        try {
+            this.timings.record("Class resolution (background)", classResolution.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Logger.log(Logger.LogLevel.SEVERE, "Failed to load pet classes in the background.", e, true);
         }
+        this.timings.mark("Waiting for classes");
+
+        // Register custom entities
+        this.registerEntities(PetType.values());
+        this.timings.mark("Entity registration");
 
         // Register custom commands
         // Command string based off the string defined in config.yml
@@ -159,6 +216,7 @@ public class EchoPetPlugin extends DSHPlugin implements IEchoPetPlugin {
         manager.registerEvents(new PetEntityListener(), this);
         manager.registerEvents(new PetOwnerListener(), this);
         manager.registerEvents(new ChunkListener(), this);
+        this.timings.mark("Commands and listeners");
 
         this.vanishProvider = new VanishProvider(this);
         this.worldGuardProvider = new WorldGuardProvider(this);
@@ -171,6 +229,9 @@ public class EchoPetPlugin extends DSHPlugin implements IEchoPetPlugin {
         }
 
         this.checkUpdates();
+        this.timings.mark("Hooks");
+
+        LOGGER.info("Enabled in " + String.format("%.1f", this.timings.getTotalMillis()) + "ms (" + this.timings + ")");
     }
 
     @Override
@@ -178,6 +239,23 @@ public class EchoPetPlugin extends DSHPlugin implements IEchoPetPlugin {
         if (MANAGER != null) {
             MANAGER.removeAllPets();
         }
+        if (DATA_STORE != null) {
+            DATA_STORE.shutdown();
+        }
+        if (TICK_COORDINATOR != null) {
+            TICK_COORDINATOR.shutdown();
+        }
+        if (PROFILE_RESOLVER != null) {
+            PROFILE_RESOLVER.shutdown();
+        }
+        if (PRELOADER != null) {
+            PRELOADER.clear();
+        }
+        // Resumed from its checkpoint the next time the plugin is enabled
+        TableMigrationUtil.stopMigration();
+        if (ASYNC_SQL_MANAGER != null) {
+            ASYNC_SQL_MANAGER.shutdown();
+        }
         if (dbPool != null) {
             dbPool.shutdown();
         }
@@ -189,6 +267,20 @@ public class EchoPetPlugin extends DSHPlugin implements IEchoPetPlugin {
         super.onDisable();
     }
 
+    private void disableIncompatible() {
+        ConsoleLogger.log(ChatColor.RED + "EchoPet " + ChatColor.GOLD
+                + this.getDescription().getVersion() + ChatColor.RED
+                + " is not compatible with this version of CraftBukkit");
+        ConsoleLogger.log(ChatColor.RED + "Initialisation failed. Please update the plugin.");
+
+        DynamicPluginCommand cmd = new DynamicPluginCommand(this.cmdString, new String[0], "", "",
+                new VersionIncompatibleCommand(this.cmdString, prefix, ChatColor.YELLOW +
+                        "EchoPet " + ChatColor.GOLD + this.getDescription().getVersion() + ChatColor.YELLOW + " is not compatible with this version of CraftBukkit. Please update the plugin.",
+                        "echopet.pet", ChatColor.YELLOW + "You are not allowed to do that."),
+                null, this);
+        COMMAND_MANAGER.register(cmd);
+    }
+
     private void loadConfiguration() {
         String[] header = {"EchoPet By DSH105", "---------------------",
                 "Configuration for EchoPet 2",
@@ -202,6 +294,7 @@ public class EchoPetPlugin extends DSHPlugin implements IEchoPetPlugin {
         OPTIONS = new ConfigOptions(mainConfig);
 
         mainConfig.reloadConfig();
+        OPTIONS.reloadPetTypeSettings();
 
         try {
             petConfig = this.getConfigManager().getNewConfig("pets.yml");
@@ -213,7 +306,13 @@ public class EchoPetPlugin extends DSHPlugin implements IEchoPetPlugin {
         // Make sure to convert those UUIDs!
         if (ReflectionUtil.MC_VERSION_NUMERIC >= 172 && UUIDMigration.canReturnUUID() && mainConfig.getBoolean("convertDataFileToUniqueId", true) && petConfig.getConfigurationSection("autosave") != null) {
             LOGGER.info("Converting data files to UUID system...");
-            UUIDMigration.migrateConfig(petConfig);
+            UUIDMigration.migrateConfig(petConfig, new Runnable() {
+                @Override
+                public void run() {
+                    // Renamed entries are spread over the whole file
+                    DATA_STORE.markAllDirty();
+                }
+            });
             mainConfig.set("convertDataFileToUniqueId", false);
             mainConfig.saveConfig();
         }
@@ -223,11 +322,21 @@ public class EchoPetPlugin extends DSHPlugin implements IEchoPetPlugin {
         try {
             langConfig = this.getConfigManager().getNewConfig("language.yml", langHeader);
             try {
+                // Only rewrite the file if a message is missing from it
+                boolean missing = false;
                 for (Lang l : Lang.values()) {
-                    String[] desc = l.getDescription();
-                    langConfig.set(l.getPath(), langConfig.getString(l.getPath(), l.toString_()), desc);
+                    if (langConfig.get(l.getPath()) == null) {
+                        missing = true;
+                        break;
+                    }
+                }
+                if (missing) {
+                    for (Lang l : Lang.values()) {
+                        String[] desc = l.getDescription();
+                        langConfig.set(l.getPath(), langConfig.getString(l.getPath(), l.toString_()), desc);
+                    }
+                    langConfig.saveConfig();
                 }
-                langConfig.saveConfig();
             } catch (Exception e) {
                 Logger.log(Logger.LogLevel.WARNING, "Configuration File [language.yml] generation failed.", e, true);
             }
@@ -240,6 +349,7 @@ public class EchoPetPlugin extends DSHPlugin implements IEchoPetPlugin {
         if (Lang.PREFIX.toString_().equals("&4[&cEchoPet&4]&r")) {
             langConfig.set(Lang.PREFIX.getPath(), "&4[&cEchoPet&4]&r ", Lang.PREFIX.getDescription());
         }
+        Lang.loadTemplates();
         this.prefix = Lang.PREFIX.toString();
     }
 
@@ -279,8 +389,8 @@ public class EchoPetPlugin extends DSHPlugin implements IEchoPetPlugin {
                         "PRIMARY KEY (OwnerName)" +
                         ");");
 
-                // Convert previous database versions
-                TableMigrationUtil.migrateTables();
+                // Convert previous database versions in the background
+                TableMigrationUtil.startMigration();
             } catch (SQLException e) {
                 Logger.log(Logger.LogLevel.SEVERE, "Table generation failed [MySQL DataBase: " + db + "].", e, true);
             } finally {
@@ -335,7 +445,7 @@ public class EchoPetPlugin extends DSHPlugin implements IEchoPetPlugin {
                     return true;
                 }
             } else {
-                Lang.sendTo(sender, Lang.NO_PERMISSION.toString().replace("%perm%", "echopet.update"));
+                Lang.sendTo(sender, Lang.NO_PERMISSION.replace("%perm%", "echopet.update"));
                 return true;
             }
         } else if (commandLabel.equalsIgnoreCase("echopet")) {
@@ -349,56 +459,86 @@ public class EchoPetPlugin extends DSHPlugin implements IEchoPetPlugin {
                 sender.sendMessage(ChatColor.GOLD + "" + ChatColor.UNDERLINE + "Command Registration:");
                 sender.sendMessage(ChatColor.GOLD + "Main: " + this.OPTIONS.getCommandString());
                 sender.sendMessage(ChatColor.GOLD + "Admin: " + this.OPTIONS.getCommandString() + "admin");
+                if (DATA_STORE != null) {
+                    sender.sendMessage(ChatColor.GOLD + "" + ChatColor.UNDERLINE + "Data File:");
+                    sender.sendMessage(ChatColor.GOLD + "Pending entries: " + ChatColor.YELLOW + DATA_STORE.getDirtyCount());
+                    sender.sendMessage(ChatColor.GOLD + "Last flush: " + ChatColor.YELLOW + String.format("%.2f", DATA_STORE.getLastFlushMillis()) + "ms (" + String.format("%.2f", DATA_STORE.getLastSnapshotMillis()) + "ms on main thread, " + DATA_STORE.getLastFlushEntries() + " entries)");
+                }
+                if (TICK_COORDINATOR != null) {
+                    sender.sendMessage(ChatColor.GOLD + "" + ChatColor.UNDERLINE + "Pet AI:");
+                    sender.sendMessage(ChatColor.GOLD + "Last tick: " + ChatColor.YELLOW + String.format("%.2f", TICK_COORDINATOR.getLastTickNanos() / 1000000D) + "ms (budget " + String.format("%.2f", TICK_COORDINATOR.getBudgetNanos() / 1000000D) + "ms)");
+                    sender.sendMessage(ChatColor.GOLD + "Overruns: " + ChatColor.YELLOW + TICK_COORDINATOR.getOverrunCount() + ChatColor.GOLD + " Deferred: " + ChatColor.YELLOW + TICK_COORDINATOR.getDeferredDepth() + " queued (max " + TICK_COORDINATOR.getMaxDeferredDepth() + ", " + TICK_COORDINATOR.getDeferredCount() + " total)");
+                }
+                if (MANAGER != null) {
+                    sender.sendMessage(ChatColor.GOLD + "" + ChatColor.UNDERLINE + "Chunk Unloads:");
+                    sender.sendMessage(ChatColor.GOLD + "Indexed pets: " + ChatColor.YELLOW + PetChunkIndex.size() + ChatColor.GOLD + " Relocated: " + ChatColor.YELLOW + MANAGER.getLifecycle().getRelocatedCount() + ChatColor.GOLD + " Despawned: " + ChatColor.YELLOW + MANAGER.getLifecycle().getDespawnedCount());
+                }
+                if (PROFILE_RESOLVER != null) {
+                    sender.sendMessage(ChatColor.GOLD + "" + ChatColor.UNDERLINE + "Profile Lookup:");
+                    sender.sendMessage(ChatColor.GOLD + "Cached: " + ChatColor.YELLOW + PROFILE_RESOLVER.size() + ChatColor.GOLD + " Pending: " + ChatColor.YELLOW + PROFILE_RESOLVER.getPendingCount());
+                    sender.sendMessage(ChatColor.GOLD + "Cache hits: " + ChatColor.YELLOW + PROFILE_RESOLVER.getHitCount() + ChatColor.GOLD + " Misses: " + ChatColor.YELLOW + PROFILE_RESOLVER.getMissCount() + " (" + PROFILE_RESOLVER.getRequestCount() + " requests, " + PROFILE_RESOLVER.getFailureCount() + " failed)");
+                }
+                if (TableMigrationUtil.isMigrating()) {
+                    sender.sendMessage(ChatColor.GOLD + "" + ChatColor.UNDERLINE + "Table Migration:");
+                    sender.sendMessage(ChatColor.GOLD + "Pending tables: " + ChatColor.YELLOW + TableMigrationUtil.getPendingTables() + ChatColor.GOLD + " Migrated rows: " + ChatColor.YELLOW + TableMigrationUtil.getMigratedRowCount());
+                }
+                if (this.timings != null) {
+                    sender.sendMessage(ChatColor.GOLD + "" + ChatColor.UNDERLINE + "Startup:");
+                    sender.sendMessage(ChatColor.GOLD + "Enabled in: " + ChatColor.YELLOW + String.format("%.1f", this.timings.getTotalMillis()) + "ms");
+                    sender.sendMessage(ChatColor.YELLOW + this.timings.toString());
+                }
+                sender.sendMessage(ChatColor.GOLD + "" + ChatColor.UNDERLINE + "Path Planning:");
+                sender.sendMessage(ChatColor.GOLD + "Cache hits: " + ChatColor.YELLOW + PetPathPlanning.getHits() + "/" + PetPathPlanning.getRequests() + " (" + String.format("%.1f", PetPathPlanning.getHitRate()) + "%)");
+                sender.sendMessage(ChatColor.GOLD + "Searches: " + ChatColor.YELLOW + PetPathPlanning.getSearches() + " (" + PetPathPlanning.getPlannedPathLength() + " path points, " + PetPathPlanning.getDeferred() + " deferred)");
             } else {
-                Lang.sendTo(sender, Lang.NO_PERMISSION.toString().replace("%perm%", "echopet.petadmin"));
+                Lang.sendTo(sender, Lang.NO_PERMISSION.replace("%perm%", "echopet.petadmin"));
                 return true;
             }
         }
         return false;
     }
 
-    private void registerEntity(Class<? extends IEntityPet> clazz, String name, int id) {
-        Map<String, Class> entityNameToClassMapping = new SafeField<Map<String, Class>>(ReflectionUtil.getNMSClass("EntityTypes"), ReflectionConstants.ENTITYTYPES_FIELD_NAMETOCLASSMAP.getName()).get(null);
-        Map<Class, String> classToEntityNameMapping = new SafeField<Map<Class, String>>(ReflectionUtil.getNMSClass("EntityTypes"), ReflectionConstants.ENTITYTYPES_FIELD_CLASSTONAMEMAP.getName()).get(null);
-        Map<Class, Integer> classToIdMapping = new SafeField<Map<Class, Integer>>(ReflectionUtil.getNMSClass("EntityTypes"), ReflectionConstants.ENTITYTYPES_FIELD_CLASSTOIDMAP.getName()).get(null);
-        Map<String, Integer> entityNameToIdMapping = new SafeField<Map<String, Integer>>(ReflectionUtil.getNMSClass("EntityTypes"), ReflectionConstants.ENTITYTYPES_FIELD_NAMETOIDMAP.getName()).get(null);
-
-        Iterator i = entityNameToClassMapping.keySet().iterator();
-        while (i.hasNext()) {
-            String s = (String) i.next();
-            if (s.equals(name)) {
-                i.remove();
+    private void registerEntities(PetType[] petTypes) {
+        Map<String, Class> entityNameToClassMapping = ReflectionHandles.ENTITYTYPES_FIELD_NAMETOCLASSMAP.get(null);
+        Map<Class, String> classToEntityNameMapping = ReflectionHandles.ENTITYTYPES_FIELD_CLASSTONAMEMAP.get(null);
+        Map<Class, Integer> classToIdMapping = ReflectionHandles.ENTITYTYPES_FIELD_CLASSTOIDMAP.get(null);
+        Map<String, Integer> entityNameToIdMapping = ReflectionHandles.ENTITYTYPES_FIELD_NAMETOIDMAP.get(null);
+
+        Map<String, PetType> names = new LinkedHashMap<String, PetType>();
+        // Classes are compared by name, as those of a previous instance of the plugin may still be registered
+        Set<String> classNames = new HashSet<String>();
+        for (PetType pt : petTypes) {
+            if (pt.getEntityClass() == null) {
+                continue;
             }
+            names.put(pt.getDefaultName().replace(" ", ""), pt);
+            classNames.add(pt.getEntityClass().getCanonicalName());
         }
 
-        i = classToEntityNameMapping.keySet().iterator();
+        // Remove any existing registrations in a single pass over each map
+        entityNameToClassMapping.keySet().removeAll(names.keySet());
+        entityNameToIdMapping.keySet().removeAll(names.keySet());
+        Iterator<Class> i = classToEntityNameMapping.keySet().iterator();
         while (i.hasNext()) {
-            Class cl = (Class) i.next();
-            if (cl.getCanonicalName().equals(clazz.getCanonicalName())) {
+            if (classNames.contains(i.next().getCanonicalName())) {
                 i.remove();
             }
         }
-
         i = classToIdMapping.keySet().iterator();
         while (i.hasNext()) {
-            Class cl = (Class) i.next();
-            if (cl.getCanonicalName().equals(clazz.getCanonicalName())) {
+            if (classNames.contains(i.next().getCanonicalName())) {
                 i.remove();
             }
         }
 
-        i = entityNameToIdMapping.keySet().iterator();
-        while (i.hasNext()) {
-            String s = (String) i.next();
-            if (s.equals(name)) {
-                i.remove();
-            }
+        for (Map.Entry<String, PetType> entry : names.entrySet()) {
+            Class<? extends IEntityPet> clazz = entry.getValue().getEntityClass();
+            int id = entry.getValue().getRegistrationId();
+            entityNameToClassMapping.put(entry.getKey(), clazz);
+            classToEntityNameMapping.put(clazz, entry.getKey());
+            classToIdMapping.put(clazz, id);
+            entityNameToIdMapping.put(entry.getKey(), id);
         }
-
-        entityNameToClassMapping.put(name, clazz);
-        classToEntityNameMapping.put(clazz, name);
-        classToIdMapping.put(clazz, id);
-        entityNameToIdMapping.put(name, id);
     }
 
     public static EchoPetPlugin getInstance() {
@@ -444,11 +584,29 @@ public class EchoPetPlugin extends DSHPlugin implements IEchoPetPlugin {
         return MANAGER;
     }
 
+    public static PetDataStore getDataStore() {
+        return DATA_STORE;
+    }
+
+    public static PetPreloader getPreloader() {
+        return PRELOADER;
+    }
+
     @Override
     public IPetManager getPetManager() {
         return MANAGER;
     }
 
+    @Override
+    public PetTickCoordinator getTickCoordinator() {
+        return TICK_COORDINATOR;
+    }
+
+    @Override
+    public ProfileResolver getProfileResolver() {
+        return PROFILE_RESOLVER;
+    }
+
     @Override
     public ConfigOptions getOptions() {
         return OPTIONS;
@@ -459,6 +617,11 @@ public class EchoPetPlugin extends DSHPlugin implements IEchoPetPlugin {
         return SQL_MANAGER;
     }
 
+    @Override
+    public IAsyncSqlPetManager getAsyncSqlPetManager() {
+        return ASYNC_SQL_MANAGER;
+    }
+
     @Override
     public BoneCP getDbPool() {
         return dbPool;
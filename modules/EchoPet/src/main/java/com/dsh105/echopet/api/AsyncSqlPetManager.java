@@ -0,0 +1,355 @@
+/*
+ * This file is part of EchoPet.
+ *
+ * EchoPet is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EchoPet is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EchoPet.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.dsh105.echopet.api;
+
+import com.dsh105.dshutils.logger.Logger;
+import com.dsh105.echopet.compat.api.entity.IPet;
+import com.dsh105.echopet.compat.api.entity.PetData;
+import com.dsh105.echopet.compat.api.entity.PetType;
+import com.dsh105.echopet.compat.api.plugin.IAsyncSqlPetManager;
+import com.dsh105.echopet.compat.api.plugin.uuid.UUIDMigration;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AsyncSqlPetManager implements IAsyncSqlPetManager {
+
+    private final Plugin plugin;
+    private final SqlPetManager sqlManager;
+
+    // Each owner is always handled by the same single-threaded stripe, which keeps their operations in order
+    private final ThreadPoolExecutor[] stripes;
+    // Queued operations per stripe beyond which loads are rejected. Writes are always queued.
+    private final int capacity;
+
+    // Saves that have been queued but not started, by owner. Later saves of the same owner replace their record.
+    private final ConcurrentHashMap<String, PendingSave> pendingSaves = new ConcurrentHashMap<String, PendingSave>();
+
+    public AsyncSqlPetManager(Plugin plugin, SqlPetManager sqlManager, int threads, int queueSize) {
+        this.plugin = plugin;
+        this.sqlManager = sqlManager;
+        this.stripes = new ThreadPoolExecutor[Math.max(1, threads)];
+
+        final AtomicInteger threadId = new AtomicInteger();
+        ThreadFactory threadFactory = new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "EchoPet SQL I/O #" + threadId.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+        this.capacity = Math.max(1, queueSize / this.stripes.length);
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        }
+    }
+
+    @Override
+    public ListenableFuture<Void> saveToDatabase(IPet pet) {
+        if (pet.isRider()) {
+            // Only updates the rider columns of the owner's row, so cannot be merged with saves of the whole row
+            final String ownerIdent = pet.getOwnerIdentification().toString();
+            final PetType petType = pet.getPetType();
+            final String petName = pet.getPetName();
+            final List<PetData> petData = new ArrayList<PetData>(pet.getActiveData());
+            return this.submit(ownerIdent, new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    sqlManager.saveToDatabase(ownerIdent, petType, petName, petData, true);
+                    return null;
+                }
+            }, true);
+        }
+        SqlPetManager.PetRecord record = SqlPetManager.PetRecord.of(pet);
+        final String ownerIdent = record.getOwnerIdent();
+        PendingSave pending = this.pendingSaves.get(ownerIdent);
+        if (pending != null && pending.replace(record)) {
+            return pending.future;
+        }
+
+        final PendingSave save = new PendingSave(record);
+        ListenableFuture<Void> future = this.submit(ownerIdent, new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                pendingSaves.remove(ownerIdent, save);
+                sqlManager.saveToDatabase(save.start());
+                return null;
+            }
+        }, true);
+        save.future = future;
+        if (!future.isDone()) {
+            this.pendingSaves.put(ownerIdent, save);
+        }
+        return future;
+    }
+
+    @Override
+    public ListenableFuture<Void> saveAll(Collection<IPet> pets) {
+        // Group records by stripe so that each batch stays ordered with other operations for the same owners
+        List<List<SqlPetManager.PetRecord>> byStripe = new ArrayList<List<SqlPetManager.PetRecord>>(this.stripes.length);
+        for (int i = 0; i < this.stripes.length; i++) {
+            byStripe.add(new ArrayList<SqlPetManager.PetRecord>());
+        }
+        for (IPet pet : pets) {
+            if (pet != null && pet.getOwnerIdentification() != null) {
+                SqlPetManager.PetRecord record = SqlPetManager.PetRecord.of(pet);
+                // Later saves must not be merged into a save queued before this batch
+                this.pendingSaves.remove(record.getOwnerIdent());
+                byStripe.get(this.stripeIndex(record.getOwnerIdent())).add(record);
+            }
+        }
+
+        List<ListenableFuture<Void>> futures = new ArrayList<ListenableFuture<Void>>();
+        for (int i = 0; i < this.stripes.length; i++) {
+            final List<SqlPetManager.PetRecord> records = byStripe.get(i);
+            if (!records.isEmpty()) {
+                futures.add(this.submit(this.stripes[i], new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        sqlManager.saveRecords(records);
+                        return null;
+                    }
+                }, true));
+            }
+        }
+        final SettableFuture<Void> result = SettableFuture.create();
+        final ListenableFuture<List<Void>> all = Futures.allAsList(futures);
+        all.addListener(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    all.get();
+                    result.set(null);
+                } catch (Throwable t) {
+                    result.setException(t);
+                }
+            }
+        }, MoreExecutors.sameThreadExecutor());
+        return result;
+    }
+
+    /**
+     * Reads the saved pet of a player without spawning it. The read is ordered after any pending saves for the
+     * same owner.
+     *
+     * @param ownerIdent identification of the owner
+     * @return future completed on an I/O thread with the stored pet, or null if none exists
+     */
+    public ListenableFuture<SqlPetManager.PetRecord> loadFromDatabase(String ownerIdent) {
+        return this.loadFromDatabase(ownerIdent, null);
+    }
+
+    /**
+     * Reads the saved pet of a player without spawning it. The read is ordered after any pending saves for the
+     * same owner.
+     *
+     * @param ownerIdent identification of the owner
+     * @param ownerName  name of the owner, used to find pets in tables that have not been migrated yet
+     * @return future completed on an I/O thread with the stored pet, or null if none exists
+     */
+    public ListenableFuture<SqlPetManager.PetRecord> loadFromDatabase(final String ownerIdent, final String ownerName) {
+        return this.submit(ownerIdent, new Callable<SqlPetManager.PetRecord>() {
+            @Override
+            public SqlPetManager.PetRecord call() throws Exception {
+                return sqlManager.loadFromDatabase(ownerIdent, ownerName);
+            }
+        }, false);
+    }
+
+    @Override
+    public ListenableFuture<IPet> createPetFromDatabase(Player player) {
+        final String ownerIdent = UUIDMigration.getIdentificationForAsString(player);
+        final SettableFuture<IPet> result = SettableFuture.create();
+        final ListenableFuture<SqlPetManager.PetRecord> load = this.loadFromDatabase(ownerIdent, player.getName());
+        load.addListener(new Runnable() {
+            @Override
+            public void run() {
+                // Only the entity itself needs to be created on the main thread
+                try {
+                    new BukkitRunnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                SqlPetManager.PetRecord record = load.get();
+                                result.set(record == null ? null : sqlManager.spawnFromRecord(record));
+                            } catch (Throwable t) {
+                                result.setException(t);
+                            }
+                        }
+                    }.runTask(plugin);
+                } catch (IllegalStateException e) {
+                    // Plugin is disabled - nothing can be spawned anymore
+                    result.set(null);
+                }
+            }
+        }, MoreExecutors.sameThreadExecutor());
+        return result;
+    }
+
+    @Override
+    public ListenableFuture<Void> clearFromDatabase(Player player) {
+        return this.clearFromDatabase(UUIDMigration.getIdentificationForAsString(player), player.getName());
+    }
+
+    @Override
+    public ListenableFuture<Void> clearFromDatabase(String playerIdent) {
+        return this.clearFromDatabase(playerIdent, null);
+    }
+
+    private ListenableFuture<Void> clearFromDatabase(final String playerIdent, final String playerName) {
+        return this.submit(playerIdent, new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                sqlManager.clearFromDatabase(playerIdent, playerName);
+                return null;
+            }
+        }, true);
+    }
+
+    @Override
+    public ListenableFuture<Void> clearRiderFromDatabase(Player player) {
+        return this.clearRiderFromDatabase(UUIDMigration.getIdentificationForAsString(player));
+    }
+
+    @Override
+    public ListenableFuture<Void> clearRiderFromDatabase(final String playerIdent) {
+        return this.submit(playerIdent, new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                sqlManager.clearRiderFromDatabase(playerIdent);
+                return null;
+            }
+        }, true);
+    }
+
+    @Override
+    public int getQueuedTaskCount() {
+        int count = 0;
+        for (ThreadPoolExecutor stripe : this.stripes) {
+            count += stripe.getQueue().size();
+        }
+        return count;
+    }
+
+    @Override
+    public void shutdown() {
+        for (ThreadPoolExecutor stripe : this.stripes) {
+            stripe.shutdown();
+        }
+        for (ThreadPoolExecutor stripe : this.stripes) {
+            try {
+                if (!stripe.awaitTermination(30, TimeUnit.SECONDS)) {
+                    Logger.log(Logger.LogLevel.WARNING, "Timed out waiting for " + stripe.getQueue().size() + " queued MySQL operations to complete.", true);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private int stripeIndex(String ownerIdent) {
+        return (ownerIdent.hashCode() & Integer.MAX_VALUE) % this.stripes.length;
+    }
+
+    private <T> ListenableFuture<T> submit(String ownerIdent, Callable<T> callable, boolean write) {
+        // Saves submitted after this operation have to run after it too, so may not be merged into an earlier save
+        this.pendingSaves.remove(ownerIdent);
+        return this.submit(this.stripes[this.stripeIndex(ownerIdent)], callable, write);
+    }
+
+    /**
+     * Queues an operation on a stripe. Loads are rejected while the stripe is full, but writes are always queued
+     * (queued saves of the same owner are merged), so that the data of players who are leaving is never lost.
+     *
+     * @param write true if the operation changes stored pets
+     */
+    private <T> ListenableFuture<T> submit(ThreadPoolExecutor stripe, final Callable<T> callable, boolean write) {
+        final SettableFuture<T> future = SettableFuture.create();
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    future.set(callable.call());
+                } catch (Throwable t) {
+                    Logger.log(Logger.LogLevel.SEVERE, "Asynchronous MySQL operation failed.", t instanceof Exception ? (Exception) t : new ExecutionException(t), true);
+                    future.setException(t);
+                }
+            }
+        };
+        if (!write && stripe.getQueue().size() >= this.capacity) {
+            // Never block the server thread waiting for room; the caller is told through the future instead
+            Logger.log(Logger.LogLevel.WARNING, "MySQL queue is full (" + stripe.getQueue().size() + " operations). A pet was not loaded.", true);
+            future.setException(new RejectedExecutionException("MySQL queue is full"));
+            return future;
+        }
+        try {
+            stripe.execute(task);
+        } catch (RejectedExecutionException e) {
+            if (write) {
+                // The stripe has been shut down - write it here rather than lose it
+                task.run();
+            } else {
+                future.setException(e);
+            }
+        }
+        return future;
+    }
+
+    /**
+     * A queued save whose record may still be replaced by a later save of the same owner
+     */
+    private static class PendingSave {
+
+        private SqlPetManager.PetRecord record;
+        private boolean started;
+        private ListenableFuture<Void> future;
+
+        PendingSave(SqlPetManager.PetRecord record) {
+            this.record = record;
+        }
+
+        /**
+         * @return false if the save has already started, in which case the record has to be saved separately
+         */
+        synchronized boolean replace(SqlPetManager.PetRecord record) {
+            if (this.started) {
+                return false;
+            }
+            this.record = record;
+            return true;
+        }
+
+        synchronized SqlPetManager.PetRecord start() {
+            this.started = true;
+            return this.record;
+        }
+    }
+}
@@ -26,17 +26,15 @@ import com.dsh105.echopet.compat.api.entity.PetData;
 import com.dsh105.echopet.compat.api.entity.PetType;
 import com.dsh105.echopet.compat.api.plugin.EchoPet;
 import com.dsh105.echopet.compat.api.util.Lang;
-import com.dsh105.echopet.compat.api.util.MenuUtil;
 import com.dsh105.echopet.compat.api.util.ReflectionUtil;
-import com.dsh105.echopet.compat.api.util.menu.MenuOption;
 import com.dsh105.echopet.compat.api.util.menu.PetMenu;
 import com.dsh105.echopet.compat.api.util.menu.SelectorMenu;
-import com.dsh105.echopet.compat.api.reflection.SafeConstructor;
+import com.dsh105.echopet.compat.api.reflection.ReflectionHandles;
 import org.bukkit.Location;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
 
-import java.util.ArrayList;
+import java.util.Collection;
 
 public class EchoPetAPI {
 
@@ -67,7 +65,7 @@ public class EchoPetAPI {
                 return null;
             }
             if (sendMessage) {
-                Lang.sendTo(player, Lang.CREATE_PET.toString().replace("%type%", StringUtil.capitalise(petType.toString())));
+                Lang.sendTo(player, Lang.CREATE_PET.replace("%type%", StringUtil.capitalise(petType.toString())));
             }
             return pet;
         }
@@ -85,7 +83,7 @@ public class EchoPetAPI {
         if (save) {
             if (hasPet(player)) {
                 EchoPet.getManager().saveFileData("autosave", EchoPet.getManager().getPet(player));
-                EchoPet.getSqlManager().saveToDatabase(EchoPet.getManager().getPet(player), false);
+                EchoPet.getAsyncSqlManager().saveToDatabase(EchoPet.getManager().getPet(player));
             }
         }
         if (sendMessage) {
@@ -120,7 +118,7 @@ public class EchoPetAPI {
      */
 
     public IPet[] getAllPets() {
-        ArrayList<IPet> pets = EchoPet.getManager().getPets();
+        Collection<IPet> pets = EchoPet.getManager().getActivePets();
         return pets.toArray(new IPet[pets.size()]);
     }
 
@@ -156,7 +154,7 @@ public class EchoPetAPI {
         }
 
         if (saveType == SaveType.SQL) {
-            EchoPet.getSqlManager().saveToDatabase(pet, false);
+            EchoPet.getAsyncSqlManager().saveToDatabase(pet);
         } else if (saveType == SaveType.FILE) {
             EchoPet.getManager().saveFileData("autosave", pet);
         }
@@ -203,7 +201,7 @@ public class EchoPetAPI {
             ConsoleLogger.log(Logger.LogLevel.SEVERE, "Failed to check PetData [" + petData.toString() + "] of Pet through the EchoPetAPI. Pet cannot be null.");
             return false;
         }
-        return pet.getPetData().contains(petData);
+        return pet.hasData(petData);
     }
 
     /**
@@ -239,8 +237,7 @@ public class EchoPetAPI {
         if (pet == null) {
             return;
         }
-        ArrayList<MenuOption> options = MenuUtil.createOptionList(pet.getPetType());
-        PetMenu menu = new PetMenu(pet, options, pet.getPetType() == PetType.HORSE ? 18 : 9);
+        PetMenu menu = new PetMenu(pet);
         menu.open(false);
     }
 
@@ -298,13 +295,13 @@ public class EchoPetAPI {
             return;
         }
         if (goalType == GoalType.ATTACK) {
-            pet.getEntityPet().getPetGoalSelector().addGoal(new SafeConstructor<APetGoalMeleeAttack>(ReflectionUtil.getVersionedClass("ai.PetGoalMeleeAttack"), ReflectionUtil.getVersionedClass("entity.EntityPet"), double.class, int.class).newInstance(pet.getEntityPet(), EchoPet.getConfig().getDouble("attack.lockRange", 0.0D), EchoPet.getConfig().getInt("attack.ticksBetweenAttacks", 20)), 3);
+            pet.getEntityPet().getPetGoalSelector().addGoal(ReflectionHandles.GOAL_MELEEATTACK_CONSTRUCTOR.newInstance(pet.getEntityPet(), EchoPet.getConfig().getDouble("attack.lockRange", 0.0D), EchoPet.getConfig().getInt("attack.ticksBetweenAttacks", 20)), 3);
         } else if (goalType == GoalType.FLOAT) {
-            pet.getEntityPet().getPetGoalSelector().addGoal(new SafeConstructor<APetGoalFloat>(ReflectionUtil.getVersionedClass("ai.PetGoalFloat"), ReflectionUtil.getVersionedClass("entity.EntityPet")).newInstance(pet.getEntityPet()), 0);
+            pet.getEntityPet().getPetGoalSelector().addGoal(ReflectionHandles.GOAL_FLOAT_CONSTRUCTOR.newInstance(pet.getEntityPet()), 0);
         } else if (goalType == GoalType.FOLLOW_OWNER) {
-            pet.getEntityPet().getPetGoalSelector().addGoal(new SafeConstructor<APetGoalFollowOwner>(ReflectionUtil.getVersionedClass("ai.PetGoalFollowOwner"), ReflectionUtil.getVersionedClass("entity.EntityPet"), double.class, double.class, double.class).newInstance(pet.getEntityPet(), pet.getEntityPet().getSizeCategory().getStartWalk(pet.getPetType()), pet.getEntityPet().getSizeCategory().getStopWalk(pet.getPetType()), pet.getEntityPet().getSizeCategory().getTeleport(pet.getPetType())), 1);
+            pet.getEntityPet().getPetGoalSelector().addGoal(ReflectionHandles.GOAL_FOLLOWOWNER_CONSTRUCTOR.newInstance(pet.getEntityPet(), pet.getEntityPet().getSizeCategory().getStartWalk(pet.getPetType()), pet.getEntityPet().getSizeCategory().getStopWalk(pet.getPetType()), pet.getEntityPet().getSizeCategory().getTeleport(pet.getPetType())), 1);
         } else if (goalType == GoalType.LOOK_AT_PLAYER) {
-            pet.getEntityPet().getPetGoalSelector().addGoal(new SafeConstructor<APetGoalLookAtPlayer>(ReflectionUtil.getVersionedClass("ai.PetGoalLookAtPlayer"), ReflectionUtil.getVersionedClass("entity.EntityPet"), Class.class, float.class).newInstance(pet.getEntityPet(), ReflectionUtil.getNMSClass("EntityHuman"), 8.0F), 2);
+            pet.getEntityPet().getPetGoalSelector().addGoal(ReflectionHandles.GOAL_LOOKATPLAYER_CONSTRUCTOR.newInstance(pet.getEntityPet(), ReflectionUtil.getNMSClass("EntityHuman"), 8.0F), 2);
         }
     }
 
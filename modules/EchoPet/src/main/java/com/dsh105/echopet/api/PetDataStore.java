@@ -0,0 +1,308 @@
+/*
+ * This file is part of EchoPet.
+ *
+ * EchoPet is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EchoPet is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EchoPet.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.echopet.api;
+
+import com.dsh105.dshutils.config.YAMLConfig;
+import com.dsh105.dshutils.logger.Logger;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.*;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind persistence for the pet data file (pets.yml).
+ * <p/>
+ * Changes are applied to the in-memory {@link YAMLConfig} immediately, but the file itself is only rewritten
+ * periodically (and on shutdown) if any owner entries have been marked dirty since the last flush. Files are
+ * serialised off the main thread and written to a temporary file before being renamed over the original.
+ * <p/>
+ * The writer keeps its own copy of the file contents. A flush only copies the sections of the owners marked dirty
+ * since the last flush on the main thread, and those are merged into the writer's copy off the main thread. The
+ * whole file is only walked on the main thread for the first flush, after {@link #markAllDirty()}, and on
+ * shutdown if the writer did not finish in time. Both parts are included in the reported flush duration.
+ * <p/>
+ * {@link #markDirty(String)} and {@link #flush()} must be called from the main server thread.
+ */
+public class PetDataStore {
+
+    private final Plugin plugin;
+    private final YAMLConfig config;
+    private final File file;
+    private final File tempFile;
+
+    private final Set<String> dirty = new HashSet<String>();
+    private boolean fullFlushRequired;
+    // Nothing has been copied to the writer yet, so the first flush has to take a full snapshot
+    private boolean snapshotRequired = true;
+    private volatile boolean retryRequired;
+
+    private final ExecutorService writer;
+    // Only accessed by the writer thread (or once the writer has terminated)
+    private YamlConfiguration image;
+    private BukkitTask flushTask;
+
+    private volatile long lastFlushNanos;
+    private volatile long lastSnapshotNanos;
+    private volatile int lastFlushEntries;
+    private volatile long flushCount;
+    private volatile long failedFlushCount;
+
+    public PetDataStore(Plugin plugin, YAMLConfig config, String fileName) {
+        this.plugin = plugin;
+        this.config = config;
+        this.file = new File(plugin.getDataFolder(), fileName);
+        this.tempFile = new File(plugin.getDataFolder(), fileName + ".tmp");
+        this.writer = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "EchoPet Data Writer");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Starts the periodic flush task
+     *
+     * @param intervalTicks ticks between flushes of dirty entries
+     */
+    public void start(long intervalTicks) {
+        if (this.flushTask != null) {
+            this.flushTask.cancel();
+        }
+        long interval = Math.max(1L, intervalTicks);
+        this.flushTask = new BukkitRunnable() {
+            @Override
+            public void run() {
+                flush();
+            }
+        }.runTaskTimer(this.plugin, interval, interval);
+    }
+
+    /**
+     * Marks the data of an owner as changed. The data file will be rewritten on the next flush.
+     *
+     * @param ownerPath path of the owner entry in the data file, e.g. "autosave.{uuid}"
+     */
+    public void markDirty(String ownerPath) {
+        this.dirty.add(ownerPath);
+    }
+
+    /**
+     * Forces the next flush to rewrite the data file, regardless of individual owner entries
+     */
+    public void markAllDirty() {
+        this.fullFlushRequired = true;
+    }
+
+    public int getDirtyCount() {
+        return this.dirty.size();
+    }
+
+    /**
+     * @return duration of the last completed flush (copying the changes on the main thread, merging, serialisation
+     * and write), in milliseconds
+     */
+    public double getLastFlushMillis() {
+        return this.lastFlushNanos / 1000000D;
+    }
+
+    /**
+     * @return time the last completed flush spent copying changes on the main thread, in milliseconds
+     */
+    public double getLastSnapshotMillis() {
+        return this.lastSnapshotNanos / 1000000D;
+    }
+
+    /**
+     * @return number of owner entries written in the last completed flush
+     */
+    public int getLastFlushEntries() {
+        return this.lastFlushEntries;
+    }
+
+    public long getFlushCount() {
+        return this.flushCount;
+    }
+
+    public long getFailedFlushCount() {
+        return this.failedFlushCount;
+    }
+
+    /**
+     * Copies the changed owner entries on the main thread and writes the data file asynchronously, if anything has
+     * changed
+     */
+    public void flush() {
+        if (this.dirty.isEmpty() && !this.fullFlushRequired && !this.retryRequired) {
+            return;
+        }
+        long start = System.nanoTime();
+        final YamlConfiguration snapshot = this.fullFlushRequired || this.snapshotRequired ? this.snapshot() : null;
+        final Map<String, Map<String, Object>> changes = snapshot == null ? this.copyDirty() : null;
+        final long snapshotNanos = System.nanoTime() - start;
+        final int entries = this.dirty.size();
+        this.dirty.clear();
+        this.fullFlushRequired = false;
+        this.snapshotRequired = false;
+        this.retryRequired = false;
+        try {
+            this.writer.execute(new Runnable() {
+                @Override
+                public void run() {
+                    write(snapshot, changes, entries, snapshotNanos);
+                }
+            });
+        } catch (Exception e) {
+            // Writer has already been shut down - write it here instead
+            this.write(snapshot, changes, entries, snapshotNanos);
+        }
+    }
+
+    /**
+     * Stops the flush task, waits for pending writes and synchronously writes any remaining dirty entries
+     */
+    public void shutdown() {
+        if (this.flushTask != null) {
+            this.flushTask.cancel();
+            this.flushTask = null;
+        }
+        this.writer.shutdown();
+        boolean terminated = false;
+        try {
+            terminated = this.writer.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+        if (!this.dirty.isEmpty() || this.fullFlushRequired || this.retryRequired) {
+            int entries = this.dirty.size();
+            long start = System.nanoTime();
+            // The writer's copy can only be reused once it is no longer being written to
+            YamlConfiguration snapshot = terminated && !this.fullFlushRequired && !this.snapshotRequired ? null : this.snapshot();
+            Map<String, Map<String, Object>> changes = snapshot == null ? this.copyDirty() : null;
+            long snapshotNanos = System.nanoTime() - start;
+            this.dirty.clear();
+            this.fullFlushRequired = false;
+            this.snapshotRequired = false;
+            this.retryRequired = false;
+            this.write(snapshot, changes, entries, snapshotNanos);
+        }
+    }
+
+    /**
+     * Copies the current contents of every dirty owner entry. Entries that no longer exist map to null.
+     */
+    private Map<String, Map<String, Object>> copyDirty() {
+        Map<String, Map<String, Object>> changes = new LinkedHashMap<String, Map<String, Object>>();
+        for (String ownerPath : this.dirty) {
+            ConfigurationSection section = this.config.getConfigurationSection(ownerPath);
+            if (section == null) {
+                changes.put(ownerPath, null);
+                continue;
+            }
+            Map<String, Object> values = new LinkedHashMap<String, Object>();
+            for (String key : section.getKeys(true)) {
+                Object value = section.get(key);
+                if (value != null && !(value instanceof ConfigurationSection)) {
+                    values.put(key, value);
+                }
+            }
+            changes.put(ownerPath, values);
+        }
+        return changes;
+    }
+
+    private YamlConfiguration snapshot() {
+        YamlConfiguration snapshot = new YamlConfiguration();
+        for (String key : this.config.getKeys(true)) {
+            Object value = this.config.get(key);
+            if (value != null && !(value instanceof ConfigurationSection)) {
+                snapshot.set(key, value);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Brings the writer's copy up to date and writes it to the file
+     *
+     * @param snapshot      full copy of the data file replacing the writer's copy, or null to merge changes into it
+     * @param changes       owner entries to replace in the writer's copy, if no snapshot was taken
+     * @param entries       number of owner entries marked dirty
+     * @param snapshotNanos time spent copying the data on the main thread
+     */
+    private void write(YamlConfiguration snapshot, Map<String, Map<String, Object>> changes, int entries, long snapshotNanos) {
+        long start = System.nanoTime();
+        if (snapshot != null) {
+            this.image = snapshot;
+        } else {
+            for (Map.Entry<String, Map<String, Object>> change : changes.entrySet()) {
+                this.image.set(change.getKey(), null);
+                if (change.getValue() != null) {
+                    ConfigurationSection section = this.image.createSection(change.getKey());
+                    for (Map.Entry<String, Object> value : change.getValue().entrySet()) {
+                        section.set(value.getKey(), value.getValue());
+                    }
+                }
+            }
+        }
+        Writer out = null;
+        try {
+            String data = this.image.saveToString();
+            out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(this.tempFile), "UTF-8"));
+            out.write(data);
+            out.close();
+            out = null;
+
+            if (!this.tempFile.renameTo(this.file)) {
+                // Some platforms refuse to rename over an existing file
+                if (!this.file.delete() || !this.tempFile.renameTo(this.file)) {
+                    throw new IOException("Failed to replace " + this.file.getName() + " with " + this.tempFile.getName());
+                }
+            }
+            this.lastSnapshotNanos = snapshotNanos;
+            this.lastFlushNanos = snapshotNanos + System.nanoTime() - start;
+            this.lastFlushEntries = entries;
+            this.flushCount++;
+        } catch (IOException e) {
+            this.failedFlushCount++;
+            // Try again on the next flush
+            this.retryRequired = true;
+            Logger.log(Logger.LogLevel.SEVERE, "Failed to save pet data file [" + this.file.getName() + "].", e, true);
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * This file is part of EchoPet.
+ *
+ * EchoPet is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EchoPet is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EchoPet.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.dsh105.echopet.api;
+
+import com.dsh105.echopet.compat.api.entity.IPet;
+import com.dsh105.echopet.compat.api.entity.PetChunkIndex;
+import com.dsh105.echopet.compat.api.plugin.EchoPet;
+import org.bukkit.Chunk;
+import org.bukkit.entity.Player;
+
+import java.util.Collection;
+
+/**
+ * Moves pets out of chunks that are being unloaded.
+ * <p/>
+ * Rather than keeping the chunk loaded, a pet left behind by its owner is despawned with the chunk and spawned
+ * again next to its owner. Chunks are looked up in the {@link PetChunkIndex}, so unloading a chunk without any pets
+ * in it costs a single map lookup.
+ * <p/>
+ * All access is expected to happen on the main server thread.
+ */
+public class PetLifecycleManager {
+
+    private final PetManager manager;
+
+    private long relocatedCount;
+    private long despawnedCount;
+
+    public PetLifecycleManager(PetManager manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * Relocates every pet in a chunk that is about to be unloaded
+     *
+     * @param chunk the chunk being unloaded
+     */
+    public void onChunkUnload(Chunk chunk) {
+        Collection<IPet> pets = PetChunkIndex.getPets(chunk);
+        if (pets.isEmpty()) {
+            return;
+        }
+        for (IPet pet : pets) {
+            this.relocate(pet);
+        }
+    }
+
+    /**
+     * Despawns a pet and spawns an identical one (including its rider) next to its owner
+     *
+     * @param pet the pet to relocate
+     * @return the new pet, or null if it could not be spawned again
+     */
+    public IPet relocate(IPet pet) {
+        PetPreloader.Snapshot snapshot = PetPreloader.Snapshot.of(pet);
+        Player owner = pet.getOwner();
+        // Removing the entity also takes it out of the chunk index
+        this.manager.removePet(pet, false);
+        if (owner == null || !owner.isOnline()) {
+            this.despawnedCount++;
+            return null;
+        }
+
+        IPet relocated = this.manager.spawnFromSnapshot(owner, snapshot);
+        if (relocated == null || relocated.getEntityPet() == null) {
+            this.despawnedCount++;
+            return null;
+        }
+        if (EchoPet.getPlugin().getVanishProvider().isVanished(owner)) {
+            relocated.getEntityPet().setShouldVanish(true);
+            relocated.getEntityPet().setInvisible(true);
+        }
+        this.relocatedCount++;
+        return relocated;
+    }
+
+    /**
+     * @return number of pets spawned again next to their owner after their chunk was unloaded
+     */
+    public long getRelocatedCount() {
+        return this.relocatedCount;
+    }
+
+    /**
+     * @return number of pets removed with their chunk that could not be spawned again
+     */
+    public long getDespawnedCount() {
+        return this.despawnedCount;
+    }
+}
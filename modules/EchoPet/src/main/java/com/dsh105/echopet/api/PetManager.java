@@ -18,8 +18,8 @@
 package com.dsh105.echopet.api;
 
 import com.dsh105.dshutils.logger.Logger;
-import com.dsh105.dshutils.util.EnumUtil;
 import com.dsh105.dshutils.util.StringUtil;
+import com.dsh105.echopet.EchoPetPlugin;
 import com.dsh105.echopet.compat.api.entity.*;
 import com.dsh105.echopet.compat.api.entity.type.pet.*;
 import com.dsh105.echopet.compat.api.plugin.EchoPet;
@@ -27,48 +27,66 @@ import com.dsh105.echopet.compat.api.plugin.IPetManager;
 import com.dsh105.echopet.compat.api.plugin.PetStorage;
 import com.dsh105.echopet.compat.api.plugin.uuid.UUIDMigration;
 import com.dsh105.echopet.compat.api.util.Lang;
+import com.dsh105.echopet.compat.api.util.PetDataCodec;
 import com.dsh105.echopet.compat.api.util.PetUtil;
 import com.dsh105.echopet.compat.api.util.ReflectionUtil;
 import com.dsh105.echopet.compat.api.util.WorldUtil;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import org.bukkit.DyeColor;
+import org.bukkit.World;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.bukkit.entity.Villager.Profession;
 
 import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.ListIterator;
+import java.util.Collection;
 
 
 public class PetManager implements IPetManager {
 
-    private ArrayList<IPet> pets = new ArrayList<IPet>();
+    private final PetRegistry registry = new PetRegistry();
+    private final PetLifecycleManager lifecycle = new PetLifecycleManager(this);
+
+    public PetRegistry getRegistry() {
+        return registry;
+    }
+
+    public PetLifecycleManager getLifecycle() {
+        return lifecycle;
+    }
 
     @Override
+    @Deprecated
     public ArrayList<IPet> getPets() {
-        return pets;
+        return new ArrayList<IPet>(registry.getPets());
+    }
+
+    @Override
+    public Collection<IPet> getActivePets() {
+        return registry.getPets();
+    }
+
+    @Override
+    public Collection<IPet> getPetsInWorld(World world) {
+        return registry.getByWorld(world);
     }
 
     @Override
     public IPet loadPets(Player p, boolean findDefault, boolean sendMessage, boolean checkWorldOverride) {
         if (EchoPet.getOptions().sqlOverride()) {
-            IPet pet = EchoPet.getSqlManager().createPetFromDatabase(p);
-            if (pet == null) {
-                return null;
-            } else {
-                if (sendMessage) {
-                    Lang.sendTo(p, Lang.DATABASE_PET_LOAD.toString().replace("%petname%", pet.getPetName().toString()));
-                }
-            }
-            return pet;
+            // Never read the database on the main thread; the pet is spawned once it has been loaded
+            this.loadPetsAsync(p, findDefault, sendMessage, checkWorldOverride);
+            return null;
         } else if (EchoPet.getConfig(EchoPet.ConfigType.DATA).get("default." + UUIDMigration.getIdentificationFor(p) + ".pet.type") != null && findDefault) {
             IPet pi = this.createPetFromFile("default", p);
             if (pi == null) {
                 return null;
             } else {
                 if (sendMessage) {
-                    Lang.sendTo(p, Lang.DEFAULT_PET_LOAD.toString().replace("%petname%", pi.getPetName().toString()));
+                    Lang.sendTo(p, Lang.DEFAULT_PET_LOAD.replace("%petname%", pi.getPetName().toString()));
                 }
             }
             return pi;
@@ -79,7 +97,7 @@ public class PetManager implements IPetManager {
                     return null;
                 } else {
                     if (sendMessage) {
-                        Lang.sendTo(p, Lang.AUTOSAVE_PET_LOAD.toString().replace("%petname%", pi.getPetName().toString()));
+                        Lang.sendTo(p, Lang.AUTOSAVE_PET_LOAD.replace("%petname%", pi.getPetName().toString()));
                     }
                 }
                 return pi;
@@ -88,16 +106,101 @@ public class PetManager implements IPetManager {
         return null;
     }
 
+    @Override
+    public ListenableFuture<IPet> loadPetsAsync(final Player p, boolean findDefault, final boolean sendMessage, boolean checkWorldOverride) {
+        if (EchoPet.getOptions().sqlOverride()) {
+            ListenableFuture<IPet> future = EchoPet.getAsyncSqlManager().createPetFromDatabase(p);
+            if (sendMessage) {
+                Futures.addCallback(future, new FutureCallback<IPet>() {
+                    @Override
+                    public void onSuccess(IPet pet) {
+                        if (pet != null && p.isOnline()) {
+                            Lang.sendTo(p, Lang.DATABASE_PET_LOAD.replace("%petname%", pet.getPetName().toString()));
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(Throwable throwable) {
+                    }
+                });
+            }
+            return future;
+        }
+        return Futures.immediateFuture(this.loadPets(p, findDefault, sendMessage, checkWorldOverride));
+    }
+
+    /**
+     * Spawns the pet preloaded for a player when they logged in, falling back to
+     * {@link #loadPetsAsync(org.bukkit.entity.Player, boolean, boolean, boolean)} if nothing was preloaded
+     *
+     * @return future completed on the main thread with the loaded pet, or null if none was loaded
+     */
+    public ListenableFuture<IPet> loadPreloadedPets(Player p, boolean sendMessage) {
+        PetPreloader.Snapshot snapshot = EchoPetPlugin.getPreloader().take(UUIDMigration.getIdentificationForAsString(p));
+        if (snapshot == null) {
+            return this.loadPetsAsync(p, true, sendMessage, false);
+        }
+        if (snapshot.isEmpty()) {
+            return Futures.immediateFuture(null);
+        }
+        IPet pet = this.spawnFromSnapshot(p, snapshot);
+        if (pet != null && sendMessage) {
+            Lang lang = snapshot.getSource() == PetPreloader.Source.DATABASE ? Lang.DATABASE_PET_LOAD : (snapshot.getSource() == PetPreloader.Source.DEFAULT ? Lang.DEFAULT_PET_LOAD : Lang.AUTOSAVE_PET_LOAD);
+            Lang.sendTo(p, lang.replace("%petname%", pet.getPetName()));
+        }
+        return Futures.immediateFuture(pet);
+    }
+
+    /**
+     * Spawns a preloaded pet and its rider. Must be called on the main thread.
+     *
+     * @param p        owner of the pet
+     * @param snapshot the preloaded pet
+     * @return the spawned pet, or null if it could not be created
+     */
+    public IPet spawnFromSnapshot(Player p, PetPreloader.Snapshot snapshot) {
+        if (snapshot.isEmpty() || !EchoPet.getOptions().allowPetType(snapshot.getPetType())) {
+            return null;
+        }
+        boolean fromFile = snapshot.getSource() == PetPreloader.Source.DEFAULT || snapshot.getSource() == PetPreloader.Source.AUTOSAVE;
+        IPet pi = this.createPet(p, snapshot.getPetType(), fromFile);
+        if (pi == null) {
+            return null;
+        }
+        String name = snapshot.getPetName();
+        pi.setPetName(name == null || name.isEmpty() ? snapshot.getPetType().getDefaultName(p.getName()) : name);
+        if (!snapshot.getPetData().isEmpty()) {
+            setData(pi, snapshot.getPetData().toArray(new PetData[snapshot.getPetData().size()]), true);
+        }
+
+        if (snapshot.getRiderType() != null && EchoPet.getOptions().allowRidersFor(pi.getPetType())) {
+            IPet rider = pi.createRider(snapshot.getRiderType(), fromFile);
+            if (rider != null && rider.getEntityPet() != null) {
+                String riderName = snapshot.getRiderName();
+                rider.setPetName(riderName == null || riderName.isEmpty() ? snapshot.getRiderType().getDefaultName(p.getName()) : riderName);
+                if (!snapshot.getRiderData().isEmpty()) {
+                    setData(rider, snapshot.getRiderData().toArray(new PetData[snapshot.getRiderData().size()]), true);
+                }
+            }
+        }
+
+        if (fromFile) {
+            forceAllValidData(pi);
+        }
+        return pi;
+    }
+
     @Override
     public void removeAllPets() {
-        Iterator<IPet> i = pets.listIterator();
-        while (i.hasNext()) {
-            IPet p = i.next();
+        ArrayList<IPet> toRemove = new ArrayList<IPet>(registry.getPets());
+        for (IPet p : toRemove) {
             saveFileData("autosave", p);
-            EchoPet.getSqlManager().saveToDatabase(p, false);
+        }
+        EchoPet.getAsyncSqlManager().saveAll(toRemove);
+        for (IPet p : toRemove) {
             p.removePet(true);
-            i.remove();
         }
+        registry.clear();
     }
 
     @Override
@@ -111,19 +214,19 @@ public class PetManager implements IPetManager {
         removePets(owner, true);
         if (!WorldUtil.allowPets(owner.getLocation())) {
             if (sendMessageOnFail) {
-                Lang.sendTo(owner, Lang.PETS_DISABLED_HERE.toString().replace("%world%", StringUtil.capitalise(owner.getWorld().getName())));
+                Lang.sendTo(owner, Lang.PETS_DISABLED_HERE.replace("%world%", StringUtil.capitalise(owner.getWorld().getName())));
             }
             return null;
         }
         if (!EchoPet.getOptions().allowPetType(petType)) {
             if (sendMessageOnFail) {
-                Lang.sendTo(owner, Lang.PET_TYPE_DISABLED.toString().replace("%type%", StringUtil.capitalise(petType.toString())));
+                Lang.sendTo(owner, Lang.PET_TYPE_DISABLED.replace("%type%", StringUtil.capitalise(petType.toString())));
             }
             return null;
         }
         IPet pi = petType.getNewPetInstance(owner);
         forceAllValidData(pi);
-        pets.add(pi);
+        registry.register(pi);
         return pi;
     }
 
@@ -135,82 +238,59 @@ public class PetManager implements IPetManager {
         }
         removePets(owner, true);
         if (!WorldUtil.allowPets(owner.getLocation())) {
-            Lang.sendTo(owner, Lang.PETS_DISABLED_HERE.toString().replace("%world%", StringUtil.capitalise(owner.getWorld().getName())));
+            Lang.sendTo(owner, Lang.PETS_DISABLED_HERE.replace("%world%", StringUtil.capitalise(owner.getWorld().getName())));
             return null;
         }
         if (!EchoPet.getOptions().allowPetType(petType)) {
-            Lang.sendTo(owner, Lang.PET_TYPE_DISABLED.toString().replace("%type%", StringUtil.capitalise(petType.toString())));
+            Lang.sendTo(owner, Lang.PET_TYPE_DISABLED.replace("%type%", StringUtil.capitalise(petType.toString())));
             return null;
         }
         IPet pi = petType.getNewPetInstance(owner);
         pi.createRider(riderType, true);
         forceAllValidData(pi);
-        pets.add(pi);
+        registry.register(pi);
         return pi;
     }
 
     @Override
     public IPet getPet(Player player) {
-        for (IPet pi : pets) {
-            if (UUIDMigration.getIdentificationFor(player).equals(pi.getOwnerIdentification())) {
-                return pi;
-            }
-        }
-        return null;
+        return registry.getByOwner(UUIDMigration.getIdentificationFor(player));
     }
 
     @Override
     public IPet getPet(Entity pet) {
-        for (IPet pi : pets) {
-            IPet rider = pi.getRider();
-            if (pi.getEntityPet().equals(pet) || (rider != null && rider.getEntityPet().equals(pet))) {
-                return pi;
-            }
-            if (pi.getCraftPet().equals(pet) || (rider != null && rider.getCraftPet().equals(pet))) {
-                return pi;
-            }
-        }
-        return null;
+        return registry.getByEntity(pet);
     }
 
     // Force all data specified in config file and notify player.
     @Override
     public void forceAllValidData(IPet pi) {
-        ArrayList<PetData> tempData = new ArrayList<PetData>();
-        for (PetData data : PetData.values()) {
-            if (EchoPet.getOptions().forceData(pi.getPetType(), data)) {
-                tempData.add(data);
-            }
-        }
+        ArrayList<PetData> tempData = new ArrayList<PetData>(EchoPet.getOptions().getSettings(pi.getPetType()).getForcedData());
         setData(pi, tempData.toArray(new PetData[tempData.size()]), true);
 
         ArrayList<PetData> tempRiderData = new ArrayList<PetData>();
         if (pi.getRider() != null) {
-            for (PetData data : PetData.values()) {
-                if (EchoPet.getOptions().forceData(pi.getPetType(), data)) {
-                    tempRiderData.add(data);
-                }
-            }
-            setData(pi.getRider(), tempRiderData.toArray(new PetData[tempData.size()]), true);
+            tempRiderData.addAll(EchoPet.getOptions().getSettings(pi.getPetType()).getForcedData());
+            setData(pi.getRider(), tempRiderData.toArray(new PetData[tempRiderData.size()]), true);
         }
 
         if (EchoPet.getOptions().getConfig().getBoolean("sendForceMessage", true)) {
             String dataToString = tempRiderData.isEmpty() ? PetUtil.dataToString(tempData, tempRiderData) : PetUtil.dataToString(tempData);;
             if (dataToString != null) {
-                Lang.sendTo(pi.getOwner(), Lang.DATA_FORCE_MESSAGE.toString().replace("%data%", dataToString));
+                Lang.sendTo(pi.getOwner(), Lang.DATA_FORCE_MESSAGE.replace("%data%", dataToString));
             }
         }
     }
 
     @Override
     public void updateFileData(String type, IPet pet, ArrayList<PetData> list, boolean b) {
-        EchoPet.getSqlManager().saveToDatabase(pet, pet.isRider());
+        EchoPet.getAsyncSqlManager().saveToDatabase(pet);
         String w = pet.getOwner().getWorld().getName();
         String path = type + "." + w + "." + pet.getOwnerIdentification();
         for (PetData pd : list) {
             EchoPet.getConfig(EchoPet.ConfigType.DATA).set(path + ".pet.data." + pd.toString().toLowerCase(), b);
         }
-        EchoPet.getConfig(EchoPet.ConfigType.DATA).saveConfig();
+        EchoPetPlugin.getDataStore().markDirty(path);
     }
 
     @Override
@@ -240,8 +320,8 @@ public class PetManager implements IPetManager {
                 ConfigurationSection cs = EchoPet.getConfig(EchoPet.ConfigType.DATA).getConfigurationSection(path + ".pet.data");
                 if (cs != null) {
                     for (String key : cs.getKeys(false)) {
-                        if (EnumUtil.isEnumType(PetData.class, key.toUpperCase())) {
-                            PetData pd = PetData.valueOf(key.toUpperCase());
+                        PetData pd = PetDataCodec.fromName(key);
+                        if (pd != null) {
                             data.add(pd);
                         } else {
                             Logger.log(Logger.LogLevel.WARNING, "Error whilst loading data Pet Save Data for " + pi.getNameOfOwner() + ". Unknown enum type: " + key + ".", true);
@@ -286,8 +366,8 @@ public class PetManager implements IPetManager {
                         ConfigurationSection mcs = EchoPet.getConfig(EchoPet.ConfigType.DATA).getConfigurationSection(path + ".rider.data");
                         if (mcs != null) {
                             for (String key : mcs.getKeys(false)) {
-                                if (EnumUtil.isEnumType(PetData.class, key.toUpperCase())) {
-                                    PetData pd = PetData.valueOf(key.toUpperCase());
+                                PetData pd = PetDataCodec.fromName(key);
+                                if (pd != null) {
                                     riderData.add(pd);
                                 } else {
                                     Logger.log(Logger.LogLevel.WARNING, "Error whilst loading data Pet Rider Save Data for " + pet.getNameOfOwner() + ". Unknown enum type: " + key + ".", true);
@@ -295,7 +375,7 @@ public class PetManager implements IPetManager {
                             }
                         }
                         if (!riderData.isEmpty()) {
-                            setData(pet, riderData.toArray(new PetData[riderData.size()]), true);
+                            setData(rider, riderData.toArray(new PetData[riderData.size()]), true);
                         }
                     }
                 }
@@ -305,26 +385,18 @@ public class PetManager implements IPetManager {
 
     @Override
     public void removePets(Player player, boolean makeDeathSound) {
-        Iterator<IPet> i = pets.listIterator();
-        while (i.hasNext()) {
-            IPet p = i.next();
-            if (UUIDMigration.getIdentificationFor(player).equals(p.getOwnerIdentification())) {
-                p.removePet(makeDeathSound);
-                i.remove();
-            }
+        IPet p = registry.unregister(UUIDMigration.getIdentificationFor(player));
+        if (p != null) {
+            p.removePet(makeDeathSound);
         }
     }
 
     @Override
     public void removePet(IPet pi, boolean makeDeathSound) {
-        Iterator<IPet> i = pets.listIterator();
-        while (i.hasNext()) {
-            IPet p = i.next();
-            if (pi != null && p != null) {
-                if (pi.getOwnerIdentification().equals(p.getOwnerIdentification())) {
-                    p.removePet(makeDeathSound);
-                    i.remove();
-                }
+        if (pi != null) {
+            IPet p = registry.unregister(pi.getOwnerIdentification());
+            if (p != null) {
+                p.removePet(makeDeathSound);
             }
         }
     }
@@ -339,7 +411,7 @@ public class PetManager implements IPetManager {
         EchoPet.getConfig(EchoPet.ConfigType.DATA).set(path + ".pet.type", petType.toString());
         EchoPet.getConfig(EchoPet.ConfigType.DATA).set(path + ".pet.name", pet.getPetNameWithoutColours());
 
-        for (PetData pd : pet.getPetData()) {
+        for (PetData pd : pet.getActiveData()) {
             EchoPet.getConfig(EchoPet.ConfigType.DATA).set(path + ".pet.data." + pd.toString().toLowerCase(), true);
         }
 
@@ -348,11 +420,11 @@ public class PetManager implements IPetManager {
 
             EchoPet.getConfig(EchoPet.ConfigType.DATA).set(path + ".rider.type", riderType.toString());
             EchoPet.getConfig(EchoPet.ConfigType.DATA).set(path + ".rider.name", pet.getRider().getPetNameWithoutColours());
-            for (PetData pd : pet.getRider().getPetData()) {
+            for (PetData pd : pet.getRider().getActiveData()) {
                 EchoPet.getConfig(EchoPet.ConfigType.DATA).set(path + ".rider.data." + pd.toString().toLowerCase(), true);
             }
         }
-        EchoPet.getConfig(EchoPet.ConfigType.DATA).saveConfig();
+        EchoPetPlugin.getDataStore().markDirty(path);
     }
 
     @Override
@@ -387,7 +459,7 @@ public class PetManager implements IPetManager {
             }
 
         }
-        EchoPet.getConfig(EchoPet.ConfigType.DATA).saveConfig();
+        EchoPetPlugin.getDataStore().markDirty(path);
     }
 
     @Override
@@ -404,7 +476,7 @@ public class PetManager implements IPetManager {
         for (PetData pd : data) {
             EchoPet.getConfig(EchoPet.ConfigType.DATA).set(path + ".pet.data." + pd.toString().toLowerCase(), true);
         }
-        EchoPet.getConfig(EchoPet.ConfigType.DATA).saveConfig();
+        EchoPetPlugin.getDataStore().markDirty(path);
     }
 
     @Override
@@ -414,19 +486,21 @@ public class PetManager implements IPetManager {
                 EchoPet.getConfig(EchoPet.ConfigType.DATA).set(key, null);
             }
         }
-        EchoPet.getConfig(EchoPet.ConfigType.DATA).saveConfig();
+        EchoPetPlugin.getDataStore().markAllDirty();
     }
 
     @Override
     public void clearFileData(String type, IPet pi) {
-        EchoPet.getConfig(EchoPet.ConfigType.DATA).set(type + "." + pi.getOwnerIdentification(), null);
-        EchoPet.getConfig(EchoPet.ConfigType.DATA).saveConfig();
+        String path = type + "." + pi.getOwnerIdentification();
+        EchoPet.getConfig(EchoPet.ConfigType.DATA).set(path, null);
+        EchoPetPlugin.getDataStore().markDirty(path);
     }
 
     @Override
     public void clearFileData(String type, Player p) {
-        EchoPet.getConfig(EchoPet.ConfigType.DATA).set(type + "." + UUIDMigration.getIdentificationFor(p), null);
-        EchoPet.getConfig(EchoPet.ConfigType.DATA).saveConfig();
+        String path = type + "." + UUIDMigration.getIdentificationFor(p);
+        EchoPet.getConfig(EchoPet.ConfigType.DATA).set(path, null);
+        EchoPetPlugin.getDataStore().markDirty(path);
     }
 
     @Override
@@ -619,30 +693,7 @@ public class PetManager implements IPetManager {
                     }
                 }
             }
-            ListIterator<PetData> i = pet.getPetData().listIterator();
-            while (i.hasNext()) {
-                PetData petData = i.next();
-                if (petData != pd) {
-                    ListIterator<PetData.Type> i2 = pd.getTypes().listIterator();
-                    while (i2.hasNext()) {
-                        PetData.Type type = i2.next();
-                        if (type != PetData.Type.BOOLEAN && petData.isType(type)) {
-                            i.remove();
-                            break;
-                        }
-                    }
-                }
-            }
-
-            if (b) {
-                if (!pet.getPetData().contains(pd)) {
-                    pet.getPetData().add(pd);
-                }
-            } else {
-                if (pet.getPetData().contains(pd)) {
-                    pet.getPetData().remove(pd);
-                }
-            }
+            pet.applyData(pd, b);
         }
     }
 }
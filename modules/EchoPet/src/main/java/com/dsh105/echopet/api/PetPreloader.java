@@ -0,0 +1,271 @@
+/*
+ * This file is part of EchoPet.
+ *
+ * EchoPet is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EchoPet is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EchoPet.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.dsh105.echopet.api;
+
+import com.dsh105.dshutils.config.YAMLConfig;
+import com.dsh105.dshutils.logger.Logger;
+import com.dsh105.echopet.compat.api.entity.IPet;
+import com.dsh105.echopet.compat.api.entity.PetData;
+import com.dsh105.echopet.compat.api.entity.PetType;
+import com.dsh105.echopet.compat.api.plugin.EchoPet;
+import com.dsh105.echopet.compat.api.plugin.PetStorage;
+import com.dsh105.echopet.compat.api.util.PetDataCodec;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.plugin.Plugin;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads the saved pet of a player while they are logging in, so that it can be spawned when they join without
+ * touching the database or walking the data file on the main thread.
+ * <p/>
+ * {@link #preload(String, String)} is called from the asynchronous pre-login thread. Database reads go through the
+ * owner's I/O stripe, so they are ordered after any save made when the player last quit. The data file is not
+ * safe to read concurrently, so it is decoded in a short synchronous call instead. Snapshots that are not
+ * claimed within {@link #EXPIRY_MILLIS} (e.g. because the login was refused) are discarded.
+ */
+public class PetPreloader {
+
+    public static final long EXPIRY_MILLIS = TimeUnit.SECONDS.toMillis(60);
+    private static final long LOAD_TIMEOUT_SECONDS = 10;
+
+    private final Plugin plugin;
+    private final AsyncSqlPetManager asyncSqlManager;
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<String, Snapshot>();
+
+    public PetPreloader(Plugin plugin, AsyncSqlPetManager asyncSqlManager) {
+        this.plugin = plugin;
+        this.asyncSqlManager = asyncSqlManager;
+    }
+
+    /**
+     * Reads and caches the saved pet of a player. Blocks until the pet has been read, so must not be called on
+     * the main thread.
+     *
+     * @param ownerIdent identification of the owner
+     * @param ownerName  name of the owner
+     */
+    public void preload(final String ownerIdent, String ownerName) {
+        this.expire();
+        Snapshot snapshot;
+        try {
+            if (EchoPet.getOptions().sqlOverride()) {
+                SqlPetManager.PetRecord record = this.asyncSqlManager.loadFromDatabase(ownerIdent, ownerName).get(LOAD_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                snapshot = record == null ? Snapshot.none() : new Snapshot(Source.DATABASE, record.getPet(), record.getRider());
+            } else {
+                snapshot = this.plugin.getServer().getScheduler().callSyncMethod(this.plugin, new Callable<Snapshot>() {
+                    @Override
+                    public Snapshot call() throws Exception {
+                        return readFromFile(ownerIdent);
+                    }
+                }).get(LOAD_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            // Nothing is cached, so the pet is loaded the usual way on join
+            Logger.log(Logger.LogLevel.WARNING, "Failed to preload the pet of " + ownerIdent + ".", e, true);
+            return;
+        }
+        this.snapshots.put(ownerIdent, snapshot);
+    }
+
+    /**
+     * Removes the preloaded pet of a player from the cache
+     *
+     * @param ownerIdent identification of the owner
+     * @return the preloaded pet (possibly {@link Snapshot#isEmpty() empty}), or null if nothing was preloaded or
+     * the snapshot has expired
+     */
+    public Snapshot take(String ownerIdent) {
+        Snapshot snapshot = this.snapshots.remove(ownerIdent);
+        if (snapshot == null || snapshot.isExpired(System.currentTimeMillis())) {
+            return null;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Discards the preloaded pet of a player, e.g. when their login is refused
+     *
+     * @param ownerIdent identification of the owner
+     */
+    public void discard(String ownerIdent) {
+        this.snapshots.remove(ownerIdent);
+    }
+
+    public int size() {
+        return this.snapshots.size();
+    }
+
+    public void clear() {
+        this.snapshots.clear();
+    }
+
+    private void expire() {
+        long now = System.currentTimeMillis();
+        Iterator<Snapshot> i = this.snapshots.values().iterator();
+        while (i.hasNext()) {
+            if (i.next().isExpired(now)) {
+                i.remove();
+            }
+        }
+    }
+
+    /**
+     * Decodes the saved pet of an owner from the data file. Follows the same order as
+     * {@link PetManager#loadPets(org.bukkit.entity.Player, boolean, boolean, boolean)}: the default pet first,
+     * then the one saved when the player last left. Only the latter depends on the loadSavedPets option.
+     */
+    private Snapshot readFromFile(String ownerIdent) {
+        YAMLConfig config = EchoPet.getConfig(EchoPet.ConfigType.DATA);
+        Source source;
+        String path;
+        if (config.get("default." + ownerIdent + ".pet.type") != null) {
+            source = Source.DEFAULT;
+            path = "default." + ownerIdent;
+        } else if (EchoPet.getOptions().getConfig().getBoolean("loadSavedPets", true) && config.get("autosave." + ownerIdent + ".pet.type") != null) {
+            source = Source.AUTOSAVE;
+            path = "autosave." + ownerIdent;
+        } else {
+            return Snapshot.none();
+        }
+
+        PetStorage pet = readStorage(config, path + ".pet", ownerIdent);
+        if (pet == null) {
+            return Snapshot.none();
+        }
+        PetStorage rider = config.get(path + ".rider.type") != null ? readStorage(config, path + ".rider", ownerIdent) : null;
+        return new Snapshot(source, pet, rider);
+    }
+
+    private static PetStorage readStorage(YAMLConfig config, String path, String ownerIdent) {
+        PetType petType;
+        try {
+            petType = PetType.valueOf(config.getString(path + ".type"));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        ArrayList<PetData> data = new ArrayList<PetData>();
+        ConfigurationSection cs = config.getConfigurationSection(path + ".data");
+        if (cs != null) {
+            for (String key : cs.getKeys(false)) {
+                PetData pd = PetDataCodec.fromName(key);
+                if (pd != null) {
+                    data.add(pd);
+                } else {
+                    Logger.log(Logger.LogLevel.WARNING, "Error whilst loading data Pet Save Data for " + ownerIdent + ". Unknown enum type: " + key + ".", true);
+                }
+            }
+        }
+        return new PetStorage(data, petType, config.getString(path + ".name"));
+    }
+
+    public enum Source {
+        DATABASE, DEFAULT, AUTOSAVE,
+        /**
+         * Captured from a live pet that is about to be respawned
+         */
+        RESPAWN
+    }
+
+    /**
+     * An immutable copy of a saved pet (and its rider), not yet spawned
+     */
+    public static class Snapshot {
+
+        private final Source source;
+        private final PetType petType;
+        private final String petName;
+        private final List<PetData> petData;
+        private final PetType riderType;
+        private final String riderName;
+        private final List<PetData> riderData;
+        private final long expires;
+
+        private Snapshot(Source source, PetStorage pet, PetStorage rider) {
+            this.source = source;
+            this.petType = pet == null ? null : pet.petType;
+            this.petName = pet == null ? null : pet.petName;
+            this.petData = pet == null ? Collections.<PetData>emptyList() : Collections.unmodifiableList(new ArrayList<PetData>(pet.petDataList));
+            this.riderType = rider == null ? null : rider.petType;
+            this.riderName = rider == null ? null : rider.petName;
+            this.riderData = rider == null ? Collections.<PetData>emptyList() : Collections.unmodifiableList(new ArrayList<PetData>(rider.petDataList));
+            this.expires = System.currentTimeMillis() + EXPIRY_MILLIS;
+        }
+
+        private static Snapshot none() {
+            return new Snapshot(null, null, null);
+        }
+
+        /**
+         * Captures the current state of a pet and its rider
+         *
+         * @param pet the pet to capture
+         * @return a snapshot that is no longer tied to the live pet
+         */
+        public static Snapshot of(IPet pet) {
+            SqlPetManager.PetRecord record = SqlPetManager.PetRecord.of(pet);
+            return new Snapshot(Source.RESPAWN, record.getPet(), record.getRider());
+        }
+
+        /**
+         * @return true if the player has no saved pet
+         */
+        public boolean isEmpty() {
+            return this.petType == null;
+        }
+
+        boolean isExpired(long now) {
+            return now >= this.expires;
+        }
+
+        public Source getSource() {
+            return source;
+        }
+
+        public PetType getPetType() {
+            return petType;
+        }
+
+        public String getPetName() {
+            return petName;
+        }
+
+        public List<PetData> getPetData() {
+            return petData;
+        }
+
+        public PetType getRiderType() {
+            return riderType;
+        }
+
+        public String getRiderName() {
+            return riderName;
+        }
+
+        public List<PetData> getRiderData() {
+            return riderData;
+        }
+    }
+}
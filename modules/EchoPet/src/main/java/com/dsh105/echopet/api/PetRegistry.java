@@ -0,0 +1,235 @@
+/*
+ * This file is part of EchoPet.
+ *
+ * EchoPet is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EchoPet is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EchoPet.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.dsh105.echopet.api;
+
+import com.dsh105.echopet.compat.api.entity.IPet;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+
+import java.util.*;
+
+/**
+ * Indexes every active pet by owner, by entity id (including the entity of its rider) and by world.
+ * <p/>
+ * All access is expected to happen on the main server thread.
+ */
+public class PetRegistry {
+
+    private final Map<Object, Entry> byOwner = new LinkedHashMap<Object, Entry>();
+    private final Map<Integer, IPet> byEntityId = new HashMap<Integer, IPet>();
+    private final Map<UUID, Set<IPet>> byWorld = new HashMap<UUID, Set<IPet>>();
+
+    private final Collection<IPet> pets = new AbstractCollection<IPet>() {
+        @Override
+        public Iterator<IPet> iterator() {
+            final Iterator<Entry> i = byOwner.values().iterator();
+            return new Iterator<IPet>() {
+                @Override
+                public boolean hasNext() {
+                    return i.hasNext();
+                }
+
+                @Override
+                public IPet next() {
+                    return i.next().pet;
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return byOwner.size();
+        }
+    };
+
+    /**
+     * Gets a read-only, live view of all registered pets
+     *
+     * @return all registered pets
+     */
+    public Collection<IPet> getPets() {
+        return this.pets;
+    }
+
+    public int size() {
+        return this.byOwner.size();
+    }
+
+    public void register(IPet pet) {
+        Object owner = pet.getOwnerIdentification();
+        if (owner == null) {
+            return;
+        }
+        Entry existing = this.byOwner.get(owner);
+        if (existing != null) {
+            if (existing.pet == pet) {
+                this.updateRider(pet);
+                return;
+            }
+            this.unindex(existing);
+        }
+        Entry entry = new Entry(pet);
+        this.byOwner.put(owner, entry);
+
+        entry.entityId = entityIdOf(pet);
+        if (entry.entityId != -1) {
+            this.byEntityId.put(entry.entityId, pet);
+        }
+        entry.riderEntityId = entityIdOf(pet.getRider());
+        if (entry.riderEntityId != -1) {
+            this.byEntityId.put(entry.riderEntityId, pet);
+        }
+
+        entry.worldId = worldIdOf(pet);
+        if (entry.worldId != null) {
+            Set<IPet> inWorld = this.byWorld.get(entry.worldId);
+            if (inWorld == null) {
+                inWorld = new LinkedHashSet<IPet>();
+                this.byWorld.put(entry.worldId, inWorld);
+            }
+            inWorld.add(pet);
+        }
+    }
+
+    public IPet unregister(Object ownerIdentification) {
+        if (ownerIdentification == null) {
+            return null;
+        }
+        Entry entry = this.byOwner.remove(ownerIdentification);
+        if (entry == null) {
+            return null;
+        }
+        this.unindexEntities(entry);
+        return entry.pet;
+    }
+
+    public boolean unregister(IPet pet) {
+        Entry entry = this.byOwner.get(pet.getOwnerIdentification());
+        if (entry == null || entry.pet != pet) {
+            return false;
+        }
+        this.unindex(entry);
+        return true;
+    }
+
+    /**
+     * Re-indexes the rider entity of a registered pet. Called whenever a rider is created or removed.
+     *
+     * @param pet the (non-rider) pet whose rider changed
+     */
+    public void updateRider(IPet pet) {
+        if (pet == null || pet.getOwnerIdentification() == null) {
+            return;
+        }
+        Entry entry = this.byOwner.get(pet.getOwnerIdentification());
+        if (entry == null || entry.pet != pet) {
+            return;
+        }
+        if (entry.riderEntityId != -1) {
+            this.byEntityId.remove(entry.riderEntityId);
+        }
+        entry.riderEntityId = entityIdOf(pet.getRider());
+        if (entry.riderEntityId != -1) {
+            this.byEntityId.put(entry.riderEntityId, pet);
+        }
+    }
+
+    public IPet getByOwner(Object ownerIdentification) {
+        if (ownerIdentification == null) {
+            return null;
+        }
+        Entry entry = this.byOwner.get(ownerIdentification);
+        return entry == null ? null : entry.pet;
+    }
+
+    public IPet getByEntity(Entity entity) {
+        if (entity == null) {
+            return null;
+        }
+        return this.byEntityId.get(entity.getEntityId());
+    }
+
+    public Collection<IPet> getByWorld(World world) {
+        if (world == null) {
+            return Collections.emptySet();
+        }
+        Set<IPet> inWorld = this.byWorld.get(world.getUID());
+        return inWorld == null ? Collections.<IPet>emptySet() : Collections.unmodifiableSet(inWorld);
+    }
+
+    public void clear() {
+        this.byOwner.clear();
+        this.byEntityId.clear();
+        this.byWorld.clear();
+    }
+
+    private void unindex(Entry entry) {
+        this.byOwner.remove(entry.pet.getOwnerIdentification());
+        this.unindexEntities(entry);
+    }
+
+    private void unindexEntities(Entry entry) {
+        if (entry.entityId != -1) {
+            this.byEntityId.remove(entry.entityId);
+        }
+        if (entry.riderEntityId != -1) {
+            this.byEntityId.remove(entry.riderEntityId);
+        }
+        if (entry.worldId != null) {
+            Set<IPet> inWorld = this.byWorld.get(entry.worldId);
+            if (inWorld != null) {
+                inWorld.remove(entry.pet);
+                if (inWorld.isEmpty()) {
+                    this.byWorld.remove(entry.worldId);
+                }
+            }
+        }
+    }
+
+    private static int entityIdOf(IPet pet) {
+        if (pet == null || pet.getEntityPet() == null || pet.getCraftPet() == null) {
+            return -1;
+        }
+        return pet.getCraftPet().getEntityId();
+    }
+
+    private static UUID worldIdOf(IPet pet) {
+        if (pet.getEntityPet() == null || pet.getCraftPet() == null) {
+            return null;
+        }
+        World world = pet.getCraftPet().getWorld();
+        return world == null ? null : world.getUID();
+    }
+
+    private static class Entry {
+
+        private final IPet pet;
+        private int entityId = -1;
+        private int riderEntityId = -1;
+        private UUID worldId;
+
+        Entry(IPet pet) {
+            this.pet = pet;
+        }
+    }
+}
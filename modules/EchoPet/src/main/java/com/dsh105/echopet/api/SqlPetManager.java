@@ -23,8 +23,9 @@ import com.dsh105.echopet.compat.api.entity.PetData;
 import com.dsh105.echopet.compat.api.entity.PetType;
 import com.dsh105.echopet.compat.api.plugin.EchoPet;
 import com.dsh105.echopet.compat.api.plugin.ISqlPetManager;
+import com.dsh105.echopet.compat.api.plugin.PetStorage;
 import com.dsh105.echopet.compat.api.plugin.uuid.UUIDMigration;
-import com.dsh105.echopet.compat.api.util.SQLUtil;
+import com.dsh105.echopet.compat.api.util.PetDataCodec;
 import com.dsh105.echopet.compat.api.util.TableMigrationUtil;
 import org.bukkit.entity.Player;
 
@@ -33,50 +34,75 @@ import java.util.*;
 
 public class SqlPetManager implements ISqlPetManager {
 
+    private static final int BATCH_SIZE = 100;
+
+    private static final String UPSERT_STATEMENT = "INSERT INTO " + TableMigrationUtil.LATEST_TABLE
+            + " (OwnerName, PetType, PetName, PetData, RiderPetType, RiderPetName, RiderPetData) VALUES (?, ?, ?, ?, ?, ?, ?)"
+            + " ON DUPLICATE KEY UPDATE PetType = VALUES(PetType), PetName = VALUES(PetName), PetData = VALUES(PetData),"
+            + " RiderPetType = VALUES(RiderPetType), RiderPetName = VALUES(RiderPetName), RiderPetData = VALUES(RiderPetData)";
+
     @Override
     public void saveToDatabase(IPet p, boolean isRider) {
-        this.saveToDatabase(p.getOwnerIdentification().toString(), p.getPetType(), p.getPetName(), p.getPetData(), false);
-        if (p.getRider() != null) {
-            this.saveToDatabase(p.getOwnerIdentification().toString(), p.getRider().getPetType(), p.getRider().getPetName(), p.getRider().getPetData(), true);
+        if (isRider) {
+            this.saveToDatabase(p.getOwnerIdentification().toString(), p.getPetType(), p.getPetName(), new ArrayList<PetData>(p.getActiveData()), true);
+        } else {
+            this.saveToDatabase(PetRecord.of(p));
         }
     }
 
     @Override
     public void saveToDatabase(String playerIdent, PetType petType, String petName, List<PetData> petData, boolean isRider) {
-        if (EchoPet.getOptions().useSql()) {
-            Connection con = null;
-            PreparedStatement ps = null;
+        if (isRider) {
+            if (EchoPet.getOptions().useSql()) {
+                Connection con = null;
+                PreparedStatement ps = null;
 
-            if (EchoPet.getPlugin().getDbPool() != null) {
-                try {
-                    con = EchoPet.getPlugin().getDbPool().getConnection();
-                    // Delete any existing info
-                    if (!isRider) {
-                        this.clearFromDatabase(playerIdent);
-                    }
-
-                    // Deal with the pet metadata first
-                    // This tends to be more problematic, so by shoving it out of the way, we can get the pet data saved.
-                    if (isRider) {
+                if (EchoPet.getPlugin().getDbPool() != null) {
+                    try {
+                        con = EchoPet.getPlugin().getDbPool().getConnection();
                         ps = con.prepareStatement("UPDATE " + TableMigrationUtil.LATEST_TABLE + " SET RiderPetType = ?, RiderPetName = ?, RiderPetData = ? WHERE OwnerName = ?");
 
                         ps.setString(1, petType.toString());
                         ps.setString(2, petName);
-                        ps.setLong(3, SQLUtil.serializePetData(petData));
+                        ps.setLong(3, PetDataCodec.encode(petData));
                         ps.setString(4, String.valueOf(playerIdent));
                         ps.executeUpdate();
-                    } else {
-                        ps = con.prepareStatement("INSERT INTO " + TableMigrationUtil.LATEST_TABLE + " (OwnerName, PetType, PetName, PetData) VALUES (?, ?, ?, ?)");
-
-                        ps.setString(1, String.valueOf(playerIdent));
-                        ps.setString(2, petType.toString());
-                        ps.setString(3, petName);
-                        ps.setLong(4, SQLUtil.serializePetData(petData));
-                        ps.executeUpdate();
+                    } catch (SQLException e) {
+                        Logger.log(Logger.LogLevel.SEVERE, "Failed to save Pet data for " + playerIdent + " to MySQL Database", e, true);
+                    } finally {
+                        try {
+                            if (ps != null)
+                                ps.close();
+                            if (con != null)
+                                con.close();
+                        } catch (SQLException ignored) {
+                        }
                     }
+                }
+            }
+        } else {
+            this.saveToDatabase(new PetRecord(playerIdent, new PetStorage(new ArrayList<PetData>(petData), petType, petName), null));
+        }
+    }
+
+    /**
+     * Saves a pet and its rider with a single statement, replacing any existing row for the owner
+     *
+     * @param record the pet to save
+     */
+    public void saveToDatabase(PetRecord record) {
+        if (EchoPet.getOptions().useSql()) {
+            Connection con = null;
+            PreparedStatement ps = null;
 
+            if (EchoPet.getPlugin().getDbPool() != null) {
+                try {
+                    con = EchoPet.getPlugin().getDbPool().getConnection();
+                    ps = con.prepareStatement(UPSERT_STATEMENT);
+                    this.bindRecord(ps, record);
+                    ps.executeUpdate();
                 } catch (SQLException e) {
-                    Logger.log(Logger.LogLevel.SEVERE, "Failed to save Pet data for " + playerIdent + " to MySQL Database", e, true);
+                    Logger.log(Logger.LogLevel.SEVERE, "Failed to save Pet data for " + record.getOwnerIdent() + " to MySQL Database", e, true);
                 } finally {
                     try {
                         if (ps != null)
@@ -90,21 +116,132 @@ public class SqlPetManager implements ISqlPetManager {
         }
     }
 
+    @Override
+    public void saveAll(Collection<IPet> pets) {
+        List<PetRecord> records = new ArrayList<PetRecord>(pets.size());
+        for (IPet pet : pets) {
+            if (pet != null && pet.getOwnerIdentification() != null) {
+                records.add(PetRecord.of(pet));
+            }
+        }
+        this.saveRecords(records);
+    }
+
+    /**
+     * Saves a group of pets in one transaction, sending statements to the database in batches
+     *
+     * @param records the pets to save
+     */
+    public void saveRecords(Collection<PetRecord> records) {
+        if (records.isEmpty() || !EchoPet.getOptions().useSql()) {
+            return;
+        }
+        Connection con = null;
+        PreparedStatement ps = null;
+
+        if (EchoPet.getPlugin().getDbPool() != null) {
+            boolean autoCommit = true;
+            try {
+                con = EchoPet.getPlugin().getDbPool().getConnection();
+                autoCommit = con.getAutoCommit();
+                con.setAutoCommit(false);
+                ps = con.prepareStatement(UPSERT_STATEMENT);
+
+                int pending = 0;
+                for (PetRecord record : records) {
+                    this.bindRecord(ps, record);
+                    ps.addBatch();
+                    if (++pending >= BATCH_SIZE) {
+                        ps.executeBatch();
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    ps.executeBatch();
+                }
+                con.commit();
+            } catch (SQLException e) {
+                Logger.log(Logger.LogLevel.SEVERE, "Failed to save Pet data for " + records.size() + " players to MySQL Database", e, true);
+                if (con != null) {
+                    try {
+                        con.rollback();
+                    } catch (SQLException ignored) {
+                    }
+                }
+            } finally {
+                try {
+                    if (ps != null)
+                        ps.close();
+                    if (con != null) {
+                        con.setAutoCommit(autoCommit);
+                        con.close();
+                    }
+                } catch (SQLException ignored) {
+                }
+            }
+        }
+    }
+
+    private void bindRecord(PreparedStatement ps, PetRecord record) throws SQLException {
+        ps.setString(1, record.getOwnerIdent());
+        ps.setString(2, record.getPet().petType.toString());
+        ps.setString(3, record.getPet().petName);
+        ps.setLong(4, PetDataCodec.encode(record.getPet().petDataList));
+        if (record.getRider() != null) {
+            ps.setString(5, record.getRider().petType.toString());
+            ps.setString(6, record.getRider().petName);
+            ps.setLong(7, PetDataCodec.encode(record.getRider().petDataList));
+        } else {
+            ps.setNull(5, Types.VARCHAR);
+            ps.setNull(6, Types.VARCHAR);
+            ps.setNull(7, Types.BIGINT);
+        }
+    }
+
     @Override
     public IPet createPetFromDatabase(Player player) {
-        return this.createPetFromDatabase(UUIDMigration.getIdentificationForAsString(player));
+        PetRecord record = this.loadFromDatabase(UUIDMigration.getIdentificationForAsString(player), player.getName());
+        if (record == null) {
+            return null;
+        }
+        return this.spawnFromRecord(record);
     }
 
     @Override
     public IPet createPetFromDatabase(String playerIdent) {
+        PetRecord record = this.loadFromDatabase(playerIdent);
+        if (record == null) {
+            return null;
+        }
+        return this.spawnFromRecord(record);
+    }
+
+    /**
+     * Reads the saved pet of a player without spawning it. Safe to call off the main thread.
+     *
+     * @param playerIdent identification of the owner
+     * @return the stored pet, or null if none exists or it could not be read
+     */
+    public PetRecord loadFromDatabase(String playerIdent) {
+        return this.loadFromDatabase(playerIdent, null);
+    }
+
+    /**
+     * Reads the saved pet of a player without spawning it. Safe to call off the main thread.
+     * <p/>
+     * While old tables are still being migrated, players without a pet in the latest table are looked up in those
+     * tables as well, by both their identification and their name.
+     *
+     * @param playerIdent identification of the owner
+     * @param playerName  name of the owner, or null if unknown
+     * @return the stored pet, or null if none exists or it could not be read
+     */
+    public PetRecord loadFromDatabase(String playerIdent, String playerName) {
         if (EchoPet.getOptions().useSql()) {
             Connection con = null;
             PreparedStatement ps = null;
 
-            IPet pet = null;
-            Player owner;
-            PetType pt;
-            String name;
+            PetRecord record = null;
 
             if (EchoPet.getPlugin().getDbPool() != null) {
                 try {
@@ -113,44 +250,26 @@ public class SqlPetManager implements ISqlPetManager {
                     ps.setString(1, String.valueOf(playerIdent));
                     ResultSet rs = ps.executeQuery();
                     while (rs.next()) {
-                        owner = UUIDMigration.getPlayerOf(rs.getString("OwnerName"));
-                        if (owner == null) {
-                            return null;
-                        }
-
-                        pt = findPetType(rs.getString("PetType"));
+                        PetType pt = findPetType(rs.getString("PetType"));
                         if (pt == null) {
                             return null;
                         }
-                        name = rs.getString("PetName").replace("\'", "'");
-
-                        List<PetData> dataList = SQLUtil.deserializePetData(rs.getLong("PetData"));
+                        String name = rs.getString("PetName").replace("\'", "'");
+                        PetStorage pet = new PetStorage(new ArrayList<PetData>(PetDataCodec.decode(rs.getLong("PetData"), pt)), pt, name);
 
-                        pet = EchoPet.getManager().createPet(owner, pt, false);
-                        if (pet == null) {
-                            return null;
-                        }
-                        pet.setPetName(name);
-                        for (PetData data : dataList) {
-                            EchoPet.getManager().setData(pet, data, true);
-                        }
+                        PetStorage rider = null;
                         if (rs.getString("RiderPetType") != null) {
                             PetType mt = findPetType(rs.getString("RiderPetType"));
                             if (mt == null) {
                                 return null;
                             }
                             String mName = rs.getString("RiderPetName").replace("\'", "'");
-
-                            List<PetData> riderDataList = SQLUtil.deserializePetData(rs.getLong("RiderPetData"));
-
-                            IPet rider = pet.createRider(mt, false);
-                            if (rider != null) {
-                                rider.setPetName(mName);
-                                for (PetData data : riderDataList) {
-                                    EchoPet.getManager().setData(rider, data, true);
-                                }
-                            }
+                            rider = new PetStorage(new ArrayList<PetData>(PetDataCodec.decode(rs.getLong("RiderPetData"), mt)), mt, mName);
                         }
+                        record = new PetRecord(rs.getString("OwnerName"), pet, rider);
+                    }
+                    if (record == null && TableMigrationUtil.isMigrating()) {
+                        record = this.loadFromLegacyTables(con, String.valueOf(playerIdent), playerName);
                     }
                 } catch (SQLException e) {
                     Logger.log(Logger.LogLevel.SEVERE, "Failed to retrieve Pet data for " + playerIdent + " in MySQL Database", e, true);
@@ -165,12 +284,81 @@ public class SqlPetManager implements ISqlPetManager {
                 }
             }
 
+            return record;
+        }
+        return null;
+    }
 
-            return pet;
+    private PetRecord loadFromLegacyTables(Connection con, String playerIdent, String playerName) {
+        for (String table : TableMigrationUtil.getPendingTables()) {
+            PreparedStatement ps = null;
+            try {
+                ps = con.prepareStatement("SELECT * FROM " + table + " WHERE OwnerName = ? OR OwnerName = ?;");
+                ps.setString(1, playerIdent);
+                ps.setString(2, playerName == null ? playerIdent : playerName);
+                ResultSet rs = ps.executeQuery();
+                if (rs.next()) {
+                    PetType pt = findPetType(rs.getString("PetType"));
+                    if (pt == null) {
+                        return null;
+                    }
+                    PetStorage pet = new PetStorage(TableMigrationUtil.readLegacyData(rs, false), pt, rs.getString("PetName").replace("\'", "'"));
+
+                    PetStorage rider = null;
+                    if (rs.getString("RiderPetType") != null) {
+                        PetType mt = findPetType(rs.getString("RiderPetType"));
+                        if (mt == null) {
+                            return null;
+                        }
+                        rider = new PetStorage(TableMigrationUtil.readLegacyData(rs, true), mt, rs.getString("RiderPetName").replace("\'", "'"));
+                    }
+                    return new PetRecord(playerIdent, pet, rider);
+                }
+            } catch (SQLException ignored) {
+                // The table was dropped after its migration completed
+            } finally {
+                try {
+                    if (ps != null)
+                        ps.close();
+                } catch (SQLException ignored) {
+                }
+            }
         }
         return null;
     }
 
+    /**
+     * Spawns a pet previously read from the database. Must be called on the main thread.
+     *
+     * @param record the stored pet
+     * @return the spawned pet, or null if the owner is offline or the pet could not be created
+     */
+    public IPet spawnFromRecord(PetRecord record) {
+        Player owner = UUIDMigration.getPlayerOf(record.getOwnerIdent());
+        if (owner == null) {
+            return null;
+        }
+
+        IPet pet = EchoPet.getManager().createPet(owner, record.getPet().petType, false);
+        if (pet == null) {
+            return null;
+        }
+        pet.setPetName(record.getPet().petName);
+        for (PetData data : record.getPet().petDataList) {
+            EchoPet.getManager().setData(pet, data, true);
+        }
+        if (record.getRider() != null) {
+            IPet rider = pet.createRider(record.getRider().petType, false);
+            if (rider != null) {
+                rider.setPetName(record.getRider().petName);
+                for (PetData data : record.getRider().petDataList) {
+                    EchoPet.getManager().setData(rider, data, true);
+                }
+            }
+        }
+        return pet;
+    }
+
     private PetType findPetType(String s) {
         try {
             return PetType.valueOf(s.toUpperCase());
@@ -181,21 +369,49 @@ public class SqlPetManager implements ISqlPetManager {
 
     @Override
     public void clearFromDatabase(Player player) {
-        this.clearFromDatabase(UUIDMigration.getIdentificationForAsString(player));
+        this.clearFromDatabase(UUIDMigration.getIdentificationForAsString(player), player.getName());
     }
 
     @Override
     public void clearFromDatabase(String playerIdent) {
+        this.clearFromDatabase(playerIdent, null);
+    }
+
+    /**
+     * Deletes the saved pet of a player
+     *
+     * @param playerIdent identification of the owner
+     * @param playerName  name of the owner, used to delete pets from tables that have not been migrated yet, or null
+     *                    if unknown
+     */
+    public void clearFromDatabase(String playerIdent, String playerName) {
         if (EchoPet.getOptions().useSql()) {
             Connection con = null;
             PreparedStatement ps = null;
 
             if (EchoPet.getPlugin().getDbPool() != null) {
                 try {
+                    // A migration chunk may already have read the legacy rows deleted below
+                    TableMigrationUtil.recordCleared(String.valueOf(playerIdent), playerName);
                     con = EchoPet.getPlugin().getDbPool().getConnection();
                     ps = con.prepareStatement("DELETE FROM " + TableMigrationUtil.LATEST_TABLE + " WHERE OwnerName = ?;");
                     ps.setString(1, String.valueOf(playerIdent));
                     ps.executeUpdate();
+                    // Otherwise the removed pet would be restored from a table that has not been migrated yet
+                    for (String table : TableMigrationUtil.getPendingTables()) {
+                        PreparedStatement legacy = null;
+                        try {
+                            legacy = con.prepareStatement("DELETE FROM " + table + " WHERE OwnerName = ? OR OwnerName = ?;");
+                            legacy.setString(1, String.valueOf(playerIdent));
+                            legacy.setString(2, playerName == null ? String.valueOf(playerIdent) : playerName);
+                            legacy.executeUpdate();
+                        } catch (SQLException ignored) {
+                            // The table was dropped after its migration completed
+                        } finally {
+                            if (legacy != null)
+                                legacy.close();
+                        }
+                    }
                 } catch (SQLException e) {
                     Logger.log(Logger.LogLevel.SEVERE, "Failed to retrieve Pet data for " + playerIdent + " in MySQL Database", e, true);
                 } finally {
@@ -226,7 +442,7 @@ public class SqlPetManager implements ISqlPetManager {
                 try {
                     con = EchoPet.getPlugin().getDbPool().getConnection();
                     ps = con.prepareStatement("UPDATE " + TableMigrationUtil.LATEST_TABLE + " SET RiderData = ? WHERE OwnerName = ?;");
-                    ps.setLong(1, SQLUtil.serializePetData(Arrays.asList(PetData.values())));
+                    ps.setLong(1, PetDataCodec.encode(EnumSet.allOf(PetData.class)));
                     ps.setString(2, String.valueOf(playerIdent));
                     ps.executeUpdate();
                 } catch (SQLException e) {
@@ -243,4 +459,46 @@ public class SqlPetManager implements ISqlPetManager {
             }
         }
     }
+
+    /**
+     * A pet (and its rider) as stored in the database, not yet spawned
+     */
+    public static class PetRecord {
+
+        private final String ownerIdent;
+        private final PetStorage pet;
+        private final PetStorage rider;
+
+        public PetRecord(String ownerIdent, PetStorage pet, PetStorage rider) {
+            this.ownerIdent = ownerIdent;
+            this.pet = pet;
+            this.rider = rider;
+        }
+
+        /**
+         * Captures the current state of a pet and its rider
+         *
+         * @param pet the pet to capture
+         * @return a record that is no longer tied to the live pet
+         */
+        public static PetRecord of(IPet pet) {
+            PetStorage rider = null;
+            if (pet.getRider() != null) {
+                rider = new PetStorage(new ArrayList<PetData>(pet.getRider().getActiveData()), pet.getRider().getPetType(), pet.getRider().getPetName());
+            }
+            return new PetRecord(pet.getOwnerIdentification().toString(), new PetStorage(new ArrayList<PetData>(pet.getActiveData()), pet.getPetType(), pet.getPetName()), rider);
+        }
+
+        public String getOwnerIdent() {
+            return ownerIdent;
+        }
+
+        public PetStorage getPet() {
+            return pet;
+        }
+
+        public PetStorage getRider() {
+            return rider;
+        }
+    }
 }
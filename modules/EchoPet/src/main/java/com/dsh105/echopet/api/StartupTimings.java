@@ -0,0 +1,79 @@
+/*
+ * This file is part of EchoPet.
+ *
+ * EchoPet is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EchoPet is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EchoPet.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.dsh105.echopet.api;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Records how long each phase of enabling the plugin took.
+ * <p/>
+ * Phases are recorded in order on the main server thread. Work done in the background while other phases run is
+ * recorded separately, and is not part of the total.
+ */
+public class StartupTimings {
+
+    private final Map<String, Long> phases = new LinkedHashMap<String, Long>();
+    private final long start = System.nanoTime();
+    private long phaseStart = this.start;
+    private long totalNanos;
+
+    /**
+     * Ends the current phase
+     *
+     * @param phase name of the phase that just completed
+     */
+    public void mark(String phase) {
+        long now = System.nanoTime();
+        this.phases.put(phase, now - this.phaseStart);
+        this.phaseStart = now;
+        this.totalNanos = now - this.start;
+    }
+
+    /**
+     * Records work that ran alongside the other phases
+     *
+     * @param phase name of the work
+     * @param nanos duration of the work, in nanoseconds
+     */
+    public void record(String phase, long nanos) {
+        this.phases.put(phase, nanos);
+    }
+
+    public Map<String, Long> getPhases() {
+        return Collections.unmodifiableMap(this.phases);
+    }
+
+    public double getTotalMillis() {
+        return this.totalNanos / 1000000D;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, Long> entry : this.phases.entrySet()) {
+            if (builder.length() > 0) {
+                builder.append(", ");
+            }
+            builder.append(entry.getKey()).append(": ").append(String.format("%.1f", entry.getValue() / 1000000D)).append("ms");
+        }
+        return builder.toString();
+    }
+}
@@ -18,13 +18,14 @@
 package com.dsh105.echopet.api.pet;
 
 import com.dsh105.dshutils.util.StringUtil;
+import com.dsh105.echopet.EchoPetPlugin;
 import com.dsh105.echopet.compat.api.entity.*;
 import com.dsh105.echopet.compat.api.event.PetTeleportEvent;
 import com.dsh105.echopet.compat.api.plugin.EchoPet;
 import com.dsh105.echopet.compat.api.plugin.uuid.UUIDMigration;
-import com.dsh105.echopet.compat.api.reflection.ReflectionConstants;
+import com.dsh105.echopet.compat.api.reflection.MethodAccessor;
+import com.dsh105.echopet.compat.api.reflection.ReflectionHandles;
 import com.dsh105.echopet.compat.api.util.*;
-import com.dsh105.echopet.compat.api.reflection.SafeMethod;
 import com.dsh105.echopet.compat.api.util.protocol.wrapper.WrapperPacketWorldParticles;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
@@ -34,6 +35,9 @@ import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitRunnable;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.UUID;
 
 public abstract class Pet implements IPet {
@@ -44,7 +48,9 @@ public abstract class Pet implements IPet {
     private Object ownerIdentification;
     private Pet rider;
     private String name;
-    private ArrayList<PetData> petData = new ArrayList<PetData>();
+    private final EnumSet<PetData> petData = EnumSet.noneOf(PetData.class);
+    private final Set<PetData> activeData = Collections.unmodifiableSet(this.petData);
+    private PetDataList petDataList;
 
     private boolean isRider = false;
 
@@ -172,13 +178,13 @@ public abstract class Pet implements IPet {
             }
             if (this.getCraftPet() != null) {
                 this.getCraftPet().setCustomName(this.name);
-                this.getCraftPet().setCustomNameVisible(EchoPet.getConfig().getBoolean("pets." + this.getPetType().toString().toLowerCase().replace("_", " ") + ".tagVisible", true));
+                this.getCraftPet().setCustomNameVisible(EchoPet.getOptions().getSettings(this.getPetType()).isTagVisible());
             }
             return true;
         } else {
             if (sendFailMessage) {
                 if (this.getOwner() != null) {
-                    Lang.sendTo(this.getOwner(), Lang.NAME_NOT_ALLOWED.toString().replace("%name%", name));
+                    Lang.sendTo(this.getOwner(), Lang.NAME_NOT_ALLOWED.replace("%name%", name));
                 }
             }
             return false;
@@ -186,8 +192,34 @@ public abstract class Pet implements IPet {
     }
 
     @Override
+    @Deprecated
     public ArrayList<PetData> getPetData() {
-        return this.petData;
+        if (this.petDataList == null) {
+            this.petDataList = new PetDataList(this.petData);
+        } else {
+            this.petDataList.refresh();
+        }
+        return this.petDataList;
+    }
+
+    @Override
+    public Set<PetData> getActiveData() {
+        return this.activeData;
+    }
+
+    @Override
+    public boolean hasData(PetData data) {
+        return this.petData.contains(data);
+    }
+
+    @Override
+    public void applyData(PetData data, boolean flag) {
+        this.petData.removeAll(data.getConflicts());
+        if (flag) {
+            this.petData.add(data);
+        } else {
+            this.petData.remove(data);
+        }
     }
 
     @Override
@@ -195,6 +227,7 @@ public abstract class Pet implements IPet {
         if (rider != null) {
             rider.removePet(true);
             this.rider = null;
+            EchoPetPlugin.getManager().getRegistry().updateRider(this);
         }
     }
 
@@ -223,7 +256,7 @@ public abstract class Pet implements IPet {
     public boolean teleport(Location to) {
         if (this.getEntityPet() == null || this.getEntityPet().isDead()) {
             EchoPet.getManager().saveFileData("autosave", this);
-            EchoPet.getSqlManager().saveToDatabase(this, false);
+            EchoPet.getAsyncSqlManager().saveToDatabase(this);
             EchoPet.getManager().removePet(this, false);
             EchoPet.getManager().createPetFromFile("autosave", this.getOwner());
             return false;
@@ -272,7 +305,7 @@ public abstract class Pet implements IPet {
 
         // Ew...This stuff is UGLY :c
 
-        final SafeMethod method = new SafeMethod(ReflectionUtil.getNMSClass("Entity"), ReflectionConstants.ENTITY_FUNC_MOUNT.getName(), ReflectionUtil.getNMSClass("Entity"));
+        final MethodAccessor<Void> method = ReflectionHandles.ENTITY_FUNC_MOUNT;
 
         if (!flag) {
             method.invoke(PlayerUtil.playerToEntityPlayer(this.getOwner()), new Object[]{null});
@@ -318,7 +351,7 @@ public abstract class Pet implements IPet {
 
         // Ew...This stuff is UGLY :c
 
-        SafeMethod method = new SafeMethod(ReflectionUtil.getNMSClass("Entity"), ReflectionConstants.ENTITY_FUNC_MOUNT.getName(), ReflectionUtil.getNMSClass("Entity"));
+        MethodAccessor<Void> method = ReflectionHandles.ENTITY_FUNC_MOUNT;
 
         //Entity craftPet = ((Entity) this.getCraftPet().getHandle());
         if (!flag) {
@@ -364,13 +397,13 @@ public abstract class Pet implements IPet {
     public Pet createRider(final PetType pt, boolean sendFailMessage) {
         if (pt == PetType.HUMAN) {
             if (sendFailMessage) {
-                Lang.sendTo(this.getOwner(), Lang.RIDERS_DISABLED.toString().replace("%type%", StringUtil.capitalise(this.getPetType().toString())));
+                Lang.sendTo(this.getOwner(), Lang.RIDERS_DISABLED.replace("%type%", StringUtil.capitalise(this.getPetType().toString())));
             }
             return null;
         }
         if (!EchoPet.getOptions().allowRidersFor(this.getPetType())) {
             if (sendFailMessage) {
-                Lang.sendTo(this.getOwner(), Lang.RIDERS_DISABLED.toString().replace("%type%", StringUtil.capitalise(this.getPetType().toString())));
+                Lang.sendTo(this.getOwner(), Lang.RIDERS_DISABLED.replace("%type%", StringUtil.capitalise(this.getPetType().toString())));
             }
             return null;
         }
@@ -384,13 +417,17 @@ public abstract class Pet implements IPet {
         if (newRider != null) {
             this.rider = (Pet) newRider;
             this.rider.setRider();
+            EchoPetPlugin.getManager().getRegistry().updateRider(this);
             new BukkitRunnable() {
                 @Override
                 public void run() {
                     if (getCraftPet() != null) {
                         getCraftPet().setPassenger(Pet.this.getRider().getCraftPet());
                     }
-                    EchoPet.getSqlManager().saveToDatabase(Pet.this.rider, true);
+                    // Saved along with this pet, so that the write stays ordered with the owner's other operations
+                    if (EchoPetPlugin.getManager().getRegistry().getByOwner(getOwnerIdentification()) == Pet.this) {
+                        EchoPet.getAsyncSqlManager().saveToDatabase(Pet.this);
+                    }
                 }
             }.runTaskLater(EchoPet.getPlugin(), 5L);
         }
@@ -25,10 +25,9 @@ import com.dsh105.echopet.compat.api.plugin.EchoPet;
 import com.dsh105.echopet.compat.api.plugin.PetStorage;
 import com.dsh105.echopet.compat.api.plugin.uuid.UUIDMigration;
 import com.dsh105.echopet.compat.api.util.Lang;
-import com.dsh105.echopet.compat.api.util.MenuUtil;
 import com.dsh105.echopet.compat.api.util.Perm;
 import com.dsh105.echopet.compat.api.util.PetUtil;
-import com.dsh105.echopet.compat.api.util.menu.MenuOption;
+import com.dsh105.echopet.compat.api.util.WorldUtil;
 import com.dsh105.echopet.compat.api.util.menu.PetMenu;
 import com.dsh105.echopet.compat.api.util.menu.SelectorLayout;
 import com.dsh105.echopet.compat.api.util.menu.SelectorMenu;
@@ -55,7 +54,7 @@ public class PetAdminCommand implements CommandExecutor {
     public boolean onCommand(CommandSender sender, Command cmd, String label, String[] args) {
         if (args.length == 0) {
             if (Perm.ADMIN.hasPerm(sender, true, true)) {
-                Lang.sendTo(sender, Lang.HELP.toString().replace("%cmd%", "pet help"));
+                Lang.sendTo(sender, Lang.HELP.replace("%cmd%", "pet help"));
                 return true;
             } else return true;
 
@@ -63,7 +62,11 @@ public class PetAdminCommand implements CommandExecutor {
             if (args[0].equalsIgnoreCase("reload")) {
                 if (Perm.ADMIN_RELOAD.hasPerm(sender, true, true)) {
                     EchoPet.getPlugin().getMainConfig().reloadConfig();
+                    EchoPet.getOptions().reloadPetTypeSettings();
+                    WorldUtil.invalidateRegionCache();
+                    EchoPet.getTickCoordinator().setBudgetNanos(EchoPet.getOptions().getAiTickBudgetNanos());
                     EchoPet.getPlugin().getLangConfig().reloadConfig();
+                    Lang.loadTemplates();
                     Lang.sendTo(sender, Lang.ADMIN_RELOAD_CONFIG.toString());
                     return true;
                 } else return true;
@@ -92,17 +95,17 @@ public class PetAdminCommand implements CommandExecutor {
                 if (args.length >= 2 && args[1].equals("rider")) {
                     Player target = Bukkit.getPlayer(args[2]);
                     if (target == null) {
-                        Lang.sendTo(sender, Lang.ADMIN_NULL_PLAYER.toString().replace("%player%", args[2]));
+                        Lang.sendTo(sender, Lang.ADMIN_NULL_PLAYER.replace("%player%", args[2]));
                         return true;
                     }
                     IPet pet = EchoPet.getManager().getPet(target);
                     if (pet == null) {
-                        Lang.sendTo(sender, Lang.ADMIN_NO_PET.toString().replace("%player%", target.getName()));
+                        Lang.sendTo(sender, Lang.ADMIN_NO_PET.replace("%player%", target.getName()));
                         return true;
                     }
 
                     if (pet.getRider() == null) {
-                        Lang.sendTo(sender, Lang.ADMIN_NO_RIDER.toString().replace("%player%", target.getName()));
+                        Lang.sendTo(sender, Lang.ADMIN_NO_RIDER.replace("%player%", target.getName()));
                         return true;
                     }
 
@@ -110,8 +113,7 @@ public class PetAdminCommand implements CommandExecutor {
                         if (sender instanceof Conversable) {
                             NameFactory.askForName((Conversable) sender, pet.getRider(), true);
                         } else {
-                            Lang.sendTo(sender, Lang.IN_GAME_ONLY.toString()
-                                    .replace("%cmd%", "/" + cmd.getLabel() + " " + (args.length == 0 ? "" : StringUtil.combineSplit(0, args, " "))));
+                            Lang.sendTo(sender, Lang.IN_GAME_ONLY.replace("%cmd%", "/" + cmd.getLabel() + " " + (args.length == 0 ? "" : StringUtil.combineSplit(0, args, " "))));
                         }
                     } else {
                         String name = ChatColor.translateAlternateColorCodes('&', StringUtil.combineSplit(3, args, " "));
@@ -120,32 +122,26 @@ public class PetAdminCommand implements CommandExecutor {
                             return true;
                         }
                         pet.getRider().setPetName(name);
-                        Lang.sendTo(sender, Lang.ADMIN_NAME_RIDER.toString()
-                                .replace("%player%", target.getName())
-                                .replace("%type%", StringUtil.capitalise(pet.getPetType().toString().replace("_", " ")))
-                                .replace("%name%", name));
-                        Lang.sendTo(target, Lang.NAME_RIDER.toString()
-                                .replace("%type%", StringUtil.capitalise(pet.getPetType().toString().replace("_", " ")))
-                                .replace("%name%", name));
+                        Lang.sendTo(sender, Lang.ADMIN_NAME_RIDER.replace("%player%", target.getName(), "%type%", StringUtil.capitalise(pet.getPetType().toString().replace("_", " ")), "%name%", name));
+                        Lang.sendTo(target, Lang.NAME_RIDER.replace("%type%", StringUtil.capitalise(pet.getPetType().toString().replace("_", " ")), "%name%", name));
                     }
                 } else {
                     Player target = Bukkit.getPlayer(args[1]);
                     if (target == null) {
-                        Lang.sendTo(sender, Lang.ADMIN_NULL_PLAYER.toString().replace("%player%", args[1]));
+                        Lang.sendTo(sender, Lang.ADMIN_NULL_PLAYER.replace("%player%", args[1]));
                         return true;
                     }
 
                     IPet pet = EchoPet.getManager().getPet(target);
                     if (pet == null) {
-                        Lang.sendTo(sender, Lang.ADMIN_NO_PET.toString().replace("%player%", target.getName()));
+                        Lang.sendTo(sender, Lang.ADMIN_NO_PET.replace("%player%", target.getName()));
                         return true;
                     }
                     if (args.length == 2) {
                         if (sender instanceof Conversable) {
                             NameFactory.askForName((Conversable) sender, pet, true);
                         } else {
-                            Lang.sendTo(sender, Lang.IN_GAME_ONLY.toString()
-                                    .replace("%cmd%", "/" + cmd.getLabel() + " " + (args.length == 0 ? "" : StringUtil.combineSplit(0, args, " "))));
+                            Lang.sendTo(sender, Lang.IN_GAME_ONLY.replace("%cmd%", "/" + cmd.getLabel() + " " + (args.length == 0 ? "" : StringUtil.combineSplit(0, args, " "))));
                         }
                     } else {
                         String name = ChatColor.translateAlternateColorCodes('&', StringUtil.combineSplit(2, args, " "));
@@ -154,13 +150,8 @@ public class PetAdminCommand implements CommandExecutor {
                             return true;
                         }
                         pet.setPetName(name);
-                        Lang.sendTo(sender, Lang.ADMIN_NAME_PET.toString()
-                                .replace("%player%", target.getName())
-                                .replace("%type%", StringUtil.capitalise(pet.getPetType().toString().replace("_", " ")))
-                                .replace("%name%", name));
-                        Lang.sendTo(target, Lang.NAME_PET.toString()
-                                .replace("%type%", StringUtil.capitalise(pet.getPetType().toString().replace("_", " ")))
-                                .replace("%name%", name));
+                        Lang.sendTo(sender, Lang.ADMIN_NAME_PET.replace("%player%", target.getName(), "%type%", StringUtil.capitalise(pet.getPetType().toString().replace("_", " ")), "%name%", name));
+                        Lang.sendTo(target, Lang.NAME_PET.replace("%type%", StringUtil.capitalise(pet.getPetType().toString().replace("_", " ")), "%name%", name));
                     }
                 }
 
@@ -170,47 +161,43 @@ public class PetAdminCommand implements CommandExecutor {
                 if (Perm.ADMIN_MENU.hasPerm(sender, true, true)) {
                     Player target = Bukkit.getPlayer(args[1]);
                     if (target == null || !target.isOnline()) {
-                        Lang.sendTo(sender, Lang.ADMIN_NULL_PLAYER.toString().replace("%player%", args[1]));
+                        Lang.sendTo(sender, Lang.ADMIN_NULL_PLAYER.replace("%player%", args[1]));
                         return true;
                     }
                     IPet pet = EchoPet.getManager().getPet(target);
 
                     if (pet == null) {
-                        Lang.sendTo(sender, Lang.ADMIN_NO_PET.toString().replace("%player%", target.getName()));
+                        Lang.sendTo(sender, Lang.ADMIN_NO_PET.replace("%player%", target.getName()));
                         return true;
                     }
-                    ArrayList<MenuOption> options = MenuUtil.createOptionList(pet.getPetType());
-                    int size = pet.getPetType() == PetType.HORSE ? 18 : 9;
-                    PetMenu menu = new PetMenu(pet, options, size);
+                    PetMenu menu = new PetMenu(pet);
                     menu.open(true);
-                    Lang.sendTo(sender, Lang.ADMIN_OPEN_MENU.toString()
-                            .replace("%player%", target.getName())
-                            .replace("%type%", StringUtil.capitalise(pet.getPetType().toString())));
+                    Lang.sendTo(sender, Lang.ADMIN_OPEN_MENU.replace("%player%", target.getName(), "%type%", StringUtil.capitalise(pet.getPetType().toString())));
                     return true;
                 } else return true;
             } else if (args[0].equalsIgnoreCase("call")) {
                 if (Perm.ADMIN_CALL.hasPerm(sender, true, true)) {
                     Player target = Bukkit.getPlayer(args[1]);
                     if (target == null || !target.isOnline()) {
-                        Lang.sendTo(sender, Lang.ADMIN_NULL_PLAYER.toString().replace("%player%", args[1]));
+                        Lang.sendTo(sender, Lang.ADMIN_NULL_PLAYER.replace("%player%", args[1]));
                         return true;
                     }
                     IPet pet = EchoPet.getManager().getPet(target);
 
                     if (pet == null) {
-                        Lang.sendTo(sender, Lang.ADMIN_NO_PET.toString().replace("%player%", target.getName()));
+                        Lang.sendTo(sender, Lang.ADMIN_NO_PET.replace("%player%", target.getName()));
                         return true;
                     }
                     pet.teleportToOwner();
                     Lang.sendTo(target, Lang.PET_CALL.toString());
-                    Lang.sendTo(sender, Lang.ADMIN_PET_CALL.toString().replace("%player%", target.getName()));
+                    Lang.sendTo(sender, Lang.ADMIN_PET_CALL.replace("%player%", target.getName()));
                     return true;
                 } else return true;
             } else if (args[0].equalsIgnoreCase("show")) {
                 if (Perm.ADMIN_SHOW.hasPerm(sender, true, true)) {
                     Player target = Bukkit.getPlayer(args[1]);
                     if (target == null || !target.isOnline()) {
-                        Lang.sendTo(sender, Lang.ADMIN_NULL_PLAYER.toString().replace("%player%", args[1]));
+                        Lang.sendTo(sender, Lang.ADMIN_NULL_PLAYER.replace("%player%", args[1]));
                         return true;
                     }
                     IPet pet = EchoPet.getManager().getPet(target);
@@ -219,71 +206,69 @@ public class PetAdminCommand implements CommandExecutor {
                         Lang.sendTo(sender, Lang.ADMIN_NO_HIDDEN_PET.toString());
                         return true;
                     }
-                    Lang.sendTo(sender, Lang.ADMIN_SHOW_PET.toString()
-                            .replace("%player%", target.getName())
-                            .replace("%type%", StringUtil.capitalise(pet.getPetType().toString())));
-                    Lang.sendTo(target, Lang.SHOW_PET.toString().replace("%type%", StringUtil.capitalise(pet.getPetType().toString())));
+                    Lang.sendTo(sender, Lang.ADMIN_SHOW_PET.replace("%player%", target.getName(), "%type%", StringUtil.capitalise(pet.getPetType().toString())));
+                    Lang.sendTo(target, Lang.SHOW_PET.replace("%type%", StringUtil.capitalise(pet.getPetType().toString())));
                     return true;
                 } else return true;
             } else if (args[0].equalsIgnoreCase("hide")) {
                 if (Perm.ADMIN_HIDE.hasPerm(sender, true, true)) {
                     Player target = Bukkit.getPlayer(args[1]);
                     if (target == null || !target.isOnline()) {
-                        Lang.sendTo(sender, Lang.ADMIN_NULL_PLAYER.toString().replace("%player%", args[1]));
+                        Lang.sendTo(sender, Lang.ADMIN_NULL_PLAYER.replace("%player%", args[1]));
                         return true;
                     }
                     IPet pet = EchoPet.getManager().getPet(target);
 
                     if (pet == null) {
-                        Lang.sendTo(sender, Lang.ADMIN_NO_PET.toString().replace("%player%", target.getName()));
+                        Lang.sendTo(sender, Lang.ADMIN_NO_PET.replace("%player%", target.getName()));
                         return true;
                     }
                     EchoPet.getManager().saveFileData("autosave", pet);
-                    EchoPet.getSqlManager().saveToDatabase(pet, false);
+                    EchoPet.getAsyncSqlManager().saveToDatabase(pet);
                     EchoPet.getManager().removePet(pet, true);
                     Lang.sendTo(target, Lang.HIDE_PET.toString());
-                    Lang.sendTo(sender, Lang.ADMIN_HIDE_PET.toString().replace("%player%", target.getName()));
+                    Lang.sendTo(sender, Lang.ADMIN_HIDE_PET.replace("%player%", target.getName()));
                     return true;
                 } else return true;
             } else if (args[0].equalsIgnoreCase("select")) {
                 if (Perm.ADMIN_SELECT.hasPerm(sender, true, true)) {
                     Player target = Bukkit.getPlayer(args[1]);
                     if (target == null || !target.isOnline()) {
-                        Lang.sendTo(sender, Lang.ADMIN_NULL_PLAYER.toString().replace("%player%", args[1]));
+                        Lang.sendTo(sender, Lang.ADMIN_NULL_PLAYER.replace("%player%", args[1]));
                         return true;
                     }
                     if (target.getOpenInventory() != null && target.getOpenInventory().getTitle().equals("Pets")) {
                         target.closeInventory();
-                        Lang.sendTo(sender, Lang.ADMIN_CLOSE_SELECTOR.toString().replace("%player%", target.getName()));
+                        Lang.sendTo(sender, Lang.ADMIN_CLOSE_SELECTOR.replace("%player%", target.getName()));
                         return true;
                     }
                     new SelectorMenu().showTo(target);
-                    Lang.sendTo(sender, Lang.ADMIN_OPEN_SELECTOR.toString().replace("%player%", target.getName()));
+                    Lang.sendTo(sender, Lang.ADMIN_OPEN_SELECTOR.replace("%player%", target.getName()));
                     return true;
                 } else return true;
             } else if (args[0].equalsIgnoreCase("selector")) {
                 if (Perm.ADMIN_SELECTOR.hasPerm(sender, true, true)) {
                     Player target = Bukkit.getPlayer(args[1]);
                     if (target == null || !target.isOnline()) {
-                        Lang.sendTo(sender, Lang.ADMIN_NULL_PLAYER.toString().replace("%player%", args[1]));
+                        Lang.sendTo(sender, Lang.ADMIN_NULL_PLAYER.replace("%player%", args[1]));
                         return true;
                     }
                     target.getInventory().addItem(SelectorLayout.getSelectorItem());
                     Lang.sendTo(target, Lang.ADD_SELECTOR.toString());
-                    Lang.sendTo(sender, Lang.ADMIN_ADD_SELECTOR.toString().replace("%player%", target.getName()));
+                    Lang.sendTo(sender, Lang.ADMIN_ADD_SELECTOR.replace("%player%", target.getName()));
                     return true;
                 } else return true;
             } else if (args[0].equalsIgnoreCase("info")) {
                 if (Perm.ADMIN_INFO.hasPerm(sender, true, true)) {
                     Player target = Bukkit.getPlayer(args[1]);
                     if (target == null || !target.isOnline()) {
-                        Lang.sendTo(sender, Lang.ADMIN_NULL_PLAYER.toString().replace("%player%", args[1]));
+                        Lang.sendTo(sender, Lang.ADMIN_NULL_PLAYER.replace("%player%", args[1]));
                         return true;
                     }
                     IPet pet = EchoPet.getManager().getPet(target);
 
                     if (pet == null) {
-                        Lang.sendTo(sender, Lang.ADMIN_NO_PET.toString().replace("%player%", target.getName()));
+                        Lang.sendTo(sender, Lang.ADMIN_NO_PET.replace("%player%", target.getName()));
                         return true;
                     }
                     sender.sendMessage(ChatColor.RED + "------------ EchoPet Pet Info ------------");
@@ -315,27 +300,27 @@ public class PetAdminCommand implements CommandExecutor {
                     if (target == null || !target.isOnline()) {
                         String path = "autosave." + UUIDMigration.getIdentificationFor(target);
                         if (EchoPet.getConfig(EchoPet.ConfigType.DATA).get(path + ".pet.type") == null) {
-                            Lang.sendTo(sender, Lang.ADMIN_NULL_PLAYER_DATA.toString().replace("%player%", args[1]));
+                            Lang.sendTo(sender, Lang.ADMIN_NULL_PLAYER_DATA.replace("%player%", args[1]));
                             return true;
                         } else {
                             EchoPet.getManager().clearFileData("autosave", target);
-                            EchoPet.getSqlManager().clearFromDatabase(target);
-                            Lang.sendTo(sender, Lang.ADMIN_PET_REMOVED.toString().replace("%player%", args[1]));
+                            EchoPet.getAsyncSqlManager().clearFromDatabase(target);
+                            Lang.sendTo(sender, Lang.ADMIN_PET_REMOVED.replace("%player%", args[1]));
                             return true;
                         }
                     } else {
                         IPet pet = EchoPet.getManager().getPet(target);
 
                         if (pet == null) {
-                            Lang.sendTo(sender, Lang.ADMIN_NO_PET.toString().replace("%player%", target.getName()));
+                            Lang.sendTo(sender, Lang.ADMIN_NO_PET.replace("%player%", target.getName()));
                             return true;
                         }
 
                         EchoPet.getManager().clearFileData("autosave", pet);
-                        EchoPet.getSqlManager().clearFromDatabase(target);
+                        EchoPet.getAsyncSqlManager().clearFromDatabase(target);
                         EchoPet.getManager().removePet(pet, true);
 
-                        Lang.sendTo(sender, Lang.ADMIN_PET_REMOVED.toString().replace("%player%", target.getName()));
+                        Lang.sendTo(sender, Lang.ADMIN_PET_REMOVED.replace("%player%", target.getName()));
                         Lang.sendTo(target, Lang.REMOVE_PET.toString());
                         return true;
                     }
@@ -343,53 +328,53 @@ public class PetAdminCommand implements CommandExecutor {
             } else if (args[0].equalsIgnoreCase("hat")) {
                 Player target = Bukkit.getPlayer(args[1]);
                 if (target == null || !target.isOnline()) {
-                    Lang.sendTo(sender, Lang.ADMIN_NULL_PLAYER.toString().replace("%player%", args[1]));
+                    Lang.sendTo(sender, Lang.ADMIN_NULL_PLAYER.replace("%player%", args[1]));
                     return true;
                 }
                 IPet pet = EchoPet.getManager().getPet(target);
 
                 if (pet == null) {
-                    Lang.sendTo(sender, Lang.ADMIN_NO_PET.toString().replace("%player%", target.getName()));
+                    Lang.sendTo(sender, Lang.ADMIN_NO_PET.replace("%player%", target.getName()));
                     return true;
                 }
                 if (Perm.hasTypePerm(sender, true, Perm.ADMIN_HAT, true, pet.getPetType())) {
                     pet.setAsHat(!pet.isHat());
                     if (pet.isHat()) {
                         Lang.sendTo(target, Lang.HAT_PET_ON.toString());
-                        Lang.sendTo(sender, Lang.ADMIN_HAT_PET_ON.toString().replace("%player%", target.getName()));
+                        Lang.sendTo(sender, Lang.ADMIN_HAT_PET_ON.replace("%player%", target.getName()));
                     } else {
                         Lang.sendTo(target, Lang.HAT_PET_OFF.toString());
-                        Lang.sendTo(sender, Lang.ADMIN_HAT_PET_OFF.toString().replace("%player%", target.getName()));
+                        Lang.sendTo(sender, Lang.ADMIN_HAT_PET_OFF.replace("%player%", target.getName()));
                     }
                     return true;
                 } else return true;
             } else if (args[0].equalsIgnoreCase("ride")) {
                 Player target = Bukkit.getPlayer(args[1]);
                 if (target == null || !target.isOnline()) {
-                    Lang.sendTo(sender, Lang.ADMIN_NULL_PLAYER.toString().replace("%player%", args[1]));
+                    Lang.sendTo(sender, Lang.ADMIN_NULL_PLAYER.replace("%player%", args[1]));
                     return true;
                 }
                 IPet pet = EchoPet.getManager().getPet(target);
 
                 if (pet == null) {
-                    Lang.sendTo(sender, Lang.ADMIN_NO_PET.toString().replace("%player%", target.getName()));
+                    Lang.sendTo(sender, Lang.ADMIN_NO_PET.replace("%player%", target.getName()));
                     return true;
                 }
                 if (Perm.hasTypePerm(sender, true, Perm.ADMIN_RIDE, true, pet.getPetType())) {
                     pet.ownerRidePet(!pet.isOwnerRiding());
                     if (pet.isOwnerRiding()) {
                         Lang.sendTo(target, Lang.RIDE_PET_ON.toString());
-                        Lang.sendTo(sender, Lang.ADMIN_RIDE_PET_ON.toString().replace("%player%", target.getName()));
+                        Lang.sendTo(sender, Lang.ADMIN_RIDE_PET_ON.replace("%player%", target.getName()));
                     } else {
                         Lang.sendTo(target, Lang.RIDE_PET_OFF.toString());
-                        Lang.sendTo(sender, Lang.ADMIN_RIDE_PET_OFF.toString().replace("%player%", target.getName()));
+                        Lang.sendTo(sender, Lang.ADMIN_RIDE_PET_OFF.replace("%player%", target.getName()));
                     }
                     return true;
                 } else return true;
             } else {
                 Player target = Bukkit.getPlayer(args[0]);
                 if (target == null || !target.isOnline()) {
-                    Lang.sendTo(sender, Lang.ADMIN_NULL_PLAYER.toString().replace("%player%", args[1]));
+                    Lang.sendTo(sender, Lang.ADMIN_NULL_PLAYER.replace("%player%", args[1]));
                     return true;
                 }
                 PetStorage UPD = PetUtil.formPetFromArgs(sender, args[1], true);
@@ -421,12 +406,9 @@ public class PetAdminCommand implements CommandExecutor {
                         }
                     }
                     EchoPet.getManager().saveFileData("autosave", pet);
-                    EchoPet.getSqlManager().saveToDatabase(pet, false);
-                    Lang.sendTo(target, Lang.CREATE_PET.toString()
-                            .replace("%type%", StringUtil.capitalise(petType.toString().replace("_", ""))));
-                    Lang.sendTo(sender, Lang.ADMIN_CREATE_PET.toString()
-                            .replace("%player%", target.getName())
-                            .replace("%type%", StringUtil.capitalise(petType.toString().replace("_", ""))));
+                    EchoPet.getAsyncSqlManager().saveToDatabase(pet);
+                    Lang.sendTo(target, Lang.CREATE_PET.replace("%type%", StringUtil.capitalise(petType.toString().replace("_", ""))));
+                    Lang.sendTo(sender, Lang.ADMIN_CREATE_PET.replace("%player%", target.getName(), "%type%", StringUtil.capitalise(petType.toString().replace("_", ""))));
                     return true;
                 } else return true;
             }
@@ -441,13 +423,13 @@ public class PetAdminCommand implements CommandExecutor {
                     }
                     String path = "default." + UUIDMigration.getIdentificationFor(target) + ".";
                     if (EchoPet.getConfig(EchoPet.ConfigType.DATA).get(path + "pet.type") == null) {
-                        Lang.sendTo(sender, Lang.ADMIN_NO_DEFAULT.toString().replace("%player%", name));
+                        Lang.sendTo(sender, Lang.ADMIN_NO_DEFAULT.replace("%player%", name));
                         return true;
                     }
 
                     EchoPet.getManager().clearFileData("default", target);
-                    EchoPet.getSqlManager().clearFromDatabase(target);
-                    Lang.sendTo(sender, Lang.ADMIN_REMOVE_DEFAULT.toString().replace("%player%", name));
+                    EchoPet.getAsyncSqlManager().clearFromDatabase(target);
+                    Lang.sendTo(sender, Lang.ADMIN_REMOVE_DEFAULT.replace("%player%", name));
                     return true;
                 } else return true;
             } else if (args.length == 4 && args[2].equalsIgnoreCase("set")) { //args[3] == pet info
@@ -455,18 +437,18 @@ public class PetAdminCommand implements CommandExecutor {
                     if (Perm.ADMIN_DEFAULT_SET_CURRENT.hasPerm(sender, true, true)) {
                         Player target = Bukkit.getPlayer(args[1]);
                         if (target == null) {
-                            Lang.sendTo(sender, Lang.ADMIN_NULL_PLAYER.toString().replace("%player%", args[1]));
+                            Lang.sendTo(sender, Lang.ADMIN_NULL_PLAYER.replace("%player%", args[1]));
                             return true;
                         }
                         IPet pet = EchoPet.getManager().getPet(target);
 
                         if (pet == null) {
-                            Lang.sendTo(sender, Lang.ADMIN_NO_PET.toString().replace("%player%", target.getName()));
+                            Lang.sendTo(sender, Lang.ADMIN_NO_PET.replace("%player%", target.getName()));
                             return true;
                         }
 
                         EchoPet.getManager().saveFileData("default", pet);
-                        Lang.sendTo(sender, Lang.ADMIN_SET_DEFAULT_TO_CURRENT.toString().replace("%player%", args[2]));
+                        Lang.sendTo(sender, Lang.ADMIN_SET_DEFAULT_TO_CURRENT.replace("%player%", args[2]));
                         return true;
                     } else return true;
                 } else {
@@ -488,9 +470,7 @@ public class PetAdminCommand implements CommandExecutor {
 
                     if (Perm.hasTypePerm(sender, true, Perm.ADMIN_DEFAULT_SET_PETTYPE, true, petType)) {
                         EchoPet.getManager().saveFileData("default", Bukkit.getPlayer(args[1]), UPD);
-                        Lang.sendTo(sender, Lang.ADMIN_SET_DEFAULT.toString()
-                                .replace("%type%", StringUtil.capitalise(petType.toString().replace("_", "")))
-                                .replace("%player%", name));
+                        Lang.sendTo(sender, Lang.ADMIN_SET_DEFAULT.replace("%type%", StringUtil.capitalise(petType.toString().replace("_", "")), "%player%", name));
                         return true;
                     } else return true;
                 }
@@ -520,10 +500,7 @@ public class PetAdminCommand implements CommandExecutor {
 
                 if (Perm.hasTypePerm(sender, true, Perm.ADMIN_DEFAULT_SET_PETTYPE, true, petType) && Perm.hasTypePerm(sender, true, Perm.ADMIN_DEFAULT_SET_PETTYPE, true, riderType)) {
                     EchoPet.getManager().saveFileData("default", Bukkit.getPlayer(args[1]), UPD, UMD);
-                    Lang.sendTo(sender, Lang.ADMIN_SET_DEFAULT_WITH_RIDER.toString()
-                            .replace("%type%", StringUtil.capitalise(petType.toString().replace("_", "")))
-                            .replace("%mtype%", StringUtil.capitalise(riderType.toString().replace("_", "")))
-                            .replace("%player%", name));
+                    Lang.sendTo(sender, Lang.ADMIN_SET_DEFAULT_WITH_RIDER.replace("%type%", StringUtil.capitalise(petType.toString().replace("_", "")), "%mtype%", StringUtil.capitalise(riderType.toString().replace("_", "")), "%player%", name));
                     return true;
                 } else return true;
             }
@@ -535,35 +512,35 @@ public class PetAdminCommand implements CommandExecutor {
                         if (target == null) {
                             String path = "autosave." + "." + UUIDMigration.getIdentificationFor(target);
                             if (EchoPet.getConfig(EchoPet.ConfigType.DATA).get(path + ".rider.type") == null) {
-                                Lang.sendTo(sender, Lang.ADMIN_NULL_PLAYER_DATA.toString().replace("%player%", args[2]));
+                                Lang.sendTo(sender, Lang.ADMIN_NULL_PLAYER_DATA.replace("%player%", args[2]));
                                 return true;
                             } else {
                                 for (String key : EchoPet.getConfig(EchoPet.ConfigType.DATA).getConfigurationSection(path + ".rider").getKeys(false)) {
                                     EchoPet.getConfig(EchoPet.ConfigType.DATA).set(path + ".rider" + key, null);
                                 }
 
-                                EchoPet.getSqlManager().clearRiderFromDatabase(target);
-                                Lang.sendTo(sender, Lang.ADMIN_REMOVE_RIDER.toString().replace("%player%", args[2]));
+                                EchoPet.getAsyncSqlManager().clearRiderFromDatabase(target);
+                                Lang.sendTo(sender, Lang.ADMIN_REMOVE_RIDER.replace("%player%", args[2]));
                                 return true;
                             }
                         } else {
                             IPet pet = EchoPet.getManager().getPet(target);
 
                             if (pet == null) {
-                                Lang.sendTo(sender, Lang.ADMIN_NO_PET.toString().replace("%player%", target.getName()));
+                                Lang.sendTo(sender, Lang.ADMIN_NO_PET.replace("%player%", target.getName()));
                                 return true;
                             }
 
                             if (pet.getRider() == null) {
-                                Lang.sendTo(sender, Lang.ADMIN_NO_RIDER.toString().replace("%player%", target.getName()));
+                                Lang.sendTo(sender, Lang.ADMIN_NO_RIDER.replace("%player%", target.getName()));
                                 return true;
                             }
 
                             EchoPet.getManager().clearFileData("autosave", pet);
-                            EchoPet.getSqlManager().clearFromDatabase(target);
+                            EchoPet.getAsyncSqlManager().clearFromDatabase(target);
                             EchoPet.getManager().removePet(pet, true);
 
-                            Lang.sendTo(sender, Lang.ADMIN_REMOVE_RIDER.toString().replace("%player%", target.getName()));
+                            Lang.sendTo(sender, Lang.ADMIN_REMOVE_RIDER.replace("%player%", target.getName()));
                             Lang.sendTo(target, Lang.REMOVE_RIDER.toString());
                             return true;
                         }
@@ -571,13 +548,13 @@ public class PetAdminCommand implements CommandExecutor {
                 } else {
                     Player target = Bukkit.getPlayer(args[1]);
                     if (target == null) {
-                        Lang.sendTo(sender, Lang.ADMIN_NULL_PLAYER.toString().replace("%player%", args[1]));
+                        Lang.sendTo(sender, Lang.ADMIN_NULL_PLAYER.replace("%player%", args[1]));
                         return true;
                     }
                     IPet pet = EchoPet.getManager().getPet(target);
 
                     if (pet == null) {
-                        Lang.sendTo(sender, Lang.ADMIN_NO_PET.toString().replace("%player%", target.getName()));
+                        Lang.sendTo(sender, Lang.ADMIN_NO_PET.replace("%player%", target.getName()));
                         return true;
                     }
 
@@ -593,8 +570,7 @@ public class PetAdminCommand implements CommandExecutor {
                     }
 
                     if (!EchoPet.getOptions().allowRidersFor(petType)) {
-                        Lang.sendTo(sender, Lang.RIDERS_DISABLED.toString()
-                                .replace("%type%", StringUtil.capitalise(petType.toString().replace("_", " "))));
+                        Lang.sendTo(sender, Lang.RIDERS_DISABLED.replace("%type%", StringUtil.capitalise(petType.toString().replace("_", " "))));
                         return true;
                     }
 
@@ -616,19 +592,16 @@ public class PetAdminCommand implements CommandExecutor {
                             }
                         }
                         EchoPet.getManager().saveFileData("autosave", pet);
-                        EchoPet.getSqlManager().saveToDatabase(pet, false);
-                        Lang.sendTo(target, Lang.CHANGE_RIDER.toString()
-                                .replace("%type%", StringUtil.capitalise(petType.toString().replace("_", ""))));
-                        Lang.sendTo(sender, Lang.ADMIN_CHANGE_RIDER.toString()
-                                .replace("%player%", target.getName())
-                                .replace("%type%", StringUtil.capitalise(petType.toString().replace("_", ""))));
+                        EchoPet.getAsyncSqlManager().saveToDatabase(pet);
+                        Lang.sendTo(target, Lang.CHANGE_RIDER.replace("%type%", StringUtil.capitalise(petType.toString().replace("_", ""))));
+                        Lang.sendTo(sender, Lang.ADMIN_CHANGE_RIDER.replace("%player%", target.getName(), "%type%", StringUtil.capitalise(petType.toString().replace("_", ""))));
                         return true;
                     } else return true;
                 }
             } else {
                 Player target = Bukkit.getPlayer(args[0]);
                 if (target == null) {
-                    Lang.sendTo(sender, Lang.ADMIN_NULL_PLAYER.toString().replace("%player%", args[0]));
+                    Lang.sendTo(sender, Lang.ADMIN_NULL_PLAYER.replace("%player%", args[0]));
                     return true;
                 }
 
@@ -680,14 +653,9 @@ public class PetAdminCommand implements CommandExecutor {
                         }
                     }
                     EchoPet.getManager().saveFileData("autosave", pi);
-                    EchoPet.getSqlManager().saveToDatabase(pi, false);
-                    Lang.sendTo(target, Lang.CREATE_PET_WITH_RIDER.toString()
-                            .replace("%type%", StringUtil.capitalise(petType.toString().replace("_", "")))
-                            .replace("%mtype%", StringUtil.capitalise(riderType.toString().replace("_", ""))));
-                    Lang.sendTo(sender, Lang.ADMIN_CREATE_PET_WITH_RIDER.toString()
-                            .replace("%player%", target.getName())
-                            .replace("%type%", StringUtil.capitalise(petType.toString().replace("_", "")))
-                            .replace("%mtype%", StringUtil.capitalise(riderType.toString().replace("_", ""))));
+                    EchoPet.getAsyncSqlManager().saveToDatabase(pi);
+                    Lang.sendTo(target, Lang.CREATE_PET_WITH_RIDER.replace("%type%", StringUtil.capitalise(petType.toString().replace("_", "")), "%mtype%", StringUtil.capitalise(riderType.toString().replace("_", ""))));
+                    Lang.sendTo(sender, Lang.ADMIN_CREATE_PET_WITH_RIDER.replace("%player%", target.getName(), "%type%", StringUtil.capitalise(petType.toString().replace("_", "")), "%mtype%", StringUtil.capitalise(riderType.toString().replace("_", ""))));
                     return true;
                 } else return true;
             }
@@ -696,8 +664,7 @@ public class PetAdminCommand implements CommandExecutor {
         // Something went wrong. Maybe the player didn't use a command correctly?
         // Send them a message with the exact command to make sure
         if (!AdminHelpPage.sendRelevantHelpMessage(sender, args)) {
-            Lang.sendTo(sender, Lang.ADMIN_COMMAND_ERROR.toString()
-                    .replace("%cmd%", "/" + cmd.getLabel() + " " + (args.length == 0 ? "" : StringUtil.combineSplit(0, args, " "))));
+            Lang.sendTo(sender, Lang.ADMIN_COMMAND_ERROR.replace("%cmd%", "/" + cmd.getLabel() + " " + (args.length == 0 ? "" : StringUtil.combineSplit(0, args, " "))));
         }
         return true;
     }
@@ -17,6 +17,7 @@
 
 package com.dsh105.echopet.commands;
 
+import com.dsh105.dshutils.logger.Logger;
 import com.dsh105.dshutils.util.StringUtil;
 import com.dsh105.echopet.compat.api.entity.IPet;
 import com.dsh105.echopet.compat.api.entity.PetData;
@@ -25,7 +26,6 @@ import com.dsh105.echopet.compat.api.plugin.EchoPet;
 import com.dsh105.echopet.compat.api.plugin.PetStorage;
 import com.dsh105.echopet.compat.api.util.*;
 import com.dsh105.echopet.compat.api.util.fanciful.FancyMessage;
-import com.dsh105.echopet.compat.api.util.menu.MenuOption;
 import com.dsh105.echopet.compat.api.util.menu.PetMenu;
 import com.dsh105.echopet.compat.api.util.menu.SelectorLayout;
 import com.dsh105.echopet.compat.api.util.menu.SelectorMenu;
@@ -35,6 +35,8 @@ import com.dsh105.echopet.compat.api.util.protocol.wrapper.WrapperPacketNamedEnt
 import com.dsh105.echopet.compat.api.util.protocol.wrapper.WrapperPacketPlayOutChat;
 import com.dsh105.echopet.compat.api.util.protocol.wrapper.WrapperPacketWorldParticles;
 import com.dsh105.echopet.conversation.NameFactory;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
 import org.bukkit.ChatColor;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
@@ -45,6 +47,7 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 public class PetCommand implements CommandExecutor {
 
@@ -66,7 +69,7 @@ public class PetCommand implements CommandExecutor {
     public boolean onCommand(CommandSender sender, Command cmd, String cmdLabel, String[] args) {
         if (args.length == 0) {
             if (Perm.BASE.hasPerm(sender, true, true)) {
-                Lang.sendTo(sender, Lang.HELP.toString().replace("%cmd%", "pet help"));
+                Lang.sendTo(sender, Lang.HELP.replace("%cmd%", "pet help"));
                 return true;
             } else return true;
 
@@ -97,9 +100,7 @@ public class PetCommand implements CommandExecutor {
                             return true;
                         }
                         pet.getRider().setPetName(name);
-                        Lang.sendTo(sender, Lang.NAME_RIDER.toString()
-                                .replace("%type%", StringUtil.capitalise(pet.getPetType().toString().replace("_", " ")))
-                                .replace("%name%", name));
+                        Lang.sendTo(sender, Lang.NAME_RIDER.replace("%type%", StringUtil.capitalise(pet.getPetType().toString().replace("_", " ")), "%name%", name));
                     }
                     return true;
                 } else {
@@ -112,9 +113,7 @@ public class PetCommand implements CommandExecutor {
                             return true;
                         }
                         pet.setPetName(name);
-                        Lang.sendTo(sender, Lang.NAME_PET.toString()
-                                .replace("%type%", StringUtil.capitalise(pet.getPetType().toString().replace("_", " ")))
-                                .replace("%name%", name));
+                        Lang.sendTo(sender, Lang.NAME_PET.replace("%type%", StringUtil.capitalise(pet.getPetType().toString().replace("_", " ")), "%name%", name));
                     }
                     return true;
                 }
@@ -218,24 +217,11 @@ public class PetCommand implements CommandExecutor {
                     IPet p = EchoPet.getManager().getPet(player);
                     if (p == null) {
                         EchoPet.getManager().removePet(p, true);
-                        IPet pet = EchoPet.getManager().loadPets(player, false, false, false);
-                        if (pet == null) {
-                            Lang.sendTo(sender, Lang.NO_HIDDEN_PET.toString());
-                            return true;
-                        }
-                        if (WorldUtil.allowPets(player.getLocation())) {
-                            Lang.sendTo(sender, Lang.SHOW_PET.toString().replace("%type%", StringUtil.capitalise(pet.getPetType().toString())));
-                            return true;
-                        } else {
-                            Lang.sendTo(sender, Lang.PETS_DISABLED_HERE.toString().replace("%world%", player.getWorld().getName()));
-                            if (pet != null) {
-                                EchoPet.getManager().removePet(pet, true);
-                            }
-                            return true;
-                        }
+                        this.showHiddenPet(player);
+                        return true;
                     } else {
                         EchoPet.getManager().saveFileData("autosave", p);
-                        EchoPet.getSqlManager().saveToDatabase(p, false);
+                        EchoPet.getAsyncSqlManager().saveToDatabase(p);
                         EchoPet.getManager().removePet(p, true);
                         Lang.sendTo(sender, Lang.HIDE_PET.toString());
                     }
@@ -250,7 +236,7 @@ public class PetCommand implements CommandExecutor {
                         return true;
                     }
                     EchoPet.getManager().saveFileData("autosave", pet);
-                    EchoPet.getSqlManager().saveToDatabase(pet, false);
+                    EchoPet.getAsyncSqlManager().saveToDatabase(pet);
                     EchoPet.getManager().removePet(pet, true);
                     Lang.sendTo(sender, Lang.HIDE_PET.toString());
                     return true;
@@ -259,21 +245,8 @@ public class PetCommand implements CommandExecutor {
                 if (Perm.BASE_SHOW.hasPerm(sender, true, false)) {
                     Player player = (Player) sender;
                     EchoPet.getManager().removePets(player, true);
-                    IPet pet = EchoPet.getManager().loadPets(player, false, false, false);
-                    if (pet == null) {
-                        Lang.sendTo(sender, Lang.NO_HIDDEN_PET.toString());
-                        return true;
-                    }
-                    if (WorldUtil.allowPets(player.getLocation())) {
-                        Lang.sendTo(sender, Lang.SHOW_PET.toString().replace("%type%", StringUtil.capitalise(pet.getPetType().toString())));
-                        return true;
-                    } else {
-                        Lang.sendTo(sender, Lang.PETS_DISABLED_HERE.toString().replace("%world%", player.getWorld().getName()));
-                        if (pet != null) {
-                            EchoPet.getManager().removePet(pet, true);
-                        }
-                        return true;
-                    }
+                    this.showHiddenPet(player);
+                    return true;
                 } else return true;
             } else if (args[0].equalsIgnoreCase("menu")) {
                 if (Perm.BASE_MENU.hasPerm(sender, true, false)) {
@@ -283,9 +256,7 @@ public class PetCommand implements CommandExecutor {
                         Lang.sendTo(sender, Lang.NO_PET.toString());
                         return true;
                     }
-                    ArrayList<MenuOption> options = MenuUtil.createOptionList(p.getPetType());
-                    int size = p.getPetType() == PetType.HORSE ? 18 : 9;
-                    PetMenu menu = new PetMenu(p, options, size);
+                    PetMenu menu = new PetMenu(p);
                     menu.open(true);
                     return true;
                 } else return true;
@@ -382,15 +353,14 @@ public class PetCommand implements CommandExecutor {
                         return true;
                     }
                     EchoPet.getManager().clearFileData("autosave", pi);
-                    EchoPet.getSqlManager().clearFromDatabase(pi.getOwner());
+                    EchoPet.getAsyncSqlManager().clearFromDatabase(pi.getOwner());
                     EchoPet.getManager().removePet(pi, true);
                     Lang.sendTo(sender, Lang.REMOVE_PET.toString());
                     return true;
                 } else return true;
             } else {
                 if (!(sender instanceof Player)) {
-                    Lang.sendTo(sender, Lang.IN_GAME_ONLY.toString()
-                            .replace("%cmd%", "/" + cmd.getLabel() + " " + (args.length == 0 ? "" : StringUtil.combineSplit(0, args, " "))));
+                    Lang.sendTo(sender, Lang.IN_GAME_ONLY.replace("%cmd%", "/" + cmd.getLabel() + " " + (args.length == 0 ? "" : StringUtil.combineSplit(0, args, " "))));
                     return true;
                 }
 
@@ -423,9 +393,8 @@ public class PetCommand implements CommandExecutor {
                         }
                     }
                     EchoPet.getManager().saveFileData("autosave", pi);
-                    EchoPet.getSqlManager().saveToDatabase(pi, false);
-                    Lang.sendTo(sender, Lang.CREATE_PET.toString()
-                            .replace("%type%", StringUtil.capitalise(petType.toString().replace("_", ""))));
+                    EchoPet.getAsyncSqlManager().saveToDatabase(pi);
+                    Lang.sendTo(sender, Lang.CREATE_PET.replace("%type%", StringUtil.capitalise(petType.toString().replace("_", ""))));
                     return true;
                 } else return true;
             }
@@ -445,14 +414,13 @@ public class PetCommand implements CommandExecutor {
                         }
                         pi.removeRider();
                         EchoPet.getManager().saveFileData("autosave", pi);
-                        EchoPet.getSqlManager().saveToDatabase(pi, false);
+                        EchoPet.getAsyncSqlManager().saveToDatabase(pi);
                         Lang.sendTo(sender, Lang.REMOVE_RIDER.toString());
                         return true;
                     } else return true;
                 } else {
                     if (!(sender instanceof Player)) {
-                        Lang.sendTo(sender, Lang.IN_GAME_ONLY.toString()
-                                .replace("%cmd%", "/" + cmd.getLabel() + " " + (args.length == 0 ? "" : StringUtil.combineSplit(0, args, " "))));
+                        Lang.sendTo(sender, Lang.IN_GAME_ONLY.replace("%cmd%", "/" + cmd.getLabel() + " " + (args.length == 0 ? "" : StringUtil.combineSplit(0, args, " "))));
                         return true;
                     }
 
@@ -475,8 +443,7 @@ public class PetCommand implements CommandExecutor {
                     }
 
                     if (!EchoPet.getOptions().allowRidersFor(petType)) {
-                        Lang.sendTo(sender, Lang.RIDERS_DISABLED.toString()
-                                .replace("%type%", StringUtil.capitalise(petType.toString().replace("_", " "))));
+                        Lang.sendTo(sender, Lang.RIDERS_DISABLED.replace("%type%", StringUtil.capitalise(petType.toString().replace("_", " "))));
                         return true;
                     }
 
@@ -498,9 +465,8 @@ public class PetCommand implements CommandExecutor {
                             }
                         }
                         EchoPet.getManager().saveFileData("autosave", pi);
-                        EchoPet.getSqlManager().saveToDatabase(pi, false);
-                        Lang.sendTo(sender, Lang.CHANGE_RIDER.toString()
-                                .replace("%type%", StringUtil.capitalise(petType.toString().replace("_", ""))));
+                        EchoPet.getAsyncSqlManager().saveToDatabase(pi);
+                        Lang.sendTo(sender, Lang.CHANGE_RIDER.replace("%type%", StringUtil.capitalise(petType.toString().replace("_", ""))));
                         return true;
                     } else return true;
                 }
@@ -515,7 +481,7 @@ public class PetCommand implements CommandExecutor {
                             sender.sendMessage(ChatColor.RED + "------------ EchoPet Help " + args[1] + "/" + paginator.getIndex() + " ------------");
                             sender.sendMessage(ChatColor.RED + "Key: <> = Required      [] = Optional");
                             if (Integer.parseInt(args[1]) > paginator.getIndex()) {
-                                Lang.sendTo(sender, Lang.HELP_INDEX_TOO_BIG.toString().replace("%index%", args[1]));
+                                Lang.sendTo(sender, Lang.HELP_INDEX_TOO_BIG.replace("%index%", args[1]));
                                 return true;
                             }
                             for (FancyMessage fancy : paginator.getPage(Integer.parseInt(args[1]))) {
@@ -558,7 +524,7 @@ public class PetCommand implements CommandExecutor {
                         }
 
                         EchoPet.getManager().clearFileData("default", (Player) sender);
-                        EchoPet.getSqlManager().clearFromDatabase((Player) sender);
+                        EchoPet.getAsyncSqlManager().clearFromDatabase((Player) sender);
                         Lang.sendTo(sender, Lang.REMOVE_DEFAULT.toString());
                         return true;
                     } else return true;
@@ -612,10 +578,8 @@ public class PetCommand implements CommandExecutor {
                         }
                     }
                     EchoPet.getManager().saveFileData("autosave", pi);
-                    EchoPet.getSqlManager().saveToDatabase(pi, false);
-                    Lang.sendTo(sender, Lang.CREATE_PET_WITH_RIDER.toString()
-                            .replace("%type%", StringUtil.capitalise(petType.toString().replace("_", "")))
-                            .replace("%mtype%", StringUtil.capitalise(riderType.toString().replace("_", ""))));
+                    EchoPet.getAsyncSqlManager().saveToDatabase(pi);
+                    Lang.sendTo(sender, Lang.CREATE_PET_WITH_RIDER.replace("%type%", StringUtil.capitalise(petType.toString().replace("_", "")), "%mtype%", StringUtil.capitalise(riderType.toString().replace("_", ""))));
                     return true;
                 } else return true;
             }
@@ -649,8 +613,7 @@ public class PetCommand implements CommandExecutor {
 
                         if (Perm.hasTypePerm(sender, true, Perm.BASE_DEFAULT_SET_PETTYPE, false, petType)) {
                             EchoPet.getManager().saveFileData("default", (Player) sender, UPD);
-                            Lang.sendTo(sender, Lang.SET_DEFAULT.toString()
-                                    .replace("%type%", StringUtil.capitalise(petType.toString().replace("_", ""))));
+                            Lang.sendTo(sender, Lang.SET_DEFAULT.replace("%type%", StringUtil.capitalise(petType.toString().replace("_", ""))));
                             return true;
                         } else return true;
                     }
@@ -679,9 +642,7 @@ public class PetCommand implements CommandExecutor {
 
                     if (Perm.hasTypePerm(sender, true, Perm.BASE_DEFAULT_SET_PETTYPE, false, petType) && Perm.hasTypePerm(sender, true, Perm.BASE_DEFAULT_SET_PETTYPE, false, petType)) {
                         EchoPet.getManager().saveFileData("default", (Player) sender, UPD, UMD);
-                        Lang.sendTo(sender, Lang.SET_DEFAULT_WITH_RIDER.toString()
-                                .replace("%type%", StringUtil.capitalise(petType.toString().replace("_", "")))
-                                .replace("%mtype%", StringUtil.capitalise(riderType.toString().replace("_", ""))));
+                        Lang.sendTo(sender, Lang.SET_DEFAULT_WITH_RIDER.replace("%type%", StringUtil.capitalise(petType.toString().replace("_", "")), "%mtype%", StringUtil.capitalise(riderType.toString().replace("_", ""))));
                         return true;
                     } else return true;
                 }
@@ -690,9 +651,34 @@ public class PetCommand implements CommandExecutor {
         // Something went wrong. Maybe the player didn't use a command correctly?
         // Send them a message with the exact command to make sure
         if (!HelpPage.sendRelevantHelpMessage(sender, args)) {
-            Lang.sendTo(sender, Lang.COMMAND_ERROR.toString()
-                    .replace("%cmd%", "/" + cmd.getLabel() + " " + (args.length == 0 ? "" : StringUtil.combineSplit(0, args, " "))));
+            Lang.sendTo(sender, Lang.COMMAND_ERROR.replace("%cmd%", "/" + cmd.getLabel() + " " + (args.length == 0 ? "" : StringUtil.combineSplit(0, args, " "))));
         }
         return true;
     }
+
+    /**
+     * Spawns the saved pet of a player again. Pets stored in the database are loaded without blocking the main thread.
+     */
+    private void showHiddenPet(final Player player) {
+        Futures.addCallback(EchoPet.getManager().loadPetsAsync(player, false, false, false), new FutureCallback<IPet>() {
+            @Override
+            public void onSuccess(IPet pet) {
+                if (pet == null) {
+                    Lang.sendTo(player, Lang.NO_HIDDEN_PET.toString());
+                    return;
+                }
+                if (WorldUtil.allowPets(player.getLocation())) {
+                    Lang.sendTo(player, Lang.SHOW_PET.replace("%type%", StringUtil.capitalise(pet.getPetType().toString())));
+                } else {
+                    Lang.sendTo(player, Lang.PETS_DISABLED_HERE.replace("%world%", player.getWorld().getName()));
+                    EchoPet.getManager().removePet(pet, true);
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {
+                Logger.log(Logger.LogLevel.SEVERE, "Failed to load the pet of " + player.getName() + ".", throwable instanceof Exception ? (Exception) throwable : new ExecutionException(throwable), true);
+            }
+        });
+    }
 }
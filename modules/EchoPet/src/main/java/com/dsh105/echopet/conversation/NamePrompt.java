@@ -36,7 +36,7 @@ public class NamePrompt extends StringPrompt {
 
     @Override
     public String getPromptText(ConversationContext conversationContext) {
-        return this.admin ? Lang.ADMIN_NAME_PET_PROMPT.toString().replace("%player%", pet.getNameOfOwner())
+        return this.admin ? Lang.ADMIN_NAME_PET_PROMPT.replace("%player%", pet.getNameOfOwner())
                 : Lang.NAME_PET_PROMPT.toString();
     }
 
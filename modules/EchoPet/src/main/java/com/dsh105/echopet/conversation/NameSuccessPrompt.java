@@ -44,16 +44,11 @@ public class NameSuccessPrompt extends MessagePrompt {
         String name = (String) context.getSessionData("name");
         boolean success = this.pet.setPetName(name, false);
         if (success) {
-            return this.admin ? Lang.ADMIN_NAME_PET.toString()
-                    .replace("%player%", this.pet.getNameOfOwner())
-                    .replace("%type%", StringUtil.capitalise(this.pet.getPetType().toString().replace("_", " ")))
-                    .replace("%name%", name)
-
-                    : Lang.NAME_PET.toString()
-                    .replace("%type%", StringUtil.capitalise(this.pet.getPetType().toString().replace("_", " ")))
-                    .replace("%name%", name);
+            String type = StringUtil.capitalise(this.pet.getPetType().toString().replace("_", " "));
+            return this.admin ? Lang.ADMIN_NAME_PET.replace("%player%", this.pet.getNameOfOwner(), "%type%", type, "%name%", name)
+                    : Lang.NAME_PET.replace("%type%", type, "%name%", name);
         } else {
-            return Lang.NAME_NOT_ALLOWED.toString().replace("%name%", name);
+            return Lang.NAME_NOT_ALLOWED.replace("%name%", name);
         }
     }
 }
\ No newline at end of file
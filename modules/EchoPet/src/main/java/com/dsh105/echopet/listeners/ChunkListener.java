@@ -17,25 +17,16 @@
 
 package com.dsh105.echopet.listeners;
 
-import com.dsh105.echopet.compat.api.entity.IEntityPet;
-import com.dsh105.echopet.compat.api.util.ReflectionUtil;
-import org.bukkit.entity.Entity;
+import com.dsh105.echopet.EchoPetPlugin;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.world.ChunkUnloadEvent;
 
 public class ChunkListener implements Listener {
 
-    @EventHandler
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onChunkUnload(ChunkUnloadEvent event) {
-        if (event.getChunk().getEntities().length > 0) {
-            for (int i = 0; i < event.getChunk().getEntities().length; i++) {
-                Entity e = event.getChunk().getEntities()[i];
-                if (ReflectionUtil.getEntityHandle(e) instanceof IEntityPet) {
-                    e.remove();
-                    event.setCancelled(true);
-                }
-            }
-        }
+        EchoPetPlugin.getManager().getLifecycle().onChunkUnload(event.getChunk());
     }
-}
\ No newline at end of file
+}
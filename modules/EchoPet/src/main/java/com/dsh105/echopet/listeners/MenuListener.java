@@ -21,10 +21,9 @@ import com.dsh105.dshutils.logger.Logger;
 import com.dsh105.dshutils.util.EnumUtil;
 import com.dsh105.echopet.compat.api.entity.IPet;
 import com.dsh105.echopet.compat.api.entity.PetData;
-import com.dsh105.echopet.compat.api.entity.PetType;
+import com.dsh105.echopet.compat.api.event.PetMenuOpenEvent;
 import com.dsh105.echopet.compat.api.plugin.EchoPet;
 import com.dsh105.echopet.compat.api.util.Lang;
-import com.dsh105.echopet.compat.api.util.MenuUtil;
 import com.dsh105.echopet.compat.api.util.ParticleUtil;
 import com.dsh105.echopet.compat.api.util.Perm;
 import com.dsh105.echopet.compat.api.util.menu.*;
@@ -37,6 +36,7 @@ import org.bukkit.event.Listener;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryType;
 import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
 import org.bukkit.scheduler.BukkitRunnable;
 
 public class MenuListener implements Listener {
@@ -44,35 +44,30 @@ public class MenuListener implements Listener {
     @EventHandler(priority = EventPriority.HIGHEST)
     public void onInventoryClick(InventoryClickEvent event) {
         Player player = (Player) event.getWhoClicked();
-        if (event.getView().getTitle().contains("EchoPet DataMenu")) {
-            event.setCancelled(true);
-        }
-
         Inventory inv = event.getInventory();
-
-        String title = event.getView().getTitle();
         int slot = event.getRawSlot();
 
-        try {
-            if (slot < 0 || slot >= inv.getSize() || inv.getItem(slot) == null) {
-                return;
+        if (event.getSlotType() == InventoryType.SlotType.RESULT) {
+            // Prevent the selector item from being used in crafting recipes
+            for (int i = 1; i <= 4 && i < inv.getSize(); i++) {
+                if (SelectorLayout.isSelectorItem(inv.getItem(i))) {
+                    player.updateInventory();
+                    event.setCancelled(true);
+                    break;
+                }
             }
-        } catch (Exception e) {
             return;
         }
 
-        if (event.getSlotType() == InventoryType.SlotType.RESULT) {
-            try {
-                for (int i = 1; i <= 4; i++) {
-                    if (inv.getItem(slot) != null && inv.getItem(i) != null && inv.getItem(i).isSimilar(SelectorLayout.getSelectorItem())) {
-                        player.updateInventory();
-                        event.setCancelled(true);
-                        break;
-                    }
-                }
-            } catch (Exception e) {
-                return;
-            }
+        InventoryHolder holder = inv.getHolder();
+        if (!(holder instanceof PetMenuHolder)) {
+            return;
+        }
+        event.setCancelled(true);
+        PetMenuHolder menu = (PetMenuHolder) holder;
+
+        if (slot < 0 || slot >= inv.getSize() || inv.getItem(slot) == null) {
+            return;
         }
 
         final IPet pet = EchoPet.getManager().getPet(player);
@@ -80,113 +75,86 @@ public class MenuListener implements Listener {
             return;
         }
 
-        int size = (title.equals("EchoPet DataMenu - Color") || pet.getPetType() == PetType.HORSE) ? 18 : 9;
-
-        if (slot <= size && inv.getItem(slot) != null) {
-
-            try {
-                if (title.equals("EchoPet DataMenu")) {
-                    if (inv.getItem(slot).equals(DataMenuItem.CLOSE.getItem())) {
-                        player.closeInventory();
-                        event.setCancelled(true);
-                        return;
-                    }
-                    for (MenuItem mi : MenuItem.values()) {
-                        if (inv.getItem(slot).equals(mi.getItem()) || inv.getItem(slot).equals(mi.getBoolean(true)) || inv.getItem(slot).equals(mi.getBoolean(false))) {
-                            if (mi.getMenuType() == DataMenuType.BOOLEAN) {
-                                if (EnumUtil.isEnumType(PetData.class, mi.toString().toUpperCase())) {
-                                    PetData pd = PetData.valueOf(mi.toString());
-                                    if (Perm.hasDataPerm(player, true, pet.getPetType(), pd, false)) {
-                                        if (pet.getPetData().contains(pd)) {
-                                            EchoPet.getManager().setData(pet, pd, false);
-                                            ParticleUtil.show(WrapperPacketWorldParticles.ParticleType.RED_SMOKE, pet.getLocation());
-                                        } else {
-                                            EchoPet.getManager().setData(pet, pd, true);
-                                            ParticleUtil.show(WrapperPacketWorldParticles.ParticleType.SPARKLE, pet.getLocation());
-                                        }
-                                    }
-                                } else {
-                                    if (mi.toString().equals("HAT")) {
-                                        if (Perm.hasTypePerm(player, true, Perm.BASE_HAT, false, pet.getPetType())) {
-                                            if (!pet.isHat()) {
-                                                pet.setAsHat(true);
-                                                Lang.sendTo(pet.getOwner(), Lang.HAT_PET_ON.toString());
-                                            } else {
-                                                pet.setAsHat(false);
-                                                Lang.sendTo(pet.getOwner(), Lang.HAT_PET_OFF.toString());
-                                            }
-                                        }
-                                    }
-                                    if (mi.toString().equals("RIDE")) {
-                                        if (Perm.hasTypePerm(player, true, Perm.BASE_RIDE, false, pet.getPetType())) {
-                                            if (!pet.isOwnerRiding()) {
-                                                pet.ownerRidePet(true);
-                                                inv.setItem(slot, mi.getBoolean(false));
-                                                Lang.sendTo(pet.getOwner(), Lang.RIDE_PET_ON.toString());
-                                            } else {
-                                                pet.ownerRidePet(false);
-                                                inv.setItem(slot, mi.getBoolean(true));
-                                                Lang.sendTo(pet.getOwner(), Lang.RIDE_PET_OFF.toString());
-                                            }
-                                        }
-                                    }
-                                }
+        try {
+            if (menu.getType() == PetMenuOpenEvent.MenuType.MAIN) {
+                if (menu.getDataMenuItem(slot) == DataMenuItem.CLOSE) {
+                    player.closeInventory();
+                    return;
+                }
+                MenuItem mi = menu.getMenuItem(slot);
+                if (mi == null) {
+                    return;
+                }
+                if (mi.getMenuType() == DataMenuType.BOOLEAN) {
+                    if (EnumUtil.isEnumType(PetData.class, mi.toString().toUpperCase())) {
+                        PetData pd = PetData.valueOf(mi.toString());
+                        if (Perm.hasDataPerm(player, true, pet.getPetType(), pd, false)) {
+                            if (pet.hasData(pd)) {
+                                EchoPet.getManager().setData(pet, pd, false);
+                                ParticleUtil.show(WrapperPacketWorldParticles.ParticleType.RED_SMOKE, pet.getLocation());
                             } else {
-                                player.closeInventory();
-                                class OpenMenu extends BukkitRunnable {
-
-                                    MenuItem mi;
-
-                                    public OpenMenu(MenuItem mi) {
-                                        this.mi = mi;
-                                        this.runTaskLater(EchoPet.getPlugin(), 1L);
-                                    }
-
-                                    @Override
-                                    public void run() {
-                                        DataMenu dm = new DataMenu(mi, pet);
-                                        dm.open(false);
-                                    }
-
-                                }
-
-                                new OpenMenu(mi);
+                                EchoPet.getManager().setData(pet, pd, true);
+                                ParticleUtil.show(WrapperPacketWorldParticles.ParticleType.SPARKLE, pet.getLocation());
                             }
                         }
-                    }
-                    event.setCancelled(true);
-                } else if (title.startsWith("EchoPet DataMenu - ")) {
-                    if (inv.getItem(slot).equals(DataMenuItem.BACK.getItem())) {
-                        player.closeInventory();
-                        event.setCancelled(true);
-                        new BukkitRunnable() {
-                            @Override
-                            public void run() {
-                                int size = pet.getPetType() == PetType.HORSE ? 18 : 9;
-                                PetMenu menu = new PetMenu(pet, MenuUtil.createOptionList(pet.getPetType()), size);
-                                menu.open(false);
+                    } else if (mi == MenuItem.HAT) {
+                        if (Perm.hasTypePerm(player, true, Perm.BASE_HAT, false, pet.getPetType())) {
+                            if (!pet.isHat()) {
+                                pet.setAsHat(true);
+                                Lang.sendTo(pet.getOwner(), Lang.HAT_PET_ON.toString());
+                            } else {
+                                pet.setAsHat(false);
+                                Lang.sendTo(pet.getOwner(), Lang.HAT_PET_OFF.toString());
                             }
-                        }.runTaskLater(EchoPet.getPlugin(), 1L);
-                        return;
-                    }
-                    for (DataMenuItem dmi : DataMenuItem.values()) {
-                        if (inv.getItem(slot).equals(dmi.getItem())) {
-                            PetData pd = dmi.getDataLink();
-                            if (Perm.hasDataPerm(player, true, pet.getPetType(), pd, false)) {
-                                EchoPet.getManager().setData(pet, pd, true);
+                        }
+                    } else if (mi == MenuItem.RIDE) {
+                        if (Perm.hasTypePerm(player, true, Perm.BASE_RIDE, false, pet.getPetType())) {
+                            if (!pet.isOwnerRiding()) {
+                                pet.ownerRidePet(true);
+                                inv.setItem(slot, mi.getBoolean(false));
+                                Lang.sendTo(pet.getOwner(), Lang.RIDE_PET_ON.toString());
+                            } else {
+                                pet.ownerRidePet(false);
+                                inv.setItem(slot, mi.getBoolean(true));
+                                Lang.sendTo(pet.getOwner(), Lang.RIDE_PET_OFF.toString());
                             }
                         }
                     }
-                    event.setCancelled(true);
+                } else {
+                    player.closeInventory();
+                    final MenuItem dataMenu = mi;
+                    new BukkitRunnable() {
+                        @Override
+                        public void run() {
+                            DataMenu dm = new DataMenu(dataMenu, pet);
+                            dm.open(false);
+                        }
+                    }.runTaskLater(EchoPet.getPlugin(), 1L);
+                }
+            } else if (menu.getType() == PetMenuOpenEvent.MenuType.DATA) {
+                DataMenuItem dmi = menu.getDataMenuItem(slot);
+                if (dmi == DataMenuItem.BACK) {
+                    player.closeInventory();
+                    new BukkitRunnable() {
+                        @Override
+                        public void run() {
+                            PetMenu petMenu = new PetMenu(pet);
+                            petMenu.open(false);
+                        }
+                    }.runTaskLater(EchoPet.getPlugin(), 1L);
+                    return;
+                }
+                if (dmi != null && dmi.getDataLink() != null) {
+                    PetData pd = dmi.getDataLink();
+                    if (Perm.hasDataPerm(player, true, pet.getPetType(), pd, false)) {
+                        EchoPet.getManager().setData(pet, pd, true);
+                    }
                 }
-            } catch (IllegalArgumentException e) {
-                Logger.log(Logger.LogLevel.SEVERE, "Encountered severe error whilst handling InventoryClickEvent.", e, true);
-                event.setCancelled(true);
-            } catch (IllegalStateException e) {
-                Logger.log(Logger.LogLevel.SEVERE, "Encountered severe error whilst handling InventoryClickEvent.", e, true);
-                event.setCancelled(true);
             }
-
+        } catch (IllegalArgumentException e) {
+            Logger.log(Logger.LogLevel.SEVERE, "Encountered severe error whilst handling InventoryClickEvent.", e, true);
+        } catch (IllegalStateException e) {
+            Logger.log(Logger.LogLevel.SEVERE, "Encountered severe error whilst handling InventoryClickEvent.", e, true);
         }
     }
-}
\ No newline at end of file
+}
@@ -17,23 +17,29 @@
 
 package com.dsh105.echopet.listeners;
 
+import com.dsh105.dshutils.logger.Logger;
 import com.dsh105.dshutils.util.GeometryUtil;
 import com.dsh105.dshutils.util.StringUtil;
+import com.dsh105.echopet.EchoPetPlugin;
 import com.dsh105.echopet.compat.api.config.ConfigOptions;
 import com.dsh105.echopet.compat.api.entity.IEntityPacketPet;
 import com.dsh105.echopet.compat.api.entity.IEntityPet;
 import com.dsh105.echopet.compat.api.entity.IPet;
+import com.dsh105.echopet.compat.api.entity.PetEntityIds;
 import com.dsh105.echopet.compat.api.event.PetInteractEvent;
 import com.dsh105.echopet.compat.api.plugin.EchoPet;
+import com.dsh105.echopet.compat.api.plugin.uuid.UUIDMigration;
 import com.dsh105.echopet.compat.api.util.Lang;
-import com.dsh105.echopet.compat.api.util.ReflectionUtil;
 import com.dsh105.echopet.compat.api.util.WorldUtil;
 import com.dsh105.echopet.compat.api.util.menu.SelectorLayout;
 import com.dsh105.echopet.compat.api.util.menu.SelectorMenu;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
 import org.bukkit.ChatColor;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityDamageEvent;
 import org.bukkit.event.entity.PlayerDeathEvent;
@@ -43,6 +49,7 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.scheduler.BukkitRunnable;
 
 import java.util.Iterator;
+import java.util.concurrent.ExecutionException;
 
 public class PetOwnerListener implements Listener {
 
@@ -50,7 +57,7 @@ public class PetOwnerListener implements Listener {
     public void onPlayerInteract(PlayerInteractEvent event) {
         Player p = event.getPlayer();
         ItemStack itemStack = event.getItem();
-        if (itemStack != null && itemStack.isSimilar(SelectorLayout.getSelectorItem())) {
+        if (SelectorLayout.isSelectorItem(itemStack)) {
             new SelectorMenu().showTo(p);
             event.setCancelled(true);
         }
@@ -60,8 +67,9 @@ public class PetOwnerListener implements Listener {
     public void onPlayerInteractEntity(PlayerInteractEntityEvent event) {
         Player p = event.getPlayer();
         Entity e = event.getRightClicked();
-        if (ReflectionUtil.getEntityHandle(e) instanceof IEntityPet) {
-            IPet pet = ((IEntityPet) ReflectionUtil.getEntityHandle(e)).getPet();
+        IEntityPet entityPet = PetEntityIds.getEntityPet(e);
+        if (entityPet != null) {
+            IPet pet = entityPet.getPet();
             event.setCancelled(true);
             PetInteractEvent iEvent = new PetInteractEvent(pet, p, PetInteractEvent.Action.RIGHT_CLICK, false);
             EchoPet.getPlugin().getServer().getPluginManager().callEvent(iEvent);
@@ -84,11 +92,33 @@ public class PetOwnerListener implements Listener {
         }
     }
 
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerToggleSneak(PlayerToggleSneakEvent event) {
+        IPet pet = EchoPet.getManager().getPet(event.getPlayer());
+        while (pet != null) {
+            if (pet.getEntityPet() != null) {
+                pet.getEntityPet().setSneaking(event.isSneaking());
+            }
+            pet = pet.getRider();
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerToggleSprint(PlayerToggleSprintEvent event) {
+        IPet pet = EchoPet.getManager().getPet(event.getPlayer());
+        while (pet != null) {
+            if (pet.getEntityPet() != null) {
+                pet.getEntityPet().setSprinting(event.isSprinting());
+            }
+            pet = pet.getRider();
+        }
+    }
+
     @EventHandler
     public void onPlayerTeleport(final PlayerTeleportEvent event) {
         final Player p = event.getPlayer();
         final IPet pi = EchoPet.getManager().getPet(p);
-        Iterator<IPet> i = EchoPet.getManager().getPets().iterator();
+        Iterator<IPet> i = EchoPet.getManager().getPetsInWorld(event.getTo().getWorld()).iterator();
         while (i.hasNext()) {
             IPet pet = i.next();
             if (pet.getEntityPet() instanceof IEntityPacketPet && ((IEntityPacketPet) pet.getEntityPet()).hasInititiated()) {
@@ -99,29 +129,44 @@ public class PetOwnerListener implements Listener {
         }
         if (pi != null) {
             if (!WorldUtil.allowPets(event.getTo())) {
-                Lang.sendTo(p, Lang.PETS_DISABLED_HERE.toString().replace("%world%", StringUtil.capitalise(event.getTo().getWorld().getName())));
+                Lang.sendTo(p, Lang.PETS_DISABLED_HERE.replace("%world%", StringUtil.capitalise(event.getTo().getWorld().getName())));
                 EchoPet.getManager().saveFileData("autosave", pi);
-                EchoPet.getSqlManager().saveToDatabase(pi, false);
+                EchoPet.getAsyncSqlManager().saveToDatabase(pi);
                 EchoPet.getManager().removePet(pi, false);
             }
         }
     }
 
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onAsyncPlayerPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() == AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            EchoPetPlugin.getPreloader().preload(UUIDMigration.getIdentificationForAsString(event), event.getName());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerLogin(PlayerLoginEvent event) {
+        if (event.getResult() != PlayerLoginEvent.Result.ALLOWED) {
+            EchoPetPlugin.getPreloader().discard(UUIDMigration.getIdentificationForAsString(event.getPlayer()));
+        }
+    }
+
     @EventHandler
     public void onPlayerQuit(PlayerQuitEvent event) {
         Player p = event.getPlayer();
+        EchoPetPlugin.getPreloader().discard(UUIDMigration.getIdentificationForAsString(p));
         IPet pi = EchoPet.getManager().getPet(p);
         if (pi != null) {
             //ec.PH.saveFileData("autosave", pi);
             EchoPet.getManager().saveFileData("autosave", pi);
-            EchoPet.getSqlManager().saveToDatabase(pi, false);
+            EchoPet.getAsyncSqlManager().saveToDatabase(pi);
             EchoPet.getManager().removePet(pi, true);
         }
     }
 
     @EventHandler
     public void onDropItem(PlayerDropItemEvent event) {
-        if (event.getItemDrop().getItemStack().isSimilar(SelectorLayout.getSelectorItem()) && !(ConfigOptions.instance.getConfig().getBoolean("petSelector.allowDrop", true))) {
+        if (SelectorLayout.isSelectorItem(event.getItemDrop().getItemStack()) && !(ConfigOptions.instance.getConfig().getBoolean("petSelector.allowDrop", true))) {
             event.setCancelled(true);
         }
     }
@@ -136,7 +181,7 @@ public class PetOwnerListener implements Listener {
         }
 
         for (ItemStack item : inv.getContents()) {
-            if (item != null && item.isSimilar(SelectorLayout.getSelectorItem())) {
+            if (SelectorLayout.isSelectorItem(item)) {
                 inv.remove(item);
             }
         }
@@ -167,19 +212,28 @@ public class PetOwnerListener implements Listener {
             @Override
             public void run() {
                 if (p != null && p.isOnline()) {
-                    IPet pet = EchoPet.getManager().loadPets(p, true, sendMessage, false);
-                    if (pet != null) {
-                        if (EchoPet.getPlugin().getVanishProvider().isVanished(p)) {
-                            pet.getEntityPet().setShouldVanish(true);
-                            pet.getEntityPet().setInvisible(true);
+                    Futures.addCallback(EchoPetPlugin.getManager().loadPreloadedPets(p, sendMessage), new FutureCallback<IPet>() {
+                        @Override
+                        public void onSuccess(IPet pet) {
+                            if (pet != null && pet.getEntityPet() != null) {
+                                if (EchoPet.getPlugin().getVanishProvider().isVanished(p)) {
+                                    pet.getEntityPet().setShouldVanish(true);
+                                    pet.getEntityPet().setInvisible(true);
+                                }
+                            }
+                        }
+
+                        @Override
+                        public void onFailure(Throwable throwable) {
+                            Logger.log(Logger.LogLevel.SEVERE, "Failed to load the pet of " + p.getName() + ".", throwable instanceof Exception ? (Exception) throwable : new ExecutionException(throwable), true);
                         }
-                    }
+                    });
                 }
             }
 
         }.runTaskLater(EchoPet.getPlugin(), 20);
 
-        Iterator<IPet> i = EchoPet.getManager().getPets().iterator();
+        Iterator<IPet> i = EchoPet.getManager().getPetsInWorld(p.getWorld()).iterator();
         while (i.hasNext()) {
             IPet pet = i.next();
             if (pet.getEntityPet() instanceof IEntityPacketPet && ((IEntityPacketPet) pet.getEntityPet()).hasInititiated()) {
@@ -196,7 +250,7 @@ public class PetOwnerListener implements Listener {
         IPet pet = EchoPet.getManager().getPet(p);
         if (pet != null) {
             EchoPet.getManager().saveFileData("autosave", pet);
-            EchoPet.getSqlManager().saveToDatabase(pet, false);
+            EchoPet.getAsyncSqlManager().saveToDatabase(pet);
             EchoPet.getManager().removePet(pet, true);
             //p.sendMessage(Lang.REMOVE_PET_DEATH.toString());
         }
@@ -209,7 +263,7 @@ public class PetOwnerListener implements Listener {
             
             @Override
             public void run() {
-                EchoPet.getManager().loadPets(p, true, false, true);
+                EchoPet.getManager().loadPetsAsync(p, true, false, true);
             }
             
         }.runTaskLater(EchoPet.getPlugin(),20L);
@@ -221,13 +275,13 @@ public class PetOwnerListener implements Listener {
         final IPet pi = EchoPet.getManager().getPet(p);
         if (pi != null) {
             EchoPet.getManager().saveFileData("autosave", pi);
-            EchoPet.getSqlManager().saveToDatabase(pi, false);
+            EchoPet.getAsyncSqlManager().saveToDatabase(pi);
             EchoPet.getManager().removePet(pi, false);
             new BukkitRunnable() {
 
                 @Override
                 public void run() {
-                    EchoPet.getManager().loadPets(p, false, false, false);
+                    EchoPet.getManager().loadPetsAsync(p, false, false, false);
                 }
 
             }.runTaskLater(EchoPet.getPlugin(), 20L);
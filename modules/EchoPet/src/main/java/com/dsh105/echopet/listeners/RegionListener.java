@@ -21,6 +21,7 @@ import com.dsh105.echopet.compat.api.entity.IPet;
 import com.dsh105.echopet.compat.api.plugin.EchoPet;
 import com.dsh105.echopet.compat.api.util.Lang;
 import com.dsh105.echopet.compat.api.util.WorldUtil;
+import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
@@ -31,10 +32,16 @@ public class RegionListener implements Listener {
 
     @EventHandler
     public void onPlayerMove(PlayerMoveEvent event) {
+        Location from = event.getFrom();
+        Location to = event.getTo();
+        // Regions can only change when moving into another block
+        if (from.getBlockX() == to.getBlockX() && from.getBlockY() == to.getBlockY() && from.getBlockZ() == to.getBlockZ() && from.getWorld() == to.getWorld()) {
+            return;
+        }
         Player p = event.getPlayer();
         IPet pet = EchoPet.getManager().getPet(p);
         if (pet != null) {
-            if (!WorldUtil.allowRegion(event.getTo())) {
+            if (!WorldUtil.allowRegion(to)) {
                 EchoPet.getManager().removePet(pet, true);
                 Lang.sendTo(p, Lang.ENTER_PET_DISABLED_REGION.toString());
             }
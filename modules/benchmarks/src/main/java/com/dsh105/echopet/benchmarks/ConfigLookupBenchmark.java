@@ -0,0 +1,99 @@
+/*
+ * This file is part of EchoPet.
+ *
+ * EchoPet is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EchoPet is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EchoPet.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.dsh105.echopet.benchmarks;
+
+import com.dsh105.dshutils.config.YAMLConfig;
+import com.dsh105.echopet.compat.api.config.PetTypeSettings;
+import com.dsh105.echopet.compat.api.entity.PetData;
+import com.dsh105.echopet.compat.api.entity.PetType;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-pet-type configuration lookups, as made while pets tick and data is applied.
+ * <p/>
+ * Compares building the configuration path on every call against the {@link PetTypeSettings} snapshots that
+ * ConfigOptions hands out. ConfigOptions itself also builds menu items while it loads, which needs a running
+ * server, so its map of snapshots is built here the same way ConfigOptions#reloadPetTypeSettings builds it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfigLookupBenchmark {
+
+    private static final PetType[] TYPES = {PetType.HORSE, PetType.WOLF, PetType.SHEEP, PetType.OCELOT, PetType.MAGMACUBE, PetType.PIGZOMBIE};
+    private static final PetData[] DATA = {PetData.BABY, PetData.SADDLE, PetData.WHITE, PetData.RED, PetData.LIME};
+
+    private YAMLConfig config;
+    private Map<PetType, PetTypeSettings> settings;
+    private int index;
+
+    @Setup
+    public void setup() throws Exception {
+        YamlConfiguration yaml = new YamlConfiguration();
+        for (PetType type : TYPES) {
+            String path = PetTypeSettings.getPath(type);
+            yaml.set(path + ".enable", true);
+            yaml.set(path + ".rideSpeed", 0.25D);
+            for (PetData pd : PetData.values()) {
+                yaml.set(path + ".allow." + pd.getConfigOptionString(), pd != PetData.RED);
+            }
+        }
+        this.config = Stubs.config(yaml);
+
+        Map<PetType, PetTypeSettings> settings = new EnumMap<PetType, PetTypeSettings>(PetType.class);
+        for (PetType petType : PetType.values()) {
+            settings.put(petType, PetTypeSettings.load(this.config, petType));
+        }
+        this.settings = Collections.unmodifiableMap(settings);
+    }
+
+    @Benchmark
+    public boolean allowDataFromConfig() {
+        int i = this.index++;
+        return this.config.getBoolean(PetTypeSettings.getPath(TYPES[i % TYPES.length])
+                + ".allow." + DATA[i % DATA.length].getConfigOptionString(), true);
+    }
+
+    @Benchmark
+    public boolean allowDataFromSettings() {
+        int i = this.index++;
+        return this.settings.get(TYPES[i % TYPES.length]).isDataAllowed(DATA[i % DATA.length]);
+    }
+
+    @Benchmark
+    public float rideSpeedFromConfig() {
+        PetType type = TYPES[this.index++ % TYPES.length];
+        return (float) this.config.getDouble(PetTypeSettings.getPath(type) + ".rideSpeed", 0.25D);
+    }
+
+    @Benchmark
+    public float rideSpeedFromSettings() {
+        PetType type = TYPES[this.index++ % TYPES.length];
+        return this.settings.get(type).getRideSpeed();
+    }
+}
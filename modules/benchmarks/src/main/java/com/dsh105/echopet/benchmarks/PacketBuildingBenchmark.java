@@ -0,0 +1,111 @@
+/*
+ * This file is part of EchoPet.
+ *
+ * EchoPet is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EchoPet is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EchoPet.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.dsh105.echopet.benchmarks;
+
+import com.dsh105.echopet.compat.api.util.protocol.Packet;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building a particle packet by writing its fields reflectively, as WrapperPacketWorldParticles does.
+ * <p/>
+ * Packet classes are looked up from the server, so a stand-in with the same fields as the 1.7 particle packet is
+ * wrapped instead. Field accessors come from the same cache as those of real packets.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PacketBuildingBenchmark {
+
+    private int index;
+
+    @Benchmark
+    public Object buildPacket() {
+        float offset = this.index++ % 16;
+        Packet packet = new StandInPacket();
+        packet.write("a", "reddust");
+        packet.write("b", offset);
+        packet.write("c", 64F);
+        packet.write("d", offset);
+        packet.write("e", 0.5F);
+        packet.write("f", 0.5F);
+        packet.write("g", 0.5F);
+        packet.write("h", 1F);
+        packet.write("i", 40);
+        return packet.getPacketHandle();
+    }
+
+    /**
+     * Baseline: looking up each field again for every write, as packets were built before fields were cached
+     */
+    @Benchmark
+    public Object buildPacketLookingUpFields() throws Exception {
+        float offset = this.index++ % 16;
+        Object handle = WorldParticlesPacket.class.newInstance();
+        set(handle, "a", "reddust");
+        set(handle, "b", offset);
+        set(handle, "c", 64F);
+        set(handle, "d", offset);
+        set(handle, "e", 0.5F);
+        set(handle, "f", 0.5F);
+        set(handle, "g", 0.5F);
+        set(handle, "h", 1F);
+        set(handle, "i", 40);
+        return handle;
+    }
+
+    private static void set(Object handle, String fieldName, Object value) throws Exception {
+        Field field = handle.getClass().getDeclaredField(fieldName);
+        if (!field.isAccessible()) {
+            field.setAccessible(true);
+        }
+        field.set(handle, value);
+    }
+
+    private static class StandInPacket extends Packet {
+
+        StandInPacket() {
+            super(WorldParticlesPacket.class);
+        }
+    }
+
+    /**
+     * Same fields as PacketPlayOutWorldParticles
+     */
+    public static class WorldParticlesPacket {
+
+        private String a;
+        private float b;
+        private float c;
+        private float d;
+        private float e;
+        private float f;
+        private float g;
+        private float h;
+        private int i;
+
+        public WorldParticlesPacket() {
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * This file is part of EchoPet.
+ *
+ * EchoPet is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EchoPet is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EchoPet.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.dsh105.echopet.benchmarks;
+
+import com.dsh105.echopet.compat.api.util.ParticleDispatcher;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finding the recipients of a particle effect, compared against a scan of every player in the world
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParticleFanOutBenchmark {
+
+    private static final double RANGE = 50.0D;
+
+    @Param({"20", "200", "1000"})
+    public int players;
+
+    private ParticleDispatcher dispatcher;
+    private Player[] online;
+    private Location[] effects;
+    private List<Player> scanned;
+    private int index;
+
+    @Setup
+    public void setup() {
+        World world = Stubs.world("world");
+        Random random = new Random(0L);
+        this.online = new Player[this.players];
+        this.effects = new Location[this.players];
+        for (int i = 0; i < this.players; i++) {
+            double x = random.nextInt(2000) - 1000;
+            double z = random.nextInt(2000) - 1000;
+            this.online[i] = Stubs.player("Player" + i, world, x, 64, z);
+            this.effects[i] = new Location(world, x + 2, 64, z + 2);
+        }
+        final List<Player> onlineList = Arrays.asList(this.online);
+        // Generous cap, so the rate limit itself is measured rather than the packets it drops
+        this.dispatcher = new ParticleDispatcher(RANGE, Integer.MAX_VALUE) {
+            @Override
+            protected Collection<? extends Player> getOnlinePlayers() {
+                return onlineList;
+            }
+        };
+        this.scanned = new ArrayList<Player>();
+    }
+
+    private int next() {
+        if (++this.index >= this.players) {
+            this.index = 0;
+        }
+        return this.index;
+    }
+
+    @Benchmark
+    public List<Player> recipientsFromIndex() {
+        return this.dispatcher.getRecipients(this.effects[next()]);
+    }
+
+    /**
+     * Baseline: distance check against every player, as done by a scan of the world's entities
+     */
+    @Benchmark
+    public List<Player> recipientsByScan() {
+        Location l = this.effects[next()];
+        this.scanned.clear();
+        for (Player player : this.online) {
+            Location pl = player.getLocation();
+            if (pl.getWorld() == l.getWorld() && pl.distanceSquared(l) <= RANGE * RANGE) {
+                this.scanned.add(player);
+            }
+        }
+        return this.scanned;
+    }
+
+    @Benchmark
+    public boolean rateLimit() {
+        return this.dispatcher.tryAcquire(this.online[next()]);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * This file is part of EchoPet.
+ *
+ * EchoPet is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EchoPet is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EchoPet.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.dsh105.echopet.benchmarks;
+
+import com.dsh105.echopet.api.pet.type.SheepPet;
+import com.dsh105.echopet.compat.api.entity.IPet;
+import com.dsh105.echopet.compat.api.entity.PetData;
+import com.dsh105.echopet.compat.api.util.PetDataCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding of pet data for storage, and applying data to a pet
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PetDataBenchmark {
+
+    private static final PetData[] HORSE_DATA = {PetData.BABY, PetData.SADDLE, PetData.CHESTED, PetData.WHITE,
+            PetData.BLACKSPOT, PetData.DIAMOND, PetData.NORMAL};
+    private static final PetData[] COLOURS = {PetData.BLACK, PetData.WHITE, PetData.RED, PetData.BLUE, PetData.LIME};
+
+    private EnumSet<PetData> set;
+    private List<PetData> list;
+    private long encoded;
+    private long legacyEncoded;
+    private EnumSet<PetData> target;
+    private IPet pet;
+    private int colour;
+
+    @Setup
+    public void setup() {
+        this.set = EnumSet.noneOf(PetData.class);
+        this.list = new ArrayList<PetData>();
+        int legacy = 0;
+        for (PetData pd : HORSE_DATA) {
+            this.set.add(pd);
+            this.list.add(pd);
+            legacy |= 1 << pd.getId();
+        }
+        this.encoded = PetDataCodec.encode(this.set);
+        this.legacyEncoded = legacy;
+        this.target = EnumSet.noneOf(PetData.class);
+        // Without an owner nothing is spawned, but the pet's data is still tracked
+        this.pet = new SheepPet(null);
+        for (PetData pd : HORSE_DATA) {
+            this.pet.applyData(pd, true);
+        }
+    }
+
+    @Benchmark
+    public long encodeSet() {
+        return PetDataCodec.encode(this.set);
+    }
+
+    @Benchmark
+    public long encodeList() {
+        return PetDataCodec.encode(this.list);
+    }
+
+    @Benchmark
+    public EnumSet<PetData> decode() {
+        PetDataCodec.decodeInto(this.encoded, null, this.target);
+        return this.target;
+    }
+
+    @Benchmark
+    public EnumSet<PetData> decodeLegacy() {
+        PetDataCodec.decodeInto(this.legacyEncoded, null, this.target);
+        return this.target;
+    }
+
+    /**
+     * Applying a colour, which has to deactivate any other colour
+     */
+    @Benchmark
+    public IPet applyConflictingData() {
+        this.pet.applyData(COLOURS[this.colour++ % COLOURS.length], true);
+        return this.pet;
+    }
+
+    /**
+     * Baseline: the list scan over every active datum and its types that applying data used to perform
+     */
+    @Benchmark
+    public List<PetData> applyConflictingDataToList() {
+        PetData pd = COLOURS[this.colour++ % COLOURS.length];
+        for (int i = this.list.size() - 1; i >= 0; i--) {
+            PetData existing = this.list.get(i);
+            if (existing != pd) {
+                for (PetData.Type type : pd.getTypes()) {
+                    if (type != PetData.Type.BOOLEAN && existing.isType(type)) {
+                        this.list.remove(i);
+                        break;
+                    }
+                }
+            }
+        }
+        if (!this.list.contains(pd)) {
+            this.list.add(pd);
+        }
+        return this.list;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * This file is part of EchoPet.
+ *
+ * EchoPet is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EchoPet is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EchoPet.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.dsh105.echopet.benchmarks;
+
+import com.dsh105.echopet.compat.api.ai.PetGoal;
+import com.dsh105.echopet.compat.api.ai.PetGoalSelector;
+import com.dsh105.echopet.compat.api.ai.PetGoalType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The goal selection run by every pet on every tick
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PetGoalSelectorBenchmark {
+
+    private static final PetGoalType[] TYPES = {PetGoalType.ONE, PetGoalType.TWO, PetGoalType.FOUR, PetGoalType.THREE};
+
+    @Param({"3", "8"})
+    public int goals;
+
+    private PetGoalSelector selector;
+
+    @Setup
+    public void setup() {
+        this.selector = new PetGoalSelector();
+        for (int i = 0; i < this.goals; i++) {
+            // Every third goal toggles, so goals are regularly started and finished
+            this.selector.addGoal(new StubGoal("Goal" + i, TYPES[i % TYPES.length], i % 3 == 2), i);
+        }
+    }
+
+    @Benchmark
+    public PetGoalSelector updateGoals() {
+        this.selector.updateGoals();
+        return this.selector;
+    }
+
+    private static class StubGoal extends PetGoal {
+
+        private final String key;
+        private final PetGoalType type;
+        private final boolean toggles;
+        private boolean state = true;
+        private int ticks;
+
+        StubGoal(String key, PetGoalType type, boolean toggles) {
+            this.key = key;
+            this.type = type;
+            this.toggles = toggles;
+        }
+
+        @Override
+        public PetGoalType getType() {
+            return this.type;
+        }
+
+        @Override
+        public String getDefaultKey() {
+            return this.key;
+        }
+
+        @Override
+        public boolean shouldStart() {
+            if (this.toggles) {
+                this.state = !this.state;
+            }
+            return this.state;
+        }
+
+        @Override
+        public void tick() {
+            this.ticks++;
+        }
+    }
+}
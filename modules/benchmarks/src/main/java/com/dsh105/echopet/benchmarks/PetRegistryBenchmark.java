@@ -0,0 +1,104 @@
+/*
+ * This file is part of EchoPet.
+ *
+ * EchoPet is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EchoPet is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EchoPet.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.dsh105.echopet.benchmarks;
+
+import com.dsh105.echopet.api.PetRegistry;
+import com.dsh105.echopet.compat.api.entity.IPet;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups performed by listeners and commands for every event involving a pet or its owner
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PetRegistryBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int pets;
+
+    private PetRegistry registry;
+    private Player[] owners;
+    private Entity[] entities;
+    private World world;
+    private int index;
+
+    @Setup
+    public void setup() {
+        World[] worlds = {Stubs.world("world"), Stubs.world("world_nether"), Stubs.world("world_the_end")};
+        this.world = worlds[0];
+        this.registry = new PetRegistry();
+        this.owners = new Player[this.pets];
+        this.entities = new Entity[this.pets];
+        for (int i = 0; i < this.pets; i++) {
+            Player owner = Stubs.player("Player" + i, worlds[i % worlds.length], i * 16, 64, 0);
+            IPet pet = Stubs.pet(owner, 10000 + i);
+            this.registry.register(pet);
+            this.owners[i] = owner;
+            this.entities[i] = pet.getCraftPet();
+        }
+    }
+
+    private int next() {
+        if (++this.index >= this.pets) {
+            this.index = 0;
+        }
+        return this.index;
+    }
+
+    @Benchmark
+    public IPet getByOwner() {
+        return this.registry.getByOwner(this.owners[next()].getUniqueId());
+    }
+
+    @Benchmark
+    public IPet getByEntity() {
+        return this.registry.getByEntity(this.entities[next()]);
+    }
+
+    @Benchmark
+    public void iterateWorld(Blackhole blackhole) {
+        for (IPet pet : this.registry.getByWorld(this.world)) {
+            blackhole.consume(pet);
+        }
+    }
+
+    /**
+     * Baseline: the linear scan over all pets that the registry replaced
+     */
+    @Benchmark
+    public IPet scanByEntity() {
+        Entity entity = this.entities[next()];
+        for (IPet pet : this.registry.getPets()) {
+            if (pet.getCraftPet().getEntityId() == entity.getEntityId()) {
+                return pet;
+            }
+        }
+        return null;
+    }
+}
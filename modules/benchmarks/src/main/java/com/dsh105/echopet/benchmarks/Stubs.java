@@ -0,0 +1,167 @@
+/*
+ * This file is part of EchoPet.
+ *
+ * EchoPet is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EchoPet is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EchoPet.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.dsh105.echopet.benchmarks;
+
+import com.dsh105.dshutils.config.YAMLConfig;
+import com.dsh105.echopet.compat.api.entity.IEntityPet;
+import com.dsh105.echopet.compat.api.entity.IPet;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Creature;
+import org.bukkit.entity.Player;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Stand-ins for Bukkit and EchoPet interfaces, so that hot paths can be benchmarked without a running server.
+ * <p/>
+ * Each stand-in answers the methods it was given a value for and returns null, false or zero for everything else.
+ */
+public final class Stubs {
+
+    private Stubs() {
+    }
+
+    public static World world(String name) {
+        return stub(World.class, values()
+                .with("getName", name)
+                .with("getUID", UUID.nameUUIDFromBytes(name.getBytes())));
+    }
+
+    public static Player player(String name, World world, double x, double y, double z) {
+        UUID uuid = UUID.nameUUIDFromBytes(("player:" + name).getBytes());
+        return stub(Player.class, values()
+                .with("getName", name)
+                .with("getUniqueId", uuid)
+                .with("getEntityId", name.hashCode())
+                .with("getWorld", world)
+                .with("getLocation", new Location(world, x, y, z))
+                .with("isOnline", true));
+    }
+
+    public static Creature creature(int entityId, World world, double x, double y, double z) {
+        return stub(Creature.class, values()
+                .with("getEntityId", entityId)
+                .with("getWorld", world)
+                .with("getLocation", new Location(world, x, y, z)));
+    }
+
+    /**
+     * Creates a pet owned by the given player, with a living entity in the player's world
+     */
+    public static IPet pet(Player owner, int entityId) {
+        Location l = owner.getLocation();
+        return stub(IPet.class, values()
+                .with("getOwner", owner)
+                .with("getNameOfOwner", owner.getName())
+                .with("getOwnerUUID", owner.getUniqueId())
+                .with("getOwnerIdentification", owner.getUniqueId())
+                .with("getEntityPet", stub(IEntityPet.class, values()))
+                .with("getCraftPet", creature(entityId, owner.getWorld(), l.getX(), l.getY(), l.getZ()))
+                .with("getLocation", l)
+                .with("getPetName", owner.getName() + "'s Pet"));
+    }
+
+    /**
+     * Creates a configuration holding the given values. It is backed by a temporary file, but never saved.
+     */
+    public static YAMLConfig config(YamlConfiguration values) throws IOException {
+        File file = File.createTempFile("echopet-benchmark", ".yml");
+        file.deleteOnExit();
+        return new YAMLConfig(new ByteArrayInputStream(values.saveToString().getBytes("UTF-8")), file, 0, null);
+    }
+
+    public static Values values() {
+        return new Values();
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> T stub(Class<T> type, final Values values) {
+        return (T) Proxy.newProxyInstance(Stubs.class.getClassLoader(), new Class[]{type}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                String name = method.getName();
+                if (name.equals("equals") && args != null && args.length == 1) {
+                    return proxy == args[0];
+                }
+                if (name.equals("hashCode") && args == null) {
+                    return System.identityHashCode(proxy);
+                }
+                if (name.equals("toString") && args == null) {
+                    return "Stub" + values.map;
+                }
+                Object value = values.map.get(name);
+                if (value != null) {
+                    return value;
+                }
+                return defaultValue(method.getReturnType());
+            }
+        });
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) {
+            return null;
+        }
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == char.class) {
+            return (char) 0;
+        }
+        if (type == float.class) {
+            return 0F;
+        }
+        if (type == double.class) {
+            return 0D;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        return 0;
+    }
+
+    public static final class Values {
+
+        private final Map<String, Object> map = new HashMap<String, Object>();
+
+        private Values() {
+        }
+
+        public Values with(String methodName, Object value) {
+            this.map.put(methodName, value);
+            return this;
+        }
+    }
+}
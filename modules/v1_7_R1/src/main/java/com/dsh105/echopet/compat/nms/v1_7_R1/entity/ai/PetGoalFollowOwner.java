@@ -22,11 +22,9 @@ import com.dsh105.echopet.compat.api.ai.PetGoalType;
 import com.dsh105.echopet.compat.api.event.PetMoveEvent;
 import com.dsh105.echopet.compat.api.plugin.EchoPet;
 import com.dsh105.echopet.compat.nms.v1_7_R1.entity.EntityPet;
-import com.dsh105.echopet.compat.nms.v1_7_R1.entity.type.EntityGhastPet;
 import net.minecraft.server.v1_7_R1.EntityPlayer;
 import net.minecraft.server.v1_7_R1.GenericAttributes;
 import net.minecraft.server.v1_7_R1.Navigation;
-import net.minecraft.server.v1_7_R1.PathEntity;
 import org.bukkit.craftbukkit.v1_7_R1.entity.CraftPlayer;
 
 
@@ -122,15 +120,11 @@ public class PetGoalFollowOwner extends APetGoalFollowOwner {
             }
 
             if (pet.goalTarget == null) {
-                if (pet instanceof EntityGhastPet) {
-                    PathEntity path = pet.world.a(pet, pet.getPlayerOwner().getLocation().getBlockX(), pet.getPlayerOwner().getLocation().getBlockY() + 5, pet.getPlayerOwner().getLocation().getBlockZ(), (float) pet.getAttributeInstance(GenericAttributes.b).getValue(), true, false, false, true);
-                    pet.setPathEntity(path);
-                    nav.a(path, speed);
-                }
                 //Smooth path finding to entity instead of location
-                PathEntity path = pet.world.findPath(pet, owner, (float) pet.getAttributeInstance(GenericAttributes.b).getValue(), true, false, false, true);
-                pet.setPathEntity(path);
-                nav.a(path, speed);
+                if (!PetPathPlanner.get(pet.world).follow(pet, owner, (float) pet.getAttributeInstance(GenericAttributes.b).getValue(), speed)) {
+                    // Path planning budget used up for this tick - try again on the next one
+                    this.timer = 1;
+                }
             }
         }
     }
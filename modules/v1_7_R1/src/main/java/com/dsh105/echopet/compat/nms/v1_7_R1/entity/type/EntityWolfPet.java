@@ -49,7 +49,7 @@ public class EntityWolfPet extends EntityAgeablePet implements IEntityWolfPet {
     @Override
     public void setTamed(boolean flag) {
         if (isAngry() && flag) {
-            this.getPet().getPetData().remove(PetData.ANGRY);
+            this.getPet().applyData(PetData.ANGRY, false);
         }
 
         byte b0 = this.datawatcher.getByte(16);
@@ -64,7 +64,7 @@ public class EntityWolfPet extends EntityAgeablePet implements IEntityWolfPet {
     @Override
     public void setAngry(boolean flag) {
         if (isTamed() && flag) {
-            this.getPet().getPetData().remove(PetData.TAMED);
+            this.getPet().applyData(PetData.TAMED, false);
         }
 
         byte b0 = this.datawatcher.getByte(16);
@@ -17,7 +17,6 @@
 
 package com.dsh105.echopet.compat.nms.v1_7_R2.entity;
 
-import com.dsh105.dshutils.util.GeometryUtil;
 import com.dsh105.echopet.compat.api.entity.IEntityPacketPet;
 import com.dsh105.echopet.compat.api.entity.IPet;
 import com.dsh105.echopet.compat.api.util.ReflectionUtil;
@@ -26,12 +25,19 @@ import com.dsh105.echopet.compat.api.util.protocol.wrapper.WrappedGameProfile;
 import com.dsh105.echopet.compat.api.util.protocol.wrapper.WrapperPacketEntityMetadata;
 import com.dsh105.echopet.compat.api.util.protocol.wrapper.WrapperPacketNamedEntitySpawn;
 import com.dsh105.echopet.compat.api.reflection.SafeField;
+import net.minecraft.server.v1_7_R2.DataWatcher;
+import net.minecraft.server.v1_7_R2.EntityPlayer;
 import net.minecraft.server.v1_7_R2.World;
-import org.bukkit.Location;
-import org.bukkit.entity.Player;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
 
 public abstract class EntityPacketPet extends EntityPet implements IEntityPacketPet {
 
+    private static final double TRACKING_RANGE_SQUARED = 50 * 50;
+    private static final int TRACKING_INTERVAL = 10;
+
     protected WrappedDataWatcher customDataWatcher;
     protected byte entityStatus = 0;
     protected boolean initiated;
@@ -39,6 +45,10 @@ public abstract class EntityPacketPet extends EntityPet implements IEntityPacket
     protected WrappedGameProfile profile;
     protected int equipmentId = 0;
 
+    private String watchedName;
+    private final Set<EntityPlayer> viewers = new HashSet<EntityPlayer>();
+    private int trackingTicks;
+
     public EntityPacketPet(World world) {
         super(world);
     }
@@ -57,45 +67,101 @@ public abstract class EntityPacketPet extends EntityPet implements IEntityPacket
     @Override
     public void onLive() {
         super.onLive();
+        byte status;
         if (this.isInvisible()) {
-            this.entityStatus = 32;
+            status = 32;
         } else if (this.isSneaking()) {
-            this.entityStatus = 2;
+            status = 2;
         } else if (this.isSprinting()) {
-            this.entityStatus = 8;
+            status = 8;
         } else {
-            this.entityStatus = 0;
+            status = 0;
         }
         if (!this.initiated) {
+            this.entityStatus = status;
             this.init();
             this.initiated = true;
+            return;
+        }
+
+        boolean changed = false;
+        DataWatcher handle = (DataWatcher) this.customDataWatcher.getHandle();
+        if (status != this.entityStatus) {
+            this.entityStatus = status;
+            handle.watch(0, Byte.valueOf(status));
+            changed = true;
+        }
+        String name = this.pet.getPetName();
+        if (name != null && !name.equals(this.watchedName)) {
+            this.watchedName = name;
+            handle.watch(10, name);
+            changed = true;
+        }
+        if (changed) {
+            WrapperPacketEntityMetadata meta = this.getMetadataPacket();
+            for (EntityPlayer viewer : this.viewers) {
+                meta.send(viewer.getBukkitEntity());
+            }
+        }
+
+        if (++this.trackingTicks >= TRACKING_INTERVAL) {
+            this.trackingTicks = 0;
+            this.updateViewers();
         }
-        this.updateDatawatcher(this.pet.getPetName());
     }
 
     public abstract WrapperPacketNamedEntitySpawn getSpawnPacket();
 
     @Override
     public void updatePosition() {
-        WrapperPacketNamedEntitySpawn spawn = this.getSpawnPacket();
-        for (Player p : GeometryUtil.getNearbyPlayers(new Location(this.world.getWorld(), this.locX, this.locY, this.locZ), 50)) {
-            spawn.send(p);
+        // Resend everything to everyone in range
+        this.viewers.clear();
+        this.updateViewers();
+    }
+
+    /**
+     * Drops players that have left the tracking range and sends a full snapshot to those that have entered it
+     */
+    private void updateViewers() {
+        Iterator<EntityPlayer> i = this.viewers.iterator();
+        while (i.hasNext()) {
+            EntityPlayer viewer = i.next();
+            if (viewer.dead || viewer.world != this.world || !this.isInTrackingRange(viewer)) {
+                i.remove();
+            }
+        }
+
+        WrapperPacketNamedEntitySpawn spawn = null;
+        WrapperPacketEntityMetadata meta = null;
+        for (int j = 0; j < this.world.players.size(); j++) {
+            Object human = this.world.players.get(j);
+            if (!(human instanceof EntityPlayer)) {
+                continue;
+            }
+            EntityPlayer player = (EntityPlayer) human;
+            if (!player.dead && this.isInTrackingRange(player) && this.viewers.add(player)) {
+                if (spawn == null) {
+                    spawn = this.getSpawnPacket();
+                    meta = this.getMetadataPacket();
+                }
+                spawn.send(player.getBukkitEntity());
+                meta.send(player.getBukkitEntity());
+            }
         }
     }
 
-    private void updateDatawatcher(String name) {
-        customDataWatcher = new WrappedDataWatcher(this);
-        customDataWatcher.initiate(0, (Object) (byte) this.entityStatus);
-        customDataWatcher.initiate(1, (Object) (short) 0);
-        customDataWatcher.initiate(8, (Object) (byte) 0);
-        customDataWatcher.initiate(10, (Object) (String) name);
+    private boolean isInTrackingRange(EntityPlayer player) {
+        double dx = player.locX - this.locX;
+        double dy = player.locY - this.locY;
+        double dz = player.locZ - this.locZ;
+        return dx * dx + dy * dy + dz * dz <= TRACKING_RANGE_SQUARED;
+    }
+
+    private WrapperPacketEntityMetadata getMetadataPacket() {
         WrapperPacketEntityMetadata meta = new WrapperPacketEntityMetadata();
         meta.setEntityId(this.id);
-        meta.setMetadata(customDataWatcher);
-
-        for (Player p : GeometryUtil.getNearbyPlayers(new Location(this.world.getWorld(), this.locX, this.locY, this.locZ), 50)) {
-            meta.send(p);
-        }
+        meta.setMetadata(this.customDataWatcher);
+        return meta;
     }
 
     @Override
@@ -104,7 +170,12 @@ public abstract class EntityPacketPet extends EntityPet implements IEntityPacket
     }
 
     private void init() {
-        this.updateDatawatcher("Human Pet");
+        this.watchedName = this.pet.getPetName();
+        this.customDataWatcher = new WrappedDataWatcher(this);
+        this.customDataWatcher.initiate(0, (Object) (byte) this.entityStatus);
+        this.customDataWatcher.initiate(1, (Object) (short) 0);
+        this.customDataWatcher.initiate(8, (Object) (byte) 0);
+        this.customDataWatcher.initiate(10, (Object) (String) (this.watchedName == null ? "Human Pet" : this.watchedName));
         this.updatePosition();
     }
-}
\ No newline at end of file
+}
@@ -24,9 +24,7 @@ import com.dsh105.echopet.compat.api.event.PetAttackEvent;
 import com.dsh105.echopet.compat.api.event.PetRideJumpEvent;
 import com.dsh105.echopet.compat.api.event.PetRideMoveEvent;
 import com.dsh105.echopet.compat.api.plugin.EchoPet;
-import com.dsh105.echopet.compat.api.util.MenuUtil;
 import com.dsh105.echopet.compat.api.util.Perm;
-import com.dsh105.echopet.compat.api.util.menu.MenuOption;
 import com.dsh105.echopet.compat.api.util.menu.PetMenu;
 import com.dsh105.echopet.compat.nms.v1_7_R2.entity.ai.PetGoalFloat;
 import com.dsh105.echopet.compat.nms.v1_7_R2.entity.ai.PetGoalFollowOwner;
@@ -43,7 +41,6 @@ import org.bukkit.entity.Player;
 import org.bukkit.util.Vector;
 
 import java.lang.reflect.Field;
-import java.util.ArrayList;
 import java.util.Random;
 
 public abstract class EntityPet extends EntityCreature implements IAnimal, IEntityPet {
@@ -60,6 +57,34 @@ public abstract class EntityPet extends EntityCreature implements IAnimal, IEnti
     public EntityLiving goalTarget = null;
     public boolean shouldVanish;
 
+    protected final PetTickLod tickLod = new PetTickLod();
+    // Whether the AI and per-tick updates run on the current tick
+    protected boolean fullTick = true;
+    // Whether the pet is kept at full rate by its rider, owner or target, so its AI must not be deferred
+    protected boolean forcedFullTick;
+
+    private World indexedWorld;
+    private int indexedChunkX;
+    private int indexedChunkZ;
+
+    // Units of work run within the AI budget of the tick coordinator
+    private final Runnable goalWork = new Runnable() {
+        @Override
+        public void run() {
+            if (!dead) {
+                petGoalSelector.updateGoals();
+            }
+        }
+    };
+    private final Runnable liveWork = new Runnable() {
+        @Override
+        public void run() {
+            if (!dead) {
+                onLive();
+            }
+        }
+    };
+
     public EntityPet(World world) {
         super(world);
     }
@@ -71,6 +96,7 @@ public abstract class EntityPet extends EntityCreature implements IAnimal, IEnti
     }
 
     private void initiateEntityPet() {
+        PetEntityIds.add(this.getId());
         this.setSize();
         this.fireProof = true;
         if (this.FIELD_JUMP == null) {
@@ -86,6 +112,13 @@ public abstract class EntityPet extends EntityCreature implements IAnimal, IEnti
         this.jumpHeight = EchoPet.getOptions().getRideJumpHeight(this.getPet().getPetType());
         this.rideSpeed = EchoPet.getOptions().getRideSpeed(this.getPet().getPetType());
         this.setPathfinding();
+
+        // Afterwards kept in sync by the owner's events
+        Player owner = this.getPlayerOwner();
+        if (owner != null) {
+            this.setSneaking(owner.isSneaking());
+            this.setSprinting(owner.isSprinting());
+        }
     }
 
     public PetType getEntityPetType() {
@@ -148,6 +181,11 @@ public abstract class EntityPet extends EntityCreature implements IAnimal, IEnti
         return petGoalSelector;
     }
 
+    @Override
+    public PetTickLod getTickLod() {
+        return this.tickLod;
+    }
+
     @Override
     public boolean isDead() {
         return dead;
@@ -218,13 +256,16 @@ public abstract class EntityPet extends EntityCreature implements IAnimal, IEnti
     // Overriden from EntityInsentient - Most importantly overrides pathfinding selectors
     @Override
     protected void bm() {
+        if (!this.fullTick) {
+            return;
+        }
         ++this.aU;
 
         this.w();
 
         this.getEntitySenses().a();
 
-        this.petGoalSelector.updateGoals();
+        EchoPet.getTickCoordinator().submit(this.goalWork, this.forcedFullTick);
 
         this.getNavigation().f();
 
@@ -244,10 +285,8 @@ public abstract class EntityPet extends EntityCreature implements IAnimal, IEnti
     @Override
     public boolean a(EntityHuman human) {
         if (human.getBukkitEntity() == this.getPlayerOwner().getPlayer()) {
-            if (EchoPet.getConfig().getBoolean("pets." + this.getPet().getPetType().toString().toLowerCase().replace("_", " ") + ".interactMenu", true) && Perm.BASE_MENU.hasPerm(this.getPlayerOwner(), false, false)) {
-                ArrayList<MenuOption> options = MenuUtil.createOptionList(getPet().getPetType());
-                int size = this.getPet().getPetType() == PetType.HORSE ? 18 : 9;
-                PetMenu menu = new PetMenu(getPet(), options, size);
+            if (EchoPet.getOptions().getSettings(this.getPet().getPetType()).hasInteractMenu() && Perm.BASE_MENU.hasPerm(this.getPlayerOwner(), false, false)) {
+                PetMenu menu = new PetMenu(getPet());
                 menu.open(true);
             }
             return true;
@@ -271,6 +310,8 @@ public abstract class EntityPet extends EntityCreature implements IAnimal, IEnti
 
     @Override
     public void remove(boolean makeSound) {
+        EchoPet.getTickCoordinator().cancel(this.goalWork);
+        EchoPet.getTickCoordinator().cancel(this.liveWork);
         if (this.bukkitEntity != null) {
             bukkitEntity.remove();
         }
@@ -282,9 +323,20 @@ public abstract class EntityPet extends EntityCreature implements IAnimal, IEnti
         }
     }
 
+    // Entity
+    @Override
+    public void die() {
+        super.die();
+        PetEntityIds.remove(this.getId());
+        if (this.pet != null) {
+            PetChunkIndex.remove(this.pet);
+        }
+    }
+
     public void onLive() {
         if (this.pet == null) {
             this.remove(false);
+            return;
         }
 
         if (this.getPlayerOwner() == null || !this.getPlayerOwner().isOnline() || Bukkit.getPlayerExact(this.getPlayerOwner().getName()) == null) {
@@ -300,14 +352,6 @@ public abstract class EntityPet extends EntityCreature implements IAnimal, IEnti
             this.setInvisible(!this.isInvisible());
         }
 
-        if (((CraftPlayer) this.getPlayerOwner()).getHandle().isSneaking() != this.isSneaking()) {
-            this.setSneaking(!this.isSneaking());
-        }
-
-        if (((CraftPlayer) this.getPlayerOwner()).getHandle().isSprinting() != this.isSprinting()) {
-            this.setSprinting(!this.isSprinting());
-        }
-
         if (this.getPet().isHat()) {
 
             this.lastYaw = this.yaw = (this.getPet().getPetType() == PetType.ENDERDRAGON ? this.getPlayerOwner().getLocation().getYaw() - 180 : this.getPlayerOwner().getLocation().getYaw());
@@ -449,9 +493,61 @@ public abstract class EntityPet extends EntityCreature implements IAnimal, IEnti
     // Entity
     @Override
     public void h() {
+        this.fullTick = this.updateTickLevel();
         super.h();
-        //this.C();
-        onLive();
+        this.updateChunkIndex();
+        if (this.fullTick) {
+            EchoPet.getTickCoordinator().submit(this.liveWork, this.forcedFullTick);
+        }
+    }
+
+    private void updateChunkIndex() {
+        if (this.pet == null || this.pet.isRider() || this.dead) {
+            return;
+        }
+        int chunkX = MathHelper.floor(this.locX) >> 4;
+        int chunkZ = MathHelper.floor(this.locZ) >> 4;
+        if (this.world != this.indexedWorld || chunkX != this.indexedChunkX || chunkZ != this.indexedChunkZ) {
+            this.indexedWorld = this.world;
+            this.indexedChunkX = chunkX;
+            this.indexedChunkZ = chunkZ;
+            PetChunkIndex.update(this.pet, this.world.getWorld(), chunkX, chunkZ);
+        }
+    }
+
+    private boolean updateTickLevel() {
+        this.forcedFullTick = this.pet != null && (this.passenger != null || this.pet.isHat() || this.pet.isOwnerRiding() || this.goalTarget != null);
+        if (this.forcedFullTick) {
+            this.tickLod.forceFull(1);
+        } else if (this.tickLod.isEvaluationDue()) {
+            this.tickLod.evaluate(this.getNearestViewerDistanceSquared());
+        }
+        return this.tickLod.tick();
+    }
+
+    protected double getNearestViewerDistanceSquared() {
+        if (!(this.world instanceof WorldServer)) {
+            return -1.0D;
+        }
+        EntityTrackerEntry entry = (EntityTrackerEntry) ((WorldServer) this.world).tracker.trackedEntities.get(this.getId());
+        if (entry == null) {
+            return -1.0D;
+        }
+        double nearest = -1.0D;
+        for (Object viewer : entry.trackedPlayers) {
+            double distance = this.e((Entity) viewer);
+            if (nearest < 0 || distance < nearest) {
+                nearest = distance;
+            }
+        }
+        return nearest;
+    }
+
+    // Entity
+    @Override
+    public boolean damageEntity(DamageSource damageSource, float damage) {
+        this.tickLod.forceFull(PetTickLod.DAMAGE_FULL_TICKS);
+        return super.damageEntity(damageSource, damage);
     }
 
     // EntityLiving
@@ -0,0 +1,163 @@
+/*
+ * This file is part of EchoPet.
+ *
+ * EchoPet is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EchoPet is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EchoPet.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.dsh105.echopet.compat.nms.v1_7_R2.entity.ai;
+
+import com.dsh105.echopet.compat.api.ai.PetPathPlanning;
+import com.dsh105.echopet.compat.nms.v1_7_R2.entity.EntityPet;
+import net.minecraft.server.v1_7_R2.*;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Plans the paths of pets following their owners in a single world.
+ * <p/>
+ * Paths are cached per owner and handed to any pet of that owner close enough to the path, until the owner moves
+ * away from where it was planned. Searches are limited by a per-tick budget on the total length of planned paths.
+ * Planners do not reference their world, so that it can be collected once unloaded.
+ */
+public class PetPathPlanner {
+
+    private static final Map<World, PetPathPlanner> PLANNERS = new WeakHashMap<World, PetPathPlanner>();
+
+    public static PetPathPlanner get(World world) {
+        PetPathPlanner planner = PLANNERS.get(world);
+        if (planner == null) {
+            planner = new PetPathPlanner();
+            PLANNERS.put(world, planner);
+        }
+        return planner;
+    }
+
+    private final Map<EntityPlayer, CachedPath> paths = new WeakHashMap<EntityPlayer, CachedPath>();
+    private int budgetTick = -1;
+    private int budgetUsed;
+
+    private PetPathPlanner() {
+    }
+
+    /**
+     * Sets a pet on a path to its owner
+     *
+     * @param pet   pet to move
+     * @param owner owner to move to
+     * @param range pathfinding range
+     * @param speed speed to move at
+     * @return false if the budget for this tick has been used up and the request should be retried on a later tick
+     */
+    public boolean follow(EntityPet pet, EntityPlayer owner, float range, double speed) {
+        int tick = MinecraftServer.currentTick;
+        CachedPath cached = this.paths.get(owner);
+        if (cached != null && tick - cached.tick <= PetPathPlanning.MAX_PATH_AGE && cached.isCurrent(owner)) {
+            PathEntity path = cached.resumeFrom(pet);
+            if (path != null) {
+                PetPathPlanning.recordHit();
+                this.apply(pet, path, speed);
+                return true;
+            }
+        }
+
+        if (tick != this.budgetTick) {
+            this.budgetTick = tick;
+            this.budgetUsed = 0;
+        }
+        // The first search of each tick is always allowed, so long paths still get planned eventually
+        if (this.budgetUsed >= PetPathPlanning.PATH_LENGTH_BUDGET) {
+            PetPathPlanning.recordDeferred();
+            return false;
+        }
+
+        PathEntity path = pet.world.findPath(pet, owner, range, true, false, false, true);
+        // Nodes visited by the search are not exposed; failed searches are charged the full range
+        int pathLength = path == null ? (int) range : path.d();
+        this.budgetUsed += pathLength;
+        PetPathPlanning.recordSearch(pathLength);
+
+        if (path == null) {
+            this.paths.remove(owner);
+        } else {
+            this.paths.put(owner, new CachedPath(path, owner, tick));
+        }
+        this.apply(pet, path, speed);
+        return true;
+    }
+
+    private void apply(EntityPet pet, PathEntity path, double speed) {
+        pet.setPathEntity(path);
+        pet.getNavigation().a(path, speed);
+    }
+
+    private static class CachedPath {
+
+        private final PathPoint[] points;
+        private final double ownerX;
+        private final double ownerY;
+        private final double ownerZ;
+        private final int tick;
+
+        CachedPath(PathEntity path, EntityPlayer owner, int tick) {
+            this.points = new PathPoint[path.d()];
+            for (int i = 0; i < this.points.length; i++) {
+                this.points[i] = path.a(i);
+            }
+            this.ownerX = owner.locX;
+            this.ownerY = owner.locY;
+            this.ownerZ = owner.locZ;
+            this.tick = tick;
+        }
+
+        boolean isCurrent(EntityPlayer owner) {
+            double dx = owner.locX - this.ownerX;
+            double dy = owner.locY - this.ownerY;
+            double dz = owner.locZ - this.ownerZ;
+            return dx * dx + dy * dy + dz * dz <= PetPathPlanning.OWNER_MOVE_THRESHOLD_SQUARED;
+        }
+
+        /**
+         * Creates a new path over the cached points, starting at the point closest to an entity
+         *
+         * @return the path, or null if the entity is too far from the cached path
+         */
+        PathEntity resumeFrom(Entity entity) {
+            int x = MathHelper.floor(entity.locX);
+            int y = MathHelper.floor(entity.locY);
+            int z = MathHelper.floor(entity.locZ);
+            int closest = -1;
+            double closestDistance = PetPathPlanning.PATH_REUSE_DISTANCE_SQUARED;
+            for (int i = 0; i < this.points.length; i++) {
+                PathPoint point = this.points[i];
+                double dx = point.a - x;
+                double dy = point.b - y;
+                double dz = point.c - z;
+                double distance = dx * dx + dy * dy + dz * dz;
+                if (distance <= closestDistance) {
+                    closest = i;
+                    closestDistance = distance;
+                }
+            }
+            if (closest == -1 || closest >= this.points.length - 1) {
+                return null;
+            }
+            // PathEntity does not modify the points it is given, so they can be shared between pets
+            PathEntity path = new PathEntity(this.points);
+            path.c(closest);
+            return path;
+        }
+    }
+}